@@ -41,6 +41,7 @@ public class ClientConfigurator {
         }
         PodDBAdapter.init(context);
         UserPreferences.init(context);
+        PodDBAdapter.setWriteAheadLoggingEnabled(UserPreferences.isDatabaseWriteAheadLogging());
         SynchronizationCredentials.init(context);
         SynchronizationSettings.init(context);
         UsageStatistics.init(context);
@@ -13,6 +13,7 @@ import android.widget.ProgressBar;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.appcompat.widget.Toolbar;
 import androidx.core.util.Pair;
 import androidx.fragment.app.Fragment;
@@ -240,16 +241,19 @@ public abstract class EpisodesListFragment extends Fragment
 
     private void performMultiSelectAction(int actionItemId) {
         EpisodeMultiSelectActionHandler handler = new EpisodeMultiSelectActionHandler(getActivity(), actionItemId);
+        final FeedItem lastLoadedItem = getLastLoadedItem();
         Completable.fromAction(
                 () -> {
                     handler.handleAction(listAdapter.getSelectedItems());
                     if (listAdapter.shouldSelectLazyLoadedItems()) {
-                        int applyPage = page + 1;
+                        FeedItem lastItem = lastLoadedItem;
                         List<FeedItem> nextPage;
                         do {
-                            nextPage = loadMoreData(applyPage);
+                            nextPage = loadMoreData(lastItem);
                             handler.handleAction(nextPage);
-                            applyPage++;
+                            if (!nextPage.isEmpty()) {
+                                lastItem = nextPage.get(nextPage.size() - 1);
+                            }
                         } while (nextPage.size() == EPISODES_PER_PAGE);
                     }
                 })
@@ -281,7 +285,8 @@ public abstract class EpisodesListFragment extends Fragment
         isLoadingMore = true;
         listAdapter.setDummyViews(1);
         listAdapter.notifyItemInserted(listAdapter.getItemCount() - 1);
-        disposable = Observable.fromCallable(() -> loadMoreData(page))
+        final FeedItem lastItem = getLastLoadedItem();
+        disposable = Observable.fromCallable(() -> loadMoreData(lastItem))
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(
@@ -305,6 +310,11 @@ public abstract class EpisodesListFragment extends Fragment
                         });
     }
 
+    @Nullable
+    private FeedItem getLastLoadedItem() {
+        return episodes.isEmpty() ? null : episodes.get(episodes.size() - 1);
+    }
+
     @Override
     public void onDestroyView() {
         super.onDestroyView();
@@ -426,8 +436,13 @@ public abstract class EpisodesListFragment extends Fragment
     @NonNull
     protected abstract List<FeedItem> loadData();
 
+    /**
+     * Loads the page of episodes that follows the given item.
+     *
+     * @param lastItem The last item that is already loaded
+     */
     @NonNull
-    protected abstract List<FeedItem> loadMoreData(int page);
+    protected abstract List<FeedItem> loadMoreData(@Nullable FeedItem lastItem);
 
     protected abstract int loadTotalItemCount();
 
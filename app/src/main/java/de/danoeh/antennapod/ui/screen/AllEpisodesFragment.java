@@ -62,8 +62,8 @@ public class AllEpisodesFragment extends EpisodesListFragment {
 
     @NonNull
     @Override
-    protected List<FeedItem> loadMoreData(int page) {
-        return DBReader.getEpisodes((page - 1) * EPISODES_PER_PAGE, EPISODES_PER_PAGE, getFilter(),
+    protected List<FeedItem> loadMoreData(@Nullable FeedItem lastItem) {
+        return DBReader.getEpisodes(lastItem, EPISODES_PER_PAGE, getFilter(),
                 UserPreferences.getAllEpisodesSortOrder());
     }
 
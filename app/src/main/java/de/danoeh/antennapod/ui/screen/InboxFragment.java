@@ -102,8 +102,8 @@ public class InboxFragment extends EpisodesListFragment {
 
     @NonNull
     @Override
-    protected List<FeedItem> loadMoreData(int page) {
-        return DBReader.getEpisodes((page - 1) * EPISODES_PER_PAGE, EPISODES_PER_PAGE,
+    protected List<FeedItem> loadMoreData(@Nullable FeedItem lastItem) {
+        return DBReader.getEpisodes(lastItem, EPISODES_PER_PAGE,
                 new FeedItemFilter(FeedItemFilter.NEW), UserPreferences.getInboxSortedOrder());
     }
 
@@ -36,6 +36,7 @@ public class DownloadErrorLabel {
             case ERROR_NOT_FOUND: return R.string.download_error_not_found;
             case ERROR_CERTIFICATE: return R.string.download_error_certificate;
             case ERROR_PARSER_EXCEPTION_DUPLICATE: return R.string.download_error_parser_exception;
+            case SUCCESS_NOT_CHANGED: return R.string.download_not_changed;
             default:
                 if (BuildConfig.DEBUG) {
                     throw new IllegalArgumentException("No mapping from download error to label");
@@ -74,7 +74,12 @@ public class DownloadLogAdapter extends BaseAdapter {
             holder.icon.setImageResource(R.drawable.ic_check);
             holder.icon.setContentDescription(context.getString(R.string.download_successful));
             holder.secondaryActionButton.setVisibility(View.INVISIBLE);
-            holder.reason.setVisibility(View.GONE);
+            if (status.getReason() == DownloadError.SUCCESS_NOT_CHANGED) {
+                holder.reason.setText(DownloadErrorLabel.from(status.getReason()));
+                holder.reason.setVisibility(View.VISIBLE);
+            } else {
+                holder.reason.setVisibility(View.GONE);
+            }
             holder.tapForDetails.setVisibility(View.GONE);
         } else {
             if (status.getReason() == DownloadError.ERROR_PARSER_EXCEPTION_DUPLICATE) {
@@ -207,7 +207,8 @@ public class FeedItemlistFragment extends Fragment implements AdapterView.OnItem
             }
             EpisodeMultiSelectActionHandler handler
                     = new EpisodeMultiSelectActionHandler(getActivity(), menuItem.getItemId());
-            Completable.fromAction(() -> handleActionForAllSelectedItems(handler))
+            final FeedItem lastLoadedItem = getLastLoadedItem();
+            Completable.fromAction(() -> handleActionForAllSelectedItems(handler, lastLoadedItem))
                     .subscribeOn(Schedulers.io())
                     .observeOn(AndroidSchedulers.mainThread())
                     .subscribe(() -> adapter.endSelectMode(),
@@ -217,21 +218,32 @@ public class FeedItemlistFragment extends Fragment implements AdapterView.OnItem
         return viewBinding.getRoot();
     }
 
-    private void handleActionForAllSelectedItems(EpisodeMultiSelectActionHandler handler) {
+    private void handleActionForAllSelectedItems(EpisodeMultiSelectActionHandler handler,
+                                                 @Nullable FeedItem lastLoadedItem) {
         handler.handleAction(adapter.getSelectedItems());
         if (adapter.shouldSelectLazyLoadedItems()) {
-            int applyPage = page + 1;
+            FeedItem lastItem = lastLoadedItem;
             List<FeedItem> nextPage;
             do {
-                nextPage = loadMoreData(applyPage);
+                nextPage = loadMoreData(lastItem);
                 handler.handleAction(nextPage);
-                applyPage++;
+                if (!nextPage.isEmpty()) {
+                    lastItem = nextPage.get(nextPage.size() - 1);
+                }
             } while (nextPage.size() == EPISODES_PER_PAGE);
         }
     }
 
-    private List<FeedItem> loadMoreData(int page) {
-        Feed feed = DBReader.getFeed(feedID, true, (page - 1) * EPISODES_PER_PAGE, EPISODES_PER_PAGE);
+    @Nullable
+    private FeedItem getLastLoadedItem() {
+        if (feed == null || feed.getItems().isEmpty()) {
+            return null;
+        }
+        return feed.getItems().get(feed.getItems().size() - 1);
+    }
+
+    private List<FeedItem> loadMoreData(@Nullable FeedItem lastItem) {
+        Feed feed = DBReader.getFeed(feedID, true, lastItem, EPISODES_PER_PAGE);
         return feed != null ? feed.getItems() : Collections.emptyList();
     }
 
@@ -680,7 +692,8 @@ public class FeedItemlistFragment extends Fragment implements AdapterView.OnItem
         isLoadingMore = true;
         adapter.setDummyViews(1);
         adapter.notifyItemInserted(adapter.getItemCount() - 1);
-        disposable = Observable.fromCallable(() -> loadMoreData(page))
+        final FeedItem lastItem = getLastLoadedItem();
+        disposable = Observable.fromCallable(() -> loadMoreData(lastItem))
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(
@@ -24,7 +24,8 @@ public enum DownloadError {
     ERROR_UNSUPPORTED_TYPE_HTML(19),
     ERROR_NOT_FOUND(20),
     ERROR_CERTIFICATE(21),
-    ERROR_PARSER_EXCEPTION_DUPLICATE(22);
+    ERROR_PARSER_EXCEPTION_DUPLICATE(22),
+    SUCCESS_NOT_CHANGED(23);
 
     private final int code;
 
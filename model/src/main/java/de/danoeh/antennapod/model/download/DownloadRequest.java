@@ -17,6 +17,8 @@ public class DownloadRequest implements Parcelable {
     private String username;
     private String password;
     private String lastModified;
+    private String etag;
+    private long cacheExpires;
     private final long feedfileId;
     private final int feedfileType;
     private final Bundle arguments;
@@ -39,6 +41,8 @@ public class DownloadRequest implements Parcelable {
         this(in.readString(), in.readString(), in.readString(), in.readLong(), in.readInt(), in.readString(),
                 nullIfEmpty(in.readString()), nullIfEmpty(in.readString()), in.readByte() > 0,
                 in.readBundle(), in.readByte() > 0);
+        etag = in.readString();
+        cacheExpires = in.readLong();
     }
 
     public DownloadRequest(String destination, String source, String title, long feedfileId, int feedfileType,
@@ -80,6 +84,8 @@ public class DownloadRequest implements Parcelable {
         dest.writeByte((mediaEnqueued) ? (byte) 1 : 0);
         dest.writeBundle(arguments);
         dest.writeByte(initiatedByUser ? (byte) 1 : 0);
+        dest.writeString(etag);
+        dest.writeLong(cacheExpires);
     }
 
     private static String nonNullString(String str) {
@@ -110,6 +116,8 @@ public class DownloadRequest implements Parcelable {
 
         if (lastModified != null ? !lastModified.equals(that.lastModified) : that.lastModified != null)
             return false;
+        if (etag != null ? !etag.equals(that.etag) : that.etag != null) return false;
+        if (cacheExpires != that.cacheExpires) return false;
         if (feedfileId != that.feedfileId) return false;
         if (feedfileType != that.feedfileType) return false;
         if (progressPercent != that.progressPercent) return false;
@@ -136,6 +144,8 @@ public class DownloadRequest implements Parcelable {
         result = 31 * result + (username != null ? username.hashCode() : 0);
         result = 31 * result + (password != null ? password.hashCode() : 0);
         result = 31 * result + (lastModified != null ? lastModified.hashCode() : 0);
+        result = 31 * result + (etag != null ? etag.hashCode() : 0);
+        result = 31 * result + (int) (cacheExpires ^ (cacheExpires >>> 32));
         result = 31 * result + (int) (feedfileId ^ (feedfileId >>> 32));
         result = 31 * result + feedfileType;
         result = 31 * result + arguments.hashCode();
@@ -221,6 +231,27 @@ public class DownloadRequest implements Parcelable {
         return lastModified;
     }
 
+    public DownloadRequest setEtag(@Nullable String etag) {
+        this.etag = etag;
+        return this;
+    }
+
+    @Nullable
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Sets the time until which the server allows the response to be used without asking again.
+     */
+    public void setCacheExpires(long cacheExpires) {
+        this.cacheExpires = cacheExpires;
+    }
+
+    public long getCacheExpires() {
+        return cacheExpires;
+    }
+
     public Bundle getArguments() {
         return arguments;
     }
@@ -108,6 +108,14 @@ public class DownloadResult {
         this.reason = DownloadError.SUCCESS;
     }
 
+    /**
+     * The download was not needed because the data did not change since the last download.
+     */
+    public void setNotChanged() {
+        this.successful = true;
+        this.reason = DownloadError.SUCCESS_NOT_CHANGED;
+    }
+
     public void setFailed(DownloadError reason, String reasonDetailed) {
         this.successful = false;
         this.reason = reason;
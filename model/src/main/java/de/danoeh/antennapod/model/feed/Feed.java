@@ -24,6 +24,27 @@ public class Feed {
     public static final String PREFIX_LOCAL_FOLDER = "antennapod_local:";
     public static final String PREFIX_GENERATIVE_COVER = "antennapod_generative_cover:";
 
+    /* Fields reported by getChangedFields() */
+    public static final int FIELD_TITLE = 1;
+    public static final int FIELD_LINK = 1 << 1;
+    public static final int FIELD_DESCRIPTION = 1 << 2;
+    public static final int FIELD_PAYMENT_LINKS = 1 << 3;
+    public static final int FIELD_AUTHOR = 1 << 4;
+    public static final int FIELD_LANGUAGE = 1 << 5;
+    public static final int FIELD_IMAGE_URL = 1 << 6;
+    public static final int FIELD_FILE_URL = 1 << 7;
+    public static final int FIELD_DOWNLOAD_URL = 1 << 8;
+    public static final int FIELD_LAST_REFRESH_ATTEMPT = 1 << 9;
+    public static final int FIELD_LAST_MODIFIED = 1 << 10;
+    public static final int FIELD_TYPE = 1 << 11;
+    public static final int FIELD_FEED_IDENTIFIER = 1 << 12;
+    public static final int FIELD_STATE = 1 << 13;
+    public static final int FIELD_PAGED = 1 << 14;
+    public static final int FIELD_SORT_ORDER = 1 << 15;
+    public static final int FIELD_LAST_UPDATE_FAILED = 1 << 16;
+    public static final int FIELD_CACHE_EXPIRES = 1 << 17;
+    public static final int ALL_FIELDS = ~0;
+
     private long id;
     private String localFileUrl;
     private String downloadUrl;
@@ -55,9 +76,22 @@ public class Feed {
     private List<FeedItem> items;
 
     /**
-     * String that identifies the last update (adopted from Last-Modified or ETag header).
+     * Value of the Last-Modified header of the last update, sent back as If-Modified-Since.
      */
     private String lastModified;
+    /**
+     * Value of the ETag header of the last update, sent back as If-None-Match.
+     */
+    private String etag;
+    /**
+     * Time until which the server allows the last response to be used without asking again,
+     * from Cache-Control max-age or Expires. 0 if unknown.
+     */
+    private long cacheExpires;
+    /**
+     * Hash of the response body that the feed was last updated from, to detect unchanged feeds.
+     */
+    private String contentHash;
     private long lastRefreshAttempt;
 
     private ArrayList<FeedFunding> fundingList;
@@ -80,6 +114,14 @@ public class Feed {
      */
     private int pageNr;
 
+    /**
+     * True if the parser left out the oldest items because they were already known. The items of such a feed
+     * do not show which items were removed from it.
+     * <p/>
+     * This attribute's value is not saved in the database
+     */
+    private boolean skippedKnownItems;
+
     /**
      * True if this is a "paged feed", i.e. there exist other feed files that belong to the same
      * logical feed.
@@ -107,6 +149,12 @@ public class Feed {
     private SortOrder sortOrder;
     private int state;
 
+    /**
+     * Fields that were changed since {@link #startTrackingChanges()}.
+     */
+    private boolean trackingChanges = false;
+    private int changedFields = 0;
+
     /**
      * This constructor is used for restoring a feed from the database.
      */
@@ -224,37 +272,79 @@ public class Feed {
         // don't update feed's download_url, we do that manually if redirected
         // see AntennapodHttpClient
         if (other.imageUrl != null) {
-            this.imageUrl = other.imageUrl;
+            setImageUrl(other.imageUrl);
         }
         if (other.feedTitle != null) {
-            feedTitle = other.feedTitle;
+            setTitle(other.feedTitle);
         }
         if (other.feedIdentifier != null) {
-            feedIdentifier = other.feedIdentifier;
+            setFeedIdentifier(other.feedIdentifier);
         }
         if (other.link != null) {
-            link = other.link;
+            setLink(other.link);
         }
         if (other.description != null) {
-            description = other.description;
+            setDescription(other.description);
         }
         if (other.language != null) {
-            language = other.language;
+            setLanguage(other.language);
         }
         if (other.author != null) {
-            author = other.author;
+            setAuthor(other.author);
         }
         if (other.fundingList != null) {
+            markChangedIfDifferent(FIELD_PAYMENT_LINKS, fundingList, other.fundingList);
             fundingList = other.fundingList;
         }
         if (other.lastRefreshAttempt > lastRefreshAttempt) {
-            lastRefreshAttempt = other.lastRefreshAttempt;
+            setLastRefreshAttempt(other.lastRefreshAttempt);
         }
         // this feed's nextPage might already point to a higher page, so we only update the nextPage value
         // if this feed is not paged and the other feed is.
         if (!this.paged && other.paged) {
-            this.paged = other.paged;
-            this.nextPageLink = other.nextPageLink;
+            setPaged(other.paged);
+            setNextPageLink(other.nextPageLink);
+        }
+    }
+
+    /**
+     * Starts recording which fields are changed, assuming that this feed and its items currently match
+     * the database. Before that, all fields are considered changed.
+     */
+    public void startTrackingChanges() {
+        trackingChanges = true;
+        changedFields = 0;
+        if (preferences != null) {
+            preferences.startTrackingChanges();
+        }
+        if (items != null) {
+            for (FeedItem item : items) {
+                item.startTrackingChanges();
+            }
+        }
+    }
+
+    /**
+     * Stops recording changes, so all fields are considered changed again.
+     */
+    public void stopTrackingChanges() {
+        trackingChanges = false;
+    }
+
+    /**
+     * @return A bit set of the FIELD_* constants that might differ from the database.
+     */
+    public int getChangedFields() {
+        return trackingChanges ? changedFields : ALL_FIELDS;
+    }
+
+    private void markChanged(int field) {
+        changedFields |= field;
+    }
+
+    private void markChangedIfDifferent(int field, Object oldValue, Object newValue) {
+        if (!Objects.equals(oldValue, newValue)) {
+            changedFields |= field;
         }
     }
 
@@ -276,6 +366,7 @@ public class Feed {
     }
 
     public void setTitle(String title) {
+        markChangedIfDifferent(FIELD_TITLE, this.feedTitle, title);
         this.feedTitle = title;
     }
 
@@ -301,6 +392,7 @@ public class Feed {
     }
 
     public void setLink(String link) {
+        markChangedIfDifferent(FIELD_LINK, this.link, link);
         this.link = link;
     }
 
@@ -309,6 +401,7 @@ public class Feed {
     }
 
     public void setDescription(String description) {
+        markChangedIfDifferent(FIELD_DESCRIPTION, this.description, description);
         this.description = description;
     }
 
@@ -317,6 +410,7 @@ public class Feed {
     }
 
     public void setImageUrl(String imageUrl) {
+        markChangedIfDifferent(FIELD_IMAGE_URL, this.imageUrl, imageUrl);
         this.imageUrl = imageUrl;
     }
 
@@ -333,18 +427,57 @@ public class Feed {
     }
 
     public void setLastModified(String lastModified) {
+        markChangedIfDifferent(FIELD_LAST_MODIFIED, this.lastModified, lastModified);
         this.lastModified = lastModified;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * Stored together with {@link #FIELD_LAST_MODIFIED}.
+     */
+    public void setContentHash(String contentHash) {
+        markChangedIfDifferent(FIELD_LAST_MODIFIED, this.contentHash, contentHash);
+        this.contentHash = contentHash;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * Stored together with {@link #FIELD_LAST_MODIFIED}.
+     */
+    public void setEtag(String etag) {
+        markChangedIfDifferent(FIELD_LAST_MODIFIED, this.etag, etag);
+        this.etag = etag;
+    }
+
+    public long getCacheExpires() {
+        return cacheExpires;
+    }
+
+    /**
+     * Tracked on its own, because it usually changes with every refresh while the validators do not.
+     */
+    public void setCacheExpires(long cacheExpires) {
+        markChangedIfDifferent(FIELD_CACHE_EXPIRES, this.cacheExpires, cacheExpires);
+        this.cacheExpires = cacheExpires;
+    }
+
     public String getFeedIdentifier() {
         return feedIdentifier;
     }
 
     public void setFeedIdentifier(String feedIdentifier) {
+        markChangedIfDifferent(FIELD_FEED_IDENTIFIER, this.feedIdentifier, feedIdentifier);
         this.feedIdentifier = feedIdentifier;
     }
 
     public void addPayment(FeedFunding funding) {
+        markChanged(FIELD_PAYMENT_LINKS);
         if (fundingList == null) {
             fundingList = new ArrayList<FeedFunding>();
         }
@@ -360,6 +493,7 @@ public class Feed {
     }
 
     public void setLanguage(String language) {
+        markChangedIfDifferent(FIELD_LANGUAGE, this.language, language);
         this.language = language;
     }
 
@@ -368,6 +502,7 @@ public class Feed {
     }
 
     public void setAuthor(String author) {
+        markChangedIfDifferent(FIELD_AUTHOR, this.author, author);
         this.author = author;
     }
 
@@ -376,6 +511,7 @@ public class Feed {
     }
 
     public void setType(String type) {
+        markChangedIfDifferent(FIELD_TYPE, this.type, type);
         this.type = type;
     }
 
@@ -403,6 +539,7 @@ public class Feed {
     }
 
     public void setLocalFileUrl(String fileUrl) {
+        markChangedIfDifferent(FIELD_FILE_URL, this.localFileUrl, fileUrl);
         this.localFileUrl = fileUrl;
     }
 
@@ -411,6 +548,7 @@ public class Feed {
     }
 
     public void setDownloadUrl(String downloadUrl) {
+        markChangedIfDifferent(FIELD_DOWNLOAD_URL, this.downloadUrl, downloadUrl);
         this.downloadUrl = downloadUrl;
     }
 
@@ -419,6 +557,7 @@ public class Feed {
     }
 
     public void setLastRefreshAttempt(long lastRefreshAttempt) {
+        markChangedIfDifferent(FIELD_LAST_REFRESH_ATTEMPT, this.lastRefreshAttempt, lastRefreshAttempt);
         this.lastRefreshAttempt = lastRefreshAttempt;
     }
 
@@ -430,11 +569,20 @@ public class Feed {
         this.pageNr = pageNr;
     }
 
+    public boolean hasSkippedKnownItems() {
+        return skippedKnownItems;
+    }
+
+    public void setSkippedKnownItems(boolean skippedKnownItems) {
+        this.skippedKnownItems = skippedKnownItems;
+    }
+
     public boolean isPaged() {
         return paged;
     }
 
     public void setPaged(boolean paged) {
+        markChangedIfDifferent(FIELD_PAGED, this.paged, paged);
         this.paged = paged;
     }
 
@@ -443,6 +591,7 @@ public class Feed {
     }
 
     public void setNextPageLink(String nextPageLink) {
+        markChangedIfDifferent(FIELD_PAGED, this.nextPageLink, nextPageLink);
         this.nextPageLink = nextPageLink;
     }
 
@@ -461,6 +610,7 @@ public class Feed {
             throw new IllegalArgumentException("The specified sortOrder " + sortOrder
                     + " is invalid. Only those with INTRA_FEED scope are allowed.");
         }
+        markChangedIfDifferent(FIELD_SORT_ORDER, this.sortOrder, sortOrder);
         this.sortOrder = sortOrder;
     }
 
@@ -469,6 +619,7 @@ public class Feed {
     }
 
     public void setLastUpdateFailed(boolean lastUpdateFailed) {
+        markChangedIfDifferent(FIELD_LAST_UPDATE_FAILED, this.lastUpdateFailed, lastUpdateFailed);
         this.lastUpdateFailed = lastUpdateFailed;
     }
 
@@ -481,6 +632,7 @@ public class Feed {
     }
 
     public void setState(int state) {
+        markChangedIfDifferent(FIELD_STATE, this.state, state);
         this.state = state;
     }
 
@@ -24,6 +24,23 @@ public class FeedItem implements Serializable {
     /** tag that indicates this item is in favorites */
     public static final String TAG_FAVORITE = "Favorite";
 
+    /* Fields reported by getChangedFields() */
+    public static final int FIELD_TITLE = 1;
+    public static final int FIELD_DESCRIPTION = 1 << 1;
+    public static final int FIELD_LINK = 1 << 2;
+    public static final int FIELD_PUBDATE = 1 << 3;
+    public static final int FIELD_PAYMENT_LINK = 1 << 4;
+    public static final int FIELD_FEED = 1 << 5;
+    public static final int FIELD_STATE = 1 << 6;
+    public static final int FIELD_CHAPTERS = 1 << 7;
+    public static final int FIELD_ITEM_IDENTIFIER = 1 << 8;
+    public static final int FIELD_AUTO_DOWNLOAD = 1 << 9;
+    public static final int FIELD_IMAGE_URL = 1 << 10;
+    public static final int FIELD_CHAPTER_URL = 1 << 11;
+    public static final int FIELD_SOCIAL_INTERACT_URL = 1 << 12;
+    public static final int FIELD_TRANSCRIPT = 1 << 13;
+    public static final int ALL_FIELDS = ~0;
+
     private long id;
     /**
      * The id/guid that can be found in the rss/atom feed. Might not be set.
@@ -76,6 +93,12 @@ public class FeedItem implements Serializable {
      */
     private final Set<String> tags = new HashSet<>();
 
+    /**
+     * Fields that were changed since {@link #startTrackingChanges()}.
+     */
+    private transient boolean trackingChanges = false;
+    private transient int changedFields = 0;
+
     public FeedItem() {
         this.state = UNPLAYED;
         this.hasChapters = false;
@@ -138,19 +161,23 @@ public class FeedItem implements Serializable {
 
     public void updateFromOther(FeedItem other) {
         if (other.imageUrl != null) {
-            this.imageUrl = other.imageUrl;
+            setImageUrl(other.imageUrl);
         }
         if (other.title != null) {
-            title = other.title;
+            setTitle(other.title);
         }
         if (other.getDescription() != null) {
+            if (!other.getDescription().equals(description)) {
+                markChanged(FIELD_DESCRIPTION);
+            }
             description = other.getDescription();
         }
         if (other.link != null) {
-            link = other.link;
+            setLink(other.link);
         }
         if (other.pubDate != null && !other.pubDate.equals(pubDate)) {
             pubDate = other.pubDate;
+            markChanged(FIELD_PUBDATE);
         }
         if (other.media != null) {
             if (media == null) {
@@ -162,27 +189,63 @@ public class FeedItem implements Serializable {
             }
         }
         if (other.paymentLink != null) {
-            paymentLink = other.paymentLink;
+            setPaymentLink(other.paymentLink);
         }
         if (other.chapters != null) {
             if (!hasChapters) {
-                chapters = other.chapters;
+                setChapters(other.chapters);
             }
         }
         if (other.podcastIndexChapterUrl != null) {
-            podcastIndexChapterUrl = other.podcastIndexChapterUrl;
+            setPodcastIndexChapterUrl(other.podcastIndexChapterUrl);
         }
         if (other.socialInteractUrl != null) {
-            socialInteractUrl = other.socialInteractUrl;
+            setSocialInteractUrl(other.socialInteractUrl);
         }
         if (other.getTranscriptUrl() != null) {
+            if (!other.podcastIndexTranscriptUrl.equals(podcastIndexTranscriptUrl)) {
+                markChanged(FIELD_TRANSCRIPT);
+            }
             podcastIndexTranscriptUrl = other.podcastIndexTranscriptUrl;
         }
         if (other.getTranscriptType() != null) {
+            if (!other.podcastIndexTranscriptType.equals(podcastIndexTranscriptType)) {
+                markChanged(FIELD_TRANSCRIPT);
+            }
             podcastIndexTranscriptType = other.podcastIndexTranscriptType;
         }
     }
 
+    /**
+     * Starts recording which fields are changed, assuming that this item and its media currently match
+     * the database. Before that, all fields are considered changed.
+     */
+    public void startTrackingChanges() {
+        trackingChanges = true;
+        changedFields = 0;
+        if (media != null) {
+            media.startTrackingChanges();
+        }
+    }
+
+    /**
+     * Stops recording changes, so all fields are considered changed again.
+     */
+    public void stopTrackingChanges() {
+        trackingChanges = false;
+    }
+
+    /**
+     * @return A bit set of the FIELD_* constants that might differ from the database.
+     */
+    public int getChangedFields() {
+        return trackingChanges ? changedFields : ALL_FIELDS;
+    }
+
+    private void markChanged(int field) {
+        changedFields |= field;
+    }
+
     public long getId() {
         return id;
     }
@@ -217,6 +280,9 @@ public class FeedItem implements Serializable {
     }
 
     public void setTitle(String title) {
+        if (!Objects.equals(this.title, title)) {
+            markChanged(FIELD_TITLE);
+        }
         this.title = title;
     }
 
@@ -242,6 +308,9 @@ public class FeedItem implements Serializable {
     }
 
     public void setLink(String link) {
+        if (!Objects.equals(this.link, link)) {
+            markChanged(FIELD_LINK);
+        }
         this.link = link;
     }
 
@@ -254,6 +323,9 @@ public class FeedItem implements Serializable {
     }
 
     public void setPubDate(Date pubDate) {
+        if (!Objects.equals(this.pubDate, pubDate)) {
+            markChanged(FIELD_PUBDATE);
+        }
         if (pubDate != null) {
             this.pubDate = (Date) pubDate.clone();
         } else {
@@ -283,6 +355,9 @@ public class FeedItem implements Serializable {
     }
 
     public void setFeed(Feed feed) {
+        if (feed == null || this.feed == null || feed.getId() != this.feed.getId()) {
+            markChanged(FIELD_FEED);
+        }
         this.feed = feed;
     }
 
@@ -295,7 +370,7 @@ public class FeedItem implements Serializable {
     }
 
     public void setNew() {
-        state = NEW;
+        setPlayState(NEW);
     }
 
     public boolean isPlayed() {
@@ -304,12 +379,19 @@ public class FeedItem implements Serializable {
 
     public void setPlayed(boolean played) {
         if (played) {
-            state = PLAYED;
+            setPlayState(PLAYED);
         } else {
-            state = UNPLAYED;
+            setPlayState(UNPLAYED);
         }
     }
 
+    private void setPlayState(int state) {
+        if (this.state != state) {
+            markChanged(FIELD_STATE);
+        }
+        this.state = state;
+    }
+
     public boolean isInProgress() {
         return (media != null && media.isInProgress());
     }
@@ -322,10 +404,9 @@ public class FeedItem implements Serializable {
         if (newDescription == null) {
             return;
         }
-        if (this.description == null) {
-            this.description = newDescription;
-        } else if (this.description.length() < newDescription.length()) {
+        if (this.description == null || this.description.length() < newDescription.length()) {
             this.description = newDescription;
+            markChanged(FIELD_DESCRIPTION);
         }
     }
 
@@ -334,6 +415,9 @@ public class FeedItem implements Serializable {
     }
 
     public void setPaymentLink(String paymentLink) {
+        if (!Objects.equals(this.paymentLink, paymentLink)) {
+            markChanged(FIELD_PAYMENT_LINK);
+        }
         this.paymentLink = paymentLink;
     }
 
@@ -342,6 +426,9 @@ public class FeedItem implements Serializable {
     }
 
     public void setChapters(List<Chapter> chapters) {
+        if (chapters != null && !hasChapters) {
+            markChanged(FIELD_CHAPTERS);
+        }
         this.chapters = chapters;
     }
 
@@ -350,6 +437,9 @@ public class FeedItem implements Serializable {
     }
 
     public void setItemIdentifier(String itemIdentifier) {
+        if (!Objects.equals(this.itemIdentifier, itemIdentifier)) {
+            markChanged(FIELD_ITEM_IDENTIFIER);
+        }
         this.itemIdentifier = itemIdentifier;
     }
 
@@ -387,6 +477,9 @@ public class FeedItem implements Serializable {
     }
 
     public void setImageUrl(String imageUrl) {
+        if (!Objects.equals(this.imageUrl, imageUrl)) {
+            markChanged(FIELD_IMAGE_URL);
+        }
         this.imageUrl = imageUrl;
     }
 
@@ -395,6 +488,9 @@ public class FeedItem implements Serializable {
     }
 
     public void disableAutoDownload() {
+        if (this.autoDownloadEnabled) {
+            markChanged(FIELD_AUTO_DOWNLOAD);
+        }
         this.autoDownloadEnabled = false;
     }
 
@@ -432,10 +528,16 @@ public class FeedItem implements Serializable {
     }
 
     public void setPodcastIndexChapterUrl(String url) {
+        if (!Objects.equals(podcastIndexChapterUrl, url)) {
+            markChanged(FIELD_CHAPTER_URL);
+        }
         podcastIndexChapterUrl = url;
     }
 
     public void setSocialInteractUrl(String url) {
+        if (!Objects.equals(socialInteractUrl, url)) {
+            markChanged(FIELD_SOCIAL_INTERACT_URL);
+        }
         socialInteractUrl = url;
     }
 
@@ -464,6 +566,7 @@ public class FeedItem implements Serializable {
         if (type.priority > previousType.priority) {
             podcastIndexTranscriptUrl = url;
             podcastIndexTranscriptType = type.canonicalMime;
+            markChanged(FIELD_TRANSCRIPT);
         }
     }
 
@@ -17,6 +17,7 @@ import org.apache.commons.lang3.StringUtils;
 import java.io.File;
 import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 
 public class FeedMedia implements Playable {
     public static final int FEEDFILETYPE_FEEDMEDIA = 2;
@@ -32,6 +33,20 @@ public class FeedMedia implements Playable {
      */
     private static final int CHECKED_ON_SIZE_BUT_UNKNOWN = Integer.MIN_VALUE;
 
+    /* Fields reported by getChangedFields() */
+    public static final int FIELD_DURATION = 1;
+    public static final int FIELD_POSITION = 1 << 1;
+    public static final int FIELD_SIZE = 1 << 2;
+    public static final int FIELD_MIME_TYPE = 1 << 3;
+    public static final int FIELD_DOWNLOAD_URL = 1 << 4;
+    public static final int FIELD_DOWNLOAD_DATE = 1 << 5;
+    public static final int FIELD_FILE_URL = 1 << 6;
+    public static final int FIELD_EMBEDDED_PICTURE = 1 << 7;
+    public static final int FIELD_LAST_PLAYED_TIME_STATISTICS = 1 << 8;
+    public static final int FIELD_LAST_PLAYED_TIME_HISTORY = 1 << 9;
+    public static final int FIELD_ITEM = 1 << 10;
+    public static final int ALL_FIELDS = ~0;
+
     private long id;
     private String localFileUrl;
     private String downloadUrl;
@@ -53,6 +68,12 @@ public class FeedMedia implements Playable {
     /* Used for loading item when restoring from parcel. */
     private long itemID;
 
+    /**
+     * Fields that were changed since {@link #startTrackingChanges()}.
+     */
+    private boolean trackingChanges = false;
+    private int changedFields = 0;
+
     public FeedMedia(FeedItem i, String downloadUrl, long size,
                      String mimeType) {
         this.localFileUrl = null;
@@ -132,18 +153,49 @@ public class FeedMedia implements Playable {
     }
 
     public void updateFromOther(FeedMedia other) {
+        if (!StringUtils.equals(downloadUrl, other.downloadUrl)) {
+            markChanged(FIELD_DOWNLOAD_URL);
+        }
         this.downloadUrl = other.downloadUrl;
         if (other.size > 0) {
-            size = other.size;
+            setSize(other.size);
         }
         if (other.duration > 0 && duration <= 0) { // Do not overwrite duration that we measured after downloading
-            duration = other.duration;
+            setDuration(other.duration);
         }
-        if (other.mimeType != null) {
+        if (other.mimeType != null && !other.mimeType.equals(mimeType)) {
             mimeType = other.mimeType;
+            markChanged(FIELD_MIME_TYPE);
         }
     }
 
+    /**
+     * Starts recording which fields are changed, assuming that this media currently matches the database.
+     * Before that, all fields are considered changed.
+     */
+    public void startTrackingChanges() {
+        trackingChanges = true;
+        changedFields = 0;
+    }
+
+    /**
+     * Stops recording changes, so all fields are considered changed again.
+     */
+    public void stopTrackingChanges() {
+        trackingChanges = false;
+    }
+
+    /**
+     * @return A bit set of the FIELD_* constants that might differ from the database.
+     */
+    public int getChangedFields() {
+        return trackingChanges ? changedFields : ALL_FIELDS;
+    }
+
+    private void markChanged(int field) {
+        changedFields |= field;
+    }
+
     /**
      * Compare's this FeedFile's attribute values with another FeedFile's
      * attribute values. This method will only compare attributes which were
@@ -174,11 +226,17 @@ public class FeedMedia implements Playable {
     }
 
     public void setDuration(int duration) {
+        if (this.duration != duration) {
+            markChanged(FIELD_DURATION);
+        }
         this.duration = duration;
     }
 
     @Override
     public void setLastPlayedTimeStatistics(long lastPlayedTimeStatistics) {
+        if (this.lastPlayedTimeStatistics != lastPlayedTimeStatistics) {
+            markChanged(FIELD_LAST_PLAYED_TIME_STATISTICS);
+        }
         this.lastPlayedTimeStatistics = lastPlayedTimeStatistics;
     }
 
@@ -204,6 +262,9 @@ public class FeedMedia implements Playable {
     }
 
     public void setPosition(int position) {
+        if (this.position != position) {
+            markChanged(FIELD_POSITION);
+        }
         this.position = position;
         if (position > 0 && item != null && item.isNew()) {
             this.item.setPlayed(false);
@@ -215,6 +276,9 @@ public class FeedMedia implements Playable {
     }
 
     public void setSize(long size) {
+        if (this.size != size) {
+            markChanged(FIELD_SIZE);
+        }
         this.size = size;
     }
 
@@ -231,7 +295,7 @@ public class FeedMedia implements Playable {
      * get a valid answer and we shoudln't check using the network again.
      */
     public void setCheckedOnSizeButUnknown() {
-        this.size = CHECKED_ON_SIZE_BUT_UNKNOWN;
+        setSize(CHECKED_ON_SIZE_BUT_UNKNOWN);
     }
 
     public boolean checkedOnSizeButUnknown() {
@@ -254,7 +318,7 @@ public class FeedMedia implements Playable {
      */
     public void setItem(FeedItem item) {
         this.item = item;
-        this.itemID = item != null ? item.getId() : 0;
+        setItemId(item != null ? item.getId() : 0);
         if (item != null && item.getMedia() != this) {
             item.setMedia(this);
         }
@@ -266,6 +330,9 @@ public class FeedMedia implements Playable {
     }
 
     public void setLastPlayedTimeHistory(Date lastPlayedTimeHistory) {
+        if (!Objects.equals(this.lastPlayedTimeHistory, lastPlayedTimeHistory)) {
+            markChanged(FIELD_LAST_PLAYED_TIME_HISTORY);
+        }
         this.lastPlayedTimeHistory = lastPlayedTimeHistory == null
                 ? null : (Date) lastPlayedTimeHistory.clone();
     }
@@ -405,6 +472,9 @@ public class FeedMedia implements Playable {
     }
 
     public void setItemId(long id) {
+        if (itemID != id) {
+            markChanged(FIELD_ITEM);
+        }
         itemID = id;
     }
 
@@ -468,10 +538,12 @@ public class FeedMedia implements Playable {
     }
 
     public void setHasEmbeddedPicture(Boolean hasEmbeddedPicture) {
+        markChanged(FIELD_EMBEDDED_PICTURE);
         this.hasEmbeddedPicture = hasEmbeddedPicture;
     }
 
     public void setDownloaded(boolean downloaded, long when) {
+        markChanged(FIELD_DOWNLOAD_DATE);
         this.downloadDate = downloaded ? when : 0;
         if (item != null && downloaded && item.isNew()) {
             item.setPlayed(false);
@@ -483,6 +555,7 @@ public class FeedMedia implements Playable {
     }
 
     public void setLocalFileUrl(String fileUrl) {
+        markChanged(FIELD_FILE_URL | FIELD_DOWNLOAD_DATE);
         this.localFileUrl = fileUrl;
         if (fileUrl == null) {
             downloadDate = 0;
@@ -490,6 +563,7 @@ public class FeedMedia implements Playable {
     }
 
     public void checkEmbeddedPicture() {
+        markChanged(FIELD_EMBEDDED_PICTURE);
         if (!localFileAvailable()) {
             hasEmbeddedPicture = Boolean.FALSE;
             return;
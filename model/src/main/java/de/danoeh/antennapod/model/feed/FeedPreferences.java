@@ -5,6 +5,7 @@ import android.text.TextUtils;
 
 import java.io.Serializable;
 import java.util.HashSet;
+import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -122,6 +123,11 @@ public class FeedPreferences implements Serializable {
     private SkipSilence feedSkipSilence;
     private boolean showEpisodeNotification;
     private final Set<String> tags = new HashSet<>();
+    /**
+     * Whether the preferences were changed since {@link #startTrackingChanges()}.
+     */
+    private transient boolean trackingChanges = false;
+    private transient boolean changed = false;
 
     public FeedPreferences(long feedID, AutoDownloadSetting autoDownload, AutoDeleteAction autoDeleteAction,
                            VolumeAdaptionSetting volumeAdaptionSetting, NewEpisodesAction newEpisodesAction,
@@ -162,6 +168,7 @@ public class FeedPreferences implements Serializable {
     }
 
     public void setFilter(@NonNull FeedFilter filter) {
+        markChangedIfDifferent(this.filter, filter);
         this.filter = filter;
     }
 
@@ -174,6 +181,7 @@ public class FeedPreferences implements Serializable {
     }
 
     public void setKeepUpdated(boolean keepUpdated) {
+        markChangedIfDifferent(this.keepUpdated, keepUpdated);
         this.keepUpdated = keepUpdated;
     }
 
@@ -184,8 +192,37 @@ public class FeedPreferences implements Serializable {
     public void updateFromOther(FeedPreferences other) {
         if (other == null)
             return;
-        this.username = other.username;
-        this.password = other.password;
+        setUsername(other.username);
+        setPassword(other.password);
+    }
+
+    /**
+     * Starts recording whether the preferences are changed, assuming that they currently match the database.
+     * Before that, they are always considered changed.
+     */
+    public void startTrackingChanges() {
+        trackingChanges = true;
+        changed = false;
+    }
+
+    /**
+     * Stops recording changes, so the preferences are considered changed again.
+     */
+    public void stopTrackingChanges() {
+        trackingChanges = false;
+    }
+
+    /**
+     * @return Whether the preferences might differ from the database.
+     */
+    public boolean isChanged() {
+        return !trackingChanges || changed;
+    }
+
+    private void markChangedIfDifferent(Object oldValue, Object newValue) {
+        if (!Objects.equals(oldValue, newValue)) {
+            changed = true;
+        }
     }
 
     public long getFeedID() {
@@ -219,6 +256,7 @@ public class FeedPreferences implements Serializable {
     }
 
     public void setAutoDownload(AutoDownloadSetting setting) {
+        markChangedIfDifferent(this.autoDownload, setting);
         this.autoDownload = setting;
     }
 
@@ -235,14 +273,17 @@ public class FeedPreferences implements Serializable {
     }
 
     public void setAutoDeleteAction(AutoDeleteAction autoDeleteAction) {
+        markChangedIfDifferent(this.autoDeleteAction, autoDeleteAction);
         this.autoDeleteAction = autoDeleteAction;
     }
 
     public void setVolumeAdaptionSetting(VolumeAdaptionSetting volumeAdaptionSetting) {
+        markChangedIfDifferent(this.volumeAdaptionSetting, volumeAdaptionSetting);
         this.volumeAdaptionSetting = volumeAdaptionSetting;
     }
 
     public void setNewEpisodesAction(NewEpisodesAction newEpisodesAction) {
+        markChangedIfDifferent(this.newEpisodesAction, newEpisodesAction);
         this.newEpisodesAction = newEpisodesAction;
     }
 
@@ -255,6 +296,7 @@ public class FeedPreferences implements Serializable {
     }
 
     public void setUsername(String username) {
+        markChangedIfDifferent(this.username, username);
         this.username = username;
     }
 
@@ -263,6 +305,7 @@ public class FeedPreferences implements Serializable {
     }
 
     public void setPassword(String password) {
+        markChangedIfDifferent(this.password, password);
         this.password = password;
     }
 
@@ -271,10 +314,12 @@ public class FeedPreferences implements Serializable {
     }
 
     public void setFeedPlaybackSpeed(float playbackSpeed) {
+        markChangedIfDifferent(this.feedPlaybackSpeed, playbackSpeed);
         feedPlaybackSpeed = playbackSpeed;
     }
 
     public void setFeedSkipIntro(int skipIntro) {
+        markChangedIfDifferent(this.feedSkipIntro, skipIntro);
         feedSkipIntro = skipIntro;
     }
 
@@ -283,6 +328,7 @@ public class FeedPreferences implements Serializable {
     }
 
     public void setFeedSkipEnding(int skipEnding) {
+        markChangedIfDifferent(this.feedSkipEnding, skipEnding);
         feedSkipEnding = skipEnding;
     }
 
@@ -291,6 +337,7 @@ public class FeedPreferences implements Serializable {
     }
 
     public void setFeedSkipSilence(SkipSilence skipSilence) {
+        markChangedIfDifferent(this.feedSkipSilence, skipSilence);
         feedSkipSilence = skipSilence;
     }
 
@@ -301,7 +348,11 @@ public class FeedPreferences implements Serializable {
         return feedSkipSilence;
     }
 
+    /**
+     * The returned set can be modified, so the preferences are considered changed afterwards.
+     */
     public Set<String> getTags() {
+        changed = true;
         return tags;
     }
 
@@ -318,6 +369,7 @@ public class FeedPreferences implements Serializable {
     }
 
     public void setShowEpisodeNotification(boolean showEpisodeNotification) {
+        markChangedIfDifferent(this.showEpisodeNotification, showEpisodeNotification);
         this.showEpisodeNotification = showEpisodeNotification;
     }
 }
@@ -89,6 +89,33 @@ public class FeedItemTest {
         assertFalse(original.isNew());
     }
 
+    @Test
+    public void testChangedFields_allFieldsChangedWithoutTracking() {
+        original.updateFromOther(changedFeedItem);
+        assertEquals(FeedItem.ALL_FIELDS, original.getChangedFields());
+    }
+
+    @Test
+    public void testChangedFields_updateFromIdenticalItem() {
+        changedFeedItem.setPubDate(original.getPubDate());
+        original.startTrackingChanges();
+        original.updateFromOther(changedFeedItem);
+        assertEquals(0, original.getChangedFields());
+    }
+
+    @Test
+    public void testChangedFields_updateFromChangedItem() {
+        changedFeedItem.setPubDate(original.getPubDate());
+        changedFeedItem.setTitle("New title");
+        setNewFeedItemImageDownloadUrl();
+        original.startTrackingChanges();
+        original.updateFromOther(changedFeedItem);
+        assertEquals(FeedItem.FIELD_TITLE | FeedItem.FIELD_IMAGE_URL, original.getChangedFields());
+
+        original.stopTrackingChanges();
+        assertEquals(FeedItem.ALL_FIELDS, original.getChangedFields());
+    }
+
     private void setNewFeedItemImageDownloadUrl() {
         changedFeedItem.setImageUrl("http://example.com/new_picture");
     }
@@ -110,6 +110,25 @@ public final class UrlChecker {
         return false;
     }
 
+    /**
+     * Returns a key that is the same for two URLs exactly if {@link #urlEquals(String, String)} considers them
+     * equal, so that URLs can be looked up in hash sets instead of comparing them with every item of a list.
+     */
+    public static String normalizeUrl(String url) {
+        Uri uri = Uri.parse(url);
+        if (uri == null || uri.getHost() == null) {
+            return url; // Unable to parse url properly
+        }
+        StringBuilder key = new StringBuilder("//").append(uri.getHost().toLowerCase(Locale.ROOT));
+        for (String segment : normalizePathSegments(uri.getPathSegments())) {
+            key.append('/').append(Uri.encode(segment));
+        }
+        if (!TextUtils.isEmpty(uri.getQuery())) {
+            key.append('?').append(uri.getQuery());
+        }
+        return key.toString();
+    }
+
     public static boolean urlEquals(String string1, String string2) {
         Uri url1 = Uri.parse(string1);
         Uri url2 = Uri.parse(string2);
@@ -177,4 +177,23 @@ public class UrlCheckerTest {
         assertFalse(UrlChecker.urlEquals("https://example.com/podcast%25test", "https://example.com/podcast test"));
         assertFalse(UrlChecker.urlEquals("antennapod_local:abc", "https://example.com/"));
     }
+
+    @Test
+    public void testNormalizeUrlMatchesUrlEquals() {
+        String[] urls = {"https://www.example.com/test", "https://www.example.com/test/",
+            "https://www.example.com//test", "https://www.example.com", "https://www.example.com/",
+            "http://www.example.com", "https://www.example.com/?id=42", "https://www.example.com/?id=42&a=b",
+            "https://www.example.com/?id=43&a=b", "https://example.com/podcast%20test",
+            "https://example.com/podcast test", "https://example.com/podcast%25test",
+            "https://example.com/?a=podcast%20test", "https://example.com/?a=podcast test", "https://example.com/?",
+            "https://example.com/", "https://example.com", "https://Example.com", "https://example.com/Test",
+            "https://example.com/test", "https://www.example2.com/test", "https://otherpodcast.example.com/",
+            "https://example.com/a%2Fb", "https://example.com/a/b", "antennapod_local:abc", "antennapod_local:abd"};
+        for (String url1 : urls) {
+            for (String url2 : urls) {
+                assertEquals(url1 + " and " + url2, UrlChecker.urlEquals(url1, url2),
+                        UrlChecker.normalizeUrl(url1).equals(UrlChecker.normalizeUrl(url2)));
+            }
+        }
+    }
 }
@@ -0,0 +1,167 @@
+package de.danoeh.antennapod.net.download.service.feed;
+
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import de.danoeh.antennapod.model.feed.Feed;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs feed refreshes in parallel, but limits how many requests are sent to the same host at the same time.
+ * Feeds of the same host are refreshed after each other, so they can reuse the connection.
+ * Hosts with the most remaining work, measured by the number of feeds and how long their refreshes
+ * took previously, are started first. This way, a slow host does not delay the end of the whole refresh.
+ */
+class FeedRefreshScheduler {
+    private static final String TAG = "FeedRefreshScheduler";
+    static final int MAX_PARALLEL = 8;
+    static final int MAX_PARALLEL_PER_HOST = 2;
+    /**
+     * Expected duration of a refresh from a host that was not refreshed before.
+     */
+    private static final long DEFAULT_DURATION = 1000;
+    /**
+     * Average duration of a refresh in milliseconds by host. Kept in memory between refreshes.
+     */
+    private static final Map<String, Long> averageDurations = new HashMap<>();
+
+    interface Callback {
+        boolean isStopped();
+
+        void refresh(@NonNull Feed feed);
+    }
+
+    private final Map<String, ArrayDeque<Feed>> pending = new HashMap<>();
+    private final Map<String, Integer> running = new HashMap<>();
+    private final int numFeeds;
+
+    /**
+     * @param feeds Feeds to refresh. Feeds of the same host are refreshed in the order of this list.
+     */
+    FeedRefreshScheduler(List<Feed> feeds) {
+        for (Feed feed : feeds) {
+            String host = getHost(feed);
+            ArrayDeque<Feed> hostFeeds = pending.get(host);
+            if (hostFeeds == null) {
+                hostFeeds = new ArrayDeque<>();
+                pending.put(host, hostFeeds);
+            }
+            hostFeeds.add(feed);
+        }
+        numFeeds = feeds.size();
+    }
+
+    /**
+     * Refreshes all feeds and blocks until they are done, or until the callback reports that it was stopped.
+     */
+    void run(@NonNull Callback callback) {
+        if (numFeeds == 0) {
+            return;
+        }
+        Log.d(TAG, "Refreshing " + numFeeds + " feeds from " + pending.size() + " hosts");
+        long start = SystemClock.elapsedRealtime();
+        int numThreads = Math.min(MAX_PARALLEL, numFeeds);
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        for (int i = 0; i < numThreads; i++) {
+            executor.submit(() -> work(callback));
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            //~300 years have elapsed
+        }
+        Log.d(TAG, "Refresh took " + (SystemClock.elapsedRealtime() - start) + " ms");
+    }
+
+    private void work(Callback callback) {
+        Feed feed;
+        while ((feed = next(callback)) != null) {
+            String host = getHost(feed);
+            long start = SystemClock.elapsedRealtime();
+            try {
+                callback.refresh(feed);
+            } finally {
+                long duration = SystemClock.elapsedRealtime() - start;
+                Log.d(TAG, "Refreshing " + feed.getDownloadUrl() + " took " + duration + " ms");
+                finished(host, duration);
+            }
+        }
+    }
+
+    /**
+     * Waits until a feed can be refreshed without exceeding the limit of its host.
+     *
+     * @return The feed, or null if there is nothing left to do
+     */
+    private synchronized Feed next(Callback callback) {
+        while (!pending.isEmpty() && !callback.isStopped()) {
+            String bestHost = null;
+            long bestRemainingWork = -1;
+            for (Map.Entry<String, ArrayDeque<Feed>> entry : pending.entrySet()) {
+                if (getRunning(entry.getKey()) >= MAX_PARALLEL_PER_HOST) {
+                    continue;
+                }
+                long remainingWork = entry.getValue().size() * getAverageDuration(entry.getKey());
+                if (remainingWork > bestRemainingWork) {
+                    bestHost = entry.getKey();
+                    bestRemainingWork = remainingWork;
+                }
+            }
+            if (bestHost != null) {
+                ArrayDeque<Feed> hostFeeds = pending.get(bestHost);
+                Feed feed = hostFeeds.poll();
+                if (hostFeeds.isEmpty()) {
+                    pending.remove(bestHost);
+                }
+                running.put(bestHost, getRunning(bestHost) + 1);
+                return feed;
+            }
+            try {
+                wait(); // All hosts with remaining feeds are busy
+            } catch (InterruptedException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private synchronized void finished(String host, long duration) {
+        running.put(host, getRunning(host) - 1);
+        synchronized (averageDurations) {
+            Long average = averageDurations.get(host);
+            averageDurations.put(host, average == null ? duration : (3 * average + duration) / 4);
+        }
+        notifyAll();
+    }
+
+    private int getRunning(String host) {
+        Integer numRunning = running.get(host);
+        return numRunning != null ? numRunning : 0;
+    }
+
+    private static long getAverageDuration(String host) {
+        synchronized (averageDurations) {
+            Long average = averageDurations.get(host);
+            return average != null ? Math.max(1, average) : DEFAULT_DURATION;
+        }
+    }
+
+    @NonNull
+    private static String getHost(Feed feed) {
+        if (feed.isLocalFeed() || feed.getDownloadUrl() == null) {
+            return "";
+        }
+        String host = Uri.parse(feed.getDownloadUrl()).getHost();
+        return host != null ? host.toLowerCase(Locale.US) : "";
+    }
+}
@@ -10,6 +10,7 @@ import androidx.annotation.Nullable;
 import androidx.core.app.NotificationCompat;
 import androidx.core.app.NotificationManagerCompat;
 import androidx.core.content.ContextCompat;
+import androidx.work.Data;
 import androidx.work.ForegroundInfo;
 import androidx.work.WorkManager;
 import java.util.concurrent.TimeUnit;
@@ -43,15 +44,27 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class FeedUpdateWorker extends Worker {
     private static final String TAG = "FeedUpdateWorker";
     private static final long JOB_SCHEDULE_TIME_VARIATION = TimeUnit.MINUTES.toMillis(15);
 
+    public static final String OUTPUT_NUM_REFRESHED = "num_refreshed";
+    public static final String OUTPUT_NUM_NOT_CHANGED = "num_not_changed";
+    public static final String OUTPUT_NUM_NOT_MODIFIED = "num_not_modified";
+
     private final NewEpisodesNotification newEpisodesNotification;
     private final NotificationManagerCompat notificationManager;
+    /**
+     * Number of feeds that were downloaded and parsed, and how many of them did not need to be saved.
+     */
+    private final AtomicInteger numRefreshed = new AtomicInteger();
+    private final AtomicInteger numNotChanged = new AtomicInteger();
+    /**
+     * Number of feeds that the server reported as not modified, so they were not downloaded at all.
+     */
+    private final AtomicInteger numNotModified = new AtomicInteger();
 
     public FeedUpdateWorker(@NonNull Context context, @NonNull WorkerParameters params) {
         super(context, params);
@@ -71,6 +84,8 @@ public class FeedUpdateWorker extends Worker {
         boolean isAutomaticRefresh = !getInputData().getBoolean(FeedUpdateManagerImpl.EXTRA_MANUAL, false);
         boolean isAutomaticRefreshEnabled = !UserPreferences.isAutoUpdateDisabled();
         if (feedId == -1) { // Update all
+            long now = System.currentTimeMillis();
+            int numUnlikelyToChange = 0;
             toUpdate = DBReader.getFeedList();
             Iterator<Feed> itr = toUpdate.iterator();
             while (itr.hasNext()) {
@@ -86,10 +101,25 @@ public class FeedUpdateWorker extends Worker {
                     itr.remove();
                     continue;
                 }
+                if (isAutomaticRefresh && !feed.hasLastUpdateFailed()
+                        && feed.getCacheExpires() > System.currentTimeMillis()) {
+                    // The server said that the last response is still fresh
+                    itr.remove();
+                    continue;
+                }
+                if (isAutomaticRefresh && !feed.isLocalFeed() && ReleaseScheduleFilter.canSkip(feed, now)
+                        && ReleaseScheduleFilter.isUpdateUnlikely(DBReader.getRecentPubDates(feed.getId(),
+                                ReleaseScheduleFilter.NUM_RELEASE_DATES), now)) {
+                    // According to its release schedule, the feed will not have a new episode yet
+                    numUnlikelyToChange++;
+                    itr.remove();
+                    continue;
+                }
                 if (!feed.isLocalFeed()) {
                     allAreLocal = false;
                 }
             }
+            Log.d(TAG, "Skipping " + numUnlikelyToChange + " feeds that are unlikely to have new episodes");
             Collections.shuffle(toUpdate); // If the worker gets cancelled early, every feed has a chance to be updated
         } else {
             Feed feed = DBReader.getFeed(feedId, false, 0, Integer.MAX_VALUE);
@@ -111,12 +141,18 @@ public class FeedUpdateWorker extends Worker {
             }
         }
         refreshFeeds(toUpdate,  force);
+        Log.d(TAG, "Refreshed " + numRefreshed.get() + " feeds, " + numNotChanged.get() + " were not changed, "
+                + numNotModified.get() + " were not modified according to the server");
 
         NonSubscribedFeedsCleaner.deleteOldNonSubscribedFeeds(getApplicationContext());
         AutoDownloadManager.getInstance().autodownloadUndownloadedItems(getApplicationContext());
         notificationManager.cancel(R.id.notification_updating_feeds);
         SynchronizationQueue.getInstance().syncImmediately();
-        return Result.success();
+        return Result.success(new Data.Builder()
+                .putInt(OUTPUT_NUM_REFRESHED, numRefreshed.get())
+                .putInt(OUTPUT_NUM_NOT_CHANGED, numNotChanged.get())
+                .putInt(OUTPUT_NUM_NOT_MODIFIED, numNotModified.get())
+                .build());
     }
 
     @NonNull
@@ -161,12 +197,14 @@ public class FeedUpdateWorker extends Worker {
     private void refreshFeeds(List<Feed> toUpdate, boolean force) {
         List<Feed> notificationRemainingFeeds = new ArrayList<>(toUpdate);
         updateNotification(notificationRemainingFeeds);
-        ExecutorService executor = Executors.newFixedThreadPool(4);
-        for (Feed feed : toUpdate) {
-            executor.submit(() -> {
-                if (isStopped()) {
-                    return;
-                }
+        new FeedRefreshScheduler(toUpdate).run(new FeedRefreshScheduler.Callback() {
+            @Override
+            public boolean isStopped() {
+                return FeedUpdateWorker.this.isStopped();
+            }
+
+            @Override
+            public void refresh(@NonNull Feed feed) {
                 try {
                     Feed savedFeed;
                     if (feed.isLocalFeed()) {
@@ -191,14 +229,8 @@ public class FeedUpdateWorker extends Worker {
                         updateNotification(notificationRemainingFeeds);
                     }
                 }
-            });
-        }
-        executor.shutdown();
-        try {
-            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
-        } catch (InterruptedException e) {
-            //~300 years have elapsed
-        }
+            }
+        });
     }
 
     Feed refreshFeed(Feed feed, boolean force) throws Exception {
@@ -208,7 +240,8 @@ public class FeedUpdateWorker extends Worker {
             feed.setPageNr(feed.getPageNr() + 1);
         }
         DownloadRequestBuilder builder = DownloadRequestCreator.create(feed);
-        builder.setForce(force || feed.hasLastUpdateFailed());
+        // The validators of the feed do not apply to other pages
+        builder.setForce(force || feed.hasLastUpdateFailed() || nextPage);
         if (nextPage) {
             builder.setSource(feed.getNextPageLink());
         }
@@ -219,8 +252,24 @@ public class FeedUpdateWorker extends Worker {
             throw new Exception("Unable to create downloader");
         }
 
+        // Parse while downloading, instead of writing the feed to a file and reading it again
+        FeedParserTask parserTask = new FeedParserTask(request);
+        if (!nextPage && request.getFeedfileId() != 0) {
+            // Episodes that are already in the database do not need to be parsed again
+            parserTask.setKnownItems(DBReader.getRecentPubDatesByIdentifier(
+                    request.getFeedfileId(), FeedParserTask.NUM_KNOWN_ITEMS));
+        }
+        downloader.setStreamHandler(parserTask);
         downloader.call();
 
+        if (downloader.getResult().getReason() == DownloadError.SUCCESS_NOT_CHANGED) {
+            // Validators are only sent if the last refresh succeeded, so there is no need for a download log
+            Log.d(TAG, "Feed not modified: " + request.getSource());
+            numNotModified.incrementAndGet();
+            DBWriter.setFeedNotChanged(request.getFeedfileId(), request.getLastModified(),
+                    request.getEtag(), request.getCacheExpires());
+            return null;
+        }
         if (!downloader.getResult().isSuccessful()) {
             if (downloader.cancelled || downloader.getResult().getReason() == DownloadError.ERROR_DOWNLOAD_CANCELLED) {
                 return null;
@@ -230,15 +279,29 @@ public class FeedUpdateWorker extends Worker {
             return null;
         }
 
-        FeedParserTask parserTask = new FeedParserTask(request);
         FeedHandlerResult feedHandlerResult = parserTask.call();
         if (!parserTask.isSuccessful()) {
             DBWriter.setFeedLastUpdateFailed(request.getFeedfileId(), true);
             DBWriter.addDownloadStatus(parserTask.getDownloadStatus());
             return null;
         }
-        feedHandlerResult.feed.setLastRefreshAttempt(System.currentTimeMillis());
-        Feed savedFeed = FeedDatabaseWriter.updateFeed(getApplicationContext(), feedHandlerResult.feed, false);
+        numRefreshed.incrementAndGet();
+        Feed savedFeed;
+        DownloadResult status;
+        if (!nextPage && isNotChanged(feed, feedHandlerResult.feed)) {
+            // The database already contains everything from this feed
+            Log.d(TAG, "Feed not changed: " + request.getSource());
+            numNotChanged.incrementAndGet();
+            DBWriter.setFeedNotChanged(request.getFeedfileId(), request.getLastModified(),
+                    request.getEtag(), request.getCacheExpires());
+            savedFeed = null;
+            status = new DownloadResult(feedHandlerResult.feed.getHumanReadableIdentifier(),
+                    request.getFeedfileId(), Feed.FEEDFILETYPE_FEED, true, DownloadError.SUCCESS_NOT_CHANGED, null);
+        } else {
+            feedHandlerResult.feed.setLastRefreshAttempt(System.currentTimeMillis());
+            savedFeed = FeedDatabaseWriter.updateFeed(getApplicationContext(), feedHandlerResult.feed, false);
+            status = parserTask.getDownloadStatus();
+        }
 
         if (request.getFeedfileId() == 0) {
             return savedFeed; // No download logs for new subscriptions
@@ -246,7 +309,7 @@ public class FeedUpdateWorker extends Worker {
         // we create a 'successful' download log if the feed's last refresh failed
         List<DownloadResult> log = DBReader.getFeedDownloadLog(request.getFeedfileId());
         if (!log.isEmpty() && !log.get(0).isSuccessful()) {
-            DBWriter.addDownloadStatus(parserTask.getDownloadStatus());
+            DBWriter.addDownloadStatus(status);
         }
         if (downloader.permanentRedirectUrl != null) {
             DBWriter.updateFeedDownloadURL(request.getSource(), downloader.permanentRedirectUrl);
@@ -256,4 +319,11 @@ public class FeedUpdateWorker extends Worker {
         }
         return savedFeed;
     }
+
+    /**
+     * Whether the response is the same as the one that the saved feed was last updated from.
+     */
+    private static boolean isNotChanged(Feed savedFeed, Feed newFeed) {
+        return newFeed.getContentHash() != null && newFeed.getContentHash().equals(savedFeed.getContentHash());
+    }
 }
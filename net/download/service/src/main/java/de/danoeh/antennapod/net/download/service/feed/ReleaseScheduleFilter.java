@@ -0,0 +1,79 @@
+package de.danoeh.antennapod.net.download.service.feed;
+
+import androidx.annotation.NonNull;
+import de.danoeh.antennapod.model.feed.Feed;
+import de.danoeh.antennapod.storage.database.ReleaseScheduleGuesser;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides whether an automatic refresh can leave out a feed because it is very unlikely to have a new episode.
+ * Uses the release schedule that is guessed from the publication dates of the newest episodes.
+ */
+class ReleaseScheduleFilter {
+    /**
+     * Number of publication dates to load. The guesser looks at up to 20 different days.
+     */
+    static final int NUM_RELEASE_DATES = 40;
+    /**
+     * A schedule guessed from fewer releases is not reliable enough.
+     */
+    private static final int MIN_RELEASES = 5;
+    /**
+     * Episodes are often published earlier than usual, so refreshing starts this long before the expected time.
+     */
+    private static final long EARLY_MARGIN = TimeUnit.HOURS.toMillis(12);
+    /**
+     * Feeds are still refreshed at least this often, for example to get bonus episodes and schedule changes.
+     */
+    private static final long MAX_TIME_WITHOUT_REFRESH = TimeUnit.DAYS.toMillis(1);
+    /**
+     * Feeds that recently released an episode are refreshed normally,
+     * because more episodes or corrections often follow soon after.
+     */
+    private static final long RECENT_RELEASE = TimeUnit.DAYS.toMillis(2);
+
+    private ReleaseScheduleFilter() {
+    }
+
+    /**
+     * @param releaseDates Publication dates of the newest episodes
+     * @return The time from which on the feed might have a new episode, or 0 if there is no reliable schedule
+     */
+    static long getNextLikelyUpdate(@NonNull List<Date> releaseDates) {
+        if (releaseDates.size() < MIN_RELEASES) {
+            return 0;
+        }
+        ReleaseScheduleGuesser.Guess guess = ReleaseScheduleGuesser.performGuess(new ArrayList<>(releaseDates));
+        if (guess.schedule == ReleaseScheduleGuesser.Schedule.UNKNOWN || guess.nextExpectedDate == null) {
+            return 0;
+        }
+        return guess.nextExpectedDate.getTime() - EARLY_MARGIN;
+    }
+
+    /**
+     * Whether the feed was refreshed successfully recently enough that it can be left out at all.
+     * Cheap to check before loading the release dates.
+     */
+    static boolean canSkip(@NonNull Feed feed, long now) {
+        return !feed.hasLastUpdateFailed() && feed.getLastRefreshAttempt() >= now - MAX_TIME_WITHOUT_REFRESH;
+    }
+
+    /**
+     * @param releaseDates Publication dates of the newest episodes
+     * @return true if the feed is very unlikely to have a new episode at the given time
+     */
+    static boolean isUpdateUnlikely(@NonNull List<Date> releaseDates, long now) {
+        long latestRelease = 0;
+        for (Date date : releaseDates) {
+            latestRelease = Math.max(latestRelease, date.getTime());
+        }
+        if (latestRelease > now - RECENT_RELEASE) {
+            return false;
+        }
+        return now < getNextLikelyUpdate(releaseDates);
+    }
+}
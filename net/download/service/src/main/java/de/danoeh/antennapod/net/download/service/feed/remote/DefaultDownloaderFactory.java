@@ -5,6 +5,8 @@ import android.webkit.URLUtil;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import de.danoeh.antennapod.model.download.DownloadRequest;
+import de.danoeh.antennapod.model.feed.FeedMedia;
+import de.danoeh.antennapod.storage.preferences.UserPreferences;
 
 public class DefaultDownloaderFactory implements DownloaderFactory {
     private static final String TAG = "DefaultDwnldrFactory";
@@ -16,6 +18,10 @@ public class DefaultDownloaderFactory implements DownloaderFactory {
             Log.e(TAG, "Could not find appropriate downloader for " + request.getSource());
             return null;
         }
+        if (request.getFeedfileType() == FeedMedia.FEEDFILETYPE_FEEDMEDIA
+                && (UserPreferences.isSegmentedDownloads() || SegmentedDownloader.hasUnfinishedDownload(request))) {
+            return new SegmentedDownloader(request);
+        }
         return new HttpDownloader(request);
     }
 }
\ No newline at end of file
@@ -1,7 +1,10 @@
 package de.danoeh.antennapod.net.download.service.feed.remote;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Date;
 import java.util.concurrent.Callable;
 
@@ -18,6 +21,8 @@ public abstract class Downloader implements Callable<Downloader> {
     private volatile boolean finished;
     public volatile boolean cancelled;
     public String permanentRedirectUrl = null;
+    @Nullable
+    StreamHandler streamHandler = null;
 
     @NonNull
     final DownloadRequest request;
@@ -59,4 +64,19 @@ public abstract class Downloader implements Callable<Downloader> {
         cancelled = true;
     }
 
+    /**
+     * Lets the handler read the data while it is downloaded, instead of storing it in the destination file.
+     */
+    public void setStreamHandler(@Nullable StreamHandler streamHandler) {
+        this.streamHandler = streamHandler;
+    }
+
+    public interface StreamHandler {
+        /**
+         * Reads the downloaded data. Exceptions thrown by the stream need to be passed on,
+         * so that the download can fail or be cancelled.
+         */
+        void handle(InputStream inputStream) throws IOException;
+    }
+
 }
\ No newline at end of file
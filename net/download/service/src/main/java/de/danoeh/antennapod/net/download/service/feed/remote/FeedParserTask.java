@@ -13,19 +13,43 @@ import de.danoeh.antennapod.parser.feed.FeedHandler;
 import de.danoeh.antennapod.parser.feed.FeedHandlerResult;
 import de.danoeh.antennapod.parser.feed.UnsupportedFeedtypeException;
 import de.danoeh.antennapod.model.download.DownloadError;
+import org.apache.commons.io.IOUtils;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.Map;
 import java.util.concurrent.Callable;
 
-public class FeedParserTask implements Callable<FeedHandlerResult> {
+/**
+ * Parses a downloaded feed. The feed can either be read from the destination file of the request
+ * after the download, or be parsed while it is downloaded by using this task as
+ * {@link Downloader.StreamHandler}.
+ */
+public class FeedParserTask implements Callable<FeedHandlerResult>, Downloader.StreamHandler {
     private static final String TAG = "FeedParserTask";
+    /**
+     * Number of the newest known items to compare with, see {@link #setKnownItems(Map)}.
+     */
+    public static final int NUM_KNOWN_ITEMS = 100;
+    /**
+     * Number of consecutive known items after which the remaining items are left out.
+     */
+    private static final int MIN_CONSECUTIVE_KNOWN_ITEMS = 10;
     private final DownloadRequest request;
     private DownloadResult downloadResult;
     private boolean successful = true;
+    private boolean parsedFromStream = false;
+    private FeedHandlerResult streamResult = null;
+    private Map<String, Long> knownItems = null;
 
     public FeedParserTask(DownloadRequest request) {
         this.request = request;
@@ -35,9 +59,69 @@ public class FeedParserTask implements Callable<FeedHandlerResult> {
                 "Unknown error: Status not set");
     }
 
+    /**
+     * Lets the parser leave out the oldest items if the feed is sorted newest first and its newest
+     * items are already known. The resulting feed must not be used to remove items that are no longer listed.
+     *
+     * @param knownItems Publication dates of the newest items in the database, by item identifier
+     */
+    public void setKnownItems(Map<String, Long> knownItems) {
+        this.knownItems = knownItems;
+    }
+
+    /**
+     * Parses the feed and sets the hash of the data as {@link Feed#getContentHash()}.
+     */
+    @Override
+    public void handle(InputStream inputStream) throws IOException {
+        MessageDigest digester;
+        try {
+            digester = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            streamResult = parse(inputStream);
+            parsedFromStream = true;
+            return;
+        }
+        DigestInputStream digestStream = new DigestInputStream(inputStream, digester);
+        streamResult = parse(digestStream);
+        parsedFromStream = true;
+        if (streamResult != null) {
+            // The parser does not need to read until the end, for example whitespace after the root element
+            IOUtils.consume(digestStream);
+            streamResult.feed.setContentHash(new BigInteger(1, digester.digest()).toString(16));
+        }
+    }
+
     @Override
     public FeedHandlerResult call() {
+        if (parsedFromStream) {
+            return streamResult;
+        }
+        try (InputStream inputStream = new FileInputStream(request.getDestination())) {
+            return parse(inputStream);
+        } catch (IOException e) {
+            e.printStackTrace();
+            successful = false;
+            downloadResult = new DownloadResult(request.getTitle(), request.getFeedfileId(),
+                    Feed.FEEDFILETYPE_FEED, false, DownloadError.ERROR_PARSER_EXCEPTION, e.getMessage());
+            return null;
+        } finally {
+            File feedFile = new File(request.getDestination());
+            if (feedFile.exists()) {
+                boolean deleted = feedFile.delete();
+                Log.d(TAG, "Deletion of file '" + feedFile.getAbsolutePath() + "' "
+                        + (deleted ? "successful" : "FAILED"));
+            }
+        }
+    }
+
+    /**
+     * @throws IOException if reading from the stream fails
+     */
+    private FeedHandlerResult parse(InputStream inputStream) throws IOException {
         Feed feed = new Feed(request.getSource(), request.getLastModified());
+        feed.setEtag(request.getEtag());
+        feed.setCacheExpires(request.getCacheExpires());
         feed.setLocalFileUrl(request.getDestination());
         feed.setId(request.getFeedfileId());
         feed.setPreferences(new FeedPreferences(0, FeedPreferences.AutoDownloadSetting.GLOBAL,
@@ -48,16 +132,19 @@ public class FeedParserTask implements Callable<FeedHandlerResult> {
         DownloadError reason = null;
         String reasonDetailed = null;
         FeedHandler feedHandler = new FeedHandler();
+        if (knownItems != null) {
+            feedHandler.setKnownItems(knownItems, MIN_CONSECUTIVE_KNOWN_ITEMS);
+        }
 
         FeedHandlerResult result = null;
         try {
-            result = feedHandler.parseFeed(feed);
+            result = feedHandler.parseFeed(feed, inputStream);
             Log.d(TAG, feed.getTitle() + " parsed");
             checkFeedData(feed);
             if (TextUtils.isEmpty(feed.getImageUrl())) {
                 feed.setImageUrl(Feed.PREFIX_GENERATIVE_COVER + feed.getDownloadUrl());
             }
-        } catch (SAXException | IOException | ParserConfigurationException e) {
+        } catch (SAXException | ParserConfigurationException e) {
             successful = false;
             e.printStackTrace();
             reason = DownloadError.ERROR_PARSER_EXCEPTION;
@@ -75,13 +162,6 @@ public class FeedParserTask implements Callable<FeedHandlerResult> {
             successful = false;
             reason = DownloadError.ERROR_PARSER_EXCEPTION;
             reasonDetailed = e.getMessage();
-        } finally {
-            File feedFile = new File(request.getDestination());
-            if (feedFile.exists()) {
-                boolean deleted = feedFile.delete();
-                Log.d(TAG, "Deletion of file '" + feedFile.getAbsolutePath() + "' "
-                        + (deleted ? "successful" : "FAILED"));
-            }
         }
 
         if (successful) {
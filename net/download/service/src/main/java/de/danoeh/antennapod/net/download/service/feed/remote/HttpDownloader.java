@@ -1,6 +1,7 @@
 package de.danoeh.antennapod.net.download.service.feed.remote;
 
 import android.os.StatFs;
+import android.os.SystemClock;
 import androidx.annotation.NonNull;
 import android.text.TextUtils;
 import android.util.Log;
@@ -17,6 +18,7 @@ import org.apache.commons.io.IOUtils;
 
 import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.RandomAccessFile;
@@ -27,9 +29,9 @@ import java.net.UnknownHostException;
 import java.util.Collections;
 import java.util.Date;
 import java.util.Locale;
+import java.util.concurrent.TimeUnit;
 
 import de.danoeh.antennapod.model.feed.FeedMedia;
-import de.danoeh.antennapod.parser.feed.util.DateUtils;
 import de.danoeh.antennapod.model.download.DownloadError;
 import de.danoeh.antennapod.net.common.UriUtil;
 import okhttp3.OkHttpClient;
@@ -40,7 +42,20 @@ import okhttp3.ResponseBody;
 
 public class HttpDownloader extends Downloader {
     private static final String TAG = "HttpDownloader";
-    private static final int BUFFER_SIZE = 8 * 1024;
+    /**
+     * Reads are collected until this many bytes are there or the progress is updated,
+     * so that the file is written in few large blocks.
+     */
+    private static final int BUFFER_SIZE = 128 * 1024;
+    /**
+     * The progress is updated at most every 500 ms, so calculating it for every block is not needed.
+     */
+    private static final long PROGRESS_UPDATE_INTERVAL = 500;
+    /**
+     * Upper limit for how long a response is used without asking the server again,
+     * in case a server announces a lifetime that is far too long for a feed.
+     */
+    private static final long MAX_CACHE_AGE = TimeUnit.DAYS.toMillis(1);
 
     public HttpDownloader(@NonNull DownloadRequest request) {
         super(request);
@@ -52,7 +67,6 @@ public class HttpDownloader extends Downloader {
         final boolean fileExists = destination.exists();
 
         RandomAccessFile out = null;
-        InputStream connection;
         ResponseBody responseBody = null;
 
         try {
@@ -73,22 +87,16 @@ public class HttpDownloader extends Downloader {
             }
 
             if (!TextUtils.isEmpty(request.getLastModified())) {
-                String lastModified = request.getLastModified();
-                Date lastModifiedDate = DateUtils.parse(lastModified);
-                if (lastModifiedDate != null) {
-                    long threeDaysAgo = System.currentTimeMillis() - 1000 * 60 * 60 * 24 * 3;
-                    if (lastModifiedDate.getTime() > threeDaysAgo) {
-                        Log.d(TAG, "addHeader(\"If-Modified-Since\", \"" + lastModified + "\")");
-                        httpReq.addHeader("If-Modified-Since", lastModified);
-                    }
-                } else {
-                    Log.d(TAG, "addHeader(\"If-None-Match\", \"" + lastModified + "\")");
-                    httpReq.addHeader("If-None-Match", lastModified);
-                }
+                Log.d(TAG, "addHeader(\"If-Modified-Since\", \"" + request.getLastModified() + "\")");
+                httpReq.addHeader("If-Modified-Since", request.getLastModified());
+            }
+            if (!TextUtils.isEmpty(request.getEtag())) {
+                Log.d(TAG, "addHeader(\"If-None-Match\", \"" + request.getEtag() + "\")");
+                httpReq.addHeader("If-None-Match", request.getEtag());
             }
 
             // add range header if necessary
-            if (fileExists && destination.length() > 0) {
+            if (streamHandler == null && fileExists && destination.length() > 0) {
                 request.setSoFar(destination.length());
                 httpReq.addHeader("Range", "bytes=" + request.getSoFar() + "-");
                 Log.d(TAG, "Adding range header: " + request.getSoFar());
@@ -103,12 +111,13 @@ public class HttpDownloader extends Downloader {
             }
 
             Log.d(TAG, "Response code is " + response.code());
-            if (!response.isSuccessful() && response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
-                Log.d(TAG, "Feed '" + request.getSource() + "' not modified since last update, Download canceled");
-                onCancelled();
+            if (response.code() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                Log.d(TAG, "Feed '" + request.getSource() + "' not modified since last update");
+                readCacheHeaders(response);
+                onNotModified();
                 return;
             } else if (!response.isSuccessful() || response.body() == null) {
-                callOnFailByResponseCode(response);
+                callOnFailByResponseCode(response.code());
                 return;
             } else if (request.getFeedfileType() == FeedMedia.FEEDFILETYPE_FEEDMEDIA
                     && isContentTypeTextAndSmallerThan100kb(response)) {
@@ -120,7 +129,10 @@ public class HttpDownloader extends Downloader {
                 permanentRedirectUrl = redirect;
             }
 
-            connection = new BufferedInputStream(responseBody.byteStream());
+            if (streamHandler != null) {
+                handleStream(new BufferedInputStream(responseBody.byteStream()), response);
+                return;
+            }
 
             String contentRangeHeader = (fileExists) ? response.header("Content-Range") : null;
             if (fileExists && response.code() == HttpURLConnection.HTTP_PARTIAL
@@ -141,8 +153,6 @@ public class HttpDownloader extends Downloader {
                 out = new RandomAccessFile(destination, "rw");
             }
 
-            byte[] buffer = new byte[BUFFER_SIZE];
-            int count;
             request.setStatusMsg(R.string.download_running);
             Log.d(TAG, "Getting size of download");
             request.setSize(responseBody.contentLength() + request.getSoFar());
@@ -160,12 +170,7 @@ public class HttpDownloader extends Downloader {
 
             Log.d(TAG, "Starting download");
             try {
-                while (!cancelled && (count = connection.read(buffer)) != -1) {
-                    out.write(buffer, 0, count);
-                    request.setSoFar(request.getSoFar() + count);
-                    int progressPercent = (int) (100.0 * request.getSoFar() / request.getSize());
-                    request.setProgressPercent(progressPercent);
-                }
+                transfer(responseBody.byteStream(), out);
             } catch (IOException e) {
                 Log.e(TAG, Log.getStackTraceString(e));
             }
@@ -183,27 +188,77 @@ public class HttpDownloader extends Downloader {
                     onFail(DownloadError.ERROR_IO_ERROR, "Download completed, but nothing was read");
                     return;
                 }
-                String lastModified = response.header("Last-Modified");
-                if (lastModified != null) {
-                    request.setLastModified(lastModified);
-                } else {
-                    request.setLastModified(response.header("ETag"));
-                }
+                readCacheHeaders(response);
                 onSuccess();
             }
 
-        } catch (IllegalArgumentException e) {
-            e.printStackTrace();
+        } catch (IllegalArgumentException | IOException | NullPointerException e) {
+            onException(e);
+        } finally {
+            IOUtils.closeQuietly(out);
+            IOUtils.closeQuietly(responseBody);
+        }
+    }
+
+    /**
+     * Copies the response body to the file until it ends or the download is cancelled.
+     */
+    private void transfer(InputStream in, RandomAccessFile out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long lastProgressUpdate = 0;
+        int filled = 0;
+        try {
+            while (!cancelled) {
+                int count = in.read(buffer, filled, buffer.length - filled);
+                if (count == -1) {
+                    break;
+                }
+                filled += count;
+                long now = SystemClock.elapsedRealtime();
+                boolean progressDue = now - lastProgressUpdate >= PROGRESS_UPDATE_INTERVAL;
+                if (filled == buffer.length || progressDue) {
+                    int length = filled;
+                    filled = 0; // Not written again by the finally block if writing fails
+                    writeBuffer(out, buffer, length);
+                }
+                if (progressDue) {
+                    updateProgress();
+                    lastProgressUpdate = now;
+                }
+            }
+        } finally {
+            // Keep what was received before a connection problem, so that the download can continue from there
+            writeBuffer(out, buffer, filled);
+        }
+        if (!cancelled) {
+            updateProgress();
+        }
+    }
+
+    private void writeBuffer(RandomAccessFile out, byte[] buffer, int length) throws IOException {
+        if (length > 0) {
+            out.write(buffer, 0, length);
+            request.setSoFar(request.getSoFar() + length);
+        }
+    }
+
+    private void updateProgress() {
+        request.setProgressPercent((int) (100.0 * request.getSoFar() / request.getSize()));
+    }
+
+    /**
+     * Reports the reason why the download failed with an exception.
+     */
+    void onException(Exception e) {
+        e.printStackTrace();
+        if (e instanceof IllegalArgumentException) {
             onFail(DownloadError.ERROR_MALFORMED_URL, e.getMessage());
-        } catch (SocketTimeoutException e) {
-            e.printStackTrace();
+        } else if (e instanceof SocketTimeoutException) {
             onFail(DownloadError.ERROR_CONNECTION_ERROR, e.getMessage());
-        } catch (UnknownHostException e) {
-            e.printStackTrace();
+        } else if (e instanceof UnknownHostException) {
             onFail(DownloadError.ERROR_UNKNOWN_HOST, e.getMessage());
-        } catch (IOException e) {
-            e.printStackTrace();
-            if (NetworkUtils.wasDownloadBlocked(e)) {
+        } else if (e instanceof IOException) {
+            if (NetworkUtils.wasDownloadBlocked((IOException) e)) {
                 onFail(DownloadError.ERROR_IO_BLOCKED, e.getMessage());
                 return;
             }
@@ -213,17 +268,94 @@ public class HttpDownloader extends Downloader {
                 return;
             }
             onFail(DownloadError.ERROR_IO_ERROR, e.getMessage());
-        } catch (NullPointerException e) {
-            // might be thrown by connection.getInputStream()
-            e.printStackTrace();
+        } else {
+            // NullPointerException, might be thrown by connection.getInputStream()
             onFail(DownloadError.ERROR_CONNECTION_ERROR, request.getSource());
-        } finally {
-            IOUtils.closeQuietly(out);
-            IOUtils.closeQuietly(responseBody);
         }
     }
 
-    private Response newCall(Request.Builder httpReq) throws IOException {
+    /**
+     * Passes the response to the stream handler instead of writing it to the destination file.
+     */
+    private void handleStream(InputStream connection, Response response) throws IOException {
+        request.setStatusMsg(R.string.download_running);
+        request.setSize(response.body().contentLength());
+        if (request.getSize() < 0) {
+            request.setSize(DownloadResult.SIZE_UNKNOWN);
+        }
+        // The handler might need the new values, like the parser does when creating the feed
+        readCacheHeaders(response);
+
+        Log.d(TAG, "Starting to handle stream");
+        try {
+            streamHandler.handle(new ProgressInputStream(connection));
+        } catch (IOException e) {
+            if (!cancelled) {
+                throw e;
+            }
+        }
+        if (cancelled) {
+            onCancelled();
+        } else {
+            onSuccess();
+        }
+    }
+
+    /**
+     * Stores the validators for the next conditional request and how long the response may be used.
+     */
+    private void readCacheHeaders(Response response) {
+        // A "not modified" response only needs to repeat the validators that changed
+        boolean notModified = response.code() == HttpURLConnection.HTTP_NOT_MODIFIED;
+        String lastModified = response.header("Last-Modified");
+        if (lastModified != null || !notModified) {
+            request.setLastModified(lastModified);
+        }
+        String etag = response.header("ETag");
+        if (etag != null || !notModified) {
+            request.setEtag(etag);
+        }
+        request.setCacheExpires(getCacheExpires(response, System.currentTimeMillis()));
+    }
+
+    /**
+     * Calculates the time until which the response is fresh according to the Cache-Control max-age
+     * or Expires header. The time is limited to {@link #MAX_CACHE_AGE}.
+     *
+     * @return The expiry time, or 0 if the response must not be used without asking the server again
+     */
+    static long getCacheExpires(Response response, long now) {
+        CacheControl cacheControl = response.cacheControl();
+        if (cacheControl.noCache() || cacheControl.noStore()) {
+            return 0;
+        }
+        long maxAge;
+        if (cacheControl.maxAgeSeconds() >= 0) {
+            maxAge = TimeUnit.SECONDS.toMillis(cacheControl.maxAgeSeconds());
+            String age = response.header("Age");
+            if (age != null) {
+                try {
+                    maxAge -= TimeUnit.SECONDS.toMillis(Long.parseLong(age.trim()));
+                } catch (NumberFormatException e) {
+                    e.printStackTrace();
+                }
+            }
+        } else {
+            Date expires = response.headers().getDate("Expires");
+            if (expires == null) {
+                return 0;
+            }
+            // Compare with the server's clock, which might differ from the device's clock
+            Date date = response.headers().getDate("Date");
+            maxAge = expires.getTime() - (date != null ? date.getTime() : now);
+        }
+        if (maxAge <= 0) {
+            return 0;
+        }
+        return now + Math.min(maxAge, MAX_CACHE_AGE);
+    }
+
+    Response newCall(Request.Builder httpReq) throws IOException {
         OkHttpClient httpClient = AntennapodHttpClient.getHttpClient();
         try {
             return httpClient.newCall(httpReq.build()).execute();
@@ -257,27 +389,26 @@ public class HttpDownloader extends Downloader {
         return contentType != null && contentType.startsWith("text/") && contentLength < 100 * 1024;
     }
 
-    private void callOnFailByResponseCode(Response response) {
+    void callOnFailByResponseCode(int code) {
         final DownloadError error;
         final String details;
-        if (response.code() == HttpURLConnection.HTTP_UNAUTHORIZED) {
+        if (code == HttpURLConnection.HTTP_UNAUTHORIZED) {
             error = DownloadError.ERROR_UNAUTHORIZED;
-            details = String.valueOf(response.code());
-        } else if (response.code() == HttpURLConnection.HTTP_FORBIDDEN) {
+            details = String.valueOf(code);
+        } else if (code == HttpURLConnection.HTTP_FORBIDDEN) {
             error = DownloadError.ERROR_FORBIDDEN;
-            details = String.valueOf(response.code());
-        } else if (response.code() == HttpURLConnection.HTTP_NOT_FOUND
-                || response.code() == HttpURLConnection.HTTP_GONE) {
+            details = String.valueOf(code);
+        } else if (code == HttpURLConnection.HTTP_NOT_FOUND || code == HttpURLConnection.HTTP_GONE) {
             error = DownloadError.ERROR_NOT_FOUND;
-            details = String.valueOf(response.code());
+            details = String.valueOf(code);
         } else {
             error = DownloadError.ERROR_HTTP_DATA_ERROR;
-            details = String.valueOf(response.code());
+            details = String.valueOf(code);
         }
         onFail(error, details);
     }
 
-    private static long getFreeSpaceAvailable() {
+    static long getFreeSpaceAvailable() {
         File dataFolder = UserPreferences.getDataFolder(null);
         if (dataFolder != null) {
             StatFs stat = new StatFs(dataFolder.getAbsolutePath());
@@ -289,19 +420,66 @@ public class HttpDownloader extends Downloader {
         }
     }
 
-    private void onSuccess() {
+    void onSuccess() {
         Log.d(TAG, "Download was successful");
         result.setSuccessful();
     }
 
-    private void onFail(DownloadError reason, String reasonDetailed) {
+    private void onNotModified() {
+        Log.d(TAG, "Download was not needed");
+        result.setNotChanged();
+    }
+
+    void onFail(DownloadError reason, String reasonDetailed) {
         Log.d(TAG, "onFail() called with: " + "reason = [" + reason + "], reasonDetailed = [" + reasonDetailed + "]");
         result.setFailed(reason, reasonDetailed);
     }
 
-    private void onCancelled() {
+    void onCancelled() {
         Log.d(TAG, "Download was cancelled");
         result.setCancelled();
         cancelled = true;
     }
+
+    /**
+     * Updates the progress while the stream handler reads, and stops reading when the download is cancelled.
+     */
+    private class ProgressInputStream extends FilterInputStream {
+        ProgressInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            throwIfCancelled();
+            int value = super.read();
+            if (value != -1) {
+                onProgress(1);
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            throwIfCancelled();
+            int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                onProgress(count);
+            }
+            return count;
+        }
+
+        private void throwIfCancelled() throws IOException {
+            if (cancelled) {
+                throw new IOException("Download was cancelled");
+            }
+        }
+
+        private void onProgress(int count) {
+            request.setSoFar(request.getSoFar() + count);
+            if (request.getSize() > 0) {
+                request.setProgressPercent((int) (100.0 * request.getSoFar() / request.getSize()));
+            }
+        }
+    }
 }
@@ -0,0 +1,191 @@
+package de.danoeh.antennapod.net.download.service.feed.remote;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Byte ranges of a file that is downloaded over several connections, and how far each of them got.
+ * While the download is running, the state is stored at the end of the destination file, after the content.
+ * This way, it is deleted together with the file, and an interrupted download can continue every segment
+ * where it stopped. The trailer is removed once all segments are complete.
+ */
+class SegmentedDownloadState {
+    private static final long MAGIC = 0x4150534547444c31L; // "APSEGDL1"
+    private static final int FOOTER_SIZE = 4 + 8;
+    private static final int MAX_TRAILER_SIZE = 16 * 1024;
+
+    final long size;
+    @NonNull
+    final String validator;
+    @NonNull
+    final Segment[] segments;
+
+    static class Segment {
+        final long start;
+        /**
+         * Exclusive.
+         */
+        final long end;
+        volatile long position;
+
+        Segment(long start, long end, long position) {
+            this.start = start;
+            this.end = end;
+            this.position = position;
+        }
+
+        boolean isComplete() {
+            return position >= end;
+        }
+    }
+
+    private SegmentedDownloadState(long size, @NonNull String validator, @NonNull Segment[] segments) {
+        this.size = size;
+        this.validator = validator;
+        this.segments = segments;
+    }
+
+    /**
+     * Splits the file into segments of the same size.
+     *
+     * @param validator ETag or Last-Modified value of the file, or an empty string if the server did not send one
+     * @param alreadyDownloaded Number of bytes at the start of the file that were downloaded previously
+     */
+    static SegmentedDownloadState create(long size, @NonNull String validator, int numSegments,
+                                         long alreadyDownloaded) {
+        Segment[] segments = new Segment[numSegments];
+        for (int i = 0; i < numSegments; i++) {
+            long start = size * i / numSegments;
+            long end = size * (i + 1) / numSegments;
+            segments[i] = new Segment(start, end, Math.max(start, Math.min(end, alreadyDownloaded)));
+        }
+        return new SegmentedDownloadState(size, validator, segments);
+    }
+
+    /**
+     * Whether the file ends with the state of a segmented download.
+     */
+    static boolean isPresent(@NonNull File file) {
+        if (!file.exists() || file.length() < FOOTER_SIZE) {
+            return false;
+        }
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            in.seek(file.length() - 8);
+            return in.readLong() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return The state stored at the end of the file, or null if there is none
+     * @throws IOException if the file could not be read or the state is broken
+     */
+    @Nullable
+    static SegmentedDownloadState read(@NonNull File file) throws IOException {
+        if (!isPresent(file)) {
+            return null;
+        }
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            long length = in.length();
+            in.seek(length - FOOTER_SIZE);
+            int trailerSize = in.readInt();
+            if (trailerSize <= 0 || trailerSize > MAX_TRAILER_SIZE || trailerSize > length - FOOTER_SIZE) {
+                throw new IOException("Invalid segment state size " + trailerSize);
+            }
+            byte[] trailer = new byte[trailerSize];
+            in.seek(length - FOOTER_SIZE - trailerSize);
+            in.readFully(trailer);
+
+            DataInputStream data = new DataInputStream(new ByteArrayInputStream(trailer));
+            long size = data.readLong();
+            String validator = data.readUTF();
+            int numSegments = data.readInt();
+            if (size != length - FOOTER_SIZE - trailerSize || numSegments <= 0) {
+                throw new IOException("Segment state does not match the file");
+            }
+            Segment[] segments = new Segment[numSegments];
+            long expectedStart = 0;
+            for (int i = 0; i < numSegments; i++) {
+                long start = data.readLong();
+                long end = data.readLong();
+                long position = data.readLong();
+                if (start != expectedStart || end < start || position < start || position > end) {
+                    throw new IOException("Invalid segment " + start + "-" + end + " at " + position);
+                }
+                segments[i] = new Segment(start, end, position);
+                expectedStart = end;
+            }
+            if (expectedStart != size) {
+                throw new IOException("Segments do not cover the file");
+            }
+            return new SegmentedDownloadState(size, validator, segments);
+        }
+    }
+
+    /**
+     * Stores the state after the content of the file.
+     */
+    synchronized void write(@NonNull FileChannel channel) throws IOException {
+        ByteArrayOutputStream trailer = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(trailer);
+        data.writeLong(size);
+        data.writeUTF(validator);
+        data.writeInt(segments.length);
+        for (Segment segment : segments) {
+            data.writeLong(segment.start);
+            data.writeLong(segment.end);
+            data.writeLong(segment.position);
+        }
+        data.writeInt(trailer.size());
+        data.writeLong(MAGIC);
+        ByteBuffer buffer = ByteBuffer.wrap(trailer.toByteArray());
+        long position = size;
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    boolean matches(long size, @NonNull String validator) {
+        return this.size == size && !validator.isEmpty() && this.validator.equals(validator);
+    }
+
+    long getDownloaded() {
+        long downloaded = 0;
+        for (Segment segment : segments) {
+            downloaded += segment.position - segment.start;
+        }
+        return downloaded;
+    }
+
+    /**
+     * @return Number of bytes at the start of the file that are downloaded without gaps
+     */
+    long getContiguousEnd() {
+        for (Segment segment : segments) {
+            if (!segment.isComplete()) {
+                return segment.position;
+            }
+        }
+        return size;
+    }
+
+    boolean isComplete() {
+        for (Segment segment : segments) {
+            if (!segment.isComplete()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
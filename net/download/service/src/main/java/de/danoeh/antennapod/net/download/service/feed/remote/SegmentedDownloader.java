@@ -0,0 +1,375 @@
+package de.danoeh.antennapod.net.download.service.feed.remote;
+
+import android.os.SystemClock;
+import android.util.Log;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import de.danoeh.antennapod.model.download.DownloadError;
+import de.danoeh.antennapod.model.download.DownloadRequest;
+import de.danoeh.antennapod.net.common.RedirectChecker;
+import de.danoeh.antennapod.net.common.UriUtil;
+import de.danoeh.antennapod.net.download.service.R;
+import okhttp3.CacheControl;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Downloads large episodes over several connections at the same time, each of them fetching a different
+ * byte range into its part of the preallocated destination file. This helps with servers that limit the
+ * speed of each connection. Falls back to a single connection if the server does not support range requests
+ * or the file is too small to be worth splitting.
+ */
+class SegmentedDownloader extends HttpDownloader {
+    private static final String TAG = "SegmentedDownloader";
+    static final int MAX_SEGMENTS = 4;
+    static final long MIN_SEGMENT_SIZE = 4 * 1024 * 1024;
+    private static final int MAX_SEGMENT_ATTEMPTS = 3;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /**
+     * How often the progress of the segments is stored, in case the app is killed.
+     */
+    private static final long STATE_SAVE_INTERVAL = TimeUnit.SECONDS.toMillis(5);
+
+    private volatile Exception failure = null;
+    private long lastStateSave;
+
+    SegmentedDownloader(@NonNull DownloadRequest request) {
+        super(request);
+    }
+
+    /**
+     * Whether the destination contains an unfinished segmented download, which only this downloader can continue.
+     */
+    static boolean hasUnfinishedDownload(@NonNull DownloadRequest request) {
+        return request.getDestination() != null
+                && SegmentedDownloadState.isPresent(new File(request.getDestination()));
+    }
+
+    @Override
+    protected void download() {
+        if (streamHandler != null || request.getDestination() == null) {
+            super.download();
+            return;
+        }
+        File destination = new File(request.getDestination());
+        SegmentedDownloadState state = null;
+        try {
+            try {
+                state = SegmentedDownloadState.read(destination);
+            } catch (IOException e) {
+                Log.e(TAG, "Unable to continue segmented download: " + e.getMessage());
+                truncate(destination, 0);
+            }
+
+            RangeSupport rangeSupport = probe();
+            int numSegments = rangeSupport != null ? getNumSegments(rangeSupport.size) : 1;
+            if (numSegments < 2) {
+                Log.d(TAG, "Downloading over a single connection");
+                if (state != null) {
+                    truncate(destination, state.getContiguousEnd());
+                }
+                super.download();
+                return;
+            }
+
+            if (state != null && !state.matches(rangeSupport.size, rangeSupport.validator)) {
+                Log.d(TAG, "File changed on the server, starting again");
+                state = null;
+                truncate(destination, 0);
+            }
+            if (state == null) {
+                // Data from an earlier download over a single connection can still be used
+                long alreadyDownloaded = destination.exists() ? destination.length() : 0;
+                if (alreadyDownloaded > rangeSupport.size) {
+                    alreadyDownloaded = 0;
+                }
+                state = SegmentedDownloadState.create(rangeSupport.size, rangeSupport.validator,
+                        numSegments, alreadyDownloaded);
+            }
+
+            request.setStatusMsg(R.string.download_running);
+            request.setSize(state.size);
+            request.setSoFar(state.getDownloaded());
+            long missing = state.size - (destination.exists() ? Math.min(destination.length(), state.size) : 0);
+            if (missing > getFreeSpaceAvailable()) {
+                onFail(DownloadError.ERROR_NOT_ENOUGH_SPACE, null);
+                return;
+            }
+            downloadSegments(destination, state, rangeSupport.url);
+        } catch (IllegalArgumentException | IOException e) {
+            onException(e);
+        }
+    }
+
+    private void downloadSegments(File destination, SegmentedDownloadState state, String url) throws IOException {
+        List<SegmentedDownloadState.Segment> pending = new ArrayList<>();
+        for (SegmentedDownloadState.Segment segment : state.segments) {
+            if (!segment.isComplete()) {
+                pending.add(segment);
+            }
+        }
+        Log.d(TAG, "Downloading " + pending.size() + " of " + state.segments.length + " segments of " + url);
+
+        try (RandomAccessFile file = new RandomAccessFile(destination, "rw")) {
+            FileChannel channel = file.getChannel();
+            file.setLength(state.size);
+            state.write(channel);
+            lastStateSave = SystemClock.elapsedRealtime();
+
+            if (!pending.isEmpty()) {
+                ExecutorService executor = Executors.newFixedThreadPool(pending.size());
+                List<Future<?>> futures = new ArrayList<>();
+                for (SegmentedDownloadState.Segment segment : pending) {
+                    futures.add(executor.submit(() -> downloadSegment(url, state, segment, channel)));
+                }
+                executor.shutdown();
+                for (Future<?> future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException | InterruptedException e) {
+                        setFailure(e);
+                    }
+                }
+            }
+
+            if (cancelled) {
+                state.write(channel);
+                onCancelled();
+                return;
+            } else if (failure != null) {
+                if (failure instanceof ChangedOnServerException) {
+                    file.setLength(0);
+                    onFail(DownloadError.ERROR_IO_WRONG_SIZE, failure.getMessage());
+                    return;
+                }
+                state.write(channel);
+                if (failure instanceof HttpStatusException) {
+                    callOnFailByResponseCode(((HttpStatusException) failure).code);
+                } else {
+                    onException(failure);
+                }
+                return;
+            } else if (!state.isComplete()) {
+                state.write(channel);
+                onFail(DownloadError.ERROR_IO_WRONG_SIZE, "Download completed, but segments are missing");
+                return;
+            }
+            // All segments are there, remove the state
+            file.setLength(state.size);
+        }
+        request.setSoFar(state.size);
+        request.setProgressPercent(100);
+        onSuccess();
+    }
+
+    /**
+     * Downloads the rest of the segment. Connection problems are retried from the current position.
+     */
+    private void downloadSegment(String url, SegmentedDownloadState state,
+                                 SegmentedDownloadState.Segment segment, FileChannel channel) {
+        for (int attempt = 1; !segment.isComplete() && !cancelled && failure == null; attempt++) {
+            try {
+                downloadRange(url, state, segment, channel);
+            } catch (ChangedOnServerException | HttpStatusException e) {
+                setFailure(e);
+            } catch (IOException e) {
+                if (attempt >= MAX_SEGMENT_ATTEMPTS || cancelled) {
+                    setFailure(e);
+                    return;
+                }
+                Log.d(TAG, "Retrying segment at " + segment.position + ": " + e.getMessage());
+                SystemClock.sleep(attempt * 1000L);
+            }
+        }
+    }
+
+    private void downloadRange(String url, SegmentedDownloadState state, SegmentedDownloadState.Segment segment,
+                               FileChannel channel) throws IOException {
+        Request.Builder httpReq = newRequest(url)
+                .header("Range", "bytes=" + segment.position + "-" + (segment.end - 1));
+        if (!state.validator.isEmpty()) {
+            // Makes the server send the whole new file instead of mixing old and new content
+            httpReq.header("If-Range", state.validator);
+        }
+        try (Response response = newCall(httpReq)) {
+            ResponseBody body = response.body();
+            if (response.code() == HttpURLConnection.HTTP_OK) {
+                throw new ChangedOnServerException("Server sent the whole file instead of a segment");
+            } else if (!response.isSuccessful() || body == null) {
+                throw new HttpStatusException(response.code());
+            } else if (response.code() != HttpURLConnection.HTTP_PARTIAL
+                    || getRangeStart(response.header("Content-Range")) != segment.position
+                    || getRangeSize(response.header("Content-Range")) != state.size) {
+                throw new ChangedOnServerException("Unexpected range " + response.header("Content-Range"));
+            }
+
+            byte[] buffer = new byte[BUFFER_SIZE];
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+            InputStream in = body.byteStream();
+            while (!segment.isComplete() && !cancelled && failure == null) {
+                int count = in.read(buffer, 0, (int) Math.min(buffer.length, segment.end - segment.position));
+                if (count == -1) {
+                    throw new IOException("Connection closed before the end of the segment");
+                }
+                byteBuffer.position(0).limit(count);
+                long position = segment.position;
+                while (byteBuffer.hasRemaining()) {
+                    position += channel.write(byteBuffer, position);
+                }
+                segment.position = position;
+                onProgress(state, channel, count);
+            }
+        }
+    }
+
+    private synchronized void onProgress(SegmentedDownloadState state, FileChannel channel, int count)
+            throws IOException {
+        request.setSoFar(request.getSoFar() + count);
+        request.setProgressPercent((int) (100.0 * request.getSoFar() / request.getSize()));
+        if (SystemClock.elapsedRealtime() - lastStateSave > STATE_SAVE_INTERVAL) {
+            state.write(channel);
+            lastStateSave = SystemClock.elapsedRealtime();
+        }
+    }
+
+    private synchronized void setFailure(Exception e) {
+        if (failure == null) {
+            failure = e instanceof ExecutionException && e.getCause() instanceof Exception
+                    ? (Exception) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Asks for the first byte to find out whether the server supports range requests and how large the file is.
+     *
+     * @return null if the file cannot be downloaded in segments
+     */
+    @Nullable
+    private RangeSupport probe() throws IOException {
+        try (Response response = newCall(newRequest(request.getSource()).header("Range", "bytes=0-0"))) {
+            String contentType = response.header("Content-Type");
+            if (response.code() != HttpURLConnection.HTTP_PARTIAL
+                    || (contentType != null && contentType.startsWith("text/"))) {
+                return null;
+            }
+            long size = getRangeSize(response.header("Content-Range"));
+            if (size <= 0) {
+                return null;
+            }
+            String redirect = RedirectChecker.getNewUrlIfPermanentRedirect(response);
+            if (redirect != null) {
+                permanentRedirectUrl = redirect;
+            }
+            // Only strong validators can be used to combine ranges
+            String validator = response.header("ETag");
+            if (validator == null || validator.startsWith("W/")) {
+                validator = response.header("Last-Modified");
+            }
+            // Segments are requested from where the redirects ended up
+            return new RangeSupport(response.request().url().toString(), size, validator != null ? validator : "");
+        }
+    }
+
+    private Request.Builder newRequest(String url) throws IOException {
+        URI uri = UriUtil.getURIFromRequestUrl(url);
+        Request.Builder httpReq = new Request.Builder().url(uri.toURL());
+        httpReq.tag(request);
+        httpReq.addHeader("Accept-Encoding", "identity");
+        httpReq.cacheControl(new CacheControl.Builder().noCache().build());
+        if ("http".equals(uri.getScheme())) {
+            httpReq.addHeader("Upgrade-Insecure-Requests", "1");
+        }
+        return httpReq;
+    }
+
+    static int getNumSegments(long size) {
+        return (int) Math.min(MAX_SEGMENTS, size / MIN_SEGMENT_SIZE);
+    }
+
+    /**
+     * @param contentRange Header like "bytes 0-0/1234"
+     * @return The start of the range, or -1 if the header is invalid
+     */
+    static long getRangeStart(@Nullable String contentRange) {
+        if (contentRange == null || !contentRange.startsWith("bytes ") || contentRange.indexOf('-') < 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentRange.substring("bytes ".length(), contentRange.indexOf('-')).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @param contentRange Header like "bytes 0-0/1234"
+     * @return The size of the whole file, or -1 if it is unknown
+     */
+    static long getRangeSize(@Nullable String contentRange) {
+        if (contentRange == null || contentRange.indexOf('/') < 0) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(contentRange.substring(contentRange.indexOf('/') + 1).trim());
+        } catch (NumberFormatException e) {
+            return -1; // "*"
+        }
+    }
+
+    private static void truncate(File file, long length) throws IOException {
+        if (!file.exists()) {
+            return;
+        }
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.setLength(length);
+        }
+    }
+
+    private static class RangeSupport {
+        final String url;
+        final long size;
+        final String validator;
+
+        RangeSupport(String url, long size, String validator) {
+            this.url = url;
+            this.size = size;
+            this.validator = validator;
+        }
+    }
+
+    /**
+     * The segments no longer belong to the same file. The download needs to start again.
+     */
+    private static class ChangedOnServerException extends IOException {
+        ChangedOnServerException(String message) {
+            super(message);
+        }
+    }
+
+    private static class HttpStatusException extends IOException {
+        final int code;
+
+        HttpStatusException(int code) {
+            super("HTTP status " + code);
+            this.code = code;
+        }
+    }
+}
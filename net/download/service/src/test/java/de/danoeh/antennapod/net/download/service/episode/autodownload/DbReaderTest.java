@@ -147,6 +147,33 @@ public class DbReaderTest {
             }
         }
 
+        @Test
+        public void testLoadFeedDataOfFeedItemlistFollowsWrites() {
+            Feed feed = saveFeedlist(1, 2, false).get(0);
+            List<FeedItem> items = DBReader.getEpisodes(0, Integer.MAX_VALUE,
+                    FeedItemFilter.unfiltered(), SortOrder.DATE_NEW_OLD);
+            assertEquals(2, items.size());
+            assertFalse(items.get(0).isTagged(FeedItem.TAG_QUEUE));
+
+            PodDBAdapter adapter = PodDBAdapter.getInstance();
+            adapter.open();
+            adapter.setFeedCustomTitle(feed.getId(), "Custom title");
+            adapter.addQueueItem(items.get(0), 0);
+            adapter.addFavoriteItem(items.get(1));
+            adapter.close();
+
+            List<FeedItem> reloaded = DBReader.getEpisodes(0, Integer.MAX_VALUE,
+                    FeedItemFilter.unfiltered(), SortOrder.DATE_NEW_OLD);
+            assertEquals("Custom title", reloaded.get(0).getFeed().getTitle());
+            assertTrue(reloaded.get(0).isTagged(FeedItem.TAG_QUEUE));
+            assertFalse(reloaded.get(1).isTagged(FeedItem.TAG_QUEUE));
+            assertTrue(reloaded.get(1).isTagged(FeedItem.TAG_FAVORITE));
+
+            // Callers may change the returned list without affecting the cached queue
+            DBReader.getQueueIDList().clear();
+            assertEquals(1, DBReader.getQueueIDList().size());
+        }
+
         @Test
         public void testGetFeedItemList() {
             final int numFeeds = 1;
@@ -166,6 +193,40 @@ public class DbReaderTest {
             }
         }
 
+        @Test
+        public void testGetEpisodesAfterItem() {
+            List<Feed> feeds = saveFeedlist(3, 7, true);
+            SortOrder[] sortOrders = {SortOrder.DATE_NEW_OLD, SortOrder.DATE_OLD_NEW, SortOrder.EPISODE_TITLE_A_Z,
+                SortOrder.EPISODE_TITLE_Z_A, SortOrder.SIZE_SMALL_LARGE, SortOrder.DURATION_LONG_SHORT};
+            for (SortOrder sortOrder : sortOrders) {
+                List<FeedItem> expected = DBReader.getEpisodes(0, Integer.MAX_VALUE,
+                        FeedItemFilter.unfiltered(), sortOrder);
+                List<FeedItem> paged = new ArrayList<>();
+                List<FeedItem> page = DBReader.getEpisodes(null, 4, FeedItemFilter.unfiltered(), sortOrder);
+                while (!page.isEmpty()) {
+                    paged.addAll(page);
+                    page = DBReader.getEpisodes(page.get(page.size() - 1), 4,
+                            FeedItemFilter.unfiltered(), sortOrder);
+                }
+                assertEquals(sortOrder.name(), expected.size(), paged.size());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(sortOrder.name(), expected.get(i).getId(), paged.get(i).getId());
+                }
+            }
+
+            Feed feed = feeds.get(1);
+            List<FeedItem> firstPage = DBReader.getFeed(feed.getId(), false, null, 4).getItems();
+            List<FeedItem> secondPage = DBReader.getFeed(feed.getId(), false,
+                    firstPage.get(firstPage.size() - 1), 4).getItems();
+            assertEquals(4, firstPage.size());
+            assertEquals(3, secondPage.size());
+            List<FeedItem> all = DBReader.getFeed(feed.getId(), false, 0, Integer.MAX_VALUE).getItems();
+            for (int i = 0; i < all.size(); i++) {
+                FeedItem pagedItem = i < 4 ? firstPage.get(i) : secondPage.get(i - 4);
+                assertEquals(all.get(i).getId(), pagedItem.getId());
+            }
+        }
+
         @SuppressWarnings("SameParameterValue")
         private List<FeedItem> saveQueue(int numItems) {
             if (numItems <= 0) {
@@ -24,6 +24,8 @@ import java.util.List;
 import de.danoeh.antennapod.model.feed.Feed;
 import de.danoeh.antennapod.model.feed.FeedItem;
 import de.danoeh.antennapod.model.feed.FeedMedia;
+import de.danoeh.antennapod.model.feed.FeedPreferences;
+import de.danoeh.antennapod.model.feed.VolumeAdaptionSetting;
 import de.danoeh.antennapod.storage.preferences.PlaybackPreferences;
 import de.danoeh.antennapod.storage.preferences.UserPreferences;
 
@@ -225,6 +227,86 @@ public class DbTasksTest {
     }
 
 
+    @Test
+    public void testUpdateFeedOnlyWritesChangedRows() {
+        FeedDatabaseWriter.updateFeed(context, createFeedWithMedia("item 3"), false);
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+
+        long writtenBefore = adapter.getChangedRowsWritten();
+        long skippedBefore = adapter.getUnchangedRowsSkipped();
+        Feed sameFeed = FeedDatabaseWriter.updateFeed(context, createFeedWithMedia("item 3"), false);
+        assertEquals(0, adapter.getChangedRowsWritten() - writtenBefore);
+        assertEquals(21, adapter.getUnchangedRowsSkipped() - skippedBefore); // feed, 10 items, 10 media
+
+        writtenBefore = adapter.getChangedRowsWritten();
+        FeedDatabaseWriter.updateFeed(context, createFeedWithMedia("item 3 renamed"), false);
+        assertEquals(1, adapter.getChangedRowsWritten() - writtenBefore);
+
+        Feed feedFromDB = DBReader.getFeed(sameFeed.getId(), false, 0, Integer.MAX_VALUE);
+        assertEquals(10, feedFromDB.getItems().size());
+        boolean found = false;
+        for (FeedItem item : feedFromDB.getItems()) {
+            assertTrue(item.isPlayed());
+            found |= "item 3 renamed".equals(item.getTitle());
+        }
+        assertTrue(found);
+    }
+
+    @Test
+    public void testUpdateFeedOnlyWritesChangedPreferences() {
+        FeedDatabaseWriter.updateFeed(context, createFeedWithMedia("item 3"), false);
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+
+        long writtenBefore = adapter.getChangedRowsWritten();
+        long skippedBefore = adapter.getUnchangedRowsSkipped();
+        Feed savedFeed = FeedDatabaseWriter.updateFeed(context, createFeedWithCredentials("user", "secret"), false);
+        assertEquals(1, adapter.getChangedRowsWritten() - writtenBefore); // feed row with the new credentials
+        assertEquals(20, adapter.getUnchangedRowsSkipped() - skippedBefore);
+
+        writtenBefore = adapter.getChangedRowsWritten();
+        skippedBefore = adapter.getUnchangedRowsSkipped();
+        FeedDatabaseWriter.updateFeed(context, createFeedWithCredentials("user", "secret"), false);
+        assertEquals(0, adapter.getChangedRowsWritten() - writtenBefore);
+        assertEquals(21, adapter.getUnchangedRowsSkipped() - skippedBefore);
+
+        Feed feedFromDB = DBReader.getFeed(savedFeed.getId(), false, 0, Integer.MAX_VALUE);
+        assertEquals("user", feedFromDB.getPreferences().getUsername());
+        assertEquals("secret", feedFromDB.getPreferences().getPassword());
+    }
+
+    @Test
+    public void testUpdateFeedStoresCacheExpires() {
+        Feed feed = FeedDatabaseWriter.updateFeed(context, createFeedWithMedia("item 3"), false);
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+
+        long writtenBefore = adapter.getChangedRowsWritten();
+        Feed newFeed = createFeedWithMedia("item 3");
+        newFeed.setCacheExpires(123456);
+        FeedDatabaseWriter.updateFeed(context, newFeed, false);
+        assertEquals(1, adapter.getChangedRowsWritten() - writtenBefore);
+        assertEquals(123456, DBReader.getFeed(feed.getId(), false, 0, Integer.MAX_VALUE).getCacheExpires());
+    }
+
+    private Feed createFeedWithCredentials(String username, String password) {
+        Feed feed = createFeedWithMedia("item 3");
+        feed.setPreferences(new FeedPreferences(0, FeedPreferences.AutoDownloadSetting.GLOBAL,
+                FeedPreferences.AutoDeleteAction.GLOBAL, VolumeAdaptionSetting.OFF,
+                FeedPreferences.NewEpisodesAction.GLOBAL, username, password));
+        return feed;
+    }
+
+    private Feed createFeedWithMedia(String titleOfThirdItem) {
+        final Feed feed = new Feed("url", null, "title");
+        feed.setItems(new ArrayList<>());
+        for (int i = 0; i < 10; i++) {
+            String title = i == 3 ? titleOfThirdItem : "item " + i;
+            FeedItem item = new FeedItem(0, title, "id " + i, "link " + i, new Date(i), FeedItem.PLAYED, feed);
+            item.setMedia(new FeedMedia(item, "download url " + i, 123, "media/mp3"));
+            feed.getItems().add(item);
+        }
+        return feed;
+    }
+
     @SuppressWarnings("SameParameterValue")
     private void updatedFeedTest(final Feed newFeed, long feedID, List<Long> itemIDs,
                                  int numItemsOld, int numItemsNew) {
@@ -9,7 +9,9 @@ import androidx.core.util.Consumer;
 import androidx.preference.PreferenceManager;
 import androidx.test.platform.app.InstrumentationRegistry;
 
+import de.danoeh.antennapod.model.feed.FeedCounter;
 import de.danoeh.antennapod.model.feed.FeedItemFilter;
+import de.danoeh.antennapod.model.feed.FeedOrder;
 import de.danoeh.antennapod.model.feed.SortOrder;
 import de.danoeh.antennapod.net.download.serviceinterface.DownloadServiceInterface;
 import de.danoeh.antennapod.net.download.serviceinterface.DownloadServiceInterfaceStub;
@@ -17,6 +19,8 @@ import de.danoeh.antennapod.net.sync.serviceinterface.SynchronizationQueue;
 import de.danoeh.antennapod.net.sync.serviceinterface.SynchronizationQueueStub;
 import de.danoeh.antennapod.storage.database.DBReader;
 import de.danoeh.antennapod.storage.database.DBWriter;
+import de.danoeh.antennapod.storage.database.LongList;
+import de.danoeh.antennapod.storage.database.NavDrawerData;
 import de.danoeh.antennapod.storage.database.PodDBAdapter;
 import org.awaitility.Awaitility;
 import org.junit.After;
@@ -30,9 +34,11 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
+import de.danoeh.antennapod.model.feed.Chapter;
 import de.danoeh.antennapod.model.feed.Feed;
 import de.danoeh.antennapod.model.feed.FeedItem;
 import de.danoeh.antennapod.model.feed.FeedMedia;
@@ -160,6 +166,52 @@ public class DbWriterTest {
         assertNull(media.getLocalFileUrl());
     }
 
+    @Test
+    public void testSetCompleteFeedLargeFeed() {
+        final int numItems = 5000;
+        Feed feed = new Feed("url", null, "title");
+        feed.setItems(new ArrayList<>());
+        for (int i = 0; i < numItems; i++) {
+            FeedItem item = new FeedItem(0, "Item " + i, "id " + i, "link " + i, new Date(i), FeedItem.NEW, feed);
+            item.setDescriptionIfLonger("Description " + i);
+            item.setTranscriptUrl("application/json", "transcript " + i);
+            item.setMedia(new FeedMedia(item, "download url " + i, 100 + i, "audio/mpeg"));
+            item.setChapters(List.of(new Chapter(1000L * i, "Chapter " + i, null, null)));
+            feed.getItems().add(item);
+        }
+
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        adapter.setCompleteFeed(feed);
+        adapter.close();
+
+        List<FeedItem> items = DBReader.getFeedItemList(feed, FeedItemFilter.unfiltered(),
+                SortOrder.DATE_OLD_NEW, 0, Integer.MAX_VALUE);
+        assertEquals(numItems, items.size());
+        FeedItem item = items.get(1234);
+        assertEquals("Item 1234", item.getTitle());
+        assertTrue(item.isNew());
+        assertEquals("transcript 1234", item.getTranscriptUrl());
+        assertEquals(1234, item.getMedia().getSize() - 100);
+        assertEquals(item.getId(), item.getMedia().getItemId());
+        DBReader.loadDescriptionOfFeedItem(item);
+        assertEquals("Description 1234", item.getDescription());
+        List<Chapter> chapters = DBReader.loadChaptersOfFeedItem(item);
+        assertEquals(1, chapters.size());
+        assertEquals("Chapter 1234", chapters.get(0).getTitle());
+
+        // Complete rows written again keep the values that are not loaded with the item
+        item.setTitle("Changed title");
+        adapter.open();
+        adapter.storeFeedItemlist(List.of(item));
+        adapter.close();
+        item = DBReader.getFeedItem(item.getId());
+        assertEquals("Changed title", item.getTitle());
+        assertEquals("transcript 1234", item.getTranscriptUrl());
+        DBReader.loadDescriptionOfFeedItem(item);
+        assertEquals("Description 1234", item.getDescription());
+    }
+
     @Test
     public void testDeleteFeedMediaOfItemRemoveFromQueue() throws Exception {
         assertTrue(UserPreferences.shouldDeleteRemoveFromQueue());
@@ -753,6 +805,52 @@ public class DbWriterTest {
         }
     }
 
+    @Test
+    public void testQueueKeepsOrderWithoutRewritingRows() {
+        final int numItems = 100;
+        Feed feed = new Feed("url", null, "title");
+        feed.setItems(new ArrayList<>());
+        for (int i = 0; i < numItems; i++) {
+            FeedItem item = new FeedItem(0, "title " + i, "id " + i, "link " + i,
+                    new Date(), FeedItem.PLAYED, feed);
+            item.setMedia(new FeedMedia(item, "", 0, ""));
+            feed.getItems().add(item);
+        }
+
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        adapter.setCompleteFeed(feed);
+        List<Long> expected = new ArrayList<>();
+        // Repeatedly inserting at the same position uses up the gaps and needs renumbering
+        for (int i = 0; i < numItems / 2; i++) {
+            FeedItem item = feed.getItems().get(i);
+            int position = Math.min(1, expected.size());
+            adapter.addQueueItem(item, position);
+            expected.add(position, item.getId());
+        }
+        for (int i = numItems / 2; i < numItems; i++) {
+            FeedItem item = feed.getItems().get(i);
+            adapter.addQueueItem(item, expected.size());
+            expected.add(item.getId());
+        }
+        for (int i = 0; i < 40; i++) {
+            int from = (i * 7) % numItems;
+            int to = (i * 13) % numItems;
+            long itemId = expected.remove(from);
+            adapter.moveQueueItem(itemId, to);
+            expected.add(to, itemId);
+        }
+        adapter.removeQueueItem(expected.remove(0));
+        adapter.removeQueueItem(expected.remove(expected.size() - 1));
+        adapter.close();
+
+        LongList queueIds = DBReader.getQueueIDList();
+        assertEquals(expected.size(), queueIds.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals((long) expected.get(i), queueIds.get(i));
+        }
+    }
+
     @Test
     public void testRemoveAllNewFlags() throws Exception {
         final int numItems = 10;
@@ -783,6 +881,45 @@ public class DbWriterTest {
         }
     }
 
+    @Test
+    public void testFeedStatsFollowWrites() throws Exception {
+        Feed feed = new Feed("url", null, "title");
+        feed.setItems(new ArrayList<>());
+        for (int i = 0; i < 6; i++) {
+            FeedItem item = new FeedItem(0, "title " + i, "id " + i, "link " + i,
+                    new Date(i * 1000L), FeedItem.NEW, feed);
+            item.setMedia(new FeedMedia(item, "", 0, ""));
+            feed.getItems().add(item);
+        }
+        feed.getItems().get(0).getMedia().setDownloaded(true, 1000);
+        feed.getItems().get(1).getMedia().setDownloaded(true, 1000);
+        withPodDB(adapter -> adapter.setCompleteFeed(feed));
+
+        DBWriter.markItemPlayed(FeedItem.PLAYED, feed.getItems().get(2).getId()).get(TIMEOUT, TimeUnit.SECONDS);
+        DBWriter.deleteFeedItems(context, List.of(feed.getItems().get(5))).get(TIMEOUT, TimeUnit.SECONDS);
+
+        NavDrawerData data = DBReader.getNavDrawerData(null, FeedOrder.COUNTER, FeedCounter.SHOW_UNPLAYED);
+        assertEquals(2, data.numNewItems);
+        assertEquals(2, data.numDownloadedItems);
+        assertEquals(4, (int) data.feedCounters.get(feed.getId()));
+        assertEquals(data.numNewItems, DBReader.getTotalEpisodeCount(new FeedItemFilter(FeedItemFilter.NEW)));
+
+        DBWriter.removeAllNewFlags().get(TIMEOUT, TimeUnit.SECONDS);
+        assertEquals(0, DBReader.getNavDrawerData(null, FeedOrder.COUNTER, FeedCounter.SHOW_NEW).numNewItems);
+
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        Map<Long, Long> recentPubDates = adapter.getMostRecentItemDates();
+        assertEquals(4000L, (long) recentPubDates.get(feed.getId()));
+        Map<Long, Integer> unplayedCounters = adapter.getFeedCounters(FeedCounter.SHOW_UNPLAYED);
+        Map<Long, Integer> playedCounters = adapter.getPlayedEpisodesCounters();
+        adapter.rebuildFeedStats();
+        assertEquals(recentPubDates, adapter.getMostRecentItemDates());
+        assertEquals(unplayedCounters, adapter.getFeedCounters(FeedCounter.SHOW_UNPLAYED));
+        assertEquals(playedCounters, adapter.getPlayedEpisodesCounters());
+        adapter.close();
+    }
+
     private static Feed createTestFeed(int numItems) {
         Feed feed = new Feed("url", null, "title");
         feed.setItems(new ArrayList<>());
@@ -0,0 +1,108 @@
+package de.danoeh.antennapod.net.download.service.feed;
+
+import androidx.annotation.NonNull;
+import de.danoeh.antennapod.model.feed.Feed;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(RobolectricTestRunner.class)
+public class FeedRefreshSchedulerTest {
+
+    @Test
+    public void testLimits() {
+        List<Feed> feeds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            feeds.add(new Feed("https://cdn.example.com/feed" + i, null));
+        }
+        for (int i = 0; i < 20; i++) {
+            feeds.add(new Feed("https://host" + i + ".example.org/feed", null));
+        }
+
+        AtomicInteger numRefreshed = new AtomicInteger();
+        Map<String, Integer> runningByHost = new HashMap<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger maxRunningOnCdn = new AtomicInteger();
+        // The first CDN refreshes wait until the limit of the host is reached, instead of hoping that they overlap
+        CountDownLatch cdnRefreshesRunning = new CountDownLatch(FeedRefreshScheduler.MAX_PARALLEL_PER_HOST);
+        AtomicBoolean cdnLimitReached = new AtomicBoolean(true);
+        new FeedRefreshScheduler(feeds).run(new FeedRefreshScheduler.Callback() {
+            @Override
+            public boolean isStopped() {
+                return false;
+            }
+
+            @Override
+            public void refresh(@NonNull Feed feed) {
+                String host = feed.getDownloadUrl().split("/")[2];
+                synchronized (runningByHost) {
+                    Integer numRunning = runningByHost.get(host);
+                    runningByHost.put(host, numRunning == null ? 1 : numRunning + 1);
+                    if (host.startsWith("cdn")) {
+                        maxRunningOnCdn.set(Math.max(maxRunningOnCdn.get(), runningByHost.get(host)));
+                    }
+                }
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    if (host.startsWith("cdn")) {
+                        cdnRefreshesRunning.countDown();
+                        if (!cdnRefreshesRunning.await(5, TimeUnit.SECONDS)) {
+                            cdnLimitReached.set(false);
+                        }
+                    } else {
+                        Thread.sleep(5);
+                    }
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                running.decrementAndGet();
+                synchronized (runningByHost) {
+                    runningByHost.put(host, runningByHost.get(host) - 1);
+                }
+                numRefreshed.incrementAndGet();
+            }
+        });
+
+        assertEquals(feeds.size(), numRefreshed.get());
+        assertTrue(maxRunning.get() <= FeedRefreshScheduler.MAX_PARALLEL);
+        assertTrue(maxRunningOnCdn.get() <= FeedRefreshScheduler.MAX_PARALLEL_PER_HOST);
+        assertTrue(cdnLimitReached.get());
+    }
+
+    @Test
+    public void testStop() {
+        List<Feed> feeds = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            feeds.add(new Feed("https://host" + i + ".example.org/feed", null));
+        }
+        AtomicBoolean stopped = new AtomicBoolean(false);
+        AtomicInteger numRefreshed = new AtomicInteger();
+        new FeedRefreshScheduler(feeds).run(new FeedRefreshScheduler.Callback() {
+            @Override
+            public boolean isStopped() {
+                return stopped.get();
+            }
+
+            @Override
+            public void refresh(@NonNull Feed feed) {
+                if (numRefreshed.incrementAndGet() == 10) {
+                    stopped.set(true);
+                }
+            }
+        });
+        assertTrue(numRefreshed.get() < feeds.size());
+    }
+}
@@ -0,0 +1,72 @@
+package de.danoeh.antennapod.net.download.service.feed;
+
+import de.danoeh.antennapod.model.feed.Feed;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ReleaseScheduleFilterTest {
+    private static final long ONE_DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Test
+    public void testWeeklyBetweenReleases() {
+        List<Date> releases = weeklyReleases(10);
+        long lastRelease = releases.get(releases.size() - 1).getTime();
+        assertTrue(ReleaseScheduleFilter.isUpdateUnlikely(releases, lastRelease + 3 * ONE_DAY));
+    }
+
+    @Test
+    public void testWeeklyReleaseExpected() {
+        List<Date> releases = weeklyReleases(10);
+        long lastRelease = releases.get(releases.size() - 1).getTime();
+        assertFalse(ReleaseScheduleFilter.isUpdateUnlikely(releases, lastRelease + 7 * ONE_DAY));
+        assertFalse(ReleaseScheduleFilter.isUpdateUnlikely(releases, lastRelease + 10 * ONE_DAY));
+    }
+
+    @Test
+    public void testRecentRelease() {
+        List<Date> releases = weeklyReleases(10);
+        long lastRelease = releases.get(releases.size() - 1).getTime();
+        assertFalse(ReleaseScheduleFilter.isUpdateUnlikely(releases, lastRelease + ONE_DAY));
+    }
+
+    @Test
+    public void testTooFewReleases() {
+        List<Date> releases = weeklyReleases(3);
+        long lastRelease = releases.get(releases.size() - 1).getTime();
+        assertFalse(ReleaseScheduleFilter.isUpdateUnlikely(releases, lastRelease + 3 * ONE_DAY));
+    }
+
+    @Test
+    public void testCanSkip() {
+        long now = System.currentTimeMillis();
+        Feed feed = new Feed("https://example.com/feed", null);
+        feed.setLastRefreshAttempt(now - TimeUnit.HOURS.toMillis(2));
+        assertTrue(ReleaseScheduleFilter.canSkip(feed, now));
+
+        feed.setLastRefreshAttempt(now - 2 * ONE_DAY);
+        assertFalse(ReleaseScheduleFilter.canSkip(feed, now));
+
+        feed.setLastRefreshAttempt(now - TimeUnit.HOURS.toMillis(2));
+        feed.setLastUpdateFailed(true);
+        assertFalse(ReleaseScheduleFilter.canSkip(feed, now));
+    }
+
+    private static List<Date> weeklyReleases(int count) {
+        GregorianCalendar calendar = new GregorianCalendar(2024, Calendar.MARCH, 5, 10, 0);
+        List<Date> releases = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            releases.add(calendar.getTime());
+            calendar.add(Calendar.DAY_OF_MONTH, 7);
+        }
+        return releases;
+    }
+}
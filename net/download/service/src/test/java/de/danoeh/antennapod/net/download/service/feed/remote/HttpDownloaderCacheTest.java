@@ -0,0 +1,72 @@
+package de.danoeh.antennapod.net.download.service.feed.remote;
+
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for reading the lifetime of a feed response from its cache headers.
+ */
+public class HttpDownloaderCacheTest {
+    private static final long NOW = 1700000000000L;
+
+    @Test
+    public void testNoHeaders() {
+        assertEquals(0, HttpDownloader.getCacheExpires(response().build(), NOW));
+    }
+
+    @Test
+    public void testMaxAge() {
+        Response response = response().header("Cache-Control", "public, max-age=600").build();
+        assertEquals(NOW + TimeUnit.MINUTES.toMillis(10), HttpDownloader.getCacheExpires(response, NOW));
+    }
+
+    @Test
+    public void testMaxAgeMinusAge() {
+        Response response = response()
+                .header("Cache-Control", "max-age=600")
+                .header("Age", "540")
+                .build();
+        assertEquals(NOW + TimeUnit.MINUTES.toMillis(1), HttpDownloader.getCacheExpires(response, NOW));
+    }
+
+    @Test
+    public void testNoCache() {
+        Response response = response().header("Cache-Control", "no-cache, max-age=600").build();
+        assertEquals(0, HttpDownloader.getCacheExpires(response, NOW));
+    }
+
+    @Test
+    public void testExpiresRelativeToServerDate() {
+        Response response = response()
+                .header("Date", "Sun, 06 Nov 1994 08:49:37 GMT")
+                .header("Expires", "Sun, 06 Nov 1994 09:49:37 GMT")
+                .build();
+        assertEquals(NOW + TimeUnit.HOURS.toMillis(1), HttpDownloader.getCacheExpires(response, NOW));
+    }
+
+    @Test
+    public void testExpiresInPast() {
+        Response response = response().header("Expires", "Sun, 06 Nov 1994 09:49:37 GMT").build();
+        assertEquals(0, HttpDownloader.getCacheExpires(response, NOW));
+    }
+
+    @Test
+    public void testLimit() {
+        Response response = response().header("Cache-Control", "max-age=31536000").build();
+        assertEquals(NOW + TimeUnit.DAYS.toMillis(1), HttpDownloader.getCacheExpires(response, NOW));
+    }
+
+    private static Response.Builder response() {
+        return new Response.Builder()
+                .request(new Request.Builder().url("https://example.com/feed.xml").build())
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK");
+    }
+}
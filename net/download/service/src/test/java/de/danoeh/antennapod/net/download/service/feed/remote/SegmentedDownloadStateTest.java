@@ -0,0 +1,106 @@
+package de.danoeh.antennapod.net.download.service.feed.remote;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for storing the progress of segmented downloads at the end of the file.
+ */
+public class SegmentedDownloadStateTest {
+    private static final long SIZE = 10000;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = File.createTempFile("SegmentedDownloadStateTest", ".mp3");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Test
+    public void testCreate() {
+        SegmentedDownloadState state = SegmentedDownloadState.create(SIZE, "\"etag\"", 3, 4000);
+        assertEquals(0, state.segments[0].start);
+        assertEquals(3333, state.segments[0].end);
+        assertEquals(SIZE, state.segments[2].end);
+        assertTrue(state.segments[0].isComplete());
+        assertEquals(4000, state.segments[1].position);
+        assertEquals(state.segments[2].start, state.segments[2].position);
+        assertEquals(4000, state.getDownloaded());
+        assertEquals(4000, state.getContiguousEnd());
+        assertFalse(state.isComplete());
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        SegmentedDownloadState state = SegmentedDownloadState.create(SIZE, "\"etag\"", 4, 0);
+        state.segments[0].position = 1000;
+        state.segments[2].position = state.segments[2].end;
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.setLength(SIZE);
+            state.write(out.getChannel());
+        }
+        assertTrue(SegmentedDownloadState.isPresent(file));
+
+        SegmentedDownloadState read = SegmentedDownloadState.read(file);
+        assertEquals(SIZE, read.size);
+        assertTrue(read.matches(SIZE, "\"etag\""));
+        assertFalse(read.matches(SIZE, "\"other\""));
+        assertEquals(4, read.segments.length);
+        assertEquals(1000, read.segments[0].position);
+        assertTrue(read.segments[2].isComplete());
+        assertEquals(1000 + SIZE / 4, read.getDownloaded());
+        assertEquals(1000, read.getContiguousEnd());
+    }
+
+    @Test
+    public void testNoValidator() {
+        SegmentedDownloadState state = SegmentedDownloadState.create(SIZE, "", 2, 0);
+        assertFalse(state.matches(SIZE, ""));
+    }
+
+    @Test
+    public void testRegularFile() throws IOException {
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.setLength(SIZE);
+        }
+        assertFalse(SegmentedDownloadState.isPresent(file));
+        assertNull(SegmentedDownloadState.read(file));
+    }
+
+    @Test
+    public void testFileSizeChanged() throws IOException {
+        SegmentedDownloadState state = SegmentedDownloadState.create(SIZE, "\"etag\"", 2, 0);
+        try (RandomAccessFile out = new RandomAccessFile(file, "rw")) {
+            out.setLength(SIZE);
+            state.write(out.getChannel());
+            // Content before the state is missing
+            byte[] content = new byte[(int) (out.length() - SIZE)];
+            out.seek(SIZE);
+            out.readFully(content);
+            out.setLength(0);
+            out.write(content);
+        }
+        assertTrue(SegmentedDownloadState.isPresent(file));
+        try {
+            SegmentedDownloadState.read(file);
+            fail("Expected IOException");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}
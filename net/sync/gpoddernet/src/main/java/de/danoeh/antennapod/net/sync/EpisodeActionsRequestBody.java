@@ -0,0 +1,62 @@
+package de.danoeh.antennapod.net.sync;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeAction;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes episode actions as a JSON array directly into the request,
+ * instead of building the whole array and its string in memory first.
+ */
+public class EpisodeActionsRequestBody extends RequestBody {
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    private final List<EpisodeAction> actions;
+    @Nullable
+    private final String deviceId;
+
+    /**
+     * @param deviceId Added to every action if not null
+     */
+    public EpisodeActionsRequestBody(List<EpisodeAction> actions, @Nullable String deviceId) {
+        this.actions = actions;
+        this.deviceId = deviceId;
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+
+    @Override
+    public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        sink.writeByte('[');
+        boolean first = true;
+        for (EpisodeAction action : actions) {
+            JSONObject obj = action.writeToJsonObject();
+            if (obj == null) {
+                continue;
+            }
+            if (deviceId != null) {
+                try {
+                    obj.put("device", deviceId);
+                } catch (JSONException e) {
+                    throw new IOException(e);
+                }
+            }
+            if (!first) {
+                sink.writeByte(',');
+            }
+            sink.writeUtf8(obj.toString());
+            first = false;
+        }
+        sink.writeByte(']');
+    }
+}
@@ -1,9 +1,11 @@
 package de.danoeh.antennapod.net.sync.gpoddernet;
 
+import android.util.JsonReader;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 
+import de.danoeh.antennapod.net.sync.EpisodeActionsRequestBody;
 import de.danoeh.antennapod.net.sync.HostnameParser;
 import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeAction;
 import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeActionChanges;
@@ -231,17 +233,7 @@ public class GpodnetService implements ISyncService {
             URL url = new URI(baseScheme, null, baseHost, basePort,
                     String.format("/api/2/episodes/%s.json", username), null, null).toURL();
 
-            final JSONArray list = new JSONArray();
-            for (int i = from; i < to; i++) {
-                EpisodeAction episodeAction = episodeActions.get(i);
-                JSONObject obj = episodeAction.writeToJsonObject();
-                if (obj != null) {
-                    obj.put("device", deviceId);
-                    list.put(obj);
-                }
-            }
-
-            RequestBody body = RequestBody.create(list.toString(), JSON);
+            RequestBody body = new EpisodeActionsRequestBody(episodeActions.subList(from, to), deviceId);
             Request.Builder request = new Request.Builder().post(body).url(url);
 
             final String response = executeRequest(request);
@@ -268,15 +260,17 @@ public class GpodnetService implements ISyncService {
         String path = String.format("/api/2/episodes/%s.json", username);
         try {
             URL url = new URI(baseScheme, null, baseHost, basePort, path, params, null).toURL();
-            Request.Builder request = new Request.Builder().url(url);
+            Request request = new Request.Builder().url(url).build();
 
-            String response = executeRequest(request);
-            JSONObject json = new JSONObject(response);
-            return ResponseMapper.readEpisodeActionsFromJsonObject(json);
+            try (Response response = httpClient.newCall(request).execute()) {
+                checkStatusCode(response);
+                JsonReader reader = new JsonReader(response.body().charStream());
+                return ResponseMapper.readEpisodeActionsFromJsonReader(reader);
+            }
         } catch (URISyntaxException e) {
             e.printStackTrace();
             throw new IllegalStateException(e);
-        } catch (JSONException | MalformedURLException e) {
+        } catch (JSONException | IOException | IllegalStateException | NumberFormatException e) {
             e.printStackTrace();
             throw new SyncServiceException(e);
         }
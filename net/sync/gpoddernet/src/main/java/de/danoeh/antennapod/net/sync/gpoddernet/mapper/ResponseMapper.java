@@ -1,5 +1,6 @@
 package de.danoeh.antennapod.net.sync.gpoddernet.mapper;
 
+import android.util.JsonReader;
 import androidx.annotation.NonNull;
 
 import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeAction;
@@ -9,6 +10,7 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
@@ -40,20 +42,70 @@ public class ResponseMapper {
         return new SubscriptionChanges(added, removed, timestamp);
     }
 
-    public static EpisodeActionChanges readEpisodeActionsFromJsonObject(@NonNull JSONObject object)
-            throws JSONException {
+    /**
+     * Reads the actions one by one while the response is being received,
+     * so neither the response string nor the whole JSON array need to be kept in memory.
+     */
+    public static EpisodeActionChanges readEpisodeActionsFromJsonReader(@NonNull JsonReader reader)
+            throws IOException, JSONException {
 
         List<EpisodeAction> episodeActions = new ArrayList<>();
 
-        long timestamp = object.getLong("timestamp");
-        JSONArray jsonActions = object.getJSONArray("actions");
-        for (int i = 0; i < jsonActions.length(); i++) {
-            JSONObject jsonAction = jsonActions.getJSONObject(i);
-            EpisodeAction episodeAction = EpisodeAction.readFromJsonObject(jsonAction);
-            if (episodeAction != null) {
-                episodeActions.add(episodeAction);
+        Long timestamp = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("timestamp".equals(name)) {
+                timestamp = reader.nextLong();
+            } else if ("actions".equals(name)) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    EpisodeAction episodeAction = EpisodeAction.readFromJsonObject(readFlatJsonObject(reader));
+                    if (episodeAction != null) {
+                        episodeActions.add(episodeAction);
+                    }
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
             }
         }
+        reader.endObject();
+        if (timestamp == null) {
+            throw new JSONException("No value for timestamp");
+        }
         return new EpisodeActionChanges(episodeActions, timestamp);
     }
+
+    /**
+     * Reads an object with simple values. Nested objects and arrays are skipped.
+     */
+    private static JSONObject readFlatJsonObject(@NonNull JsonReader reader) throws IOException, JSONException {
+        JSONObject object = new JSONObject();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (reader.peek()) {
+                case STRING:
+                    object.put(name, reader.nextString());
+                    break;
+                case NUMBER:
+                    String number = reader.nextString();
+                    try {
+                        object.put(name, Long.parseLong(number));
+                    } catch (NumberFormatException e) {
+                        object.put(name, Double.parseDouble(number));
+                    }
+                    break;
+                case BOOLEAN:
+                    object.put(name, reader.nextBoolean());
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return object;
+    }
 }
@@ -1,5 +1,7 @@
 package de.danoeh.antennapod.net.sync.nextcloud;
 
+import android.util.JsonReader;
+import de.danoeh.antennapod.net.sync.EpisodeActionsRequestBody;
 import de.danoeh.antennapod.net.sync.HostnameParser;
 import de.danoeh.antennapod.net.sync.gpoddernet.mapper.ResponseMapper;
 import de.danoeh.antennapod.net.sync.gpoddernet.model.GpodnetUploadChangesResponse;
@@ -88,9 +90,10 @@ public class NextcloudSyncService implements ISyncService {
         try {
             HttpUrl.Builder uri = makeUrl("/index.php/apps/gpoddersync/episode_action");
             uri.addQueryParameter("since", "" + timestamp);
-            String responseString = performRequest(uri, "GET", null);
-            JSONObject json = new JSONObject(responseString);
-            return ResponseMapper.readEpisodeActionsFromJsonObject(json);
+            try (Response response = openRequest(uri, "GET", null)) {
+                JsonReader reader = new JsonReader(response.body().charStream());
+                return ResponseMapper.readEpisodeActionsFromJsonReader(reader);
+            }
         } catch (JSONException | MalformedURLException e) {
             e.printStackTrace();
             throw new SyncServiceException(e);
@@ -113,17 +116,8 @@ public class NextcloudSyncService implements ISyncService {
     private void uploadEpisodeActionsPartial(List<EpisodeAction> queuedEpisodeActions, int from, int to)
             throws NextcloudSynchronizationServiceException {
         try {
-            final JSONArray list = new JSONArray();
-            for (int i = from; i < to; i++) {
-                EpisodeAction episodeAction = queuedEpisodeActions.get(i);
-                JSONObject obj = episodeAction.writeToJsonObject();
-                if (obj != null) {
-                    list.put(obj);
-                }
-            }
             HttpUrl.Builder url = makeUrl("/index.php/apps/gpoddersync/episode_action/create");
-            RequestBody requestBody = RequestBody.create(
-                    list.toString(), MediaType.get("application/json"));
+            RequestBody requestBody = new EpisodeActionsRequestBody(queuedEpisodeActions.subList(from, to), null);
             performRequest(url, "POST", requestBody);
         } catch (Exception e) {
             e.printStackTrace();
@@ -132,6 +126,15 @@ public class NextcloudSyncService implements ISyncService {
     }
 
     private String performRequest(HttpUrl.Builder url, String method, RequestBody body) throws IOException {
+        try (Response response = openRequest(url, method, body)) {
+            return response.body().string();
+        }
+    }
+
+    /**
+     * @return The response, which needs to be closed by the caller
+     */
+    private Response openRequest(HttpUrl.Builder url, String method, RequestBody body) throws IOException {
         Request request = new Request.Builder()
                 .url(url.build())
                 .header("Authorization", Credentials.basic(username, password))
@@ -140,9 +143,10 @@ public class NextcloudSyncService implements ISyncService {
                 .build();
         Response response = httpClient.newCall(request).execute();
         if (response.code() != 200) {
+            response.close();
             throw new IOException("Response code: " + response.code());
         }
-        return response.body().string();
+        return response;
     }
 
     private HttpUrl.Builder makeUrl(String path) {
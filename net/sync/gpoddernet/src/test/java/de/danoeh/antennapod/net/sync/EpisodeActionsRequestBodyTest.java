@@ -0,0 +1,81 @@
+package de.danoeh.antennapod.net.sync;
+
+import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeAction;
+import okio.Buffer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests for writing episode actions into a request.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class EpisodeActionsRequestBodyTest {
+
+    @Test
+    public void testWritesActions() throws Exception {
+        List<EpisodeAction> actions = asList(action("episode1"), action("episode2"));
+        JSONArray array = new JSONArray(write(actions, null));
+        assertEquals(2, array.length());
+        for (int i = 0; i < array.length(); i++) {
+            JSONObject object = array.getJSONObject(i);
+            assertEquals(actions.get(i).writeToJsonObject().toString(), object.toString());
+            assertFalse(object.has("device"));
+        }
+    }
+
+    @Test
+    public void testAddsDevice() throws Exception {
+        JSONArray array = new JSONArray(write(asList(action("episode1"), action("episode2")), "device1"));
+        assertEquals(2, array.length());
+        assertEquals("device1", array.getJSONObject(0).getString("device"));
+        assertEquals("device1", array.getJSONObject(1).getString("device"));
+        assertEquals("episode2", array.getJSONObject(1).getString("episode"));
+    }
+
+    @Test
+    public void testSkipsActionsWithoutJson() throws Exception {
+        EpisodeAction invalid = mock(EpisodeAction.class);
+        when(invalid.writeToJsonObject()).thenReturn(null);
+
+        String json = write(asList(invalid, action("episode1"), invalid, invalid, action("episode2"), invalid),
+                "device1");
+        assertFalse(json.contains(",,"));
+        assertFalse(json.startsWith("[,"));
+        assertFalse(json.endsWith(",]"));
+        JSONArray array = new JSONArray(json);
+        assertEquals(2, array.length());
+        assertEquals("episode1", array.getJSONObject(0).getString("episode"));
+        assertEquals("episode2", array.getJSONObject(1).getString("episode"));
+
+        assertEquals("[]", write(asList(invalid, invalid), "device1"));
+        assertEquals("[]", write(Collections.emptyList(), null));
+    }
+
+    private static String write(List<EpisodeAction> actions, String deviceId) throws Exception {
+        Buffer buffer = new Buffer();
+        new EpisodeActionsRequestBody(actions, deviceId).writeTo(buffer);
+        return buffer.readUtf8();
+    }
+
+    private static EpisodeAction action(String episode) {
+        return new EpisodeAction.Builder("https://example.com/feed", episode, EpisodeAction.PLAY)
+                .timestamp(new Date(1000000))
+                .started(1)
+                .position(2)
+                .total(3)
+                .build();
+    }
+}
@@ -0,0 +1,130 @@
+package de.danoeh.antennapod.net.sync.gpoddernet.mapper;
+
+import android.util.JsonReader;
+import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeAction;
+import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeActionChanges;
+import org.json.JSONException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for reading episode actions from a streamed response.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ResponseMapperTest {
+    private static final String PLAY_ACTION = "{\"podcast\": \"https://example.com/feed\","
+            + " \"episode\": \"https://example.com/episode.mp3\", \"guid\": \"guid1\", \"action\": \"play\","
+            + " \"timestamp\": \"2024-01-02T03:04:05\", \"started\": 10, \"position\": 20, \"total\": 30}";
+    private static final String DOWNLOAD_ACTION = "{\"podcast\": \"https://example.com/feed\","
+            + " \"episode\": \"https://example.com/episode2.mp3\", \"action\": \"download\"}";
+
+    @Test
+    public void testTimestampFirst() throws Exception {
+        EpisodeActionChanges changes = read("{\"timestamp\": 12345, \"actions\": ["
+                + PLAY_ACTION + ", " + DOWNLOAD_ACTION + "]}");
+        assertEquals(12345, changes.getTimestamp());
+        assertPlayAndDownloadAction(changes.getEpisodeActions());
+    }
+
+    @Test
+    public void testTimestampLast() throws Exception {
+        EpisodeActionChanges changes = read("{\"actions\": ["
+                + PLAY_ACTION + ", " + DOWNLOAD_ACTION + "], \"timestamp\": 12345}");
+        assertEquals(12345, changes.getTimestamp());
+        assertPlayAndDownloadAction(changes.getEpisodeActions());
+    }
+
+    @Test
+    public void testSkipsUnknownAndNestedFields() throws Exception {
+        EpisodeActionChanges changes = read("{\"update_urls\": [[\"a\", \"b\"]], \"meta\": {\"actions\": []},"
+                + " \"actions\": [{\"podcast\": \"https://example.com/feed\","
+                + " \"episode\": \"https://example.com/episode.mp3\", \"action\": \"play\","
+                + " \"device\": {\"id\": \"phone\", \"tags\": [1, {\"x\": null}]}, \"tags\": [\"a\"],"
+                + " \"unknown\": true, \"started\": 10, \"position\": 20, \"total\": 30}], \"timestamp\": 1}");
+        assertEquals(1, changes.getTimestamp());
+        assertEquals(1, changes.getEpisodeActions().size());
+        EpisodeAction action = changes.getEpisodeActions().get(0);
+        assertEquals("https://example.com/episode.mp3", action.getEpisode());
+        assertEquals(EpisodeAction.PLAY, action.getAction());
+        assertEquals(20, action.getPosition());
+    }
+
+    @Test
+    public void testNullGuid() throws Exception {
+        EpisodeActionChanges changes = read("{\"actions\": [{\"podcast\": \"https://example.com/feed\","
+                + " \"episode\": \"https://example.com/episode.mp3\", \"guid\": null, \"action\": \"download\"}],"
+                + " \"timestamp\": 1}");
+        assertEquals(1, changes.getEpisodeActions().size());
+        assertNull(changes.getEpisodeActions().get(0).getGuid());
+    }
+
+    @Test
+    public void testFloatPositions() throws Exception {
+        EpisodeActionChanges changes = read("{\"actions\": [{\"podcast\": \"https://example.com/feed\","
+                + " \"episode\": \"https://example.com/episode.mp3\", \"action\": \"play\","
+                + " \"started\": 0.0, \"position\": 20.7, \"total\": 3.6e2}], \"timestamp\": 1}");
+        EpisodeAction action = changes.getEpisodeActions().get(0);
+        assertEquals(0, action.getStarted());
+        assertEquals(20, action.getPosition());
+        assertEquals(360, action.getTotal());
+    }
+
+    @Test
+    public void testSkipsIncompleteActions() throws Exception {
+        EpisodeActionChanges changes = read("{\"actions\": [{\"podcast\": \"https://example.com/feed\","
+                + " \"action\": \"play\"}, " + DOWNLOAD_ACTION + "], \"timestamp\": 1}");
+        assertEquals(1, changes.getEpisodeActions().size());
+        assertEquals(EpisodeAction.DOWNLOAD, changes.getEpisodeActions().get(0).getAction());
+    }
+
+    @Test
+    public void testMissingTimestamp() throws Exception {
+        try {
+            read("{\"actions\": [" + PLAY_ACTION + "]}");
+            fail("Expected JSONException");
+        } catch (JSONException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTruncatedInput() throws Exception {
+        try {
+            read("{\"timestamp\": 1, \"actions\": [" + PLAY_ACTION + ", {\"podcast\": \"https://exa");
+            fail("Expected IOException");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private static EpisodeActionChanges read(String json) throws IOException, JSONException {
+        try (JsonReader reader = new JsonReader(new StringReader(json))) {
+            return ResponseMapper.readEpisodeActionsFromJsonReader(reader);
+        }
+    }
+
+    private static void assertPlayAndDownloadAction(List<EpisodeAction> actions) {
+        assertEquals(2, actions.size());
+        EpisodeAction play = actions.get(0);
+        assertEquals("https://example.com/feed", play.getPodcast());
+        assertEquals("https://example.com/episode.mp3", play.getEpisode());
+        assertEquals("guid1", play.getGuid());
+        assertEquals(EpisodeAction.PLAY, play.getAction());
+        assertEquals(10, play.getStarted());
+        assertEquals(20, play.getPosition());
+        assertEquals(30, play.getTotal());
+        EpisodeAction download = actions.get(1);
+        assertEquals(EpisodeAction.DOWNLOAD, download.getAction());
+        assertNull(download.getGuid());
+        assertNull(download.getTimestamp());
+    }
+}
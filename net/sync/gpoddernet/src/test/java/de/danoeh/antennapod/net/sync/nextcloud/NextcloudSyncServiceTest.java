@@ -0,0 +1,57 @@
+package de.danoeh.antennapod.net.sync.nextcloud;
+
+import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeActionChanges;
+import de.danoeh.antennapod.net.sync.serviceinterface.SyncServiceException;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for downloading episode actions from the Nextcloud gpoddersync app.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class NextcloudSyncServiceTest {
+
+    @Test
+    public void testGetEpisodeActionChanges() throws Exception {
+        NextcloudSyncService service = createService("{\"timestamp\": 12345, \"actions\": [{\"podcast\":"
+                + " \"https://example.com/feed\", \"episode\": \"https://example.com/episode.mp3\","
+                + " \"action\": \"download\"}]}");
+        EpisodeActionChanges changes = service.getEpisodeActionChanges(0);
+        assertEquals(12345, changes.getTimestamp());
+        assertEquals(1, changes.getEpisodeActions().size());
+    }
+
+    @Test
+    public void testTruncatedResponse() {
+        NextcloudSyncService service = createService("{\"actions\": [{\"podcast\": \"https://example.com/feed\","
+                + " \"episode\": \"https://example.com/episode.mp3\", \"action\": \"download\"}], \"times");
+        try {
+            service.getEpisodeActionChanges(0);
+            fail("Expected SyncServiceException");
+        } catch (SyncServiceException e) {
+            // expected
+        }
+    }
+
+    private static NextcloudSyncService createService(String response) {
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(chain -> new Response.Builder()
+                        .request(chain.request())
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(200)
+                        .message("OK")
+                        .body(ResponseBody.create(response, MediaType.get("application/json")))
+                        .build())
+                .build();
+        return new NextcloudSyncService(httpClient, "example.com", "user", "password");
+    }
+}
@@ -2,9 +2,9 @@ package de.danoeh.antennapod.net.sync.service;
 
 import android.util.Log;
 
-import androidx.collection.ArrayMap;
 import androidx.core.util.Pair;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -14,20 +14,25 @@ public class EpisodeActionFilter {
 
     public static final String TAG = "EpisodeActionFilter";
 
+    /**
+     * Used for actions without a timestamp, so they are older than all others.
+     */
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
     public static Map<Pair<String, String>, EpisodeAction> getRemoteActionsOverridingLocalActions(
             List<EpisodeAction> remoteActions,
             List<EpisodeAction> queuedEpisodeActions) {
         // make sure more recent local actions are not overwritten by older remote actions
-        Map<Pair<String, String>, EpisodeAction> remoteActionsThatOverrideLocalActions = new ArrayMap<>();
+        Map<Pair<String, String>, EpisodeAction> remoteActionsThatOverrideLocalActions = new HashMap<>();
         Map<Pair<String, String>, EpisodeAction> localMostRecentPlayActions =
                 createUniqueLocalMostRecentPlayActions(queuedEpisodeActions);
         for (EpisodeAction remoteAction : remoteActions) {
-            Pair<String, String> key = new Pair<>(remoteAction.getPodcast(), remoteAction.getEpisode());
             switch (remoteAction.getAction()) {
                 case NEW:
                 case DOWNLOAD:
                     break;
                 case PLAY:
+                    Pair<String, String> key = new Pair<>(remoteAction.getPodcast(), remoteAction.getEpisode());
                     EpisodeAction localMostRecent = localMostRecentPlayActions.get(key);
                     if (secondActionOverridesFirstAction(remoteAction, localMostRecent)) {
                         break;
@@ -53,13 +58,12 @@ public class EpisodeActionFilter {
     private static Map<Pair<String, String>, EpisodeAction> createUniqueLocalMostRecentPlayActions(
             List<EpisodeAction> queuedEpisodeActions) {
         Map<Pair<String, String>, EpisodeAction> localMostRecentPlayAction;
-        localMostRecentPlayAction = new ArrayMap<>();
+        localMostRecentPlayAction = new HashMap<>(queuedEpisodeActions.size() * 4 / 3 + 1);
         for (EpisodeAction action : queuedEpisodeActions) {
             Pair<String, String> key = new Pair<>(action.getPodcast(), action.getEpisode());
             EpisodeAction mostRecent = localMostRecentPlayAction.get(key);
-            if (mostRecent == null || mostRecent.getTimestamp() == null) {
-                localMostRecentPlayAction.put(key, action);
-            } else if (mostRecent.getTimestamp().before(action.getTimestamp())) {
+            if (mostRecent == null || getTime(mostRecent) == NO_TIMESTAMP
+                    || getTime(action) > getTime(mostRecent)) {
                 localMostRecentPlayAction.put(key, action);
             }
         }
@@ -69,9 +73,11 @@ public class EpisodeActionFilter {
     private static boolean secondActionOverridesFirstAction(EpisodeAction firstAction,
                                                             EpisodeAction secondAction) {
         return secondAction != null
-                && secondAction.getTimestamp() != null
-                && (firstAction.getTimestamp() == null
-                        || secondAction.getTimestamp().after(firstAction.getTimestamp()));
+                && getTime(secondAction) != NO_TIMESTAMP
+                && getTime(secondAction) > getTime(firstAction);
     }
 
+    private static long getTime(EpisodeAction action) {
+        return action.getTimestamp() != null ? action.getTimestamp().getTime() : NO_TIMESTAMP;
+    }
 }
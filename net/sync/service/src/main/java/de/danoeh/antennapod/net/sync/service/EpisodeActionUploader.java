@@ -0,0 +1,112 @@
+package de.danoeh.antennapod.net.sync.service;
+
+import androidx.annotation.Nullable;
+import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeAction;
+import de.danoeh.antennapod.net.sync.serviceinterface.ISyncService;
+import de.danoeh.antennapod.net.sync.serviceinterface.SyncServiceException;
+import de.danoeh.antennapod.net.sync.serviceinterface.UploadChangesResponse;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Uploads episode actions in chunks, with a few requests in flight at the same time,
+ * so the upload is not limited by the round trip time of the server.
+ * The callbacks of the chunks are called on the calling thread, in the order of the chunks,
+ * and only after all previous chunks were uploaded, so they can be used as checkpoints.
+ */
+class EpisodeActionUploader {
+    static final int CHUNK_SIZE = 30;
+    static final int MAX_IN_FLIGHT = 2;
+
+    private final ISyncService syncService;
+    private final ExecutorService executor;
+    private final ArrayDeque<Chunk> inFlight = new ArrayDeque<>();
+    private long timestamp = 0;
+
+    private static class Chunk {
+        final Future<UploadChangesResponse> response;
+        @Nullable
+        final Runnable onUploaded;
+
+        Chunk(Future<UploadChangesResponse> response, @Nullable Runnable onUploaded) {
+            this.response = response;
+            this.onUploaded = onUploaded;
+        }
+    }
+
+    EpisodeActionUploader(ISyncService syncService) {
+        this.syncService = syncService;
+        this.executor = Executors.newFixedThreadPool(MAX_IN_FLIGHT);
+    }
+
+    /**
+     * Starts uploading the chunk, after waiting for the oldest chunk if too many are in flight.
+     *
+     * @param onUploaded Called after this chunk and all previous ones were uploaded
+     */
+    void upload(List<EpisodeAction> actions, @Nullable Runnable onUploaded) throws SyncServiceException {
+        if (inFlight.size() >= MAX_IN_FLIGHT) {
+            awaitOldest();
+        }
+        Future<UploadChangesResponse> response = executor.submit(
+                () -> actions.isEmpty() ? null : syncService.uploadEpisodeActions(actions));
+        inFlight.add(new Chunk(response, onUploaded));
+    }
+
+    /**
+     * Waits until all chunks are uploaded.
+     *
+     * @return The timestamp that the server returned for the last chunk, or 0 if nothing was uploaded
+     */
+    long finish() throws SyncServiceException {
+        try {
+            while (!inFlight.isEmpty()) {
+                awaitOldest();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return timestamp;
+    }
+
+    /**
+     * Stops the chunks that are still in flight, for example after an error. Does nothing after {@link #finish()}.
+     */
+    void cancel() {
+        for (Chunk chunk : inFlight) {
+            chunk.response.cancel(true);
+        }
+        inFlight.clear();
+        executor.shutdownNow();
+    }
+
+    private void awaitOldest() throws SyncServiceException {
+        Chunk chunk = inFlight.peek();
+        UploadChangesResponse response;
+        try {
+            response = chunk.response.get();
+        } catch (InterruptedException e) {
+            cancel();
+            Thread.currentThread().interrupt();
+            throw new SyncServiceException(e);
+        } catch (ExecutionException e) {
+            cancel();
+            if (e.getCause() instanceof SyncServiceException) {
+                throw (SyncServiceException) e.getCause();
+            }
+            throw new SyncServiceException(e.getCause());
+        }
+        inFlight.remove();
+        if (response != null) {
+            timestamp = response.timestamp;
+        }
+        if (chunk.onUploaded != null) {
+            chunk.onUploaded.run();
+        }
+    }
+}
@@ -49,11 +49,19 @@ import org.greenrobot.eventbus.EventBus;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class SyncService extends Worker {
     public static final String TAG = "SyncService";
+    private static final int PLAYED_EPISODES_PAGE_SIZE = 500;
+    private static final int MAX_PARALLEL_REDIRECT_CHECKS = 4;
 
     private static boolean currentlyActive = false;
     private final SynchronizationQueueStorage synchronizationQueueStorage;
@@ -153,29 +161,45 @@ public class SyncService extends Worker {
         List<String> queuedAddedFeeds = synchronizationQueueStorage.getQueuedAddedFeeds();
 
         Log.d(TAG, "Downloaded subscription changes: " + subscriptionChanges);
+        Set<String> localSubscriptionKeys = new HashSet<>();
+        for (String downloadUrl : localSubscriptions) {
+            localSubscriptionKeys.add(UrlChecker.normalizeUrl(downloadUrl));
+        }
+        Set<String> queuedRemovedFeedSet = new HashSet<>(queuedRemovedFeeds);
+        Set<String> newFeedKeys = new HashSet<>();
+        List<String> newFeedUrls = new ArrayList<>();
         for (String downloadUrl : subscriptionChanges.getAdded()) {
             if (!downloadUrl.startsWith("http")) { // Also matches https
                 Log.d(TAG, "Skipping url: " + downloadUrl);
                 continue;
-            } else if (UrlChecker.containsUrl(localSubscriptions, downloadUrl)
-                    || queuedRemovedFeeds.contains(downloadUrl)) {
+            }
+            String key = UrlChecker.normalizeUrl(downloadUrl);
+            if (localSubscriptionKeys.contains(key) || queuedRemovedFeedSet.contains(downloadUrl)
+                    || !newFeedKeys.add(key)) {
                 continue;
             }
-            String redirectedUrl = RedirectChecker.getNewUrlIfPermanentRedirect(downloadUrl);
+            newFeedUrls.add(downloadUrl);
+        }
+
+        List<String> redirectedUrls = getNewUrlsIfPermanentRedirect(newFeedUrls);
+        List<Feed> newFeeds = new ArrayList<>();
+        for (int i = 0; i < newFeedUrls.size(); i++) {
+            String redirectedUrl = redirectedUrls.get(i);
             if (redirectedUrl != null
-                    && (UrlChecker.containsUrl(localSubscriptions, redirectedUrl)
-                        || queuedRemovedFeeds.contains(redirectedUrl))) {
+                    && (localSubscriptionKeys.contains(UrlChecker.normalizeUrl(redirectedUrl))
+                        || queuedRemovedFeedSet.contains(redirectedUrl))) {
                 continue;
             }
-
-            Feed feed = new Feed(downloadUrl, null, "Unknown podcast");
+            Feed feed = new Feed(newFeedUrls.get(i), null, "Unknown podcast");
             feed.setItems(Collections.emptyList());
-            FeedDatabaseWriter.updateFeed(getApplicationContext(), feed, false);
+            newFeeds.add(feed);
         }
+        FeedDatabaseWriter.addNewFeeds(getApplicationContext(), newFeeds);
 
         // remove subscription if not just subscribed (again)
+        Set<String> queuedAddedFeedSet = new HashSet<>(queuedAddedFeeds);
         for (String downloadUrl : subscriptionChanges.getRemoved()) {
-            if (!queuedAddedFeeds.contains(downloadUrl)) {
+            if (!queuedAddedFeedSet.contains(downloadUrl)) {
                 DBWriter.removeFeedWithDownloadUrl(getApplicationContext(), downloadUrl);
             }
         }
@@ -185,8 +209,8 @@ public class SyncService extends Worker {
             queuedAddedFeeds = localSubscriptions;
         }
 
-        queuedAddedFeeds.removeAll(subscriptionChanges.getAdded());
-        queuedRemovedFeeds.removeAll(subscriptionChanges.getRemoved());
+        queuedAddedFeeds.removeAll(new HashSet<>(subscriptionChanges.getAdded()));
+        queuedRemovedFeeds.removeAll(new HashSet<>(subscriptionChanges.getRemoved()));
 
         if (queuedAddedFeeds.isEmpty() && queuedRemovedFeeds.isEmpty()) {
             Log.d(TAG, "No feeds to add or remove from server");
@@ -211,6 +235,40 @@ public class SyncService extends Worker {
         SynchronizationSettings.setLastSubscriptionSynchronizationAttemptTimestamp(newTimeStamp);
     }
 
+    /**
+     * Checks the URLs for permanent redirects, a few at the same time.
+     *
+     * @return The new URL for each of the URLs, in the same order, or null if it is not redirected
+     */
+    private List<String> getNewUrlsIfPermanentRedirect(List<String> downloadUrls) throws SyncServiceException {
+        List<String> result = new ArrayList<>(downloadUrls.size());
+        if (downloadUrls.isEmpty()) {
+            return result;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(downloadUrls.size(), MAX_PARALLEL_REDIRECT_CHECKS));
+        try {
+            List<Future<String>> redirects = new ArrayList<>(downloadUrls.size());
+            for (String downloadUrl : downloadUrls) {
+                redirects.add(executor.submit(() -> RedirectChecker.getNewUrlIfPermanentRedirect(downloadUrl)));
+            }
+            for (Future<String> redirect : redirects) {
+                result.add(redirect.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SyncServiceException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new SyncServiceException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return result;
+    }
+
     private void syncEpisodeActions(ISyncService syncServiceImpl) throws SyncServiceException {
         final long lastSync = SynchronizationSettings.getLastEpisodeActionSynchronizationTimestamp();
         EventBus.getDefault().postSticky(new SyncServiceEvent(R.string.sync_status_episodes_download));
@@ -221,12 +279,36 @@ public class SyncService extends Worker {
 
         // upload local actions
         EventBus.getDefault().postSticky(new SyncServiceEvent(R.string.sync_status_episodes_upload));
-        List<EpisodeAction> queuedEpisodeActions = synchronizationQueueStorage.getQueuedEpisodeActions();
-        if (lastSync == 0) {
-            EventBus.getDefault().postSticky(new SyncServiceEvent(R.string.sync_status_upload_played));
-            List<FeedItem> readItems = DBReader.getEpisodes(0, Integer.MAX_VALUE,
-                    new FeedItemFilter(FeedItemFilter.PLAYED), SortOrder.DATE_NEW_OLD);
-            Log.d(TAG, "First sync. Upload state for all " + readItems.size() + " played episodes");
+        LockingAsyncExecutor.lock();
+        EpisodeActionUploader uploader = new EpisodeActionUploader(syncServiceImpl);
+        try {
+            if (lastSync == 0) {
+                EventBus.getDefault().postSticky(new SyncServiceEvent(R.string.sync_status_upload_played));
+                uploadPlayedEpisodes(uploader);
+            }
+            uploadQueuedEpisodeActions(uploader);
+            long uploadTimeStamp = uploader.finish();
+            if (uploadTimeStamp != 0) {
+                newTimeStamp = uploadTimeStamp;
+            }
+        } finally {
+            uploader.cancel();
+            LockingAsyncExecutor.unlock();
+        }
+        SynchronizationSettings.setLastEpisodeActionSynchronizationAttemptTimestamp(newTimeStamp);
+    }
+
+    /**
+     * Reads the played episodes page by page, so the first sync does not need to load all of them at once.
+     */
+    private void uploadPlayedEpisodes(EpisodeActionUploader uploader) throws SyncServiceException {
+        FeedItemFilter filter = new FeedItemFilter(FeedItemFilter.PLAYED);
+        int offset = 0;
+        List<FeedItem> readItems;
+        do {
+            readItems = DBReader.getEpisodes(offset, PLAYED_EPISODES_PAGE_SIZE, filter, SortOrder.DATE_NEW_OLD);
+            offset += readItems.size();
+            List<EpisodeAction> playedActions = new ArrayList<>();
             for (FeedItem item : readItems) {
                 FeedMedia media = item.getMedia();
                 if (media == null) {
@@ -238,23 +320,38 @@ public class SyncService extends Worker {
                         .position(media.getDuration() / 1000)
                         .total(media.getDuration() / 1000)
                         .build();
-                queuedEpisodeActions.add(played);
+                playedActions.add(played);
+                if (playedActions.size() == EpisodeActionUploader.CHUNK_SIZE) {
+                    uploader.upload(playedActions, null);
+                    playedActions = new ArrayList<>();
+                }
             }
-        }
-        if (!queuedEpisodeActions.isEmpty()) {
-            LockingAsyncExecutor.lock();
-            try {
-                Log.d(TAG, "Uploading " + queuedEpisodeActions.size() + " actions: "
-                        + StringUtils.join(queuedEpisodeActions, ", "));
-                UploadChangesResponse postResponse = syncServiceImpl.uploadEpisodeActions(queuedEpisodeActions);
-                newTimeStamp = postResponse.timestamp;
-                Log.d(TAG, "Upload episode response: " + postResponse);
-                synchronizationQueueStorage.clearEpisodeActionQueue();
-            } finally {
-                LockingAsyncExecutor.unlock();
+            if (!playedActions.isEmpty()) {
+                uploader.upload(playedActions, null);
+            }
+        } while (readItems.size() == PLAYED_EPISODES_PAGE_SIZE);
+        Log.d(TAG, "First sync. Uploaded state for all " + offset + " played episodes");
+    }
+
+    /**
+     * Each uploaded chunk is removed from the queue right away, so an interrupted sync continues after it.
+     * Actions that are enqueued while uploading are kept for the next sync.
+     */
+    private void uploadQueuedEpisodeActions(EpisodeActionUploader uploader) throws SyncServiceException {
+        long lastQueuedActionId = synchronizationQueueStorage.getLastQueuedEpisodeActionId();
+        long uploadedId = 0;
+        while (uploadedId < lastQueuedActionId) {
+            SynchronizationQueueStorage.QueuedEpisodeActions chunk = synchronizationQueueStorage
+                    .getQueuedEpisodeActions(uploadedId, lastQueuedActionId, EpisodeActionUploader.CHUNK_SIZE);
+            if (chunk.lastId == uploadedId) {
+                break;
             }
+            Log.d(TAG, "Uploading " + chunk.actions.size() + " actions: " + StringUtils.join(chunk.actions, ", "));
+            final long chunkLastId = chunk.lastId;
+            uploader.upload(chunk.actions,
+                    () -> synchronizationQueueStorage.removeQueuedEpisodeActions(chunkLastId));
+            uploadedId = chunkLastId;
         }
-        SynchronizationSettings.setLastEpisodeActionSynchronizationAttemptTimestamp(newTimeStamp);
     }
 
     private synchronized void processEpisodeActions(List<EpisodeAction> remoteActions) {
@@ -266,11 +363,19 @@ public class SyncService extends Worker {
         Map<Pair<String, String>, EpisodeAction> playActionsToUpdate = EpisodeActionFilter
                 .getRemoteActionsOverridingLocalActions(remoteActions,
                         synchronizationQueueStorage.getQueuedEpisodeActions());
+        List<EpisodeAction> actions = new ArrayList<>(playActionsToUpdate.values());
+        List<String> guids = new ArrayList<>(actions.size());
+        List<String> episodeUrls = new ArrayList<>(actions.size());
+        for (EpisodeAction action : actions) {
+            guids.add(GuidValidator.isValidGuid(action.getGuid()) ? action.getGuid() : null);
+            episodeUrls.add(action.getEpisode());
+        }
+        List<FeedItem> feedItems = DBReader.getFeedItemsByGuidOrEpisodeUrl(guids, episodeUrls);
         LongList queueToBeRemoved = new LongList();
         List<FeedItem> updatedItems = new ArrayList<>();
-        for (EpisodeAction action : playActionsToUpdate.values()) {
-            String guid = GuidValidator.isValidGuid(action.getGuid()) ? action.getGuid() : null;
-            FeedItem feedItem = DBReader.getFeedItemByGuidOrEpisodeUrl(guid, action.getEpisode());
+        for (int i = 0; i < actions.size(); i++) {
+            EpisodeAction action = actions.get(i);
+            FeedItem feedItem = feedItems.get(i);
             if (feedItem == null) {
                 Log.i(TAG, "Unknown feed item: " + action);
                 continue;
@@ -294,9 +399,8 @@ public class SyncService extends Worker {
             }
             updatedItems.add(feedItem);
         }
-        DBWriter.removeQueueItem(getApplicationContext(), false, queueToBeRemoved.toArray());
         DBReader.loadAdditionalFeedItemListData(updatedItems);
-        DBWriter.setItemList(updatedItems);
+        DBWriter.setItemList(updatedItems, queueToBeRemoved);
     }
 
     private void clearErrorNotifications() {
@@ -2,10 +2,14 @@ package de.danoeh.antennapod.net.sync.service;
 
 import android.content.Context;
 import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.util.Log;
 
 import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeAction;
+import de.danoeh.antennapod.storage.database.PodDBAdapter;
 import org.json.JSONArray;
 import org.json.JSONException;
+import org.json.JSONObject;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -13,12 +17,22 @@ import java.util.List;
 
 import de.danoeh.antennapod.storage.preferences.SynchronizationSettings;
 
+/**
+ * Changes that still need to be uploaded to the synchronization server.
+ * Episode actions are appended to a table in the database, so enqueueing does not get slower
+ * while the device is offline for a long time. Subscription changes are stored in the shared preferences.
+ */
 public class SynchronizationQueueStorage {
-
+    private static final String TAG = "SyncQueueStorage";
     private static final String NAME = "synchronization";
     private static final String QUEUED_EPISODE_ACTIONS = "sync_queued_episode_actions";
     private static final String QUEUED_FEEDS_REMOVED = "sync_removed";
     private static final String QUEUED_FEEDS_ADDED = "sync_added";
+    /**
+     * The legacy queue is migrated both from the executor thread and from the sync worker,
+     * and by different instances, so it could otherwise be copied to the database twice.
+     */
+    private static final Object LEGACY_QUEUE_LOCK = new Object();
     private final SharedPreferences sharedPreferences;
 
     public SynchronizationQueueStorage(Context context) {
@@ -26,18 +40,73 @@ public class SynchronizationQueueStorage {
     }
 
     public ArrayList<EpisodeAction> getQueuedEpisodeActions() {
+        return getQueuedEpisodeActions(0, Long.MAX_VALUE, Integer.MAX_VALUE).actions;
+    }
+
+    /**
+     * Queued episode actions in the order they were enqueued, together with the ID of the last one.
+     */
+    public static class QueuedEpisodeActions {
+        public final ArrayList<EpisodeAction> actions;
+        /**
+         * The ID of the last action that was read, or the afterId of the request if there was none.
+         * Actions up to this ID can be removed once they were uploaded.
+         */
+        public final long lastId;
+
+        QueuedEpisodeActions(ArrayList<EpisodeAction> actions, long lastId) {
+            this.actions = actions;
+            this.lastId = lastId;
+        }
+    }
+
+    /**
+     * Reads a chunk of the queued episode actions, oldest first.
+     *
+     * @param afterId Only actions after this ID are read, for example the lastId of the previous chunk
+     * @param upToId Only actions up to this ID are read
+     * @see #getLastQueuedEpisodeActionId()
+     */
+    public QueuedEpisodeActions getQueuedEpisodeActions(long afterId, long upToId, int limit) {
         ArrayList<EpisodeAction> actions = new ArrayList<>();
-        try {
-            String json = getSharedPreferences()
-                    .getString(QUEUED_EPISODE_ACTIONS, "[]");
-            JSONArray queue = new JSONArray(json);
-            for (int i = 0; i < queue.length(); i++) {
-                actions.add(EpisodeAction.readFromJsonObject(queue.getJSONObject(i)));
+        long lastId = afterId;
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        migrateLegacyEpisodeActions(adapter);
+        try (Cursor cursor = adapter.getSyncEpisodeActionsCursor(afterId, upToId, limit)) {
+            int idIndex = cursor.getColumnIndexOrThrow(PodDBAdapter.KEY_ID);
+            int contentIndex = cursor.getColumnIndexOrThrow(PodDBAdapter.KEY_CONTENT);
+            while (cursor.moveToNext()) {
+                lastId = cursor.getLong(idIndex);
+                EpisodeAction action = null;
+                try {
+                    action = EpisodeAction.readFromJsonObject(new JSONObject(cursor.getString(contentIndex)));
+                } catch (JSONException e) {
+                    e.printStackTrace();
+                }
+                if (action != null) {
+                    actions.add(action);
+                }
             }
-        } catch (JSONException e) {
-            e.printStackTrace();
+        } finally {
+            adapter.close();
         }
-        return actions;
+        return new QueuedEpisodeActions(actions, lastId);
+    }
+
+    /**
+     * The episode actions up to this ID can be uploaded and removed afterwards with
+     * {@link #removeQueuedEpisodeActions(long)}, without losing actions that are enqueued in the meantime.
+     *
+     * @return The ID of the newest queued episode action, or 0 if there is none
+     */
+    public long getLastQueuedEpisodeActionId() {
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        migrateLegacyEpisodeActions(adapter);
+        long id = adapter.getLastSyncEpisodeActionId();
+        adapter.close();
+        return id;
     }
 
     public ArrayList<String> getQueuedRemovedFeeds() {
@@ -72,9 +141,20 @@ public class SynchronizationQueueStorage {
     }
 
     public void clearEpisodeActionQueue() {
-        getSharedPreferences().edit()
-                .putString(QUEUED_EPISODE_ACTIONS, "[]").apply();
+        removeQueuedEpisodeActions(Long.MAX_VALUE);
+    }
 
+    /**
+     * Removes the queued episode actions up to the given ID, for example after they were uploaded.
+     */
+    public void removeQueuedEpisodeActions(long upToId) {
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        synchronized (LEGACY_QUEUE_LOCK) {
+            getSharedPreferences().edit().remove(QUEUED_EPISODE_ACTIONS).commit();
+            adapter.removeSyncEpisodeActions(upToId);
+        }
+        adapter.close();
     }
 
     public void clearFeedQueues() {
@@ -87,11 +167,11 @@ public class SynchronizationQueueStorage {
     protected void clearQueue() {
         SynchronizationSettings.resetTimestamps();
         getSharedPreferences().edit()
-                .putString(QUEUED_EPISODE_ACTIONS, "[]")
+                .remove(QUEUED_EPISODE_ACTIONS)
                 .putString(QUEUED_FEEDS_ADDED, "[]")
                 .putString(QUEUED_FEEDS_REMOVED, "[]")
                 .apply();
-
+        clearEpisodeActionQueue();
     }
 
     protected void enqueueFeedAdded(String downloadUrl) {
@@ -157,16 +237,50 @@ public class SynchronizationQueueStorage {
     }
 
     protected void enqueueEpisodeAction(EpisodeAction action) {
-        SharedPreferences sharedPreferences = getSharedPreferences();
-        String json = sharedPreferences.getString(QUEUED_EPISODE_ACTIONS, "[]");
-        try {
-            JSONArray queue = new JSONArray(json);
-            queue.put(action.writeToJsonObject());
-            sharedPreferences.edit().putString(
-                    QUEUED_EPISODE_ACTIONS, queue.toString()
-            ).apply();
-        } catch (JSONException jsonException) {
-            jsonException.printStackTrace();
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        migrateLegacyEpisodeActions(adapter);
+        addEpisodeAction(adapter, action);
+        adapter.close();
+    }
+
+    /**
+     * A PLAY action contains the complete playback state of the episode,
+     * so it makes older PLAY actions of the same episode obsolete.
+     */
+    private static void addEpisodeAction(PodDBAdapter adapter, EpisodeAction action) {
+        JSONObject json = action.writeToJsonObject();
+        if (json == null) {
+            Log.e(TAG, "Unable to serialize episode action " + action);
+            return;
+        }
+        boolean replacesPrevious = action.getAction() == EpisodeAction.PLAY
+                && action.getPodcast() != null && action.getEpisode() != null;
+        adapter.addSyncEpisodeAction(action.getPodcast(), action.getEpisode(), action.getAction().name(),
+                json.toString(), replacesPrevious);
+    }
+
+    /**
+     * Older versions stored the queued episode actions as a JSON array in the shared preferences.
+     */
+    private void migrateLegacyEpisodeActions(PodDBAdapter adapter) {
+        synchronized (LEGACY_QUEUE_LOCK) {
+            if (!getSharedPreferences().contains(QUEUED_EPISODE_ACTIONS)) {
+                return;
+            }
+            try {
+                JSONArray queue = new JSONArray(getSharedPreferences().getString(QUEUED_EPISODE_ACTIONS, "[]"));
+                for (int i = 0; i < queue.length(); i++) {
+                    JSONObject json = queue.optJSONObject(i);
+                    EpisodeAction action = json != null ? EpisodeAction.readFromJsonObject(json) : null;
+                    if (action != null) {
+                        addEpisodeAction(adapter, action);
+                    }
+                }
+            } catch (JSONException e) {
+                e.printStackTrace();
+            }
+            getSharedPreferences().edit().remove(QUEUED_EPISODE_ACTIONS).commit();
         }
     }
 
@@ -0,0 +1,27 @@
+package de.danoeh.antennapod.net.sync.service;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Measures how long {@link EpisodeActionFilter} takes for growing numbers of actions. It only reports the numbers,
+ * so it is not part of the unit tests. To run it, remove the {@link Ignore} annotation and run
+ * {@code ./gradlew :net:sync:service:testDebugUnitTest --tests '*EpisodeActionFilterBenchmark' -i}.
+ */
+@Ignore("Benchmark, run manually")
+public class EpisodeActionFilterBenchmark {
+
+    @Test
+    public void benchmarkFilter() {
+        EpisodeActionFilterTest.filterSyntheticActions(50000); // Warm up
+        for (int numActions = 12500; numActions <= 100000; numActions *= 2) {
+            long fastest = Long.MAX_VALUE;
+            for (int i = 0; i < 3; i++) {
+                long start = System.nanoTime();
+                EpisodeActionFilterTest.filterSyntheticActions(numActions);
+                fastest = Math.min(fastest, System.nanoTime() - start);
+            }
+            System.out.println(numActions + " actions: " + fastest / 1000000 + " ms");
+        }
+    }
+}
@@ -209,4 +209,61 @@ public class EpisodeActionFilterTest extends TestCase {
                 .getRemoteActionsOverridingLocalActions(remoteActions, episodeActions);
         assertSame(1, uniqueList.size());
     }
+
+    public void testMissingLocalTimestampDoesNotReplacePresentOne() throws ParseException {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+        List<EpisodeAction> episodeActions = new ArrayList<>();
+        episodeActions.add(new EpisodeAction
+                .Builder("podcast.a", "episode.1", EpisodeAction.Action.PLAY)
+                .timestamp(format.parse("2021-01-01 08:00:00"))
+                .position(10)
+                .build()
+        );
+        episodeActions.add(new EpisodeAction
+                .Builder("podcast.a", "episode.1", EpisodeAction.Action.PLAY)
+                // no timestamp
+                .position(20)
+                .build()
+        );
+
+        List<EpisodeAction> remoteActions = new ArrayList<>();
+        remoteActions.add(new EpisodeAction
+                .Builder("podcast.a", "episode.1", EpisodeAction.Action.PLAY)
+                .timestamp(format.parse("2021-01-01 07:55:00"))
+                .position(5)
+                .build()
+        );
+
+        Map<Pair<String, String>, EpisodeAction> uniqueList = episodeActionFilter
+                .getRemoteActionsOverridingLocalActions(remoteActions, episodeActions);
+        assertEquals(0, uniqueList.size());
+    }
+
+    public void testManySyntheticActions() {
+        assertEquals(1000, filterSyntheticActions(2000));
+    }
+
+    /**
+     * Every episode has a local action and a remote action, the remote one is newer for every second episode.
+     *
+     * @return Number of remote actions that override local actions
+     */
+    static int filterSyntheticActions(int numActions) {
+        long start = 1609488000000L;
+        List<EpisodeAction> localActions = new ArrayList<>(numActions);
+        List<EpisodeAction> remoteActions = new ArrayList<>(numActions);
+        for (int i = 0; i < numActions; i++) {
+            String podcast = "https://example.com/podcast" + (i % 100) + ".xml";
+            String episode = "https://example.com/episode" + i + ".mp3";
+            localActions.add(new EpisodeAction.Builder(podcast, episode, EpisodeAction.Action.PLAY)
+                    .timestamp(new Date(start + i * 1000L))
+                    .position(10)
+                    .build());
+            remoteActions.add(new EpisodeAction.Builder(podcast, episode, EpisodeAction.Action.PLAY)
+                    .timestamp(new Date(start + i * 1000L + (i % 2 == 0 ? 500 : -500)))
+                    .position(20)
+                    .build());
+        }
+        return EpisodeActionFilter.getRemoteActionsOverridingLocalActions(remoteActions, localActions).size();
+    }
 }
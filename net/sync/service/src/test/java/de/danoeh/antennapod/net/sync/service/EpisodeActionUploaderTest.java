@@ -0,0 +1,133 @@
+package de.danoeh.antennapod.net.sync.service;
+
+import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeAction;
+import de.danoeh.antennapod.net.sync.serviceinterface.EpisodeActionChanges;
+import de.danoeh.antennapod.net.sync.serviceinterface.ISyncService;
+import de.danoeh.antennapod.net.sync.serviceinterface.SubscriptionChanges;
+import de.danoeh.antennapod.net.sync.serviceinterface.SyncServiceException;
+import de.danoeh.antennapod.net.sync.serviceinterface.UploadChangesResponse;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Test class for {@link EpisodeActionUploader}.
+ */
+public class EpisodeActionUploaderTest {
+
+    @Test
+    public void testCheckpointsInOrder() throws SyncServiceException {
+        FakeSyncService syncService = new FakeSyncService(null);
+        EpisodeActionUploader uploader = new EpisodeActionUploader(syncService);
+        List<Integer> checkpoints = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 10; i++) {
+            final int chunk = i;
+            // Earlier chunks take longer, so they finish after later ones
+            uploader.upload(Collections.singletonList(action("episode" + i, 10 - i)), () -> checkpoints.add(chunk));
+        }
+        // The timestamp of the last chunk
+        assertEquals(1, uploader.finish());
+        assertEquals(asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), checkpoints);
+        assertEquals(10, syncService.uploads.get());
+        assertTrue(syncService.maxInFlight.get() <= EpisodeActionUploader.MAX_IN_FLIGHT);
+    }
+
+    @Test
+    public void testStopsAfterFailure() {
+        FakeSyncService syncService = new FakeSyncService("episode2");
+        EpisodeActionUploader uploader = new EpisodeActionUploader(syncService);
+        List<Integer> checkpoints = Collections.synchronizedList(new ArrayList<>());
+        try {
+            for (int i = 0; i < 10; i++) {
+                final int chunk = i;
+                uploader.upload(Collections.singletonList(action("episode" + i, 1)), () -> checkpoints.add(chunk));
+            }
+            uploader.finish();
+            fail("Expected SyncServiceException");
+        } catch (SyncServiceException e) {
+            assertEquals("Failed", e.getMessage());
+        } finally {
+            uploader.cancel();
+        }
+        assertEquals(asList(0, 1), checkpoints);
+    }
+
+    @Test
+    public void testEmptyChunk() throws SyncServiceException {
+        FakeSyncService syncService = new FakeSyncService(null);
+        EpisodeActionUploader uploader = new EpisodeActionUploader(syncService);
+        List<Integer> checkpoints = new ArrayList<>();
+        uploader.upload(Collections.emptyList(), () -> checkpoints.add(0));
+        assertEquals(0, uploader.finish());
+        assertEquals(asList(0), checkpoints);
+        assertEquals(0, syncService.uploads.get());
+    }
+
+    private static EpisodeAction action(String episode, int position) {
+        return new EpisodeAction.Builder("podcast", episode, EpisodeAction.Action.PLAY)
+                .position(position)
+                .build();
+    }
+
+    private static class FakeSyncService implements ISyncService {
+        final AtomicInteger uploads = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+        private final String failingEpisode;
+
+        FakeSyncService(String failingEpisode) {
+            this.failingEpisode = failingEpisode;
+        }
+
+        @Override
+        public UploadChangesResponse uploadEpisodeActions(List<EpisodeAction> queuedEpisodeActions)
+                throws SyncServiceException {
+            uploads.incrementAndGet();
+            EpisodeAction action = queuedEpisodeActions.get(0);
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            try {
+                Thread.sleep(action.getPosition());
+            } catch (InterruptedException e) {
+                throw new SyncServiceException(e);
+            } finally {
+                inFlight.decrementAndGet();
+            }
+            if (action.getEpisode().equals(failingEpisode)) {
+                throw new SyncServiceException("Failed");
+            }
+            return new UploadChangesResponse(action.getPosition()) { };
+        }
+
+        @Override
+        public void login() {
+        }
+
+        @Override
+        public SubscriptionChanges getSubscriptionChanges(long lastSync) {
+            return null;
+        }
+
+        @Override
+        public UploadChangesResponse uploadSubscriptionChanges(List<String> addedFeeds, List<String> removedFeeds) {
+            return null;
+        }
+
+        @Override
+        public EpisodeActionChanges getEpisodeActionChanges(long lastSync) {
+            return null;
+        }
+
+        @Override
+        public void logout() {
+        }
+    }
+}
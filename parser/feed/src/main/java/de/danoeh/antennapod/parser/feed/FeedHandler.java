@@ -1,13 +1,18 @@
 package de.danoeh.antennapod.parser.feed;
 
-import de.danoeh.antennapod.parser.feed.util.TypeGetter;
+import org.apache.commons.io.input.CloseShieldInputStream;
 import org.apache.commons.io.input.XmlStreamReader;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 
-import java.io.File;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.Reader;
+import java.io.InputStream;
+import java.util.Map;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
@@ -16,21 +21,82 @@ import javax.xml.parsers.SAXParserFactory;
 import de.danoeh.antennapod.model.feed.Feed;
 
 public class FeedHandler {
+    /**
+     * Number of bytes that are kept to look at the document again if it turns out not to be a feed.
+     * Websites have their title near the start.
+     */
+    private static final int DETECTION_BUFFER_SIZE = 64 * 1024;
+    private Map<String, Long> knownItems = null;
+    private int minConsecutiveKnownItems;
+
+    /**
+     * Allows the parser to leave out the oldest items of feeds that are sorted newest first.
+     * Once the given number of consecutive items was already known with the same publication date,
+     * the remaining items are not parsed and {@link Feed#hasSkippedKnownItems()} is set.
+     *
+     * @param knownItems Publication dates of the newest known items, by item identifier
+     */
+    public void setKnownItems(Map<String, Long> knownItems, int minConsecutiveKnownItems) {
+        this.knownItems = knownItems;
+        this.minConsecutiveKnownItems = minConsecutiveKnownItems;
+    }
+
     public FeedHandlerResult parseFeed(Feed feed) throws SAXException, IOException,
             ParserConfigurationException, UnsupportedFeedtypeException {
-        TypeGetter tg = new TypeGetter();
-        TypeGetter.Type type = tg.getType(feed);
-        SyndHandler handler = new SyndHandler(feed, type);
+        try (InputStream inputStream = new FileInputStream(feed.getLocalFileUrl())) {
+            return parseFeed(feed, inputStream);
+        }
+    }
+
+    /**
+     * Parses the feed in a single pass while it is read, for example from a network connection.
+     * The type of the feed is recognized by the root element. The stream is not closed.
+     */
+    public FeedHandlerResult parseFeed(Feed feed, InputStream inputStream) throws SAXException, IOException,
+            ParserConfigurationException, UnsupportedFeedtypeException {
+        BufferedInputStream in = new BufferedInputStream(inputStream);
+        in.mark(DETECTION_BUFFER_SIZE);
+        SyndHandler handler = new SyndHandler(feed);
+        if (knownItems != null) {
+            handler.state.setKnownItems(knownItems, minConsecutiveKnownItems);
+        }
 
         SAXParserFactory factory = SAXParserFactory.newInstance();
         factory.setNamespaceAware(true);
         SAXParser saxParser = factory.newSAXParser();
-        File file = new File(feed.getLocalFileUrl());
-        Reader inputStreamReader = new XmlStreamReader(file);
-        InputSource inputSource = new InputSource(inputStreamReader);
-
-        saxParser.parse(inputSource, handler);
-        inputStreamReader.close();
+        // Parsers close their input, but the start is still needed if the document is not a feed
+        InputSource inputSource = new InputSource(new XmlStreamReader(CloseShieldInputStream.wrap(in)));
+        try {
+            saxParser.parse(inputSource, handler);
+        } catch (SAXException e) {
+            if (e.getException() instanceof UnsupportedFeedtypeException) {
+                UnsupportedFeedtypeException unsupportedException = (UnsupportedFeedtypeException) e.getException();
+                if (unsupportedException.getRootElement() != null) {
+                    throwExceptionIfWebsite(in);
+                }
+                throw unsupportedException;
+            } else if (!handler.isRootElementFound()) {
+                throwExceptionIfWebsite(in);
+                throw new UnsupportedFeedtypeException(e.getMessage());
+            }
+            throw e;
+        }
         return new FeedHandlerResult(handler.state.feed, handler.state.alternateUrls, handler.state.redirectUrl);
     }
+
+    private void throwExceptionIfWebsite(BufferedInputStream in) throws UnsupportedFeedtypeException {
+        try {
+            in.reset();
+            Document document = Jsoup.parse(in, null, "");
+            Element titleElement = document.head().getElementsByTag("title").first();
+            if (titleElement != null) {
+                throw new UnsupportedFeedtypeException("html", "Website title: \"" + titleElement.text() + "\"");
+            }
+            Element firstChild = document.children().first();
+            throw new UnsupportedFeedtypeException(firstChild != null ? firstChild.tagName() : "?", null);
+        } catch (IOException e) {
+            // The start of the document is no longer available
+            e.printStackTrace();
+        }
+    }
 }
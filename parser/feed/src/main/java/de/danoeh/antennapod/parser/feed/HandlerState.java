@@ -1,9 +1,10 @@
 package de.danoeh.antennapod.parser.feed;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Stack;
 
 import de.danoeh.antennapod.model.feed.Feed;
 import de.danoeh.antennapod.model.feed.FeedFunding;
@@ -30,29 +31,46 @@ public class HandlerState {
     private final ArrayList<FeedItem> items;
     private FeedItem currentItem;
     private FeedFunding currentFunding;
-    final Stack<SyndElement> tagstack;
+    final ArrayDeque<SyndElement> tagstack;
     /**
      * Namespaces that have been defined so far.
      */
     final Map<String, Namespace> namespaces;
-    final Stack<Namespace> defaultNamespaces;
+    final ArrayDeque<Namespace> defaultNamespaces;
     /**
-     * Buffer for saving characters.
+     * Buffer for saving characters of the current element, null if the current element has ended.
      */
     protected StringBuilder contentBuf;
+    /**
+     * Reused as {@link #contentBuf} for every element, so that parsing does not allocate a buffer per element.
+     */
+    private final StringBuilder textBuffer = new StringBuilder();
 
     /**
      * Temporarily saved objects.
      */
     private final Map<String, Object> tempObjects;
 
+    /**
+     * Publication dates of items that are already known, by item identifier. Null if all items should be parsed.
+     */
+    private Map<String, Long> knownItems;
+    private int minConsecutiveKnownItems;
+    private int numConsecutiveKnownItems = 0;
+    private long previousPubDate = Long.MAX_VALUE;
+    private boolean newestFirst = true;
+    /**
+     * True once the remaining items are left out.
+     */
+    boolean skippingItems = false;
+
     public HandlerState(Feed feed) {
         this.feed = feed;
         alternateUrls = new HashMap<>();
         items = new ArrayList<>();
-        tagstack = new Stack<>();
+        tagstack = new ArrayDeque<>();
         namespaces = new HashMap<>();
-        defaultNamespaces = new Stack<>();
+        defaultNamespaces = new ArrayDeque<>();
         tempObjects = new HashMap<>();
     }
 
@@ -68,7 +86,7 @@ public class HandlerState {
         return currentItem;
     }
 
-    public Stack<SyndElement> getTagstack() {
+    public Deque<SyndElement> getTagstack() {
         return tagstack;
     }
 
@@ -111,6 +129,14 @@ public class HandlerState {
         return contentBuf;
     }
 
+    /**
+     * Starts collecting the characters of a new element.
+     */
+    void startContent() {
+        textBuffer.setLength(0);
+        contentBuf = textBuffer;
+    }
+
     public void addAlternateFeedUrl(String title, String url) {
         alternateUrls.put(url, title);
     }
@@ -118,4 +144,34 @@ public class HandlerState {
     public Map<String, Object> getTempObjects() {
         return tempObjects;
     }
+
+    void setKnownItems(Map<String, Long> knownItems, int minConsecutiveKnownItems) {
+        this.knownItems = knownItems;
+        this.minConsecutiveKnownItems = minConsecutiveKnownItems;
+    }
+
+    /**
+     * Called when an item was parsed completely. Decides whether the remaining items can be left out,
+     * which is the case if the items are sorted newest first and enough of the last ones were already known.
+     */
+    void onItemParsed(FeedItem item) {
+        if (knownItems == null || !newestFirst) {
+            return;
+        }
+        if (item.getPubDate() == null || item.getPubDate().getTime() > previousPubDate) {
+            newestFirst = false;
+            return;
+        }
+        previousPubDate = item.getPubDate().getTime();
+        Long knownPubDate = item.getItemIdentifier() != null ? knownItems.get(item.getItemIdentifier()) : null;
+        if (knownPubDate != null && knownPubDate == previousPubDate) {
+            numConsecutiveKnownItems++;
+        } else {
+            numConsecutiveKnownItems = 0;
+        }
+        if (numConsecutiveKnownItems >= minConsecutiveKnownItems) {
+            skippingItems = true;
+            feed.setSkippedKnownItems(true);
+        }
+    }
 }
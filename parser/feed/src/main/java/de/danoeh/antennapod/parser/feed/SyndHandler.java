@@ -2,12 +2,12 @@ package de.danoeh.antennapod.parser.feed;
 
 import android.util.Log;
 
-import de.danoeh.antennapod.parser.feed.util.TypeGetter;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
 import de.danoeh.antennapod.model.feed.Feed;
+import de.danoeh.antennapod.model.feed.FeedItem;
 import de.danoeh.antennapod.parser.feed.namespace.Content;
 import de.danoeh.antennapod.parser.feed.namespace.DublinCore;
 import de.danoeh.antennapod.parser.feed.namespace.Itunes;
@@ -23,23 +23,45 @@ import de.danoeh.antennapod.parser.feed.namespace.Atom;
 public class SyndHandler extends DefaultHandler {
     private static final String TAG = "SyndHandler";
     private static final String DEFAULT_PREFIX = "";
+    private static final String ATOM_ROOT = "feed";
+    private static final String RSS_ROOT = "rss";
+    private static final String XML_NSURI = "http://www.w3.org/XML/1998/namespace";
     public final HandlerState state;
+    private boolean rootElementFound = false;
+    /**
+     * Depth inside an item that is left out, 0 if the current element is not part of such an item.
+     */
+    private int skippedItemDepth = 0;
 
-    public SyndHandler(Feed feed, TypeGetter.Type type) {
+    public SyndHandler(Feed feed) {
         state = new HandlerState(feed);
-        if (type == TypeGetter.Type.RSS20 || type == TypeGetter.Type.RSS091) {
-            state.defaultNamespaces.push(new Rss20());
-        }
     }
 
     @Override
     public void startElement(String uri, String localName, String qualifiedName,
             Attributes attributes) throws SAXException {
-        state.contentBuf = new StringBuilder();
+        if (!rootElementFound) {
+            rootElementFound = true;
+            handleRootElement(localName, attributes);
+        }
+        if (skippedItemDepth > 0) {
+            skippedItemDepth++;
+            return;
+        }
+        state.startContent();
         Namespace handler = getHandlingNamespace(uri, qualifiedName);
         if (handler != null) {
+            FeedItem previousItem = state.getCurrentItem();
             SyndElement element = handler.handleElementStart(localName, state,
                     attributes);
+            if (state.skippingItems && state.getCurrentItem() != previousItem) {
+                // Leave out the item that just started, including everything it contains
+                state.getItems().remove(state.getItems().size() - 1);
+                state.setCurrentItem(null);
+                state.contentBuf = null;
+                skippedItemDepth = 1;
+                return;
+            }
             state.tagstack.push(element);
 
         }
@@ -48,7 +70,7 @@ public class SyndHandler extends DefaultHandler {
     @Override
     public void characters(char[] ch, int start, int length)
             throws SAXException {
-        if (!state.tagstack.empty()) {
+        if (!state.tagstack.isEmpty() && skippedItemDepth == 0) {
             if (state.getTagstack().size() >= 2) {
                 if (state.contentBuf != null) {
                     state.contentBuf.append(ch, start, length);
@@ -60,10 +82,18 @@ public class SyndHandler extends DefaultHandler {
     @Override
     public void endElement(String uri, String localName, String qualifiedName)
             throws SAXException {
+        if (skippedItemDepth > 0) {
+            skippedItemDepth--;
+            return;
+        }
         Namespace handler = getHandlingNamespace(uri, qualifiedName);
         if (handler != null) {
+            FeedItem item = state.getCurrentItem();
             handler.handleElementEnd(localName, state);
             state.tagstack.pop();
+            if (item != null && state.getCurrentItem() == null) {
+                state.onItemParsed(item);
+            }
 
         }
         state.contentBuf = null;
@@ -117,9 +147,50 @@ public class SyndHandler extends DefaultHandler {
         }
     }
 
+    /**
+     * Recognizes the type of the feed by its root element.
+     *
+     * @throws SAXException wrapping an {@link UnsupportedFeedtypeException} if the document is not a feed
+     */
+    private void handleRootElement(String name, Attributes attributes) throws SAXException {
+        switch (name) {
+            case ATOM_ROOT:
+                state.feed.setType(Feed.TYPE_ATOM1);
+                Log.d(TAG, "Recognized type Atom");
+                String strLang = attributes.getValue(XML_NSURI, "lang");
+                if (strLang != null) {
+                    state.feed.setLanguage(strLang);
+                }
+                return;
+            case RSS_ROOT:
+                String strVersion = attributes.getValue("version");
+                if (strVersion == null || strVersion.equals("2.0")) {
+                    state.feed.setType(Feed.TYPE_RSS2);
+                    Log.d(TAG, "Recognized type RSS 2.0");
+                } else if (strVersion.equals("0.91") || strVersion.equals("0.92")) {
+                    Log.d(TAG, "Recognized type RSS 0.91/0.92");
+                } else {
+                    throw new SAXException(new UnsupportedFeedtypeException("Unsupported rss version"));
+                }
+                // Below the namespaces that were declared on the root element
+                state.defaultNamespaces.addLast(new Rss20());
+                return;
+            default:
+                Log.d(TAG, "Type is invalid: " + name);
+                throw new SAXException(new UnsupportedFeedtypeException(name, null));
+        }
+    }
+
+    /**
+     * Whether the parser got to the root element, so the document was recognized as XML.
+     */
+    public boolean isRootElementFound() {
+        return rootElementFound;
+    }
+
     private Namespace getHandlingNamespace(String uri, String qualifiedName) {
         Namespace handler = state.namespaces.get(uri);
-        if (handler == null && !state.defaultNamespaces.empty()
+        if (handler == null && !state.defaultNamespaces.isEmpty()
                 && !qualifiedName.contains(":")) {
             handler = state.defaultNamespaces.peek();
         }
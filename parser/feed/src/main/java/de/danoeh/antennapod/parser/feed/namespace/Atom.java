@@ -55,96 +55,108 @@ public class Atom extends Namespace {
 
     private static final String LINK_TYPE_RSS = "application/rss+xml";
 
-    /**
-     * Regexp to test whether an Element is a Text Element.
-     */
-    private static final String isText = TITLE + "|" + CONTENT + "|"
-            + SUBTITLE + "|" + SUMMARY;
+    private static boolean isFeed(String name) {
+        return FEED.equals(name) || Rss20.CHANNEL.equals(name);
+    }
 
-    private static final String isFeed = FEED + "|" + Rss20.CHANNEL;
-    private static final String isFeedItem = ENTRY + "|" + Rss20.ITEM;
+    private static boolean isFeedItem(String name) {
+        return ENTRY.equals(name) || Rss20.ITEM.equals(name);
+    }
 
     @Override
     public SyndElement handleElementStart(String localName, HandlerState state,
                                           Attributes attributes) {
-        if (ENTRY.equals(localName)) {
-            state.setCurrentItem(new FeedItem());
-            state.getItems().add(state.getCurrentItem());
-            state.getCurrentItem().setFeed(state.getFeed());
-        } else if (localName.matches(isText)) {
-            String type = attributes.getValue(TEXT_TYPE);
-            return new AtomText(localName, this, type);
-        } else if (LINK.equals(localName)) {
-            String href = attributes.getValue(LINK_HREF);
-            String rel = attributes.getValue(LINK_REL);
-            SyndElement parent = state.getTagstack().peek();
-            if (parent.getName().matches(isFeedItem) && state.getCurrentItem() != null) {
-                if (rel == null || LINK_REL_ALTERNATE.equals(rel)) {
-                    state.getCurrentItem().setLink(href);
-                } else if (LINK_REL_ENCLOSURE.equals(rel)) {
-                    String strSize = attributes.getValue(LINK_LENGTH);
-                    long size = 0;
-                    try {
-                        if (!TextUtils.isEmpty(strSize)) {
-                            size = Long.parseLong(strSize);
-                        }
-                    } catch (NumberFormatException e) {
-                        Log.d(TAG, "Length attribute could not be parsed.");
-                    }
-                    String mimeType = MimeTypeUtils.getMimeType(attributes.getValue(LINK_TYPE), href);
-                    boolean isValidMedia = MimeTypeUtils.isMediaFile(mimeType);
-                    if (!isValidMedia && state.getCurrentItem().getMedia() == null
-                            && !MimeTypeUtils.isImageFile(mimeType)) {
-                        isValidMedia = true;
-                        mimeType = "audio/*";
-                    }
+        switch (localName) {
+            case ENTRY:
+                state.setCurrentItem(new FeedItem());
+                state.getItems().add(state.getCurrentItem());
+                state.getCurrentItem().setFeed(state.getFeed());
+                break;
+            case TITLE:
+            case CONTENT:
+            case SUBTITLE:
+            case SUMMARY:
+                // Text elements
+                String type = attributes.getValue(TEXT_TYPE);
+                return new AtomText(localName, this, type);
+            case LINK:
+                handleLink(state, attributes);
+                break;
+            default:
+                break;
+        }
+        return new SyndElement(localName, this);
+    }
 
-                    if (isValidMedia && !state.getCurrentItem().hasMedia()) {
-                        state.getCurrentItem().setMedia(new FeedMedia(state.getCurrentItem(), href, size, mimeType));
+    private void handleLink(HandlerState state, Attributes attributes) {
+        String href = attributes.getValue(LINK_HREF);
+        String rel = attributes.getValue(LINK_REL);
+        SyndElement parent = state.getTagstack().peek();
+        if (isFeedItem(parent.getName()) && state.getCurrentItem() != null) {
+            if (rel == null || LINK_REL_ALTERNATE.equals(rel)) {
+                state.getCurrentItem().setLink(href);
+            } else if (LINK_REL_ENCLOSURE.equals(rel)) {
+                String strSize = attributes.getValue(LINK_LENGTH);
+                long size = 0;
+                try {
+                    if (!TextUtils.isEmpty(strSize)) {
+                        size = Long.parseLong(strSize);
                     }
-                } else if (LINK_REL_PAYMENT.equals(rel)) {
-                    state.getCurrentItem().setPaymentLink(href);
+                } catch (NumberFormatException e) {
+                    Log.d(TAG, "Length attribute could not be parsed.");
                 }
-            } else if (parent.getName().matches(isFeed)) {
-                if (rel == null || LINK_REL_ALTERNATE.equals(rel)) {
-                    String type = attributes.getValue(LINK_TYPE);
-                    /*
-                     * Use as link if a) no type-attribute is given and
-                     * feed-object has no link yet b) type of link is
-                     * LINK_TYPE_HTML or LINK_TYPE_XHTML
-                     */
-                    if (state.getFeed() != null
-                            && ((type == null && state.getFeed().getLink() == null)
-                                || (LINK_TYPE_HTML.equals(type) || LINK_TYPE_XHTML.equals(type)))) {
-                        state.getFeed().setLink(href);
-                    } else if (LINK_TYPE_ATOM.equals(type) || LINK_TYPE_RSS.equals(type)) {
-                        // treat as podlove alternate feed
-                        String title = attributes.getValue(LINK_TITLE);
-                        if (TextUtils.isEmpty(title)) {
-                            title = href;
-                        }
-                        state.addAlternateFeedUrl(title, href);
+                String mimeType = MimeTypeUtils.getMimeType(attributes.getValue(LINK_TYPE), href);
+                boolean isValidMedia = MimeTypeUtils.isMediaFile(mimeType);
+                if (!isValidMedia && state.getCurrentItem().getMedia() == null
+                        && !MimeTypeUtils.isImageFile(mimeType)) {
+                    isValidMedia = true;
+                    mimeType = "audio/*";
+                }
+
+                if (isValidMedia && !state.getCurrentItem().hasMedia()) {
+                    state.getCurrentItem().setMedia(new FeedMedia(state.getCurrentItem(), href, size, mimeType));
+                }
+            } else if (LINK_REL_PAYMENT.equals(rel)) {
+                state.getCurrentItem().setPaymentLink(href);
+            }
+        } else if (isFeed(parent.getName())) {
+            if (rel == null || LINK_REL_ALTERNATE.equals(rel)) {
+                String type = attributes.getValue(LINK_TYPE);
+                /*
+                 * Use as link if a) no type-attribute is given and
+                 * feed-object has no link yet b) type of link is
+                 * LINK_TYPE_HTML or LINK_TYPE_XHTML
+                 */
+                if (state.getFeed() != null
+                        && ((type == null && state.getFeed().getLink() == null)
+                            || (LINK_TYPE_HTML.equals(type) || LINK_TYPE_XHTML.equals(type)))) {
+                    state.getFeed().setLink(href);
+                } else if (LINK_TYPE_ATOM.equals(type) || LINK_TYPE_RSS.equals(type)) {
+                    // treat as podlove alternate feed
+                    String title = attributes.getValue(LINK_TITLE);
+                    if (TextUtils.isEmpty(title)) {
+                        title = href;
                     }
-                } else if (LINK_REL_ARCHIVES.equals(rel) && state.getFeed() != null) {
-                    String type = attributes.getValue(LINK_TYPE);
-                    if (LINK_TYPE_ATOM.equals(type) || LINK_TYPE_RSS.equals(type)) {
-                        String title = attributes.getValue(LINK_TITLE);
-                        if (TextUtils.isEmpty(title)) {
-                            title = href;
-                        }
-                        state.addAlternateFeedUrl(title, href);
-                    } else if (LINK_TYPE_HTML.equals(type) || LINK_TYPE_XHTML.equals(type)) {
-                        //A Link such as to a directory such as iTunes
+                    state.addAlternateFeedUrl(title, href);
+                }
+            } else if (LINK_REL_ARCHIVES.equals(rel) && state.getFeed() != null) {
+                String type = attributes.getValue(LINK_TYPE);
+                if (LINK_TYPE_ATOM.equals(type) || LINK_TYPE_RSS.equals(type)) {
+                    String title = attributes.getValue(LINK_TITLE);
+                    if (TextUtils.isEmpty(title)) {
+                        title = href;
                     }
-                } else if (LINK_REL_PAYMENT.equals(rel) && state.getFeed() != null) {
-                    state.getFeed().addPayment(new FeedFunding(href, ""));
-                } else if (LINK_REL_NEXT.equals(rel) && state.getFeed() != null) {
-                    state.getFeed().setPaged(true);
-                    state.getFeed().setNextPageLink(href);
+                    state.addAlternateFeedUrl(title, href);
+                } else if (LINK_TYPE_HTML.equals(type) || LINK_TYPE_XHTML.equals(type)) {
+                    //A Link such as to a directory such as iTunes
                 }
+            } else if (LINK_REL_PAYMENT.equals(rel) && state.getFeed() != null) {
+                state.getFeed().addPayment(new FeedFunding(href, ""));
+            } else if (LINK_REL_NEXT.equals(rel) && state.getFeed() != null) {
+                state.getFeed().setPaged(true);
+                state.getFeed().setNextPageLink(href);
             }
         }
-        return new SyndElement(localName, this);
     }
 
     @Override
@@ -160,66 +172,88 @@ public class Atom extends Namespace {
                 state.getTempObjects().remove(Itunes.DURATION);
             }
             state.setCurrentItem(null);
+            return;
+        } else if (state.getTagstack().size() < 2) {
+            return;
         }
-
-        if (state.getTagstack().size() >= 2) {
-            AtomText textElement = null;
-            String contentRaw;
-            if (state.getContentBuf() != null) {
-                contentRaw = state.getContentBuf().toString();
-            } else {
-                contentRaw = "";
-            }
-            String content = SyndStringUtils.trimAllWhitespace(contentRaw);
-            SyndElement topElement = state.getTagstack().peek();
-            String top = topElement.getName();
-            SyndElement secondElement = state.getSecondTag();
-            String second = secondElement.getName();
-
-            if (top.matches(isText)) {
-                textElement = (AtomText) topElement;
-                textElement.setContent(content);
-            }
-
-            if (ID.equals(top)) {
+        // The content is only converted for the elements that are used
+        String second = state.getSecondTag().getName();
+        switch (localName) {
+            case ID:
                 if (FEED.equals(second) && state.getFeed() != null) {
-                    state.getFeed().setFeedIdentifier(contentRaw);
+                    state.getFeed().setFeedIdentifier(rawContent(state));
                 } else if (ENTRY.equals(second) && state.getCurrentItem() != null) {
-                    state.getCurrentItem().setItemIdentifier(contentRaw);
+                    state.getCurrentItem().setItemIdentifier(rawContent(state));
                 }
-            } else if (TITLE.equals(top) && textElement != null) {
+                break;
+            case TITLE:
                 if (FEED.equals(second) && state.getFeed() != null) {
-                    state.getFeed().setTitle(textElement.getProcessedContent());
+                    state.getFeed().setTitle(processText(state));
                 } else if (ENTRY.equals(second) && state.getCurrentItem() != null) {
-                    state.getCurrentItem().setTitle(textElement.getProcessedContent());
+                    state.getCurrentItem().setTitle(processText(state));
                 }
-            } else if (SUBTITLE.equals(top) && FEED.equals(second) && textElement != null
-                    && state.getFeed() != null) {
-                state.getFeed().setDescription(textElement.getProcessedContent());
-            } else if (CONTENT.equals(top) && ENTRY.equals(second) && textElement != null
-                    && state.getCurrentItem() != null) {
-                state.getCurrentItem().setDescriptionIfLonger(textElement.getProcessedContent());
-            } else if (SUMMARY.equals(top) && ENTRY.equals(second) && textElement != null
-                    && state.getCurrentItem() != null) {
-                state.getCurrentItem().setDescriptionIfLonger(textElement.getProcessedContent());
-            } else if (UPDATED.equals(top) && ENTRY.equals(second) && state.getCurrentItem() != null
-                    && state.getCurrentItem().getPubDate() == null) {
-                state.getCurrentItem().setPubDate(DateUtils.parseOrNullIfFuture(content));
-            } else if (PUBLISHED.equals(top) && ENTRY.equals(second) && state.getCurrentItem() != null) {
-                state.getCurrentItem().setPubDate(DateUtils.parseOrNullIfFuture(content));
-            } else if (IMAGE_LOGO.equals(top) && state.getFeed() != null && state.getFeed().getImageUrl() == null) {
-                state.getFeed().setImageUrl(content);
-            } else if (IMAGE_ICON.equals(top) && state.getFeed() != null) {
-                state.getFeed().setImageUrl(content);
-            } else if (AUTHOR_NAME.equals(top) && AUTHOR.equals(second)
-                    && state.getFeed() != null && state.getCurrentItem() == null) {
-                String currentName = state.getFeed().getAuthor();
-                if (currentName == null) {
-                    state.getFeed().setAuthor(content);
-                } else {
-                    state.getFeed().setAuthor(currentName + ", " + content);
+                break;
+            case SUBTITLE:
+                if (FEED.equals(second) && state.getFeed() != null) {
+                    state.getFeed().setDescription(processText(state));
                 }
-            }
+                break;
+            case CONTENT:
+            case SUMMARY:
+                if (ENTRY.equals(second) && state.getCurrentItem() != null) {
+                    state.getCurrentItem().setDescriptionIfLonger(processText(state));
+                }
+                break;
+            case UPDATED:
+                if (ENTRY.equals(second) && state.getCurrentItem() != null
+                        && state.getCurrentItem().getPubDate() == null) {
+                    state.getCurrentItem().setPubDate(DateUtils.parseOrNullIfFuture(trimmedContent(state)));
+                }
+                break;
+            case PUBLISHED:
+                if (ENTRY.equals(second) && state.getCurrentItem() != null) {
+                    state.getCurrentItem().setPubDate(DateUtils.parseOrNullIfFuture(trimmedContent(state)));
+                }
+                break;
+            case IMAGE_LOGO:
+                if (state.getFeed() != null && state.getFeed().getImageUrl() == null) {
+                    state.getFeed().setImageUrl(trimmedContent(state));
+                }
+                break;
+            case IMAGE_ICON:
+                if (state.getFeed() != null) {
+                    state.getFeed().setImageUrl(trimmedContent(state));
+                }
+                break;
+            case AUTHOR_NAME:
+                if (AUTHOR.equals(second) && state.getFeed() != null && state.getCurrentItem() == null) {
+                    String currentName = state.getFeed().getAuthor();
+                    if (currentName == null) {
+                        state.getFeed().setAuthor(trimmedContent(state));
+                    } else {
+                        state.getFeed().setAuthor(currentName + ", " + trimmedContent(state));
+                    }
+                }
+                break;
+            default:
+                break;
         }
     }
+
+    private static String rawContent(HandlerState state) {
+        return state.getContentBuf() != null ? state.getContentBuf().toString() : "";
+    }
+
+    private static String trimmedContent(HandlerState state) {
+        return SyndStringUtils.trimAllWhitespace(rawContent(state));
+    }
+
+    /**
+     * Reads the content of the text element that ends, see {@link AtomText#getProcessedContent()}.
+     */
+    private static String processText(HandlerState state) {
+        AtomText textElement = (AtomText) state.getTagstack().peek();
+        textElement.setContent(trimmedContent(state));
+        return textElement.getProcessedContent();
+    }
 }
@@ -46,39 +46,64 @@ public class Itunes extends Namespace {
 
     @Override
     public void handleElementEnd(String localName, HandlerState state) {
-        if (state.getContentBuf() == null) {
-            return;
-        }
-
-        String content = state.getContentBuf().toString();
-        if (TextUtils.isEmpty(content)) {
-            return;
+        // The content is only converted for the elements that are used
+        String content;
+        switch (localName) {
+            case AUTHOR:
+                content = nonEmptyContent(state);
+                if (content != null && state.getFeed() != null && state.getTagstack().size() <= 3) {
+                    String contentFromHtml = HtmlCompat.fromHtml(content, HtmlCompat.FROM_HTML_MODE_COMPACT).toString();
+                    state.getFeed().setAuthor(contentFromHtml);
+                }
+                break;
+            case DURATION:
+                content = nonEmptyContent(state);
+                if (content != null) {
+                    try {
+                        long durationMs = DurationParser.inMillis(content);
+                        state.getTempObjects().put(DURATION, (int) durationMs);
+                    } catch (NumberFormatException e) {
+                        Log.e(NSTAG, String.format("Duration '%s' could not be parsed", content));
+                    }
+                }
+                break;
+            case SUBTITLE:
+                content = nonEmptyContent(state);
+                if (content == null) {
+                    break;
+                }
+                if (state.getCurrentItem() != null && TextUtils.isEmpty(state.getCurrentItem().getDescription())) {
+                    state.getCurrentItem().setDescriptionIfLonger(content);
+                } else if (state.getFeed() != null && TextUtils.isEmpty(state.getFeed().getDescription())) {
+                    state.getFeed().setDescription(content);
+                }
+                break;
+            case SUMMARY:
+                content = nonEmptyContent(state);
+                if (content == null) {
+                    break;
+                }
+                if (state.getCurrentItem() != null) {
+                    state.getCurrentItem().setDescriptionIfLonger(content);
+                } else if (Rss20.CHANNEL.equals(state.getSecondTag().getName()) && state.getFeed() != null) {
+                    state.getFeed().setDescription(content);
+                }
+                break;
+            case NEW_FEED_URL:
+                content = nonEmptyContent(state);
+                if (content != null && content.trim().startsWith("http")) {
+                    state.redirectUrl = content.trim();
+                }
+                break;
+            default:
+                break;
         }
+    }
 
-        if (AUTHOR.equals(localName) && state.getFeed() != null && state.getTagstack().size() <= 3) {
-            String contentFromHtml = HtmlCompat.fromHtml(content, HtmlCompat.FROM_HTML_MODE_COMPACT).toString();
-            state.getFeed().setAuthor(contentFromHtml);
-        } else if (DURATION.equals(localName)) {
-            try {
-                long durationMs = DurationParser.inMillis(content);
-                state.getTempObjects().put(DURATION, (int) durationMs);
-            } catch (NumberFormatException e) {
-                Log.e(NSTAG, String.format("Duration '%s' could not be parsed", content));
-            }
-        } else if (SUBTITLE.equals(localName)) {
-            if (state.getCurrentItem() != null && TextUtils.isEmpty(state.getCurrentItem().getDescription())) {
-                state.getCurrentItem().setDescriptionIfLonger(content);
-            } else if (state.getFeed() != null && TextUtils.isEmpty(state.getFeed().getDescription())) {
-                state.getFeed().setDescription(content);
-            }
-        } else if (SUMMARY.equals(localName)) {
-            if (state.getCurrentItem() != null) {
-                state.getCurrentItem().setDescriptionIfLonger(content);
-            } else if (Rss20.CHANNEL.equals(state.getSecondTag().getName()) && state.getFeed() != null) {
-                state.getFeed().setDescription(content);
-            }
-        } else if (NEW_FEED_URL.equals(localName) && content.trim().startsWith("http")) {
-            state.redirectUrl = content.trim();
+    private static String nonEmptyContent(HandlerState state) {
+        if (state.getContentBuf() == null || state.getContentBuf().length() == 0) {
+            return null;
         }
+        return state.getContentBuf().toString();
     }
 }
@@ -41,81 +41,92 @@ public class Media extends Namespace {
     @Override
     public SyndElement handleElementStart(String localName, HandlerState state,
                                           Attributes attributes) {
-        if (CONTENT.equals(localName) && state.getCurrentItem() != null) {
-            String url = attributes.getValue(DOWNLOAD_URL);
-            String defaultStr = attributes.getValue(DEFAULT);
-            String medium = attributes.getValue(MEDIUM);
-            boolean validTypeMedia = false;
-            boolean validTypeImage = false;
-            boolean isDefault = "true".equals(defaultStr);
-            String mimeType = MimeTypeUtils.getMimeType(attributes.getValue(MIME_TYPE), url);
-
-            if (MEDIUM_AUDIO.equals(medium)) {
-                validTypeMedia = true;
-                mimeType = "audio/*";
-            } else if (MEDIUM_VIDEO.equals(medium)) {
-                validTypeMedia = true;
-                mimeType = "video/*";
-            } else if (MEDIUM_IMAGE.equals(medium) && (mimeType == null
-                    || (!mimeType.startsWith("audio/") && !mimeType.startsWith("video/")))) {
-                // Apparently, some publishers explicitly specify the audio file as an image
-                validTypeImage = true;
-                mimeType = "image/*";
-            } else if (MimeTypeUtils.isMediaFile(mimeType)) {
-                validTypeMedia = true;
-            } else if (MimeTypeUtils.isImageFile(mimeType)) {
-                validTypeImage = true;
-            } else {
-                // Workaround for broken feeds
-                validTypeMedia = state.getCurrentItem().getMedia() == null;
-                mimeType = "audio/*";
-            }
-
-            if ((state.getCurrentItem().getMedia() == null || isDefault) && url != null && validTypeMedia) {
-                long size = 0;
-                String sizeStr = attributes.getValue(SIZE);
-                if (!TextUtils.isEmpty(sizeStr)) {
-                    try {
-                        size = Long.parseLong(sizeStr);
-                    } catch (NumberFormatException e) {
-                        Log.e(TAG, "Size \"" + sizeStr + "\" could not be parsed.");
-                    }
+        switch (localName) {
+            case CONTENT:
+                if (state.getCurrentItem() != null) {
+                    handleContent(state, attributes);
                 }
-
-                int durationMs = 0;
-                String durationStr = attributes.getValue(DURATION);
-                if (!TextUtils.isEmpty(durationStr)) {
-                    try {
-                        long duration = Long.parseLong(durationStr);
-                        durationMs = (int) TimeUnit.MILLISECONDS.convert(duration, TimeUnit.SECONDS);
-                    } catch (NumberFormatException e) {
-                        Log.e(TAG, "Duration \"" + durationStr + "\" could not be parsed");
+                break;
+            case IMAGE:
+                String url = attributes.getValue(IMAGE_URL);
+                if (url != null) {
+                    if (state.getCurrentItem() != null) {
+                        state.getCurrentItem().setImageUrl(url);
+                    } else {
+                        if (state.getFeed().getImageUrl() == null) {
+                            state.getFeed().setImageUrl(url);
+                        }
                     }
                 }
-                FeedMedia media = new FeedMedia(state.getCurrentItem(), url, size, mimeType);
-                if (durationMs > 0) {
-                    media.setDuration(durationMs);
+                break;
+            case DESCRIPTION:
+                String type = attributes.getValue(DESCRIPTION_TYPE);
+                return new AtomText(localName, this, type);
+            default:
+                break;
+        }
+        return new SyndElement(localName, this);
+    }
+
+    private void handleContent(HandlerState state, Attributes attributes) {
+        String url = attributes.getValue(DOWNLOAD_URL);
+        String defaultStr = attributes.getValue(DEFAULT);
+        String medium = attributes.getValue(MEDIUM);
+        boolean validTypeMedia = false;
+        boolean validTypeImage = false;
+        boolean isDefault = "true".equals(defaultStr);
+        String mimeType = MimeTypeUtils.getMimeType(attributes.getValue(MIME_TYPE), url);
+
+        if (MEDIUM_AUDIO.equals(medium)) {
+            validTypeMedia = true;
+            mimeType = "audio/*";
+        } else if (MEDIUM_VIDEO.equals(medium)) {
+            validTypeMedia = true;
+            mimeType = "video/*";
+        } else if (MEDIUM_IMAGE.equals(medium) && (mimeType == null
+                || (!mimeType.startsWith("audio/") && !mimeType.startsWith("video/")))) {
+            // Apparently, some publishers explicitly specify the audio file as an image
+            validTypeImage = true;
+            mimeType = "image/*";
+        } else if (MimeTypeUtils.isMediaFile(mimeType)) {
+            validTypeMedia = true;
+        } else if (MimeTypeUtils.isImageFile(mimeType)) {
+            validTypeImage = true;
+        } else {
+            // Workaround for broken feeds
+            validTypeMedia = state.getCurrentItem().getMedia() == null;
+            mimeType = "audio/*";
+        }
+
+        if ((state.getCurrentItem().getMedia() == null || isDefault) && url != null && validTypeMedia) {
+            long size = 0;
+            String sizeStr = attributes.getValue(SIZE);
+            if (!TextUtils.isEmpty(sizeStr)) {
+                try {
+                    size = Long.parseLong(sizeStr);
+                } catch (NumberFormatException e) {
+                    Log.e(TAG, "Size \"" + sizeStr + "\" could not be parsed.");
                 }
-                state.getCurrentItem().setMedia(media);
-            } else if (state.getCurrentItem() != null && url != null && validTypeImage) {
-                state.getCurrentItem().setImageUrl(url);
             }
-        } else if (IMAGE.equals(localName)) {
-            String url = attributes.getValue(IMAGE_URL);
-            if (url != null) {
-                if (state.getCurrentItem() != null) {
-                    state.getCurrentItem().setImageUrl(url);
-                } else {
-                    if (state.getFeed().getImageUrl() == null) {
-                        state.getFeed().setImageUrl(url);
-                    }
+
+            int durationMs = 0;
+            String durationStr = attributes.getValue(DURATION);
+            if (!TextUtils.isEmpty(durationStr)) {
+                try {
+                    long duration = Long.parseLong(durationStr);
+                    durationMs = (int) TimeUnit.MILLISECONDS.convert(duration, TimeUnit.SECONDS);
+                } catch (NumberFormatException e) {
+                    Log.e(TAG, "Duration \"" + durationStr + "\" could not be parsed");
                 }
             }
-        } else if (DESCRIPTION.equals(localName)) {
-            String type = attributes.getValue(DESCRIPTION_TYPE);
-            return new AtomText(localName, this, type);
+            FeedMedia media = new FeedMedia(state.getCurrentItem(), url, size, mimeType);
+            if (durationMs > 0) {
+                media.setDuration(durationMs);
+            }
+            state.getCurrentItem().setMedia(media);
+        } else if (state.getCurrentItem() != null && url != null && validTypeImage) {
+            state.getCurrentItem().setImageUrl(url);
         }
-        return new SyndElement(localName, this);
     }
 
     @Override
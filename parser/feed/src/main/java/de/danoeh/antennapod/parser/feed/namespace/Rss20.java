@@ -41,111 +41,143 @@ public class Rss20 extends Namespace {
 
     @Override
     public SyndElement handleElementStart(String localName, HandlerState state, Attributes attributes) {
-        if (ITEM.equals(localName) && CHANNEL.equals(state.getTagstack().lastElement().getName())) {
-            state.setCurrentItem(new FeedItem());
-            state.getItems().add(state.getCurrentItem());
-            state.getCurrentItem().setFeed(state.getFeed());
-        } else if (ENCLOSURE.equals(localName) && ITEM.equals(state.getTagstack().peek().getName())
-                    && state.getCurrentItem() != null) {
-            String url = attributes.getValue(ENC_URL);
-            String mimeType = MimeTypeUtils.getMimeType(attributes.getValue(ENC_TYPE), url);
-            boolean isValidMedia = MimeTypeUtils.isMediaFile(mimeType);
-            if (!isValidMedia && !MimeTypeUtils.isImageFile(mimeType) && state.getCurrentItem().getMedia() == null) {
-                isValidMedia = true;
-                mimeType = "audio/*";
-            }
+        switch (localName) {
+            case ITEM:
+                if (CHANNEL.equals(state.getTagstack().peek().getName())) {
+                    state.setCurrentItem(new FeedItem());
+                    state.getItems().add(state.getCurrentItem());
+                    state.getCurrentItem().setFeed(state.getFeed());
+                }
+                break;
+            case ENCLOSURE:
+                if (ITEM.equals(state.getTagstack().peek().getName()) && state.getCurrentItem() != null) {
+                    handleEnclosure(state, attributes);
+                }
+                break;
+            default:
+                break;
+        }
+        return new SyndElement(localName, this);
+    }
 
-            if (state.getCurrentItem().getMedia() == null && isValidMedia && !TextUtils.isEmpty(url)) {
-                long size = 0;
-                try {
-                    String sizeStr = attributes.getValue(ENC_LEN);
-                    if (!TextUtils.isEmpty(sizeStr)) {
-                        size = Long.parseLong(sizeStr);
-                    }
-                    if (size < 16384) {
-                        // less than 16kb is suspicious, check manually
-                        size = 0;
-                    }
-                } catch (NumberFormatException e) {
-                    Log.d(TAG, "Length attribute could not be parsed.");
+    private void handleEnclosure(HandlerState state, Attributes attributes) {
+        String url = attributes.getValue(ENC_URL);
+        String mimeType = MimeTypeUtils.getMimeType(attributes.getValue(ENC_TYPE), url);
+        boolean isValidMedia = MimeTypeUtils.isMediaFile(mimeType);
+        if (!isValidMedia && !MimeTypeUtils.isImageFile(mimeType) && state.getCurrentItem().getMedia() == null) {
+            isValidMedia = true;
+            mimeType = "audio/*";
+        }
+
+        if (state.getCurrentItem().getMedia() == null && isValidMedia && !TextUtils.isEmpty(url)) {
+            long size = 0;
+            try {
+                String sizeStr = attributes.getValue(ENC_LEN);
+                if (!TextUtils.isEmpty(sizeStr)) {
+                    size = Long.parseLong(sizeStr);
+                }
+                if (size < 16384) {
+                    // less than 16kb is suspicious, check manually
+                    size = 0;
                 }
-                FeedMedia media = new FeedMedia(state.getCurrentItem(), url, size, mimeType);
-                state.getCurrentItem().setMedia(media);
+            } catch (NumberFormatException e) {
+                Log.d(TAG, "Length attribute could not be parsed.");
             }
+            FeedMedia media = new FeedMedia(state.getCurrentItem(), url, size, mimeType);
+            state.getCurrentItem().setMedia(media);
         }
-        return new SyndElement(localName, this);
     }
 
     @Override
     public void handleElementEnd(String localName, HandlerState state) {
         if (ITEM.equals(localName)) {
-            if (state.getCurrentItem() != null) {
-                FeedItem currentItem = state.getCurrentItem();
-                // the title tag is optional in RSS 2.0. The description is used
-                // as a title if the item has no title-tag.
-                if (currentItem.getTitle() == null) {
-                    currentItem.setTitle(currentItem.getDescription());
-                }
-
-                if (state.getTempObjects().containsKey(Itunes.DURATION)) {
-                    if (currentItem.hasMedia()) {
-                        Integer duration = (Integer) state.getTempObjects().get(Itunes.DURATION);
-                        currentItem.getMedia().setDuration(duration);
-                    }
-                    state.getTempObjects().remove(Itunes.DURATION);
-                }
-            }
-            state.setCurrentItem(null);
-        } else if (state.getTagstack().size() >= 2 && state.getContentBuf() != null) {
-            String contentRaw = state.getContentBuf().toString();
-            String content = SyndStringUtils.trimAllWhitespace(contentRaw);
-            SyndElement topElement = state.getTagstack().peek();
-            String top = topElement.getName();
-            SyndElement secondElement = state.getSecondTag();
-            String second = secondElement.getName();
-            String third = null;
-            if (state.getTagstack().size() >= 3) {
-                third = state.getThirdTag().getName();
-            }
-            if (GUID.equals(top) && ITEM.equals(second)) {
+            handleItemEnd(state);
+            return;
+        } else if (state.getTagstack().size() < 2 || state.getContentBuf() == null) {
+            return;
+        }
+        // The content is only converted for the elements that are used
+        String second = state.getSecondTag().getName();
+        switch (localName) {
+            case GUID:
                 // some feed creators include an empty or non-standard guid-element in their feed,
                 // which should be ignored
-                if (!TextUtils.isEmpty(contentRaw) && state.getCurrentItem() != null) {
+                String contentRaw = state.getContentBuf().toString();
+                if (ITEM.equals(second) && !TextUtils.isEmpty(contentRaw) && state.getCurrentItem() != null) {
                     state.getCurrentItem().setItemIdentifier(contentRaw);
                 }
-            } else if (TITLE.equals(top)) {
+                break;
+            case TITLE:
                 // Calling fromHtml only if needed because it is slow for huge feeds
-                String contentFromHtml = HtmlCompat.fromHtml(content, HtmlCompat.FROM_HTML_MODE_COMPACT).toString();
+                String title = HtmlCompat.fromHtml(trimmedContent(state), HtmlCompat.FROM_HTML_MODE_COMPACT).toString();
                 if (ITEM.equals(second) && state.getCurrentItem() != null) {
-                    state.getCurrentItem().setTitle(contentFromHtml);
+                    state.getCurrentItem().setTitle(title);
                 } else if (CHANNEL.equals(second) && state.getFeed() != null) {
-                    state.getFeed().setTitle(contentFromHtml);
+                    state.getFeed().setTitle(title);
                 }
-            } else if (LINK.equals(top)) {
+                break;
+            case LINK:
                 if (CHANNEL.equals(second) && state.getFeed() != null) {
-                    state.getFeed().setLink(content);
+                    state.getFeed().setLink(trimmedContent(state));
                 } else if (ITEM.equals(second) && state.getCurrentItem() != null) {
-                    state.getCurrentItem().setLink(content);
+                    state.getCurrentItem().setLink(trimmedContent(state));
                 }
-            } else if (PUBDATE.equals(top) && ITEM.equals(second) && state.getCurrentItem() != null) {
-                state.getCurrentItem().setPubDate(DateUtils.parseOrNullIfFuture(content));
-            } else if (URL.equals(top) && IMAGE.equals(second) && CHANNEL.equals(third)) {
+                break;
+            case PUBDATE:
+                if (ITEM.equals(second) && state.getCurrentItem() != null) {
+                    state.getCurrentItem().setPubDate(DateUtils.parseOrNullIfFuture(trimmedContent(state)));
+                }
+                break;
+            case URL:
                 // prefer itunes:image
-                if (state.getFeed() != null && state.getFeed().getImageUrl() == null) {
-                    state.getFeed().setImageUrl(content);
+                if (IMAGE.equals(second) && state.getTagstack().size() >= 3
+                        && CHANNEL.equals(state.getThirdTag().getName())
+                        && state.getFeed() != null && state.getFeed().getImageUrl() == null) {
+                    state.getFeed().setImageUrl(trimmedContent(state));
                 }
-            } else if (DESCR.equals(localName)) {
+                break;
+            case DESCR:
                 if (CHANNEL.equals(second) && state.getFeed() != null) {
                     // Calling fromHtml only if needed because it is slow for huge feeds
-                    String contentFromHtml = HtmlCompat.fromHtml(content, HtmlCompat.FROM_HTML_MODE_COMPACT).toString();
-                    state.getFeed().setDescription(contentFromHtml);
+                    String description = HtmlCompat.fromHtml(trimmedContent(state),
+                            HtmlCompat.FROM_HTML_MODE_COMPACT).toString();
+                    state.getFeed().setDescription(description);
                 } else if (ITEM.equals(second) && state.getCurrentItem() != null) {
-                    state.getCurrentItem().setDescriptionIfLonger(content); // fromHtml here breaks \n when not html
+                    // fromHtml here breaks \n when not html
+                    state.getCurrentItem().setDescriptionIfLonger(trimmedContent(state));
+                }
+                break;
+            case LANGUAGE:
+                if (state.getFeed() != null) {
+                    state.getFeed().setLanguage(trimmedContent(state).toLowerCase(Locale.US));
                 }
-            } else if (LANGUAGE.equals(localName) && state.getFeed() != null) {
-                state.getFeed().setLanguage(content.toLowerCase(Locale.US));
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void handleItemEnd(HandlerState state) {
+        if (state.getCurrentItem() != null) {
+            FeedItem currentItem = state.getCurrentItem();
+            // the title tag is optional in RSS 2.0. The description is used
+            // as a title if the item has no title-tag.
+            if (currentItem.getTitle() == null) {
+                currentItem.setTitle(currentItem.getDescription());
+            }
+
+            if (state.getTempObjects().containsKey(Itunes.DURATION)) {
+                if (currentItem.hasMedia()) {
+                    Integer duration = (Integer) state.getTempObjects().get(Itunes.DURATION);
+                    currentItem.getMedia().setDuration(duration);
+                }
+                state.getTempObjects().remove(Itunes.DURATION);
             }
         }
+        state.setCurrentItem(null);
     }
 
+    private static String trimmedContent(HandlerState state) {
+        return SyndStringUtils.trimAllWhitespace(state.getContentBuf().toString());
+    }
 }
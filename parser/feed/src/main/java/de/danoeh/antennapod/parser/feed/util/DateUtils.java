@@ -1,6 +1,7 @@
 package de.danoeh.antennapod.parser.feed.util;
 
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 import org.apache.commons.lang3.StringUtils;
 
 import java.text.ParseException;
@@ -9,6 +10,7 @@ import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.Locale;
 import java.util.TimeZone;
+import java.util.regex.Pattern;
 
 /**
  * Parses several date formats.
@@ -23,27 +25,46 @@ public abstract class DateUtils {
             return dateFormat;
         }
     };
+    private static final Pattern MULTIPLE_SPACES = Pattern.compile("( ){2,}+");
+    private static final Pattern TIMEZONE_COLON = Pattern.compile("([+-]\\d\\d):(\\d\\d)$");
+    private static final Pattern TIMEZONE_CEST = Pattern.compile("CEST$");
+    private static final Pattern TIMEZONE_CET = Pattern.compile("CET$");
+    private static final Pattern MONTH_SEPT = Pattern.compile("\\bSept\\b");
+    private static final Pattern LEADING_WEEKDAY = Pattern.compile("^\\w+, .*$");
 
     public static Date parse(final String input) {
         if (input == null) {
             throw new IllegalArgumentException("Date must not be null");
         }
+        long time = FastDateParser.parse(input);
+        if (time != FastDateParser.INVALID) {
+            return new Date(time);
+        }
+        return parseWithPatterns(input);
+    }
+
+    /**
+     * Tries a long list of date formats and workarounds for broken feeds.
+     * Only used for dates that {@link FastDateParser} does not understand.
+     */
+    @VisibleForTesting
+    static Date parseWithPatterns(final String input) {
         try {
             return RFC822_DATE_FORMAT.get().parse(input);
         } catch (ParseException ignored) {
             // Feed not following the specification? Now start all our expensive workarounds.
         }
-        String date = input.trim().replace('/', '-').replaceAll("( ){2,}+", " ");
+        String date = MULTIPLE_SPACES.matcher(input.trim().replace('/', '-')).replaceAll(" ");
 
         // remove colon from timezone to avoid differences between Android and Java SimpleDateFormat
-        date = date.replaceAll("([+-]\\d\\d):(\\d\\d)$", "$1$2");
+        date = TIMEZONE_COLON.matcher(date).replaceAll("$1$2");
 
         // CEST is widely used but not in the "ISO 8601 Time zone" list. Let's hack around.
-        date = date.replaceAll("CEST$", "+0200");
-        date = date.replaceAll("CET$", "+0100");
+        date = TIMEZONE_CEST.matcher(date).replaceAll("+0200");
+        date = TIMEZONE_CET.matcher(date).replaceAll("+0100");
 
         // some generators use "Sept" for September
-        date = date.replaceAll("\\bSept\\b", "Sep");
+        date = MONTH_SEPT.matcher(date).replaceAll("Sep");
 
         // if datetime is more precise than seconds, make sure the value is in ms
         if (date.contains(".")) {
@@ -121,8 +142,8 @@ public abstract class DateUtils {
         }
 
         // if date string starts with a weekday, try parsing date string without it
-        if (date.matches("^\\w+, .*$")) {
-            return parse(date.substring(date.indexOf(',') + 1));
+        if (LEADING_WEEKDAY.matcher(date).matches()) {
+            return parseWithPatterns(date.substring(date.indexOf(',') + 1));
         }
 
         System.out.println("Could not parse date string \"" + input + "\" [" + date + "]");
@@ -0,0 +1,323 @@
+package de.danoeh.antennapod.parser.feed.util;
+
+/**
+ * Parses the date formats that nearly all feeds use in a single pass, without regular expressions,
+ * intermediate strings or date format objects:
+ * RFC 822 dates like "Sat, 28 Mar 2015 01:31:04 GMT" and ISO 8601 dates like "2015-03-28T13:31:04.963Z".
+ * Everything else, for example two-digit years, unknown time zone names or localized month names, is rejected,
+ * so {@link DateUtils} can fall back to its slower parser that knows the workarounds.
+ */
+class FastDateParser {
+    /**
+     * Returned if the input does not have one of the supported formats.
+     */
+    static final long INVALID = Long.MIN_VALUE;
+
+    private static final String[] MONTHS = {"january", "february", "march", "april", "may", "june",
+            "july", "august", "september", "october", "november", "december"};
+    private static final String[] ZONE_NAMES = {"GMT", "UTC", "UT", "Z", "EST", "EDT", "CST", "CDT",
+            "MST", "MDT", "PST", "PDT", "CEST", "CET"};
+    private static final int[] ZONE_OFFSETS_MINUTES = {0, 0, 0, 0, -5 * 60, -4 * 60, -6 * 60, -5 * 60,
+            -7 * 60, -6 * 60, -8 * 60, -7 * 60, 2 * 60, 60};
+    private static final long MILLIS_PER_MINUTE = 60 * 1000L;
+
+    private final String input;
+    private int pos;
+    private final int end;
+
+    private FastDateParser(String input) {
+        this.input = input;
+        int start = 0;
+        int end = input.length();
+        while (start < end && Character.isWhitespace(input.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(input.charAt(end - 1))) {
+            end--;
+        }
+        this.pos = start;
+        this.end = end;
+    }
+
+    /**
+     * @return Milliseconds since the epoch, or {@link #INVALID} if the input does not have a supported format
+     */
+    static long parse(String input) {
+        FastDateParser parser = new FastDateParser(input);
+        if (parser.pos < parser.end && isDigit(input.charAt(parser.pos))
+                && parser.pos + 4 < parser.end && input.charAt(parser.pos + 4) == '-') {
+            return parser.parseIso8601();
+        }
+        return parser.parseRfc822();
+    }
+
+    /**
+     * [weekday,] d[d] month yyyy HH:mm[:ss] zone
+     */
+    private long parseRfc822() {
+        if (pos < end && isLetter(input.charAt(pos))) {
+            // The weekday is redundant and often wrong, so it is ignored like the fallback parser does
+            while (pos < end && isLetter(input.charAt(pos))) {
+                pos++;
+            }
+            if (!skip(',')) {
+                return INVALID;
+            }
+            skipSpaces();
+        }
+        int day = readNumber(1, 2);
+        if (day < 0 || !skipSpaces()) {
+            return INVALID;
+        }
+        int month = readMonth();
+        if (month < 0 || !skipSpaces()) {
+            return INVALID;
+        }
+        int year = readNumber(4, 4);
+        if (year < 0 || !skipSpaces()) {
+            return INVALID;
+        }
+        int hour = readNumber(1, 2);
+        if (hour < 0 || !skip(':')) {
+            return INVALID;
+        }
+        int minute = readNumber(2, 2);
+        if (minute < 0) {
+            return INVALID;
+        }
+        int second = 0;
+        if (skip(':')) {
+            second = readNumber(2, 2);
+            if (second < 0) {
+                return INVALID;
+            }
+        }
+        if (!skipSpaces()) {
+            return INVALID;
+        }
+        int offset = readZone();
+        if (offset == Integer.MIN_VALUE || pos != end) {
+            return INVALID;
+        }
+        return toMillis(year, month, day, hour, minute, second, 0, offset);
+    }
+
+    /**
+     * yyyy-MM-dd[THH:mm:ss[.fraction][ ][zone]]
+     */
+    private long parseIso8601() {
+        int year = readNumber(4, 4);
+        if (year < 0 || !skip('-')) {
+            return INVALID;
+        }
+        int month = readNumber(2, 2);
+        if (month < 0 || !skip('-')) {
+            return INVALID;
+        }
+        int day = readNumber(2, 2);
+        if (day < 0) {
+            return INVALID;
+        }
+        if (pos == end) {
+            return toMillis(year, month, day, 0, 0, 0, 0, 0);
+        }
+        if (!skip('T')) {
+            return INVALID;
+        }
+        int hour = readNumber(2, 2);
+        if (hour < 0 || !skip(':')) {
+            return INVALID;
+        }
+        int minute = readNumber(2, 2);
+        if (minute < 0 || !skip(':')) {
+            return INVALID;
+        }
+        int second = readNumber(2, 2);
+        if (second < 0) {
+            return INVALID;
+        }
+        int millis = 0;
+        if (skip('.')) {
+            int numDigits = 0;
+            while (pos < end && isDigit(input.charAt(pos))) {
+                if (numDigits < 3) {
+                    millis = millis * 10 + (input.charAt(pos) - '0');
+                }
+                numDigits++;
+                pos++;
+            }
+            if (numDigits == 0) {
+                return INVALID;
+            }
+            for (int i = numDigits; i < 3; i++) {
+                millis *= 10;
+            }
+        }
+        int offset = 0;
+        if (pos < end) {
+            skip(' ');
+            if (skip('Z')) {
+                offset = 0;
+            } else {
+                offset = readNumericOffset();
+                if (offset == Integer.MIN_VALUE) {
+                    return INVALID;
+                }
+            }
+        }
+        if (pos != end) {
+            return INVALID;
+        }
+        return toMillis(year, month, day, hour, minute, second, millis, offset);
+    }
+
+    /**
+     * @return Offset in minutes, or Integer.MIN_VALUE if the zone is not supported
+     */
+    private int readZone() {
+        if (pos < end && (input.charAt(pos) == '+' || input.charAt(pos) == '-')) {
+            return readNumericOffset();
+        }
+        for (int i = 0; i < ZONE_NAMES.length; i++) {
+            String name = ZONE_NAMES[i];
+            if (end - pos == name.length() && input.regionMatches(true, pos, name, 0, name.length())) {
+                pos = end;
+                return ZONE_OFFSETS_MINUTES[i];
+            }
+        }
+        return Integer.MIN_VALUE;
+    }
+
+    /**
+     * +hhmm or +hh:mm
+     *
+     * @return Offset in minutes, or Integer.MIN_VALUE if there is no valid offset
+     */
+    private int readNumericOffset() {
+        int sign;
+        if (skip('+')) {
+            sign = 1;
+        } else if (skip('-')) {
+            sign = -1;
+        } else {
+            return Integer.MIN_VALUE;
+        }
+        int hours = readNumber(2, 2);
+        if (hours < 0) {
+            return Integer.MIN_VALUE;
+        }
+        skip(':');
+        int minutes = readNumber(2, 2);
+        if (minutes < 0 || hours > 23 || minutes > 59) {
+            return Integer.MIN_VALUE;
+        }
+        return sign * (hours * 60 + minutes);
+    }
+
+    /**
+     * Accepts English month names, abbreviated or not, and "Sept".
+     *
+     * @return Month from 1 to 12, or -1
+     */
+    private int readMonth() {
+        int start = pos;
+        while (pos < end && isLetter(input.charAt(pos))) {
+            pos++;
+        }
+        int length = pos - start;
+        if (length < 3) {
+            return -1;
+        }
+        for (int i = 0; i < MONTHS.length; i++) {
+            String month = MONTHS[i];
+            if ((length == 3 || length == month.length() || (i == 8 && length == 4))
+                    && length <= month.length() && input.regionMatches(true, start, month, 0, length)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads at most maxDigits digits, so numbers without separators like "+0200" can be read.
+     *
+     * @return The number, or -1 if there are fewer digits than required
+     */
+    private int readNumber(int minDigits, int maxDigits) {
+        int value = 0;
+        int numDigits = 0;
+        while (numDigits < maxDigits && pos < end && isDigit(input.charAt(pos))) {
+            value = value * 10 + (input.charAt(pos) - '0');
+            numDigits++;
+            pos++;
+        }
+        if (numDigits < minDigits) {
+            return -1;
+        }
+        return value;
+    }
+
+    private boolean skip(char c) {
+        if (pos < end && input.charAt(pos) == c) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if at least one space was skipped
+     */
+    private boolean skipSpaces() {
+        int start = pos;
+        while (pos < end && input.charAt(pos) == ' ') {
+            pos++;
+        }
+        return pos > start;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static long toMillis(int year, int month, int day, int hour, int minute, int second,
+                                 int millis, int offsetMinutes) {
+        if (year < 1600 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour > 23 || minute > 59 || second > 59) {
+            return INVALID;
+        }
+        long minutes = daysSinceEpoch(year, month, day) * 24 * 60 + hour * 60 + minute - offsetMinutes;
+        return minutes * MILLIS_PER_MINUTE + second * 1000L + millis;
+    }
+
+    private static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                boolean isLeapYear = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+                return isLeapYear ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * Days from 1970-01-01 to the given date in the Gregorian calendar.
+     */
+    private static long daysSinceEpoch(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = y / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+}
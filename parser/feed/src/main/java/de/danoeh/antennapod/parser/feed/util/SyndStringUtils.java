@@ -9,6 +9,21 @@ public class SyndStringUtils {
      * Trims all whitespace from beginning and ending of a String. {{@link String#trim()}} only trims spaces.
      */
     public static String trimAllWhitespace(String string) {
-        return string.replaceAll("(^\\s*)|(\\s*$)", "");
+        int start = 0;
+        int end = string.length();
+        while (start < end && isWhitespace(string.charAt(start))) {
+            start++;
+        }
+        while (end > start && isWhitespace(string.charAt(end - 1))) {
+            end--;
+        }
+        return string.substring(start, end);
+    }
+
+    /**
+     * The characters matched by \s in a regular expression.
+     */
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
     }
 }
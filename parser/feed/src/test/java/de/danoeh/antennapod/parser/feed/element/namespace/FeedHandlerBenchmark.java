@@ -0,0 +1,94 @@
+package de.danoeh.antennapod.parser.feed.element.namespace;
+
+import de.danoeh.antennapod.model.feed.Feed;
+import de.danoeh.antennapod.parser.feed.FeedHandler;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Measures how long {@link FeedHandler} takes for a large feed that uses the common namespaces, and how much
+ * it allocates. It only reports the numbers, so it is not part of the unit tests. To run it, remove the
+ * {@link Ignore} annotation and run
+ * {@code ./gradlew :parser:feed:testDebugUnitTest --tests '*FeedHandlerBenchmark' -i}.
+ */
+@Ignore("Benchmark, run manually")
+@RunWith(RobolectricTestRunner.class)
+public class FeedHandlerBenchmark {
+    private static final int NUM_ITEMS = 5000;
+
+    @Test
+    public void benchmarkParseLargeFeed() throws Exception {
+        byte[] feed = largeFeed(NUM_ITEMS).getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < 5; i++) {
+            parse(feed); // Warm up
+        }
+        long fastest = Long.MAX_VALUE;
+        long leastAllocated = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            parse(feed);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+            leastAllocated = Math.min(leastAllocated, allocatedBytes() - allocatedBefore);
+        }
+        System.out.println(NUM_ITEMS + " items, " + feed.length / 1024 + " KB: " + fastest / 1000000 + " ms, "
+                + (leastAllocated < 0 ? "unknown" : leastAllocated / 1024) + " KB allocated");
+    }
+
+    private static void parse(byte[] feed) throws Exception {
+        Feed parsedFeed = new Feed("http://example.com/feed", null);
+        new FeedHandler().parseFeed(parsedFeed, new ByteArrayInputStream(feed));
+        if (parsedFeed.getItems().size() != NUM_ITEMS) {
+            throw new AssertionError("Parsed " + parsedFeed.getItems().size() + " items");
+        }
+    }
+
+    /**
+     * @return Bytes allocated by the current thread so far, or -1 if the JVM cannot tell
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    private static String largeFeed(int numItems) {
+        StringBuilder builder = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                + "<rss version=\"2.0\" xmlns:itunes=\"http://www.itunes.com/dtds/podcast-1.0.dtd\""
+                + " xmlns:content=\"http://purl.org/rss/1.0/modules/content/\""
+                + " xmlns:podcast=\"https://podcastindex.org/namespace/1.0\""
+                + " xmlns:atom=\"http://www.w3.org/2005/Atom\"><channel>"
+                + "<title>Podcast</title><link>http://example.com</link>"
+                + "<atom:link href=\"http://example.com/feed\" rel=\"self\" type=\"application/rss+xml\"/>"
+                + "<description>A podcast with many episodes</description><language>en</language>"
+                + "<itunes:author>Author</itunes:author><itunes:image href=\"http://example.com/image.png\"/>"
+                + "<podcast:funding url=\"http://example.com/donate\">Support us</podcast:funding>");
+        for (int i = numItems; i > 0; i--) {
+            builder.append("<item><title>Episode ").append(i).append("</title>")
+                    .append("<link>http://example.com/episode/").append(i).append("</link>")
+                    .append("<guid isPermaLink=\"false\">guid").append(i).append("</guid>")
+                    .append("<pubDate>Mon, 01 Jan 2024 10:00:00 +0000</pubDate>")
+                    .append("<description>Short description of episode ").append(i).append("</description>")
+                    .append("<content:encoded><![CDATA[<p>Show notes of episode ").append(i)
+                    .append(" with <a href=\"http://example.com\">links</a> and more text.</p>]]>")
+                    .append("</content:encoded>")
+                    .append("<enclosure url=\"http://example.com/episode").append(i)
+                    .append(".mp3\" length=\"12345678\" type=\"audio/mpeg\"/>")
+                    .append("<itunes:duration>01:02:03</itunes:duration>")
+                    .append("<itunes:summary>Summary of episode ").append(i).append("</itunes:summary>")
+                    .append("<itunes:episodeType>full</itunes:episodeType><itunes:explicit>false</itunes:explicit>")
+                    .append("<podcast:transcript url=\"http://example.com/").append(i)
+                    .append(".vtt\" type=\"text/vtt\"/></item>");
+        }
+        return builder.append("</channel></rss>").toString();
+    }
+}
@@ -0,0 +1,164 @@
+package de.danoeh.antennapod.parser.feed.element.namespace;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import de.danoeh.antennapod.model.feed.Feed;
+import de.danoeh.antennapod.parser.feed.FeedHandler;
+import de.danoeh.antennapod.parser.feed.UnsupportedFeedtypeException;
+import de.danoeh.antennapod.parser.feed.util.DateUtils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests for parsing streams and recognizing the type in FeedHandler.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FeedHandlerTest {
+
+    @Test
+    public void testRss() throws Exception {
+        Feed feed = parse("<?xml version=\"1.0\"?><rss version=\"2.0\"><channel><title>Podcast</title>"
+                + "<item><title>Episode</title></item></channel></rss>");
+        assertEquals(Feed.TYPE_RSS2, feed.getType());
+        assertEquals("Podcast", feed.getTitle());
+        assertEquals(1, feed.getItems().size());
+        assertEquals("Episode", feed.getItems().get(0).getTitle());
+    }
+
+    @Test
+    public void testRss091() throws Exception {
+        Feed feed = parse("<rss version=\"0.91\"><channel><title>Podcast</title></channel></rss>");
+        assertNull(feed.getType());
+        assertEquals("Podcast", feed.getTitle());
+    }
+
+    @Test
+    public void testAtomLanguage() throws Exception {
+        Feed feed = parse("<feed xmlns=\"http://www.w3.org/2005/Atom\" xml:lang=\"de\"><title>Podcast</title>"
+                + "</feed>");
+        assertEquals(Feed.TYPE_ATOM1, feed.getType());
+        assertEquals("de", feed.getLanguage());
+        assertEquals("Podcast", feed.getTitle());
+    }
+
+    @Test
+    public void testUnsupportedRssVersion() throws Exception {
+        UnsupportedFeedtypeException e = parseUnsupported("<rss version=\"3.0\"><channel></channel></rss>");
+        assertEquals("Unsupported rss version", e.getMessage());
+    }
+
+    @Test
+    public void testOtherXml() throws Exception {
+        parseUnsupported("<?xml version=\"1.0\"?><opml><body/></opml>");
+    }
+
+    @Test
+    public void testWebsite() throws Exception {
+        UnsupportedFeedtypeException e = parseUnsupported("<!DOCTYPE html><html><head>"
+                + "<meta charset=\"utf-8\"><title>Not a feed</title></head><body><br></body></html>");
+        assertEquals("html", e.getRootElement());
+        assertEquals("Website title: \"Not a feed\"", e.getMessage());
+    }
+
+    @Test
+    public void testInvalidWebsite() throws Exception {
+        UnsupportedFeedtypeException e = parseUnsupported("<html><head><title>Not a feed</title>"
+                + "<script>if (a && b) {}</script></head></html>");
+        assertEquals("html", e.getRootElement());
+    }
+
+    @Test
+    public void testSkipKnownItems() throws Exception {
+        Map<String, Long> knownItems = new HashMap<>();
+        for (int day = 1; day <= 20; day++) {
+            knownItems.put("guid" + day, DateUtils.parse(pubDate(day)).getTime());
+        }
+        Feed feed = parse(rssWithItems(25, 1), knownItems);
+        assertTrue(feed.hasSkippedKnownItems());
+        // 5 new items and 3 known ones, the remaining 17 known items are left out
+        assertEquals(8, feed.getItems().size());
+        assertEquals("Episode 25", feed.getItems().get(0).getTitle());
+        assertEquals("Episode 18", feed.getItems().get(7).getTitle());
+        // Elements of the channel after the items are still read
+        assertEquals("Podcast", feed.getTitle());
+    }
+
+    @Test
+    public void testSkipKnownItemsChangedPubDate() throws Exception {
+        Map<String, Long> knownItems = new HashMap<>();
+        for (int day = 1; day <= 20; day++) {
+            knownItems.put("guid" + day, DateUtils.parse(pubDate(day)).getTime() + 1000);
+        }
+        Feed feed = parse(rssWithItems(25, 1), knownItems);
+        assertFalse(feed.hasSkippedKnownItems());
+        assertEquals(25, feed.getItems().size());
+    }
+
+    @Test
+    public void testSkipKnownItemsOldestFirst() throws Exception {
+        Map<String, Long> knownItems = new HashMap<>();
+        for (int day = 1; day <= 20; day++) {
+            knownItems.put("guid" + day, DateUtils.parse(pubDate(day)).getTime());
+        }
+        Feed feed = parse(rssWithItems(25, -1), knownItems);
+        assertFalse(feed.hasSkippedKnownItems());
+        assertEquals(25, feed.getItems().size());
+    }
+
+    private static String rssWithItems(int numItems, int order) {
+        StringBuilder rss = new StringBuilder("<rss version=\"2.0\"><channel>");
+        for (int i = 0; i < numItems; i++) {
+            int day = order > 0 ? numItems - i : i + 1;
+            rss.append("<item><title>Episode ").append(day).append("</title>")
+                    .append("<guid>guid").append(day).append("</guid>")
+                    .append("<pubDate>").append(pubDate(day)).append("</pubDate>")
+                    .append("<description><![CDATA[<p>Long description</p>]]></description></item>");
+        }
+        return rss.append("<title>Podcast</title></channel></rss>").toString();
+    }
+
+    private static String pubDate(int day) {
+        return String.format(Locale.US, "Sat, %02d Jan 2000 10:00:00 GMT", day);
+    }
+
+    private static Feed parse(String content) throws Exception {
+        return parse(content, null);
+    }
+
+    private static Feed parse(String content, Map<String, Long> knownItems) throws Exception {
+        Feed feed = new Feed("http://example.com/feed", null);
+        FeedHandler feedHandler = new FeedHandler();
+        if (knownItems != null) {
+            feedHandler.setKnownItems(knownItems, 3);
+        }
+        feedHandler.parseFeed(feed, stream(content));
+        return feed;
+    }
+
+    private static UnsupportedFeedtypeException parseUnsupported(String content) throws Exception {
+        try {
+            parse(content);
+        } catch (UnsupportedFeedtypeException e) {
+            return e;
+        }
+        fail("Expected UnsupportedFeedtypeException");
+        return null;
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
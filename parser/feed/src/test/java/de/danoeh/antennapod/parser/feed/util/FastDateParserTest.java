@@ -0,0 +1,89 @@
+package de.danoeh.antennapod.parser.feed.util;
+
+import org.junit.Test;
+
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Unit test for {@link FastDateParser}. Every date it accepts must give the same result as the fallback parser.
+ */
+public class FastDateParserTest {
+    private static final String[] SUPPORTED = {
+            "Sat, 28 Mar 2015 01:31:04 GMT",
+            "Sat, 28 Mar 2015 01:31:04 +0000",
+            "Sat, 28 Mar 2015 01:31:04 -0400",
+            "Sat, 28 Mar 2015 01:31:04 EST",
+            "Sat, 28 Mar 2015 01:31:04 PDT",
+            "Sat, 28 Mar 2015 01:31 EST",
+            "Sat, 28 March 2015 08:16:12 -0400",
+            "Saturday, 28 Mar 2015 08:16:12 +0100",
+            "Thu, 8 Oct 2014 09:00:00 GMT",
+            "Mon, 8 Sept 2014 00:00:00 GMT",
+            "Tue,  23 Mar   2010 01:06:26 -0500",
+            "  Wed, 29 Feb 2012 23:59:59 +0000  ",
+            "28 Mar 2015 01:31:04 GMT",
+            "2015-03-28",
+            "2015-03-28T13:31:04",
+            "2015-03-28T13:31:04Z",
+            "2015-03-28T13:31:04.9",
+            "2015-03-28T13:31:04.96",
+            "2015-03-28T13:31:04.963870",
+            "2015-03-28T13:31:04.963870 +0700",
+            "2024-05-08T22:18:52.485Z",
+            "2017-02-22T14:28:00.002-08:00",
+            "2017-02-22T14:28:00+05:30",
+    };
+
+    private static final String[] UNSUPPORTED = {
+            "",
+            "not a date",
+            "Sun 01 Mar 2015 01:00:00 GMT-0400 (EDT)",
+            "Sat, 28 Mar 15 01:31:04 GMT",
+            "Sa, 28 Mär 2015 01:31:04 +0100",
+            "sam., 28 mars 2015 01:31:04 +0100",
+            "Sat, 28 Mar 2015 01:31:04 XYZ",
+            "Sat, 28 Mar 2015 01:31:04",
+            "Sat, 31 Feb 2015 01:31:04 GMT",
+            "Sat, 28 Mar 2015 25:31:04 GMT",
+            "Sat, 28 Mar 2015 01:31:04 GMT trailing",
+            "Wed May 25 12:33:00 2011",
+            "2015/03/28",
+            "2015-03-28T13:31",
+            "2015-3-28T13:31:04Z",
+            "2015-03-28T13:31:04.Z",
+    };
+
+    @Test
+    public void testSameResultAsFallback() {
+        for (String date : SUPPORTED) {
+            long time = FastDateParser.parse(date);
+            assertNotEquals(date, FastDateParser.INVALID, time);
+            Date expected = DateUtils.parseWithPatterns(date);
+            assertEquals(date, expected, new Date(time));
+        }
+    }
+
+    @Test
+    public void testRejectsUnsupportedFormats() {
+        for (String date : UNSUPPORTED) {
+            assertEquals(date, FastDateParser.INVALID, FastDateParser.parse(date));
+        }
+    }
+
+    @Test
+    public void testCest() {
+        assertEquals(DateUtils.parseWithPatterns("Sun, 29 Jan 2017 00:00:00 +0200"),
+                new Date(FastDateParser.parse("Sun, 29 Jan 2017 00:00:00 CEST")));
+        assertEquals(DateUtils.parseWithPatterns("Sun, 29 Jan 2017 00:00:00 +0100"),
+                new Date(FastDateParser.parse("Sun, 29 Jan 2017 00:00:00 CET")));
+    }
+
+    @Test
+    public void testBeforeEpoch() {
+        assertEquals(DateUtils.parseWithPatterns("Fri, 31 Dec 1965 23:00:00 GMT"),
+                new Date(FastDateParser.parse("Fri, 31 Dec 1965 23:00:00 GMT")));
+    }
+}
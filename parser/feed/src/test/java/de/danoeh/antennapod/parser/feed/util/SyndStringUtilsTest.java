@@ -0,0 +1,21 @@
+package de.danoeh.antennapod.parser.feed.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Unit test for {@link SyndStringUtils}.
+ */
+public class SyndStringUtilsTest {
+
+    @Test
+    public void testTrimAllWhitespace() {
+        assertEquals("", SyndStringUtils.trimAllWhitespace(""));
+        assertEquals("", SyndStringUtils.trimAllWhitespace(" \t\n\u000B\f\r"));
+        assertEquals("a", SyndStringUtils.trimAllWhitespace("a"));
+        assertEquals("a \n b", SyndStringUtils.trimAllWhitespace("\r\n\t a \n b \n"));
+        // Non-breaking spaces are kept, like with the \s regular expression
+        assertEquals("\u00A0a\u00A0", SyndStringUtils.trimAllWhitespace(" \u00A0a\u00A0 "));
+    }
+}
@@ -10,9 +10,12 @@ import androidx.collection.ArrayMap;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import de.danoeh.antennapod.model.feed.Chapter;
 import de.danoeh.antennapod.model.feed.Feed;
@@ -105,8 +108,8 @@ public final class DBReader {
     }
 
     private static void loadTagsOfFeedItemList(List<FeedItem> items) {
-        LongList favoriteIds = getFavoriteIDList();
-        LongList queueIds = getQueueIDList();
+        Set<Long> favoriteIds = getFavoriteIDs();
+        Set<Long> queueIds = getQueueIDs().set;
 
         for (FeedItem item : items) {
             if (favoriteIds.contains(item.getId())) {
@@ -122,16 +125,13 @@ public final class DBReader {
      * Takes a list of FeedItems and loads their corresponding Feed-objects from the database.
      * The feedID-attribute of a FeedItem must be set to the ID of its feed or the method will
      * not find the correct feed of an item.
+     * The Feed-objects are cached until a feed is changed in the database, so the items of consecutive calls
+     * can share the same Feed-objects.
      *
      * @param items The FeedItems whose Feed-objects should be loaded.
      */
     private static void loadFeedDataOfFeedItemList(List<FeedItem> items) {
-        List<Feed> feeds = getFeedList();
-
-        Map<Long, Feed> feedIndex = new ArrayMap<>(feeds.size());
-        for (Feed feed : feeds) {
-            feedIndex.put(feed.getId(), feed);
-        }
+        Map<Long, Feed> feedIndex = getFeedIndex();
         for (FeedItem item : items) {
             Feed feed = feedIndex.get(item.getFeedId());
             if (feed == null) {
@@ -142,6 +142,22 @@ public final class DBReader {
         }
     }
 
+    private static Map<Long, Feed> getFeedIndex() {
+        Map<Long, Feed> feedIndex = FeedDataCache.FEEDS.get();
+        if (feedIndex != null) {
+            return feedIndex;
+        }
+        long version = FeedDataCache.FEEDS.getVersion();
+        List<Feed> feeds = getFeedList();
+        feedIndex = new ArrayMap<>(feeds.size());
+        for (Feed feed : feeds) {
+            feedIndex.put(feed.getId(), feed);
+        }
+        feedIndex = Collections.unmodifiableMap(feedIndex);
+        FeedDataCache.FEEDS.put(feedIndex, version);
+        return feedIndex;
+    }
+
     /**
      * Loads the list of FeedItems for a certain Feed-object.
      * This method should NOT be used if the FeedItems are not used.
@@ -157,17 +173,43 @@ public final class DBReader {
         adapter.open();
         try (FeedItemCursor cursor = new FeedItemCursor(adapter.getItemsOfFeedCursor(
                 feed, filter, sortOrder, offset, limit))) {
-            List<FeedItem> items = extractItemlistFromCursor(cursor);
-            feed.setItems(items);
-            for (FeedItem item : items) {
-                item.setFeed(feed);
-            }
-            return items;
+            return extractFeedItemList(feed, cursor);
         } finally {
             adapter.close();
         }
     }
 
+    /**
+     * Loads the page of FeedItems of a Feed that follows the given item. Unlike loading with an offset,
+     * this takes the same time no matter how many pages were loaded before.
+     *
+     * @param feed The Feed whose items should be loaded
+     * @param lastItem The last item of the previous page, or null to load the first page
+     * @return A list with the FeedItems of the Feed. The Feed-attribute of the FeedItems will already be set correctly.
+     */
+    public static List<FeedItem> getFeedItemList(final Feed feed, final FeedItemFilter filter, SortOrder sortOrder,
+                                                 @Nullable FeedItem lastItem, int limit) {
+        Log.d(TAG, "getFeedItemList() called with: " + "feed = [" + feed + "], lastItem = [" + lastItem + "]");
+
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        try (FeedItemCursor cursor = new FeedItemCursor(adapter.getItemsOfFeedCursor(
+                feed, filter, sortOrder, lastItem, limit))) {
+            return extractFeedItemList(feed, cursor);
+        } finally {
+            adapter.close();
+        }
+    }
+
+    private static List<FeedItem> extractFeedItemList(Feed feed, FeedItemCursor cursor) {
+        List<FeedItem> items = extractItemlistFromCursor(cursor);
+        feed.setItems(items);
+        for (FeedItem item : items) {
+            item.setFeed(feed);
+        }
+        return items;
+    }
+
     @NonNull
     private static List<FeedItem> extractItemlistFromCursor(FeedItemCursor cursor) {
         List<FeedItem> result = new ArrayList<>(cursor.getCount());
@@ -185,17 +227,35 @@ public final class DBReader {
      */
     public static LongList getQueueIDList() {
         Log.d(TAG, "getQueueIDList() called");
+        LongList queueIds = getQueueIDs().list;
+        LongList copy = new LongList(queueIds.size());
+        for (int i = 0; i < queueIds.size(); i++) {
+            copy.add(queueIds.get(i));
+        }
+        return copy;
+    }
+
+    private static FeedDataCache.QueueIds getQueueIDs() {
+        FeedDataCache.QueueIds queueIds = FeedDataCache.QUEUE.get();
+        if (queueIds != null) {
+            return queueIds;
+        }
+        long version = FeedDataCache.QUEUE.getVersion();
         PodDBAdapter adapter = PodDBAdapter.getInstance();
         adapter.open();
         try (Cursor cursor = adapter.getQueueIDCursor()) {
-            LongList queueIds = new LongList(cursor.getCount());
+            LongList list = new LongList(cursor.getCount());
+            Set<Long> set = new HashSet<>(cursor.getCount());
             while (cursor.moveToNext()) {
-                queueIds.add(cursor.getLong(0));
+                list.add(cursor.getLong(0));
+                set.add(cursor.getLong(0));
             }
-            return queueIds;
+            queueIds = new FeedDataCache.QueueIds(list, set);
         } finally {
             adapter.close();
         }
+        FeedDataCache.QUEUE.put(queueIds, version);
+        return queueIds;
     }
 
     /**
@@ -219,20 +279,26 @@ public final class DBReader {
         }
     }
 
-    private static LongList getFavoriteIDList() {
-        Log.d(TAG, "getFavoriteIDList() called");
-
+    private static Set<Long> getFavoriteIDs() {
+        Set<Long> favoriteIds = FeedDataCache.FAVORITES.get();
+        if (favoriteIds != null) {
+            return favoriteIds;
+        }
+        Log.d(TAG, "getFavoriteIDs() loading from database");
+        long version = FeedDataCache.FAVORITES.getVersion();
         PodDBAdapter adapter = PodDBAdapter.getInstance();
         adapter.open();
         try (Cursor cursor = adapter.getFavoritesIdsCursor()) {
-            LongList favoriteIDs = new LongList(cursor.getCount());
+            favoriteIds = new HashSet<>(cursor.getCount());
             while (cursor.moveToNext()) {
-                favoriteIDs.add(cursor.getLong(0));
+                favoriteIds.add(cursor.getLong(0));
             }
-            return favoriteIDs;
         } finally {
             adapter.close();
         }
+        favoriteIds = Collections.unmodifiableSet(favoriteIds);
+        FeedDataCache.FAVORITES.put(favoriteIds, version);
+        return favoriteIds;
     }
 
     /**
@@ -255,6 +321,30 @@ public final class DBReader {
         }
     }
 
+    /**
+     * Loads the page of episodes that follows the given item. Unlike loading with an offset,
+     * this takes the same time no matter how many pages were loaded before.
+     *
+     * @param lastItem The last item of the previous page, or null to load the first page.
+     * @param limit The maximum number of episodes that should be loaded.
+     * @param filter The filter describing which episodes to filter out.
+     */
+    @NonNull
+    public static List<FeedItem> getEpisodes(@Nullable FeedItem lastItem, int limit,
+                                             FeedItemFilter filter, SortOrder sortOrder) {
+        Log.d(TAG, "getEpisodes() called with: lastItem=" + lastItem + ", limit=" + limit);
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        try (FeedItemCursor cursor = new FeedItemCursor(adapter.getEpisodesCursor(
+                lastItem, limit, filter, sortOrder))) {
+            List<FeedItem> items = extractItemlistFromCursor(cursor);
+            loadAdditionalFeedItemListData(items);
+            return items;
+        } finally {
+            adapter.close();
+        }
+    }
+
     public static int getTotalEpisodeCount(FeedItemFilter filter) {
         PodDBAdapter adapter = PodDBAdapter.getInstance();
         adapter.open();
@@ -281,6 +371,45 @@ public final class DBReader {
         }
     }
 
+    /**
+     * Loads the publication dates of the newest episodes of a feed, for example to guess its release schedule.
+     *
+     * @return The dates, newest first
+     */
+    public static List<Date> getRecentPubDates(long feedId, int limit) {
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        try (Cursor cursor = adapter.getRecentPubDatesCursor(feedId, limit)) {
+            List<Date> dates = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                dates.add(new Date(cursor.getLong(0)));
+            }
+            return dates;
+        } finally {
+            adapter.close();
+        }
+    }
+
+    /**
+     * Loads the publication dates of the newest episodes of a feed by their item identifier,
+     * for example to find out which episodes of a feed are already known without loading them.
+     */
+    public static Map<String, Long> getRecentPubDatesByIdentifier(long feedId, int limit) {
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        try (Cursor cursor = adapter.getRecentPubDatesCursor(feedId, limit)) {
+            Map<String, Long> pubDates = new HashMap<>();
+            while (cursor.moveToNext()) {
+                if (!cursor.isNull(1)) {
+                    pubDates.put(cursor.getString(1), cursor.getLong(0));
+                }
+            }
+            return pubDates;
+        } finally {
+            adapter.close();
+        }
+    }
+
     public static List<FeedItem> getRandomEpisodes(int limit, int seed) {
         PodDBAdapter adapter = PodDBAdapter.getInstance();
         adapter.open();
@@ -349,6 +478,25 @@ public final class DBReader {
      */
     @Nullable
     public static Feed getFeed(final long feedId, boolean filtered, int offset, int limit) {
+        return getFeed(feedId, filtered, offset, null, limit);
+    }
+
+    /**
+     * Loads a specific Feed from the database, together with the page of FeedItems that follows the given item.
+     *
+     * @param feedId The ID of the Feed
+     * @param filtered <code>true</code> if only the visible items should be loaded according to the feed filter.
+     * @param lastItem The last item of the previous page, or null to load the first page
+     * @return The Feed or null if the Feed could not be found.
+     */
+    @Nullable
+    public static Feed getFeed(final long feedId, boolean filtered, @Nullable FeedItem lastItem, int limit) {
+        return getFeed(feedId, filtered, 0, lastItem, limit);
+    }
+
+    @Nullable
+    private static Feed getFeed(final long feedId, boolean filtered, int offset,
+                                @Nullable FeedItem lastItem, int limit) {
         Log.d(TAG, "getFeed() called with: " + "feedId = [" + feedId + "]");
         PodDBAdapter adapter = PodDBAdapter.getInstance();
         adapter.open();
@@ -359,7 +507,9 @@ public final class DBReader {
                 FeedItemFilter filter = (filtered && feed.getItemFilter() != null)
                         ? feed.getItemFilter() : FeedItemFilter.unfiltered();
                 filter = new FeedItemFilter(filter, FeedItemFilter.INCLUDE_NOT_SUBSCRIBED);
-                List<FeedItem> items = getFeedItemList(feed, filter, feed.getSortOrder(), offset, limit);
+                List<FeedItem> items = lastItem != null
+                        ? getFeedItemList(feed, filter, feed.getSortOrder(), lastItem, limit)
+                        : getFeedItemList(feed, filter, feed.getSortOrder(), offset, limit);
                 for (FeedItem item : items) {
                     item.setFeed(feed);
                 }
@@ -461,6 +611,72 @@ public final class DBReader {
         }
     }
 
+    /**
+     * Loads the items of many GUID/URL pairs at once, with a few queries instead of one per pair.
+     * Like {@link #getFeedItemByGuidOrEpisodeUrl(String, String)}, an item is looked up by its GUID if there is one,
+     * and by the download URL of its media otherwise.
+     *
+     * @param guids feed item guids, or null entries if unknown
+     * @param episodeUrls the feed items' urls, in the same order as the guids
+     * @return The FeedItems in the same order, with null entries for the ones that could not be found.
+     *          Does NOT load additional attributes like feed or queue state.
+     */
+    @NonNull
+    public static List<FeedItem> getFeedItemsByGuidOrEpisodeUrl(List<String> guids, List<String> episodeUrls) {
+        Set<String> guidsToLoad = new HashSet<>();
+        Set<String> urlsToLoad = new HashSet<>();
+        for (int i = 0; i < guids.size(); i++) {
+            if (guids.get(i) != null) {
+                guidsToLoad.add(guids.get(i));
+            } else if (episodeUrls.get(i) != null) {
+                urlsToLoad.add(episodeUrls.get(i));
+            }
+        }
+        Map<String, FeedItem> itemsByGuid = new HashMap<>();
+        Map<String, FeedItem> itemsByUrl = new HashMap<>();
+        List<String> guidList = new ArrayList<>(guidsToLoad);
+        List<String> urlList = new ArrayList<>(urlsToLoad);
+        final int chunkSize = PodDBAdapter.IN_OPERATOR_MAXIMUM;
+        PodDBAdapter adapter = PodDBAdapter.getInstance();
+        adapter.open();
+        try {
+            for (int i = 0; i < guidList.size(); i += chunkSize) {
+                List<String> chunk = guidList.subList(i, Math.min(i + chunkSize, guidList.size()));
+                try (FeedItemCursor cursor = new FeedItemCursor(
+                        adapter.getFeedItemCursorByGuidsOrEpisodeUrls(chunk, Collections.emptyList()))) {
+                    for (FeedItem item : extractItemlistFromCursor(cursor)) {
+                        if (!itemsByGuid.containsKey(item.getItemIdentifier())) {
+                            itemsByGuid.put(item.getItemIdentifier(), item);
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < urlList.size(); i += chunkSize) {
+                List<String> chunk = urlList.subList(i, Math.min(i + chunkSize, urlList.size()));
+                try (FeedItemCursor cursor = new FeedItemCursor(
+                        adapter.getFeedItemCursorByGuidsOrEpisodeUrls(Collections.emptyList(), chunk))) {
+                    for (FeedItem item : extractItemlistFromCursor(cursor)) {
+                        String url = item.getMedia().getDownloadUrl();
+                        if (!itemsByUrl.containsKey(url)) {
+                            itemsByUrl.put(url, item);
+                        }
+                    }
+                }
+            }
+        } finally {
+            adapter.close();
+        }
+        List<FeedItem> result = new ArrayList<>(guids.size());
+        for (int i = 0; i < guids.size(); i++) {
+            if (guids.get(i) != null) {
+                result.add(itemsByGuid.get(guids.get(i)));
+            } else {
+                result.add(itemsByUrl.get(episodeUrls.get(i)));
+            }
+        }
+        return result;
+    }
+
     /**
      * Loads shownotes information about a FeedItem.
      *
@@ -662,7 +878,7 @@ public final class DBReader {
     /**
      * Returns data necessary for displaying the navigation drawer. This includes
      * the list of subscriptions, the number of items in the queue and the number of unread
-     * items.
+     * items. All counters are read from the feed statistics table at once.
      */
     @NonNull
     public static NavDrawerData getNavDrawerData(@Nullable SubscriptionsFilter subscriptionsFilter,
@@ -670,7 +886,32 @@ public final class DBReader {
         PodDBAdapter adapter = PodDBAdapter.getInstance();
         adapter.open();
 
-        final Map<Long, Integer> feedCounters = adapter.getFeedCounters(feedCounter);
+        final Map<Long, Integer> feedCounters = new HashMap<>();
+        final Map<Long, Integer> playedCounters = new HashMap<>();
+        final Map<Long, Long> recentPubDates = new HashMap<>();
+        int numNewItems = 0;
+        int numDownloadedItems = 0;
+        String counterColumn = PodDBAdapter.getFeedCounterColumn(feedCounter);
+        try (Cursor cursor = adapter.getFeedStatsCursor()) {
+            int indexFeed = cursor.getColumnIndexOrThrow(PodDBAdapter.KEY_FEED);
+            int indexCounter = counterColumn == null ? -1 : cursor.getColumnIndexOrThrow(counterColumn);
+            int indexPlayed = cursor.getColumnIndexOrThrow(PodDBAdapter.KEY_COUNT_PLAYED);
+            int indexLatest = cursor.getColumnIndexOrThrow(PodDBAdapter.KEY_LATEST_PUBDATE);
+            int indexNew = cursor.getColumnIndexOrThrow(PodDBAdapter.KEY_COUNT_NEW);
+            int indexDownloaded = cursor.getColumnIndexOrThrow(PodDBAdapter.KEY_COUNT_DOWNLOADED);
+            while (cursor.moveToNext()) {
+                long feedId = cursor.getLong(indexFeed);
+                if (indexCounter >= 0 && cursor.getInt(indexCounter) > 0) {
+                    feedCounters.put(feedId, cursor.getInt(indexCounter));
+                }
+                if (cursor.getInt(indexPlayed) > 0) {
+                    playedCounters.put(feedId, cursor.getInt(indexPlayed));
+                }
+                recentPubDates.put(feedId, cursor.getLong(indexLatest));
+                numNewItems += cursor.getInt(indexNew);
+                numDownloadedItems += cursor.getInt(indexDownloaded);
+            }
+        }
         List<Feed> feeds = getFeedList();
 
         if (subscriptionsFilter == null) {
@@ -708,7 +949,6 @@ public final class DBReader {
                 };
                 break;
             case MOST_PLAYED:
-                final Map<Long, Integer> playedCounters = adapter.getPlayedEpisodesCounters();
                 comparator = (lhs, rhs) -> {
                     long counterLhs = playedCounters.containsKey(lhs.getId()) ? playedCounters.get(lhs.getId()) : 0;
                     long counterRhs = playedCounters.containsKey(rhs.getId()) ? playedCounters.get(rhs.getId()) : 0;
@@ -723,7 +963,6 @@ public final class DBReader {
                 };
                 break;
             default:
-                final Map<Long, Long> recentPubDates = adapter.getMostRecentItemDates();
                 comparator = (lhs, rhs) -> {
                     long dateLhs = recentPubDates.containsKey(lhs.getId()) ? recentPubDates.get(lhs.getId()) : 0;
                     long dateRhs = recentPubDates.containsKey(rhs.getId()) ? recentPubDates.get(rhs.getId()) : 0;
@@ -733,9 +972,7 @@ public final class DBReader {
         }
 
         Collections.sort(feeds, comparator);
-        final int queueSize = adapter.getQueueSize();
-        final int numNewItems = getTotalEpisodeCount(new FeedItemFilter(FeedItemFilter.NEW));
-        final int numDownloadedItems = getTotalEpisodeCount(new FeedItemFilter(FeedItemFilter.DOWNLOADED));
+        final int queueSize = getQueueIDs().list.size();
 
         List<NavDrawerData.DrawerItem> items = new ArrayList<>();
         Map<String, NavDrawerData.TagDrawerItem> folders = new HashMap<>();
@@ -355,6 +355,47 @@ class DBUpgrader {
             db.execSQL("DELETE FROM " + PodDBAdapter.TABLE_NAME_FAVORITES + " WHERE " + PodDBAdapter.KEY_FEEDITEM
                     + " NOT IN (SELECT " + PodDBAdapter.KEY_ID + " FROM " + PodDBAdapter.TABLE_NAME_FEED_ITEMS + ")");
         }
+        if (oldVersion < 3090000) {
+            PodDBAdapter.createFullTextIndex(db);
+            PodDBAdapter.rebuildFullTextIndex(db);
+        }
+        if (oldVersion < 3090001) {
+            db.execSQL(PodDBAdapter.CREATE_INDEX_FEEDITEMS_FEED_PUBDATE);
+            db.execSQL(PodDBAdapter.CREATE_INDEX_FEEDITEMS_FEED_TITLE);
+        }
+        if (oldVersion < 3090002) {
+            PodDBAdapter.createFeedStats(db);
+            PodDBAdapter.rebuildFeedStats(db);
+        }
+        if (oldVersion < 3090003) {
+            db.execSQL("DROP INDEX IF EXISTS " + PodDBAdapter.TABLE_NAME_FEED_ITEMS + "_" + PodDBAdapter.KEY_READ);
+            db.execSQL(PodDBAdapter.CREATE_INDEX_FEEDITEMS_READ_PUBDATE);
+            db.execSQL(PodDBAdapter.CREATE_INDEX_FEEDMEDIA_DOWNLOADED);
+            db.execSQL(PodDBAdapter.CREATE_INDEX_FEEDMEDIA_COMPLETION_DATE);
+        }
+        if (oldVersion < 3090004) {
+            db.execSQL("ALTER TABLE " + PodDBAdapter.TABLE_NAME_FEEDS
+                    + " ADD COLUMN " + PodDBAdapter.KEY_CONTENT_HASH + " TEXT");
+        }
+        if (oldVersion < 3090005) {
+            db.execSQL("ALTER TABLE " + PodDBAdapter.TABLE_NAME_FEEDS
+                    + " ADD COLUMN " + PodDBAdapter.KEY_ETAG + " TEXT");
+            db.execSQL("ALTER TABLE " + PodDBAdapter.TABLE_NAME_FEEDS
+                    + " ADD COLUMN " + PodDBAdapter.KEY_CACHE_EXPIRES + " INTEGER DEFAULT 0");
+            // The last update column used to contain the ETag if there was no Last-Modified header
+            db.execSQL("UPDATE " + PodDBAdapter.TABLE_NAME_FEEDS
+                    + " SET " + PodDBAdapter.KEY_ETAG + "=" + PodDBAdapter.KEY_LASTUPDATE
+                    + ", " + PodDBAdapter.KEY_LASTUPDATE + "=NULL"
+                    + " WHERE " + PodDBAdapter.KEY_LASTUPDATE + " NOT LIKE '%GMT'");
+        }
+        if (oldVersion < 3090006) {
+            db.execSQL(PodDBAdapter.CREATE_TABLE_SYNC_EPISODE_ACTIONS);
+            db.execSQL(PodDBAdapter.CREATE_INDEX_SYNC_EPISODE_ACTIONS_EPISODE);
+        }
+        if (oldVersion < 3090007) {
+            db.execSQL(PodDBAdapter.CREATE_INDEX_FEEDITEMS_ITEM_IDENTIFIER);
+            db.execSQL(PodDBAdapter.CREATE_INDEX_FEEDMEDIA_DOWNLOAD_URL);
+        }
     }
 
 }
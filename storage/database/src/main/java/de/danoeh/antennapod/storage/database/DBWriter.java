@@ -205,10 +205,10 @@ public class DBWriter {
      * Deleting media also removes the download log entries.
      */
     private static void deleteFeedItemsSynchronous(@NonNull Context context, @NonNull List<FeedItem> items) {
-        List<FeedItem> queue = DBReader.getQueue();
+        LongList queueIds = DBReader.getQueueIDList();
         List<FeedItem> removedFromQueue = new ArrayList<>();
         for (FeedItem item : items) {
-            if (queue.remove(item)) {
+            if (queueIds.contains(item.getId())) {
                 removedFromQueue.add(item);
             }
             if (item.getMedia() != null) {
@@ -230,8 +230,8 @@ public class DBWriter {
 
         PodDBAdapter adapter = PodDBAdapter.getInstance();
         adapter.open();
-        if (!removedFromQueue.isEmpty()) {
-            adapter.setQueue(queue);
+        for (FeedItem item : removedFromQueue) {
+            adapter.removeQueueItem(item.getId());
         }
         adapter.removeFeedItems(items);
         adapter.close();
@@ -341,13 +341,15 @@ public class DBWriter {
         return runOnDbThread(() -> {
             final PodDBAdapter adapter = PodDBAdapter.getInstance();
             adapter.open();
-            final List<FeedItem> queue = DBReader.getQueue();
+            final LongList queueIds = DBReader.getQueueIDList();
 
-            if (!itemListContains(queue, itemId)) {
+            if (!queueIds.contains(itemId)) {
                 FeedItem item = DBReader.getFeedItem(itemId);
                 if (item != null) {
-                    queue.add(index, item);
-                    adapter.setQueue(queue);
+                    if (index < 0 || index > queueIds.size()) {
+                        throw new IndexOutOfBoundsException("Index " + index + " is not in the queue");
+                    }
+                    adapter.addQueueItem(item, index);
                     item.addTag(FeedItem.TAG_QUEUE);
                     EventBus.getDefault().post(QueueEvent.added(item, index));
                     EventBus.getDefault().post(FeedItemEvent.updated(item));
@@ -403,8 +405,13 @@ public class DBWriter {
                 insertPosition++;
             }
             if (!updatedItems.isEmpty()) {
-                applySortOrder(queue, events);
-                adapter.setQueue(queue);
+                if (applySortOrder(queue, events)) {
+                    adapter.setQueue(queue);
+                } else {
+                    for (QueueEvent event : events) {
+                        adapter.addQueueItem(event.item, event.position);
+                    }
+                }
                 for (QueueEvent event : events) {
                     EventBus.getDefault().post(event);
                 }
@@ -424,18 +431,19 @@ public class DBWriter {
      *
      * @param queue  The queue to be sorted.
      * @param events Replaces the events by a single SORT event if the list has to be sorted automatically.
+     * @return true if the queue was sorted
      */
-    private static void applySortOrder(List<FeedItem> queue, List<QueueEvent> events) {
+    private static boolean applySortOrder(List<FeedItem> queue, List<QueueEvent> events) {
         if (!UserPreferences.isQueueKeepSorted()) {
             // queue is not in keep sorted mode, there's nothing to do
-            return;
+            return false;
         }
 
         // Sort queue by configured sort order
         SortOrder sortOrder = UserPreferences.getQueueKeepSortedOrder();
         if (sortOrder == SortOrder.RANDOM) {
             // do not shuffle the list on every change
-            return;
+            return false;
         }
         Permutor<FeedItem> permutor = FeedItemPermutors.getPermutor(sortOrder);
         permutor.reorder(queue);
@@ -443,6 +451,7 @@ public class DBWriter {
         // Replace ADDED events by a single SORTED event
         events.clear();
         events.add(QueueEvent.sorted(queue));
+        return true;
     }
 
     /**
@@ -484,21 +493,21 @@ public class DBWriter {
         }
         final PodDBAdapter adapter = PodDBAdapter.getInstance();
         adapter.open();
-        final List<FeedItem> queue = DBReader.getQueue();
+        final LongList queueIds = DBReader.getQueueIDList();
 
         boolean queueModified = false;
         List<QueueEvent> events = new ArrayList<>();
         List<FeedItem> updatedItems = new ArrayList<>();
         for (long itemId : itemIds) {
-            int position = indexInItemList(queue, itemId);
-            if (position >= 0) {
+            if (queueIds.contains(itemId)) {
                 final FeedItem item = DBReader.getFeedItem(itemId);
                 if (item == null) {
                     Log.e(TAG, "removeQueueItem - item in queue but somehow cannot be loaded."
                             + " Item ignored. It should never happen. id:" + itemId);
                     continue;
                 }
-                queue.remove(position);
+                queueIds.remove(itemId);
+                adapter.removeQueueItem(itemId);
                 item.removeTag(FeedItem.TAG_QUEUE);
                 events.add(QueueEvent.removed(item));
                 updatedItems.add(item);
@@ -508,7 +517,6 @@ public class DBWriter {
             }
         }
         if (queueModified) {
-            adapter.setQueue(queue);
             for (QueueEvent event : events) {
                 EventBus.getDefault().post(event);
             }
@@ -565,15 +573,13 @@ public class DBWriter {
         return runOnDbThread(() -> {
             final PodDBAdapter adapter = PodDBAdapter.getInstance();
             adapter.open();
-            final List<FeedItem> queue = DBReader.getQueue();
-
-            if (from >= 0 && from < queue.size() && to >= 0 && to < queue.size()) {
-                final FeedItem item = queue.remove(from);
-                queue.add(to, item);
+            final LongList queueIds = DBReader.getQueueIDList();
 
-                adapter.setQueue(queue);
+            if (from >= 0 && from < queueIds.size() && to >= 0 && to < queueIds.size()) {
+                final long itemId = queueIds.get(from);
+                adapter.moveQueueItem(itemId, to);
                 if (broadcastUpdate) {
-                    EventBus.getDefault().post(QueueEvent.moved(item, to));
+                    EventBus.getDefault().post(QueueEvent.moved(DBReader.getFeedItem(itemId), to));
                 }
             }
             adapter.close();
@@ -595,7 +601,7 @@ public class DBWriter {
 
         final PodDBAdapter adapter = PodDBAdapter.getInstance();
         adapter.open();
-        final List<FeedItem> queue = DBReader.getQueue();
+        final LongList queueIds = DBReader.getQueueIDList();
 
         List<FeedItem> selectedItems = moveToTop ? new ArrayList<>(items) : items;
         if (moveToTop) {
@@ -605,18 +611,17 @@ public class DBWriter {
         boolean queueModified = false;
         List<QueueEvent> events = new ArrayList<>();
 
-        queue.removeAll(selectedItems);
-        events.add(QueueEvent.setQueue(queue));
-
         for (FeedItem item : selectedItems) {
-            int newIndex = moveToTop ? 0 : queue.size();
-            queue.add(newIndex, item);
+            if (!queueIds.contains(item.getId())) {
+                continue;
+            }
+            int newIndex = moveToTop ? 0 : queueIds.size() - 1;
+            adapter.moveQueueItem(item.getId(), newIndex);
             events.add(QueueEvent.moved(item, newIndex));
             queueModified = true;
         }
 
         if (queueModified) {
-            adapter.setQueue(queue);
             for (QueueEvent event : events) {
                 EventBus.getDefault().post(event);
             }
@@ -755,6 +760,32 @@ public class DBWriter {
         });
     }
 
+    /**
+     * Saves the items and removes the ones with the given IDs from the queue, in one database transaction.
+     */
+    public static Future<?> setItemList(final List<FeedItem> items, final LongList removeFromQueue) {
+        return runOnDbThread(() -> {
+            LongList queueIds = DBReader.getQueueIDList();
+            LongList removedIds = new LongList();
+            List<QueueEvent> events = new ArrayList<>();
+            for (FeedItem item : items) {
+                if (removeFromQueue.contains(item.getId()) && queueIds.contains(item.getId())) {
+                    removedIds.add(item.getId());
+                    item.removeTag(FeedItem.TAG_QUEUE);
+                    events.add(QueueEvent.removed(item));
+                }
+            }
+            PodDBAdapter adapter = PodDBAdapter.getInstance();
+            adapter.open();
+            adapter.storeFeedItemlist(items, removedIds);
+            adapter.close();
+            for (QueueEvent event : events) {
+                EventBus.getDefault().post(event);
+            }
+            EventBus.getDefault().post(FeedItemEvent.updated(items));
+        });
+    }
+
     /**
      * Saves a FeedMedia object in the database. This method will save all attributes of the FeedMedia object. The
      * contents of FeedComponent-attributes (e.g. the FeedMedia's 'item'-attribute) will not be saved.
@@ -858,6 +889,25 @@ public class DBWriter {
         });
     }
 
+    /**
+     * Records a successful refresh of a feed that did not change since the last update.
+     *
+     * @param feedId       The feed's ID
+     * @param lastModified Last-Modified header of the response
+     * @param etag         ETag header of the response
+     * @param cacheExpires Time until which the response may be used without refreshing again
+     */
+    public static Future<?> setFeedNotChanged(final long feedId, final String lastModified,
+                                              final String etag, final long cacheExpires) {
+        return runOnDbThread(() -> {
+            PodDBAdapter adapter = PodDBAdapter.getInstance();
+            adapter.open();
+            adapter.setFeedNotChanged(feedId, lastModified, etag, cacheExpires);
+            adapter.close();
+            EventBus.getDefault().post(new FeedListUpdateEvent(feedId));
+        });
+    }
+
     public static Future<?> setFeedCustomTitle(Feed feed) {
         return runOnDbThread(() -> {
             PodDBAdapter adapter = PodDBAdapter.getInstance();
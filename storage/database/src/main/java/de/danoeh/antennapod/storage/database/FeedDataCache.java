@@ -0,0 +1,70 @@
+package de.danoeh.antennapod.storage.database;
+
+import java.util.Map;
+import java.util.Set;
+
+import de.danoeh.antennapod.model.feed.Feed;
+
+/**
+ * Keeps the data that {@link DBReader} adds to every loaded list of items in memory, so that loading a page
+ * of episodes does not need to read all feeds, the queue and the favorites again.
+ * {@link PodDBAdapter} invalidates an entry after every write to the corresponding table.
+ * The cached Feed objects are shared between all items that were loaded while the entry was valid.
+ */
+final class FeedDataCache {
+    static final Entry<Map<Long, Feed>> FEEDS = new Entry<>();
+    static final Entry<QueueIds> QUEUE = new Entry<>();
+    static final Entry<Set<Long>> FAVORITES = new Entry<>();
+
+    private FeedDataCache() {
+    }
+
+    static void invalidateAll() {
+        FEEDS.invalidate();
+        QUEUE.invalidate();
+        FAVORITES.invalidate();
+    }
+
+    /**
+     * A cached value and the number of times it was invalidated. A value is only stored if no
+     * invalidation happened since the caller started loading it, so that a load that overlaps
+     * with a write can not leave outdated data in the cache.
+     * Writers need to invalidate after their transaction has been committed.
+     */
+    static final class Entry<T> {
+        private T value;
+        private long version;
+
+        synchronized T get() {
+            return value;
+        }
+
+        synchronized long getVersion() {
+            return version;
+        }
+
+        synchronized void put(T value, long loadedVersion) {
+            if (loadedVersion == version) {
+                this.value = value;
+            }
+        }
+
+        synchronized void invalidate() {
+            value = null;
+            version++;
+        }
+    }
+
+    /**
+     * The queue in order, and as a set for checking whether it contains an item.
+     */
+    static final class QueueIds {
+        final LongList list;
+        final Set<Long> set;
+
+        QueueIds(LongList list, Set<Long> set) {
+            this.list = list;
+            this.set = set;
+        }
+    }
+}
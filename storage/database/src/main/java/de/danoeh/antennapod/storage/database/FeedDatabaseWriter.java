@@ -1,7 +1,6 @@
 package de.danoeh.antennapod.storage.database;
 
 import android.content.Context;
-import android.text.TextUtils;
 import android.util.Log;
 import de.danoeh.antennapod.event.FeedListUpdateEvent;
 import de.danoeh.antennapod.model.download.DownloadError;
@@ -19,8 +18,10 @@ import org.greenrobot.eventbus.EventBus;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -45,38 +46,6 @@ public abstract class FeedDatabaseWriter {
         return null;
     }
 
-    /**
-     * Get a FeedItem by its identifying value.
-     */
-    private static FeedItem searchFeedItemByIdentifyingValue(List<FeedItem> items, FeedItem searchItem) {
-        for (FeedItem item : items) {
-            if (TextUtils.equals(item.getIdentifyingValue(), searchItem.getIdentifyingValue())) {
-                return item;
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Guess if one of the items could actually mean the searched item, even if it uses another identifying value.
-     * This is to work around podcasters breaking their GUIDs.
-     */
-    private static FeedItem searchFeedItemGuessDuplicate(List<FeedItem> items, FeedItem searchItem) {
-        // First, see if it is a well-behaving feed that contains an item with the same identifier
-        for (FeedItem item : items) {
-            if (FeedItemDuplicateGuesser.sameAndNotEmpty(item.getItemIdentifier(), searchItem.getItemIdentifier())) {
-                return item;
-            }
-        }
-        // Not found yet, start more expensive guessing
-        for (FeedItem item : items) {
-            if (FeedItemDuplicateGuesser.seemDuplicates(item, searchItem)) {
-                return item;
-            }
-        }
-        return null;
-    }
-
     /**
      * Adds new Feeds to the database or updates the old versions if they already exists. If another Feed with the same
      * identifying value already exists, this method will add new FeedItems from the new Feed to the existing Feed.
@@ -86,6 +55,7 @@ public abstract class FeedDatabaseWriter {
      * @param newFeed The new Feed object.
      * @param removeUnlistedItems The item list in the new Feed object is considered to be exhaustive.
      *                            I.e. items are removed from the database if they are not in this item list.
+     *                            Ignored if the parser left out known items, see {@link Feed#hasSkippedKnownItems()}.
      * @return The updated Feed from the database if it already existed, or the new Feed from the parameters otherwise.
      */
     public static synchronized Feed updateFeed(Context context, Feed newFeed, boolean removeUnlistedItems) {
@@ -108,6 +78,10 @@ public abstract class FeedDatabaseWriter {
                         + " already exists. Syncing new with existing one.");
 
             Collections.sort(newFeed.getItems(), new FeedItemPubdateComparator());
+            FeedItemIndex newItems = new FeedItemIndex(newFeed.getItems());
+            FeedItemIndex savedItems = new FeedItemIndex(savedFeed.getItems());
+            // Only write the rows that are actually changed by the new version of the feed
+            savedFeed.startTrackingChanges();
 
             if (newFeed.getPageNr() == savedFeed.getPageNr()) {
                 savedFeed.updateFromOther(newFeed);
@@ -128,7 +102,7 @@ public abstract class FeedDatabaseWriter {
             for (int idx = 0; idx < newFeed.getItems().size(); idx++) {
                 final FeedItem item = newFeed.getItems().get(idx);
 
-                FeedItem possibleDuplicate = searchFeedItemGuessDuplicate(newFeed.getItems(), item);
+                FeedItem possibleDuplicate = newItems.findGuessedDuplicate(item);
                 if (!newFeed.isLocalFeed() && possibleDuplicate != null && item != possibleDuplicate) {
                     // Canonical episode is the first one returned (usually oldest)
                     DBWriter.addDownloadStatus(new DownloadResult(item.getTitle(),
@@ -142,9 +116,9 @@ public abstract class FeedDatabaseWriter {
                     continue;
                 }
 
-                FeedItem oldItem = searchFeedItemByIdentifyingValue(savedFeed.getItems(), item);
+                FeedItem oldItem = savedItems.findByIdentifyingValue(item);
                 if (!newFeed.isLocalFeed() && oldItem == null) {
-                    oldItem = searchFeedItemGuessDuplicate(savedFeed.getItems(), item);
+                    oldItem = savedItems.findGuessedDuplicate(item);
                     if (oldItem != null) {
                         Log.d(TAG, "Repaired duplicate: " + oldItem + ", " + item);
                         DBWriter.addDownloadStatus(new DownloadResult(item.getTitle(),
@@ -155,7 +129,8 @@ public abstract class FeedDatabaseWriter {
                                         + "attempted to repair it."
                                         + "\n\nOriginal episode:\n" + duplicateEpisodeDetails(oldItem)
                                         + "\n\nNow the feed contains:\n" + duplicateEpisodeDetails(item)));
-                        oldItem.setItemIdentifier(item.getItemIdentifier());
+                        final FeedItem repairedItem = oldItem;
+                        savedItems.update(repairedItem, () -> repairedItem.setItemIdentifier(item.getItemIdentifier()));
 
                         if (oldItem.isPlayed() && oldItem.getMedia() != null
                                 && savedFeed.getState() == Feed.STATE_SUBSCRIBED) {
@@ -171,7 +146,8 @@ public abstract class FeedDatabaseWriter {
                 }
 
                 if (oldItem != null) {
-                    oldItem.updateFromOther(item);
+                    final FeedItem existingItem = oldItem;
+                    savedItems.update(existingItem, () -> existingItem.updateFromOther(item));
                 } else {
                     Log.d(TAG, "Found new item: " + item.getTitle());
                     item.setFeed(savedFeed);
@@ -181,6 +157,7 @@ public abstract class FeedDatabaseWriter {
                     } else {
                         savedFeed.getItems().add(idx, item);
                     }
+                    savedItems.add(item);
 
                     boolean shouldPerformNewEpisodesAction = item.getPubDate() == null
                             || priorMostRecentDate == null
@@ -213,11 +190,11 @@ public abstract class FeedDatabaseWriter {
             }
 
             // identify items to be removed
-            if (removeUnlistedItems) {
+            if (removeUnlistedItems && !newFeed.hasSkippedKnownItems()) {
                 Iterator<FeedItem> it = savedFeed.getItems().iterator();
                 while (it.hasNext()) {
                     FeedItem feedItem = it.next();
-                    if (searchFeedItemByIdentifyingValue(newFeed.getItems(), feedItem) == null) {
+                    if (newItems.findByIdentifyingValue(feedItem) == null) {
                         unlistedItems.add(feedItem);
                         it.remove();
                     }
@@ -226,6 +203,9 @@ public abstract class FeedDatabaseWriter {
 
             // update attributes
             savedFeed.setLastModified(newFeed.getLastModified());
+            savedFeed.setContentHash(newFeed.getContentHash());
+            savedFeed.setEtag(newFeed.getEtag());
+            savedFeed.setCacheExpires(newFeed.getCacheExpires());
             savedFeed.setType(newFeed.getType());
             savedFeed.setLastUpdateFailed(false);
 
@@ -261,6 +241,33 @@ public abstract class FeedDatabaseWriter {
         return resultFeed;
     }
 
+    /**
+     * Adds Feeds that are not in the database yet, all in one transaction. Unlike {@link #updateFeed}, this does not
+     * merge the items with an existing Feed, so Feeds whose download URL is already known are skipped instead.
+     *
+     * @param context Used for accessing the DB.
+     * @param newFeeds The new Feed objects.
+     */
+    public static synchronized void addNewFeeds(Context context, List<Feed> newFeeds) {
+        Set<String> knownUrls = new HashSet<>(DBReader.getFeedListDownloadUrls());
+        List<Feed> feedsToAdd = new ArrayList<>();
+        for (Feed feed : newFeeds) {
+            if (knownUrls.add(feed.getDownloadUrl())) {
+                feedsToAdd.add(feed);
+            }
+        }
+        if (feedsToAdd.isEmpty()) {
+            return;
+        }
+        Log.d(TAG, "Adding " + feedsToAdd.size() + " new feeds");
+        try {
+            DBWriter.addNewFeed(context, feedsToAdd.toArray(new Feed[0])).get();
+        } catch (InterruptedException | ExecutionException e) {
+            e.printStackTrace();
+        }
+        EventBus.getDefault().post(new FeedListUpdateEvent(Collections.emptyList()));
+    }
+
     private static String duplicateEpisodeDetails(FeedItem item) {
         return "Title: " + item.getTitle()
                 + "\nID: " + item.getItemIdentifier()
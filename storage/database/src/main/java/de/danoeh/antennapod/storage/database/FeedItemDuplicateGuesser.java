@@ -3,7 +3,8 @@ package de.danoeh.antennapod.storage.database;
 import de.danoeh.antennapod.model.feed.FeedItem;
 import de.danoeh.antennapod.model.feed.FeedMedia;
 
-import java.text.DateFormat;
+import java.util.Calendar;
+import java.util.Date;
 import java.util.Locale;
 import org.apache.commons.lang3.StringUtils;
 
@@ -27,8 +28,14 @@ public class FeedItemDuplicateGuesser {
         }
         return titlesLookSimilar(item1, item2)
                 && datesLookSimilar(item1, item2)
-                && durationsLookSimilar(media1, media2)
-                && mimeTypeLooksSimilar(media1, media2);
+                && mediaLooksSimilar(media1, media2);
+    }
+
+    /**
+     * Compares the attributes that {@link #seemDuplicates} checks in addition to the title and date.
+     */
+    static boolean mediaLooksSimilar(FeedMedia media1, FeedMedia media2) {
+        return durationsLookSimilar(media1, media2) && mimeTypeLooksSimilar(media1, media2);
     }
 
     public static boolean sameAndNotEmpty(String string1, String string2) {
@@ -42,10 +49,19 @@ public class FeedItemDuplicateGuesser {
         if (item1.getPubDate() == null || item2.getPubDate() == null) {
             return false;
         }
-        DateFormat dateFormat = DateFormat.getDateInstance(DateFormat.SHORT, Locale.US); // MM/DD/YY
-        String dateOriginal = dateFormat.format(item2.getPubDate());
-        String dateNew = dateFormat.format(item1.getPubDate());
-        return StringUtils.equals(dateOriginal, dateNew); // Same date; time is ignored.
+        return getDayKey(item1.getPubDate()) == getDayKey(item2.getPubDate()); // Same date; time is ignored.
+    }
+
+    /**
+     * Returns a number that is the same for all dates on the same local day. Like the MM/DD/YY format that was
+     * compared before, the century is ignored.
+     */
+    static int getDayKey(Date date) {
+        Calendar calendar = Calendar.getInstance(Locale.US);
+        calendar.setTime(date);
+        return (calendar.get(Calendar.YEAR) % 100) * 10000
+                + calendar.get(Calendar.MONTH) * 100
+                + calendar.get(Calendar.DAY_OF_MONTH);
     }
 
     private static boolean durationsLookSimilar(FeedMedia media1, FeedMedia media2) {
@@ -69,7 +85,7 @@ public class FeedItemDuplicateGuesser {
         return sameAndNotEmpty(canonicalizeTitle(item1.getTitle()), canonicalizeTitle(item2.getTitle()));
     }
 
-    private static String canonicalizeTitle(String title) {
+    static String canonicalizeTitle(String title) {
         if (title == null) {
             return "";
         }
@@ -0,0 +1,184 @@
+package de.danoeh.antennapod.storage.database;
+
+import de.danoeh.antennapod.model.feed.FeedItem;
+import de.danoeh.antennapod.model.feed.FeedMedia;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hash indexes over a list of items, so that matching the items of a refreshed feed against the saved ones
+ * does not need to compare every pair of items. The lookups return the same item as a linear search would,
+ * which is the first matching item in the list.
+ * The list is not copied. Items that are added to the list or changed afterwards need to be passed to
+ * {@link #add(FeedItem)} or {@link #update(FeedItem, Runnable)}.
+ */
+class FeedItemIndex {
+    private final List<FeedItem> items;
+    private final Map<String, List<FeedItem>> byIdentifyingValue = new HashMap<>();
+    private final Map<String, List<FeedItem>> byItemIdentifier = new HashMap<>();
+    private final Map<String, List<FeedItem>> byStreamUrl = new HashMap<>();
+    private final Map<String, List<FeedItem>> byTitleAndDay = new HashMap<>();
+    private final Map<FeedItem, Keys> keysOfItem = new IdentityHashMap<>();
+
+    FeedItemIndex(List<FeedItem> items) {
+        this.items = items;
+        for (FeedItem item : items) {
+            add(item);
+        }
+    }
+
+    /**
+     * Adds an item that was added to the list.
+     */
+    void add(FeedItem item) {
+        Keys keys = new Keys(item);
+        keysOfItem.put(item, keys);
+        put(byIdentifyingValue, keys.identifyingValue, item);
+        put(byItemIdentifier, keys.itemIdentifier, item);
+        put(byStreamUrl, keys.streamUrl, item);
+        put(byTitleAndDay, keys.titleAndDay, item);
+    }
+
+    /**
+     * Changes an item of the list and moves it to the buckets of its new values.
+     */
+    void update(FeedItem item, Runnable change) {
+        Keys keys = keysOfItem.remove(item);
+        if (keys != null) {
+            remove(byIdentifyingValue, keys.identifyingValue, item);
+            remove(byItemIdentifier, keys.itemIdentifier, item);
+            remove(byStreamUrl, keys.streamUrl, item);
+            remove(byTitleAndDay, keys.titleAndDay, item);
+        }
+        change.run();
+        add(item);
+    }
+
+    /**
+     * Get a FeedItem by its identifying value.
+     */
+    FeedItem findByIdentifyingValue(FeedItem searchItem) {
+        List<FeedItem> candidates = byIdentifyingValue.get(searchItem.getIdentifyingValue());
+        if (candidates == null) {
+            return null;
+        }
+        return first(candidates);
+    }
+
+    /**
+     * Guess if one of the items could actually mean the searched item, even if it uses another identifying value.
+     * This is to work around podcasters breaking their GUIDs.
+     *
+     * @see FeedItemDuplicateGuesser#seemDuplicates(FeedItem, FeedItem)
+     */
+    FeedItem findGuessedDuplicate(FeedItem searchItem) {
+        // First, see if it is a well-behaving feed that contains an item with the same identifier
+        String itemIdentifier = nonEmpty(searchItem.getItemIdentifier());
+        if (itemIdentifier != null && byItemIdentifier.containsKey(itemIdentifier)) {
+            return first(byItemIdentifier.get(itemIdentifier));
+        }
+        FeedMedia searchMedia = searchItem.getMedia();
+        if (searchMedia == null) {
+            return null;
+        }
+        // Not found yet, only look at the items that share a stream URL or a title and day
+        Set<FeedItem> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        String streamUrl = nonEmpty(searchMedia.getStreamUrl());
+        if (streamUrl != null && byStreamUrl.containsKey(streamUrl)) {
+            candidates.addAll(byStreamUrl.get(streamUrl));
+        }
+        String titleAndDay = Keys.titleAndDay(searchItem);
+        if (titleAndDay != null && byTitleAndDay.containsKey(titleAndDay)) {
+            for (FeedItem item : byTitleAndDay.get(titleAndDay)) {
+                if (item.getMedia() != null
+                        && FeedItemDuplicateGuesser.mediaLooksSimilar(item.getMedia(), searchMedia)) {
+                    candidates.add(item);
+                }
+            }
+        }
+        return first(candidates);
+    }
+
+    /**
+     * Returns the candidate that comes first in the list. Only needs to scan the list
+     * if the feed contains the same value multiple times.
+     */
+    private FeedItem first(Collection<FeedItem> candidates) {
+        if (candidates.isEmpty()) {
+            return null;
+        } else if (candidates.size() == 1) {
+            return candidates.iterator().next();
+        }
+        Set<FeedItem> candidateSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        candidateSet.addAll(candidates);
+        for (FeedItem item : items) {
+            if (candidateSet.contains(item)) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    private static void put(Map<String, List<FeedItem>> index, String key, FeedItem item) {
+        // Null keys are kept as well, items without any identifying value match each other
+        List<FeedItem> bucket = index.get(key);
+        if (bucket == null) {
+            bucket = new ArrayList<>(1);
+            index.put(key, bucket);
+        }
+        bucket.add(item);
+    }
+
+    private static void remove(Map<String, List<FeedItem>> index, String key, FeedItem item) {
+        List<FeedItem> bucket = index.get(key);
+        if (bucket == null) {
+            return;
+        }
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i) == item) {
+                bucket.remove(i);
+                break;
+            }
+        }
+        if (bucket.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    private static String nonEmpty(String string) {
+        return StringUtils.isEmpty(string) ? null : string;
+    }
+
+    /**
+     * The values of an item at the time it was put into the index.
+     */
+    private static class Keys {
+        final String identifyingValue;
+        final String itemIdentifier;
+        final String streamUrl;
+        final String titleAndDay;
+
+        Keys(FeedItem item) {
+            identifyingValue = item.getIdentifyingValue();
+            itemIdentifier = nonEmpty(item.getItemIdentifier());
+            streamUrl = item.getMedia() == null ? null : nonEmpty(item.getMedia().getStreamUrl());
+            titleAndDay = item.getMedia() == null ? null : titleAndDay(item);
+        }
+
+        static String titleAndDay(FeedItem item) {
+            String title = FeedItemDuplicateGuesser.canonicalizeTitle(item.getTitle());
+            if (title.isEmpty() || item.getPubDate() == null) {
+                return null;
+            }
+            return FeedItemDuplicateGuesser.getDayKey(item.getPubDate()) + "/" + title;
+        }
+    }
+}
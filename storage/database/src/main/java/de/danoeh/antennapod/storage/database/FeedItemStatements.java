@@ -0,0 +1,245 @@
+package de.danoeh.antennapod.storage.database;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import de.danoeh.antennapod.model.feed.Chapter;
+import de.danoeh.antennapod.model.feed.FeedItem;
+import de.danoeh.antennapod.model.feed.FeedMedia;
+
+import java.io.Closeable;
+
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_AUTO_DOWNLOAD_ENABLED;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_DESCRIPTION;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_DOWNLOAD_DATE;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_DOWNLOAD_URL;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_DURATION;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_FEED;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_FEEDITEM;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_FILE_URL;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_HAS_CHAPTERS;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_HAS_EMBEDDED_PICTURE;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_ID;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_IMAGE_URL;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_ITEM_IDENTIFIER;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_LAST_PLAYED_TIME_HISTORY;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_LAST_PLAYED_TIME_STATISTICS;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_LINK;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_MIME_TYPE;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_PAYMENT_LINK;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_PODCASTINDEX_CHAPTER_URL;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_PODCASTINDEX_TRANSCRIPT_TYPE;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_PODCASTINDEX_TRANSCRIPT_URL;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_POSITION;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_PUBDATE;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_READ;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_SIZE;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_SOCIAL_INTERACT_URL;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_START;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.KEY_TITLE;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.TABLE_NAME_FEED_ITEMS;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.TABLE_NAME_FEED_MEDIA;
+import static de.danoeh.antennapod.storage.database.PodDBAdapter.TABLE_NAME_SIMPLECHAPTERS;
+
+/**
+ * Compiled statements that write complete items, media and chapters. Compiling the SQL once per batch
+ * instead of once per row makes a big difference when storing feeds with thousands of episodes.
+ * The statements are compiled when they are first used and must be closed after the batch.
+ */
+class FeedItemStatements implements Closeable {
+    private static final String[] ITEM_COLUMNS = {KEY_TITLE, KEY_LINK, KEY_DESCRIPTION, KEY_PUBDATE,
+        KEY_PAYMENT_LINK, KEY_FEED, KEY_READ, KEY_HAS_CHAPTERS, KEY_ITEM_IDENTIFIER, KEY_AUTO_DOWNLOAD_ENABLED,
+        KEY_IMAGE_URL, KEY_PODCASTINDEX_CHAPTER_URL, KEY_SOCIAL_INTERACT_URL, KEY_PODCASTINDEX_TRANSCRIPT_TYPE,
+        KEY_PODCASTINDEX_TRANSCRIPT_URL};
+    private static final String[] MEDIA_COLUMNS = {KEY_DURATION, KEY_POSITION, KEY_SIZE, KEY_MIME_TYPE,
+        KEY_DOWNLOAD_URL, KEY_DOWNLOAD_DATE, KEY_FILE_URL, KEY_HAS_EMBEDDED_PICTURE, KEY_LAST_PLAYED_TIME_STATISTICS,
+        KEY_LAST_PLAYED_TIME_HISTORY, KEY_FEEDITEM};
+    private static final String[] CHAPTER_COLUMNS = {KEY_TITLE, KEY_START, KEY_FEEDITEM, KEY_LINK, KEY_IMAGE_URL};
+
+    // Values that are NULL in an update keep the stored value, like leaving them out of the ContentValues did
+    private static final String SQL_UPDATE_ITEM = "UPDATE " + TABLE_NAME_FEED_ITEMS + " SET "
+            + KEY_TITLE + "=?, " + KEY_LINK + "=?, "
+            + KEY_DESCRIPTION + "=COALESCE(?, " + KEY_DESCRIPTION + "), "
+            + KEY_PUBDATE + "=?, " + KEY_PAYMENT_LINK + "=?, " + KEY_FEED + "=?, " + KEY_READ + "=?, "
+            + KEY_HAS_CHAPTERS + "=?, " + KEY_ITEM_IDENTIFIER + "=?, " + KEY_AUTO_DOWNLOAD_ENABLED + "=?, "
+            + KEY_IMAGE_URL + "=?, " + KEY_PODCASTINDEX_CHAPTER_URL + "=?, " + KEY_SOCIAL_INTERACT_URL + "=?, "
+            + KEY_PODCASTINDEX_TRANSCRIPT_TYPE + "=CASE WHEN ?15 IS NULL THEN "
+                    + KEY_PODCASTINDEX_TRANSCRIPT_TYPE + " ELSE ?14 END, "
+            + KEY_PODCASTINDEX_TRANSCRIPT_URL + "=COALESCE(?15, " + KEY_PODCASTINDEX_TRANSCRIPT_URL + ")"
+            + " WHERE " + KEY_ID + "=?16";
+    private static final String SQL_UPDATE_MEDIA = "UPDATE " + TABLE_NAME_FEED_MEDIA + " SET "
+            + KEY_DURATION + "=?, " + KEY_POSITION + "=?, " + KEY_SIZE + "=?, " + KEY_MIME_TYPE + "=?, "
+            + KEY_DOWNLOAD_URL + "=?, " + KEY_DOWNLOAD_DATE + "=?, " + KEY_FILE_URL + "=?, "
+            + KEY_HAS_EMBEDDED_PICTURE + "=?, " + KEY_LAST_PLAYED_TIME_STATISTICS + "=?, "
+            + KEY_LAST_PLAYED_TIME_HISTORY + "=?, " + KEY_FEEDITEM + "=COALESCE(?, " + KEY_FEEDITEM + ")"
+            + " WHERE " + KEY_ID + "=?";
+    private static final String SQL_UPDATE_CHAPTER = "UPDATE " + TABLE_NAME_SIMPLECHAPTERS + " SET "
+            + KEY_TITLE + "=?, " + KEY_START + "=?, " + KEY_FEEDITEM + "=?, " + KEY_LINK + "=?, " + KEY_IMAGE_URL + "=?"
+            + " WHERE " + KEY_ID + "=?";
+
+    private final SQLiteDatabase db;
+    private SQLiteStatement insertItem;
+    private SQLiteStatement updateItem;
+    private SQLiteStatement insertMedia;
+    private SQLiteStatement updateMedia;
+    private SQLiteStatement insertChapter;
+    private SQLiteStatement updateChapter;
+
+    FeedItemStatements(SQLiteDatabase db) {
+        this.db = db;
+    }
+
+    /**
+     * @return the id of the new row
+     */
+    long insertItem(FeedItem item) {
+        if (insertItem == null) {
+            insertItem = db.compileStatement(createInsertSql(TABLE_NAME_FEED_ITEMS, ITEM_COLUMNS));
+        }
+        bindItem(insertItem, item);
+        return insertItem.executeInsert();
+    }
+
+    void updateItem(FeedItem item) {
+        if (updateItem == null) {
+            updateItem = db.compileStatement(SQL_UPDATE_ITEM);
+        }
+        bindItem(updateItem, item);
+        updateItem.bindLong(ITEM_COLUMNS.length + 1, item.getId());
+        updateItem.executeUpdateDelete();
+    }
+
+    /**
+     * @return the id of the new row
+     */
+    long insertMedia(FeedMedia media) {
+        if (insertMedia == null) {
+            insertMedia = db.compileStatement(createInsertSql(TABLE_NAME_FEED_MEDIA, MEDIA_COLUMNS));
+        }
+        bindMedia(insertMedia, media);
+        return insertMedia.executeInsert();
+    }
+
+    void updateMedia(FeedMedia media) {
+        if (updateMedia == null) {
+            updateMedia = db.compileStatement(SQL_UPDATE_MEDIA);
+        }
+        bindMedia(updateMedia, media);
+        updateMedia.bindLong(MEDIA_COLUMNS.length + 1, media.getId());
+        updateMedia.executeUpdateDelete();
+    }
+
+    /**
+     * @return the id of the new row
+     */
+    long insertChapter(Chapter chapter, long itemId) {
+        if (insertChapter == null) {
+            insertChapter = db.compileStatement(createInsertSql(TABLE_NAME_SIMPLECHAPTERS, CHAPTER_COLUMNS));
+        }
+        bindChapter(insertChapter, chapter, itemId);
+        return insertChapter.executeInsert();
+    }
+
+    void updateChapter(Chapter chapter, long itemId) {
+        if (updateChapter == null) {
+            updateChapter = db.compileStatement(SQL_UPDATE_CHAPTER);
+        }
+        bindChapter(updateChapter, chapter, itemId);
+        updateChapter.bindLong(CHAPTER_COLUMNS.length + 1, chapter.getId());
+        updateChapter.executeUpdateDelete();
+    }
+
+    @Override
+    public void close() {
+        for (SQLiteStatement statement : new SQLiteStatement[]{insertItem, updateItem, insertMedia, updateMedia,
+                insertChapter, updateChapter}) {
+            if (statement != null) {
+                statement.close();
+            }
+        }
+    }
+
+    private static void bindItem(SQLiteStatement statement, FeedItem item) {
+        statement.clearBindings();
+        bindString(statement, 1, item.getTitle());
+        bindString(statement, 2, item.getLink());
+        bindString(statement, 3, item.getDescription());
+        statement.bindLong(4, item.getPubDate().getTime());
+        bindString(statement, 5, item.getPaymentLink());
+        statement.bindLong(6, item.getFeed().getId());
+        if (item.isNew()) {
+            statement.bindLong(7, FeedItem.NEW);
+        } else if (item.isPlayed()) {
+            statement.bindLong(7, FeedItem.PLAYED);
+        } else {
+            statement.bindLong(7, FeedItem.UNPLAYED);
+        }
+        bindBoolean(statement, 8, item.getChapters() != null || item.hasChapters());
+        bindString(statement, 9, item.getItemIdentifier());
+        bindBoolean(statement, 10, item.isAutoDownloadEnabled());
+        bindString(statement, 11, item.getImageUrl());
+        bindString(statement, 12, item.getPodcastIndexChapterUrl());
+        bindString(statement, 13, item.getSocialInteractUrl());
+        // We only store one transcript url, we prefer JSON if it exists
+        if (item.getTranscriptUrl() != null) {
+            bindString(statement, 14, item.getTranscriptType());
+            statement.bindString(15, item.getTranscriptUrl());
+        }
+    }
+
+    private static void bindMedia(SQLiteStatement statement, FeedMedia media) {
+        statement.clearBindings();
+        statement.bindLong(1, media.getDuration());
+        statement.bindLong(2, media.getPosition());
+        statement.bindLong(3, media.getSize());
+        bindString(statement, 4, media.getMimeType());
+        bindString(statement, 5, media.getDownloadUrl());
+        statement.bindLong(6, media.getDownloadDate());
+        bindString(statement, 7, media.getLocalFileUrl());
+        bindBoolean(statement, 8, media.hasEmbeddedPicture());
+        statement.bindLong(9, media.getLastPlayedTimeStatistics());
+        if (media.getLastPlayedTimeHistory() != null) {
+            statement.bindLong(10, media.getLastPlayedTimeHistory().getTime());
+        } else {
+            statement.bindLong(10, 0);
+        }
+        if (media.getItem() != null) {
+            statement.bindLong(11, media.getItem().getId());
+        }
+    }
+
+    private static void bindChapter(SQLiteStatement statement, Chapter chapter, long itemId) {
+        statement.clearBindings();
+        bindString(statement, 1, chapter.getTitle());
+        statement.bindLong(2, chapter.getStart());
+        statement.bindLong(3, itemId);
+        bindString(statement, 4, chapter.getLink());
+        bindString(statement, 5, chapter.getImageUrl());
+    }
+
+    private static void bindString(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+
+    private static void bindBoolean(SQLiteStatement statement, int index, boolean value) {
+        statement.bindLong(index, value ? 1 : 0);
+    }
+
+    private static String createInsertSql(String table, String[] columns) {
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (");
+        StringBuilder values = new StringBuilder(") VALUES (");
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                sql.append(", ");
+                values.append(", ");
+            }
+            sql.append(columns[i]);
+            values.append('?');
+        }
+        return sql.append(values).append(')').toString();
+    }
+}
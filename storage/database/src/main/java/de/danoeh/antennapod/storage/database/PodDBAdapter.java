@@ -21,7 +21,10 @@ import de.danoeh.antennapod.model.feed.FeedCounter;
 import de.danoeh.antennapod.model.feed.FeedFunding;
 
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -39,8 +42,10 @@ import de.danoeh.antennapod.model.download.DownloadResult;
 import de.danoeh.antennapod.model.feed.SortOrder;
 import de.danoeh.antennapod.storage.database.mapper.FeedItemFilterQuery;
 import de.danoeh.antennapod.storage.database.mapper.FeedItemSortQuery;
+import de.danoeh.antennapod.storage.database.mapper.FullTextSearchQuery;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 
 import static de.danoeh.antennapod.model.feed.FeedPreferences.SPEED_USE_GLOBAL;
 import static de.danoeh.antennapod.model.feed.SortOrder.toCodeString;
@@ -52,12 +57,40 @@ public class PodDBAdapter {
 
     private static final String TAG = "PodDBAdapter";
     public static final String DATABASE_NAME = "Antennapod.db";
-    public static final int VERSION = 3080000;
+    public static final int VERSION = 3090007;
+
+    /**
+     * Distance between the IDs of neighbouring queue items after renumbering.
+     * About 20 items can be placed between two items before the queue has to be renumbered again.
+     */
+    private static final long QUEUE_KEY_GAP = 1 << 20;
 
     /**
      * Maximum number of arguments for IN-operator.
      */
-    private static final int IN_OPERATOR_MAXIMUM = 800;
+    static final int IN_OPERATOR_MAXIMUM = 800;
+
+    /**
+     * Number of WAL pages after which SQLite checkpoints automatically on commit.
+     */
+    private static final int WAL_AUTOCHECKPOINT_PAGES = 1000;
+
+    /**
+     * Size the write-ahead log is truncated to after a checkpoint.
+     */
+    private static final long WAL_JOURNAL_SIZE_LIMIT = 4 * 1024 * 1024;
+
+    /**
+     * Automatic checkpoints cannot complete while readers are still using old snapshots.
+     * If the log grows beyond this size, it is checkpointed and truncated explicitly after a bulk write.
+     */
+    private static final long WAL_TRUNCATE_THRESHOLD = 16 * 1024 * 1024;
+
+    /**
+     * How often copying the database file is attempted while readers keep the log from being checkpointed.
+     */
+    private static final int COPY_DATABASE_ATTEMPTS = 10;
+    private static final long COPY_DATABASE_RETRY_DELAY = 200;
 
     // Key-constants
     public static final String KEY_ID = "id";
@@ -125,6 +158,19 @@ public class PodDBAdapter {
     public static final String KEY_STATE = "state";
     public static final String KEY_PODCASTINDEX_TRANSCRIPT_URL = "podcastindex_transcript_url";
     public static final String KEY_PODCASTINDEX_TRANSCRIPT_TYPE = "podcastindex_transcript_type";
+    public static final String KEY_COUNT_NEW = "count_new";
+    public static final String KEY_COUNT_UNPLAYED = "count_unplayed";
+    public static final String KEY_COUNT_DOWNLOADED = "count_downloaded";
+    public static final String KEY_COUNT_DOWNLOADED_UNPLAYED = "count_downloaded_unplayed";
+    public static final String KEY_COUNT_PLAYED = "count_played";
+    public static final String KEY_LATEST_PUBDATE = "latest_pubdate";
+    public static final String KEY_CONTENT_HASH = "content_hash";
+    public static final String KEY_ETAG = "etag";
+    public static final String KEY_CACHE_EXPIRES = "cache_expires";
+    public static final String KEY_PODCAST = "podcast";
+    public static final String KEY_EPISODE = "episode";
+    public static final String KEY_ACTION = "action";
+    public static final String KEY_CONTENT = "content";
 
     // Table names
     public static final String TABLE_NAME_FEEDS = "Feeds";
@@ -135,6 +181,10 @@ public class PodDBAdapter {
     public static final String TABLE_NAME_QUEUE = "Queue";
     public static final String TABLE_NAME_SIMPLECHAPTERS = "SimpleChapters";
     public static final String TABLE_NAME_FAVORITES = "Favorites";
+    public static final String TABLE_NAME_FEED_ITEMS_FTS = "FeedItems_fts";
+    public static final String TABLE_NAME_FEEDS_FTS = "Feeds_fts";
+    public static final String TABLE_NAME_FEED_STATS = "FeedStats";
+    public static final String TABLE_NAME_SYNC_EPISODE_ACTIONS = "SyncEpisodeActions";
 
     // SQL Statements for creating new tables
     private static final String TABLE_PRIMARY_KEY = KEY_ID
@@ -176,7 +226,10 @@ public class PodDBAdapter {
             + KEY_FEED_SKIP_ENDING + " INTEGER DEFAULT 0,"
             + KEY_EPISODE_NOTIFICATION + " INTEGER DEFAULT 0,"
             + KEY_STATE + " INTEGER DEFAULT " + Feed.STATE_SUBSCRIBED + ","
-            + KEY_NEW_EPISODES_ACTION + " INTEGER DEFAULT 0)";
+            + KEY_NEW_EPISODES_ACTION + " INTEGER DEFAULT 0,"
+            + KEY_CONTENT_HASH + " TEXT,"
+            + KEY_ETAG + " TEXT,"
+            + KEY_CACHE_EXPIRES + " INTEGER DEFAULT 0)";
 
     private static final String CREATE_TABLE_FEED_ITEMS = "CREATE TABLE "
             + TABLE_NAME_FEED_ITEMS + " (" + TABLE_PRIMARY_KEY
@@ -219,6 +272,23 @@ public class PodDBAdapter {
             + " TEXT," + KEY_START + " INTEGER," + KEY_FEEDITEM + " INTEGER,"
             + KEY_LINK + " TEXT," + KEY_IMAGE_URL + " TEXT)";
 
+    private static final String CREATE_TABLE_FEED_STATS = "CREATE TABLE "
+            + TABLE_NAME_FEED_STATS + " (" + KEY_FEED + " INTEGER PRIMARY KEY,"
+            + KEY_COUNT_NEW + " INTEGER NOT NULL DEFAULT 0,"
+            + KEY_COUNT_UNPLAYED + " INTEGER NOT NULL DEFAULT 0,"
+            + KEY_COUNT_DOWNLOADED + " INTEGER NOT NULL DEFAULT 0,"
+            + KEY_COUNT_DOWNLOADED_UNPLAYED + " INTEGER NOT NULL DEFAULT 0,"
+            + KEY_COUNT_PLAYED + " INTEGER NOT NULL DEFAULT 0,"
+            + KEY_LATEST_PUBDATE + " INTEGER NOT NULL DEFAULT 0)";
+
+    /**
+     * Episode actions that still need to be uploaded to the synchronization server, in the order they happened.
+     * AUTOINCREMENT makes sure that a new action never gets the ID of an action that was removed while uploading.
+     */
+    static final String CREATE_TABLE_SYNC_EPISODE_ACTIONS = "CREATE TABLE "
+            + TABLE_NAME_SYNC_EPISODE_ACTIONS + " (" + KEY_ID + " INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL,"
+            + KEY_PODCAST + " TEXT," + KEY_EPISODE + " TEXT," + KEY_ACTION + " TEXT," + KEY_CONTENT + " TEXT)";
+
     // SQL Statements for creating indexes
     static final String CREATE_INDEX_FEEDITEMS_FEED = "CREATE INDEX "
             + TABLE_NAME_FEED_ITEMS + "_" + KEY_FEED + " ON " + TABLE_NAME_FEED_ITEMS + " ("
@@ -228,10 +298,29 @@ public class PodDBAdapter {
             + TABLE_NAME_FEED_ITEMS + "_" + KEY_PUBDATE + " ON " + TABLE_NAME_FEED_ITEMS + " ("
             + KEY_PUBDATE + ")";
 
+    // Used to seek to the next page of a feed's episode list, see FeedItemSortQuery
+    static final String CREATE_INDEX_FEEDITEMS_FEED_PUBDATE = "CREATE INDEX "
+            + TABLE_NAME_FEED_ITEMS + "_" + KEY_FEED + "_" + KEY_PUBDATE + " ON " + TABLE_NAME_FEED_ITEMS + " ("
+            + KEY_FEED + ", " + KEY_PUBDATE + ")";
+
+    static final String CREATE_INDEX_FEEDITEMS_FEED_TITLE = "CREATE INDEX "
+            + TABLE_NAME_FEED_ITEMS + "_" + KEY_FEED + "_" + KEY_TITLE + " ON " + TABLE_NAME_FEED_ITEMS + " ("
+            + KEY_FEED + ", " + KEY_TITLE + ")";
+
     static final String CREATE_INDEX_FEEDITEMS_READ = "CREATE INDEX "
             + TABLE_NAME_FEED_ITEMS + "_" + KEY_READ + " ON " + TABLE_NAME_FEED_ITEMS + " ("
             + KEY_READ + ")";
 
+    // Replaces the index on read only, used by the inbox that filters by state and sorts by date
+    static final String CREATE_INDEX_FEEDITEMS_READ_PUBDATE = "CREATE INDEX "
+            + TABLE_NAME_FEED_ITEMS + "_" + KEY_READ + "_" + KEY_PUBDATE + " ON " + TABLE_NAME_FEED_ITEMS + " ("
+            + KEY_READ + ", " + KEY_PUBDATE + ")";
+
+    // Used to match episode actions of the synchronization service to items
+    static final String CREATE_INDEX_FEEDITEMS_ITEM_IDENTIFIER = "CREATE INDEX "
+            + TABLE_NAME_FEED_ITEMS + "_" + KEY_ITEM_IDENTIFIER + " ON " + TABLE_NAME_FEED_ITEMS + " ("
+            + KEY_ITEM_IDENTIFIER + ")";
+
     static final String CREATE_INDEX_QUEUE_FEEDITEM = "CREATE INDEX "
             + TABLE_NAME_QUEUE + "_" + KEY_FEEDITEM + " ON " + TABLE_NAME_QUEUE + " ("
             + KEY_FEEDITEM + ")";
@@ -240,14 +329,50 @@ public class PodDBAdapter {
             + TABLE_NAME_FEED_MEDIA + "_" + KEY_FEEDITEM + " ON " + TABLE_NAME_FEED_MEDIA + " ("
             + KEY_FEEDITEM + ")";
 
+    static final String CREATE_INDEX_FEEDMEDIA_DOWNLOAD_URL = "CREATE INDEX "
+            + TABLE_NAME_FEED_MEDIA + "_" + KEY_DOWNLOAD_URL + " ON " + TABLE_NAME_FEED_MEDIA + " ("
+            + KEY_DOWNLOAD_URL + ")";
+
+    // Partial indexes that only contain the downloaded and the played media, for the download list and the history
+    static final String CREATE_INDEX_FEEDMEDIA_DOWNLOADED = "CREATE INDEX "
+            + TABLE_NAME_FEED_MEDIA + "_" + KEY_DOWNLOAD_DATE + " ON " + TABLE_NAME_FEED_MEDIA + " ("
+            + KEY_DOWNLOAD_DATE + ") WHERE " + KEY_DOWNLOAD_DATE + " > 0";
+
+    static final String CREATE_INDEX_FEEDMEDIA_COMPLETION_DATE = "CREATE INDEX "
+            + TABLE_NAME_FEED_MEDIA + "_" + KEY_LAST_PLAYED_TIME_HISTORY + " ON " + TABLE_NAME_FEED_MEDIA + " ("
+            + KEY_LAST_PLAYED_TIME_HISTORY + ", " + KEY_FEEDITEM + ") WHERE " + KEY_LAST_PLAYED_TIME_HISTORY + " > 0";
+
     static final String CREATE_INDEX_SIMPLECHAPTERS_FEEDITEM = "CREATE INDEX "
             + TABLE_NAME_SIMPLECHAPTERS + "_" + KEY_FEEDITEM + " ON " + TABLE_NAME_SIMPLECHAPTERS + " ("
             + KEY_FEEDITEM + ")";
 
+    static final String CREATE_INDEX_SYNC_EPISODE_ACTIONS_EPISODE = "CREATE INDEX "
+            + TABLE_NAME_SYNC_EPISODE_ACTIONS + "_" + KEY_EPISODE + " ON " + TABLE_NAME_SYNC_EPISODE_ACTIONS + " ("
+            + KEY_EPISODE + ")";
+
     static final String CREATE_TABLE_FAVORITES = "CREATE TABLE "
             + TABLE_NAME_FAVORITES + "(" + KEY_ID + " INTEGER PRIMARY KEY,"
             + KEY_FEEDITEM + " INTEGER," + KEY_FEED + " INTEGER)";
 
+    // Full-text indexes. The text itself is only stored in the content tables, triggers keep the index in sync.
+    private static final String CREATE_TABLE_FEED_ITEMS_FTS = "CREATE VIRTUAL TABLE "
+            + TABLE_NAME_FEED_ITEMS_FTS + " USING fts4(content=\"" + TABLE_NAME_FEED_ITEMS + "\", "
+            + KEY_TITLE + ", " + KEY_DESCRIPTION;
+
+    private static final String CREATE_TABLE_FEEDS_FTS = "CREATE VIRTUAL TABLE "
+            + TABLE_NAME_FEEDS_FTS + " USING fts4(content=\"" + TABLE_NAME_FEEDS + "\", "
+            + KEY_TITLE + ", " + KEY_CUSTOM_TITLE + ", " + KEY_AUTHOR + ", " + KEY_DESCRIPTION;
+
+    private static final String FTS_TOKENIZER = ", tokenize=unicode61)";
+
+    private static final String[] CREATE_TRIGGERS_FEED_ITEMS_FTS = createFullTextTriggers(
+            TABLE_NAME_FEED_ITEMS, TABLE_NAME_FEED_ITEMS_FTS, KEY_TITLE, KEY_DESCRIPTION);
+
+    private static final String[] CREATE_TRIGGERS_FEEDS_FTS = createFullTextTriggers(
+            TABLE_NAME_FEEDS, TABLE_NAME_FEEDS_FTS, KEY_TITLE, KEY_CUSTOM_TITLE, KEY_AUTHOR, KEY_DESCRIPTION);
+
+    private static final String[] CREATE_TRIGGERS_FEED_STATS = createFeedStatsTriggers();
+
     /**
      * All the tables in the database
      */
@@ -258,7 +383,9 @@ public class PodDBAdapter {
             TABLE_NAME_DOWNLOAD_LOG,
             TABLE_NAME_QUEUE,
             TABLE_NAME_SIMPLECHAPTERS,
-            TABLE_NAME_FAVORITES
+            TABLE_NAME_FAVORITES,
+            TABLE_NAME_FEED_STATS,
+            TABLE_NAME_SYNC_EPISODE_ACTIONS
     };
 
     public static final String SELECT_KEY_ITEM_ID = "item_id";
@@ -335,34 +462,59 @@ public class PodDBAdapter {
             + TABLE_NAME_FEEDS + "." + KEY_FEED_SKIP_ENDING + ", "
             + TABLE_NAME_FEEDS + "." + KEY_EPISODE_NOTIFICATION + ", "
             + TABLE_NAME_FEEDS + "." + KEY_STATE + ", "
-            + TABLE_NAME_FEEDS + "." + KEY_NEW_EPISODES_ACTION;
+            + TABLE_NAME_FEEDS + "." + KEY_NEW_EPISODES_ACTION + ", "
+            + TABLE_NAME_FEEDS + "." + KEY_CONTENT_HASH + ", "
+            + TABLE_NAME_FEEDS + "." + KEY_ETAG + ", "
+            + TABLE_NAME_FEEDS + "." + KEY_CACHE_EXPIRES;
 
     private static final String JOIN_FEED_ITEM_AND_MEDIA = " LEFT JOIN " + TABLE_NAME_FEED_MEDIA
             + " ON " + TABLE_NAME_FEED_ITEMS + "." + KEY_ID + "=" + TABLE_NAME_FEED_MEDIA + "." + KEY_FEEDITEM + " ";
 
-    private static final String SELECT_FEED_ITEMS_AND_MEDIA_WITH_DESCRIPTION =
-            "SELECT " + KEYS_FEED_ITEM_WITHOUT_DESCRIPTION + ", " + KEYS_FEED_MEDIA + ", "
-                    + TABLE_NAME_FEED_ITEMS + "." + KEY_DESCRIPTION
-            + " FROM " + TABLE_NAME_FEED_ITEMS
-            + JOIN_FEED_ITEM_AND_MEDIA;
     private static final String SELECT_FEED_ITEMS_AND_MEDIA =
             "SELECT " + KEYS_FEED_ITEM_WITHOUT_DESCRIPTION + ", " + KEYS_FEED_MEDIA
             + " FROM " + TABLE_NAME_FEED_ITEMS
             + JOIN_FEED_ITEM_AND_MEDIA;
+
+    /**
+     * Like {@link #SELECT_FEED_ITEMS_AND_MEDIA}, with the joins needed by the WHERE clause of the filter.
+     */
+    private static String selectFeedItemsAndMedia(FeedItemFilter filter) {
+        return "SELECT " + KEYS_FEED_ITEM_WITHOUT_DESCRIPTION + ", " + KEYS_FEED_MEDIA
+                + " FROM " + TABLE_NAME_FEED_ITEMS
+                + FeedItemFilterQuery.generateJoinsFrom(filter);
+    }
     public static final String SELECT_WHERE_FEED_IS_SUBSCRIBED = TABLE_NAME_FEED_ITEMS + "." + KEY_FEED
             + " IN (SELECT " + KEY_ID + " FROM " + TABLE_NAME_FEEDS
             + " WHERE " + KEY_STATE + "=" + Feed.STATE_SUBSCRIBED + ")";
 
+    private static final String SELECT_WHERE_STATS_FEED_IS_SUBSCRIBED = TABLE_NAME_FEED_STATS + "." + KEY_FEED
+            + " IN (SELECT " + KEY_ID + " FROM " + TABLE_NAME_FEEDS
+            + " WHERE " + KEY_STATE + "=" + Feed.STATE_SUBSCRIBED + ")";
+
     private static Context context;
     private static PodDBAdapter instance;
+    private static boolean writeAheadLoggingEnabled = false;
 
     private final SQLiteDatabase db;
     private final PodDBHelper dbHelper;
+    // Statistics for the methods that save whole objects, not synchronized
+    private long changedRowsWritten = 0;
+    private long unchangedRowsSkipped = 0;
 
     public static void init(Context context) {
         PodDBAdapter.context = context.getApplicationContext();
     }
 
+    /**
+     * Opens the database in write-ahead logging mode. Queries that are not part of a transaction then run on
+     * the platform's bounded pool of read-only connections, while all writes (usually from DBWriter's
+     * DatabaseExecutor) go through the single primary connection. This way, readers do not have to wait
+     * for a feed refresh to commit. Must be called before the first call to {@link #getInstance()}.
+     */
+    public static void setWriteAheadLoggingEnabled(boolean enabled) {
+        PodDBAdapter.writeAheadLoggingEnabled = enabled;
+    }
+
     public static synchronized PodDBAdapter getInstance() {
         if (instance == null) {
             instance = new PodDBAdapter();
@@ -379,7 +531,12 @@ public class PodDBAdapter {
         SQLiteDatabase newDb;
         try {
             newDb = dbHelper.getWritableDatabase();
-            newDb.disableWriteAheadLogging();
+            if (writeAheadLoggingEnabled && newDb.enableWriteAheadLogging()) {
+                runPragma(newDb, "PRAGMA wal_autocheckpoint=" + WAL_AUTOCHECKPOINT_PAGES);
+                runPragma(newDb, "PRAGMA journal_size_limit=" + WAL_JOURNAL_SIZE_LIMIT);
+            } else {
+                newDb.disableWriteAheadLogging();
+            }
         } catch (SQLException ex) {
             Log.e(TAG, Log.getStackTraceString(ex));
             newDb = dbHelper.getReadableDatabase();
@@ -387,6 +544,86 @@ public class PodDBAdapter {
         return newDb;
     }
 
+    private static void runPragma(SQLiteDatabase db, String pragma) {
+        try (Cursor cursor = db.rawQuery(pragma, null)) {
+            cursor.moveToFirst();
+        }
+    }
+
+    /**
+     * Copies all pages from the write-ahead log back into the database file and truncates the log.
+     * Does nothing if the database is not in WAL mode. Must not be called within a transaction.
+     *
+     * @return Whether all pages were copied. This fails while other connections still read from the log.
+     */
+    public boolean checkpointWriteAheadLog() {
+        if (!db.isWriteAheadLoggingEnabled()) {
+            return true;
+        }
+        if (db.inTransaction()) {
+            Log.w(TAG, "Cannot checkpoint the write-ahead log within a transaction");
+            return false;
+        }
+        try (Cursor cursor = db.rawQuery("PRAGMA wal_checkpoint(TRUNCATE)", null)) {
+            if (!cursor.moveToFirst()) {
+                return false;
+            }
+            // Columns: busy, pages in the log, pages copied into the database
+            boolean complete = cursor.getInt(0) == 0 && cursor.getInt(1) == cursor.getInt(2);
+            if (!complete) {
+                Log.d(TAG, "Checkpoint incomplete: busy=" + cursor.getInt(0) + ", log=" + cursor.getInt(1)
+                        + ", checkpointed=" + cursor.getInt(2));
+            }
+            return complete;
+        } catch (SQLException e) {
+            Log.e(TAG, Log.getStackTraceString(e));
+            return false;
+        }
+    }
+
+    /**
+     * Copies the database file after moving all changes from the write-ahead log into it.
+     * Other threads cannot write to the database while the file is copied.
+     *
+     * @return The number of bytes copied
+     * @throws IOException if the file could not be copied or the log could not be checkpointed completely
+     */
+    public int copyDatabaseFile(OutputStream out) throws IOException {
+        File walFile = new File(db.getPath() + "-wal");
+        for (int attempt = 0; attempt < COPY_DATABASE_ATTEMPTS; attempt++) {
+            boolean checkpointed = checkpointWriteAheadLog();
+            // Holds the write lock, so that the log stays empty until the copy is done
+            db.beginTransaction();
+            try {
+                if (checkpointed && walFile.length() == 0) {
+                    try (InputStream in = new FileInputStream(db.getPath())) {
+                        return IOUtils.copy(in, out);
+                    }
+                }
+            } finally {
+                db.endTransaction();
+            }
+            try {
+                Thread.sleep(COPY_DATABASE_RETRY_DELAY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for the write-ahead log", e);
+            }
+        }
+        throw new IOException("Unable to move all changes from the write-ahead log into the database file");
+    }
+
+    private void checkpointWriteAheadLogIfLarge() {
+        if (!db.isWriteAheadLoggingEnabled()) {
+            return;
+        }
+        File walFile = new File(db.getPath() + "-wal");
+        if (walFile.length() > WAL_TRUNCATE_THRESHOLD) {
+            Log.d(TAG, "Write-ahead log has grown to " + walFile.length() + " bytes, truncating");
+            checkpointWriteAheadLog();
+        }
+    }
+
     public synchronized PodDBAdapter open() {
         // do nothing
         return this;
@@ -410,6 +647,227 @@ public class PodDBAdapter {
     public static void tearDownTests() {
         getInstance().dbHelper.close();
         instance = null;
+        FeedDataCache.invalidateAll();
+    }
+
+    /**
+     * Creates the full-text index tables and the triggers that keep them up to date.
+     * Existing rows are not indexed, see {@link #rebuildFullTextIndex(SQLiteDatabase)}.
+     */
+    static void createFullTextIndex(SQLiteDatabase db) {
+        createFullTextTable(db, CREATE_TABLE_FEED_ITEMS_FTS);
+        createFullTextTable(db, CREATE_TABLE_FEEDS_FTS);
+        for (String trigger : CREATE_TRIGGERS_FEED_ITEMS_FTS) {
+            db.execSQL(trigger);
+        }
+        for (String trigger : CREATE_TRIGGERS_FEEDS_FTS) {
+            db.execSQL(trigger);
+        }
+    }
+
+    private static void createFullTextTable(SQLiteDatabase db, String createStatement) {
+        try {
+            db.execSQL(createStatement + FTS_TOKENIZER);
+        } catch (SQLException e) {
+            // Tokenizer not compiled into this SQLite version. The default one only folds ASCII letters.
+            Log.w(TAG, "unicode61 tokenizer not available: " + e.getMessage());
+            db.execSQL(createStatement + ")");
+        }
+    }
+
+    /**
+     * Indexes all rows that already exist in the content tables.
+     */
+    static void rebuildFullTextIndex(SQLiteDatabase db) {
+        db.execSQL("INSERT INTO " + TABLE_NAME_FEED_ITEMS_FTS + "(" + TABLE_NAME_FEED_ITEMS_FTS
+                + ") VALUES('rebuild')");
+        db.execSQL("INSERT INTO " + TABLE_NAME_FEEDS_FTS + "(" + TABLE_NAME_FEEDS_FTS + ") VALUES('rebuild')");
+    }
+
+    /**
+     * Empties the full-text index, like it is for existing rows before the upgrade that created it.
+     */
+    @VisibleForTesting(otherwise = VisibleForTesting.NONE)
+    void clearFullTextIndex() {
+        // Removes the index entries of all rows that are still in the content tables
+        db.execSQL("DELETE FROM " + TABLE_NAME_FEED_ITEMS_FTS);
+        db.execSQL("DELETE FROM " + TABLE_NAME_FEEDS_FTS);
+    }
+
+    @VisibleForTesting(otherwise = VisibleForTesting.NONE)
+    void rebuildFullTextIndex() {
+        rebuildFullTextIndex(db);
+    }
+
+    /**
+     * External content FTS4 tables read the old values from the content table when deleting from the index,
+     * so the index entries need to be removed before the content row changes.
+     */
+    private static String[] createFullTextTriggers(String table, String ftsTable, String... columns) {
+        StringBuilder changed = new StringBuilder();
+        StringBuilder newValues = new StringBuilder();
+        for (String column : columns) {
+            if (changed.length() > 0) {
+                changed.append(" OR ");
+                newValues.append(", ");
+            }
+            changed.append("old.").append(column).append(" IS NOT new.").append(column);
+            newValues.append("new.").append(column);
+        }
+        String columnList = TextUtils.join(", ", columns);
+        String deleteFromIndex = " BEGIN DELETE FROM " + ftsTable + " WHERE docid=old." + KEY_ID + "; END";
+        String insertIntoIndex = " BEGIN INSERT INTO " + ftsTable + "(docid, " + columnList + ")"
+                + " VALUES(new." + KEY_ID + ", " + newValues + "); END";
+        return new String[] {
+            "CREATE TRIGGER " + ftsTable + "_bd BEFORE DELETE ON " + table + deleteFromIndex,
+            "CREATE TRIGGER " + ftsTable + "_bu BEFORE UPDATE OF " + columnList + " ON " + table
+                    + " WHEN " + changed + deleteFromIndex,
+            "CREATE TRIGGER " + ftsTable + "_au AFTER UPDATE OF " + columnList + " ON " + table
+                    + " WHEN " + changed + insertIntoIndex,
+            "CREATE TRIGGER " + ftsTable + "_ai AFTER INSERT ON " + table + insertIntoIndex,
+        };
+    }
+
+    /**
+     * Creates the table with the counters of each feed and the triggers that update it
+     * in the same transaction as the items and media. Existing rows are not counted,
+     * see {@link #rebuildFeedStats(SQLiteDatabase)}.
+     */
+    static void createFeedStats(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_FEED_STATS);
+        for (String trigger : CREATE_TRIGGERS_FEED_STATS) {
+            db.execSQL(trigger);
+        }
+    }
+
+    /**
+     * Counts all items again. The triggers keep the counters up to date, so this is only needed
+     * when the table was just created or if the counters are suspected to be wrong.
+     */
+    static void rebuildFeedStats(SQLiteDatabase db) {
+        String read = TABLE_NAME_FEED_ITEMS + "." + KEY_READ;
+        String downloaded = isDownloaded(TABLE_NAME_FEED_MEDIA + "." + KEY_DOWNLOAD_DATE);
+        db.execSQL("DELETE FROM " + TABLE_NAME_FEED_STATS);
+        db.execSQL("INSERT INTO " + TABLE_NAME_FEED_STATS + "(" + KEY_FEED + ", " + KEY_COUNT_NEW + ", "
+                + KEY_COUNT_UNPLAYED + ", " + KEY_COUNT_DOWNLOADED + ", " + KEY_COUNT_DOWNLOADED_UNPLAYED + ", "
+                + KEY_COUNT_PLAYED + ", " + KEY_LATEST_PUBDATE + ")"
+                + " SELECT " + TABLE_NAME_FEED_ITEMS + "." + KEY_FEED + ", SUM(" + isNew(read) + "), "
+                + "SUM(" + isUnplayed(read) + "), SUM(" + downloaded + "), "
+                + "SUM(" + downloaded + " AND " + isUnplayed(read) + "), SUM(" + isPlayed(read) + "), "
+                + "IFNULL(MAX(" + TABLE_NAME_FEED_ITEMS + "." + KEY_PUBDATE + "), 0)"
+                + " FROM " + TABLE_NAME_FEED_ITEMS + JOIN_FEED_ITEM_AND_MEDIA
+                + " GROUP BY " + TABLE_NAME_FEED_ITEMS + "." + KEY_FEED);
+    }
+
+    /**
+     * Counts all items again, see {@link #rebuildFeedStats(SQLiteDatabase)}.
+     */
+    public void rebuildFeedStats() {
+        try {
+            db.beginTransactionNonExclusive();
+            rebuildFeedStats(db);
+            db.setTransactionSuccessful();
+        } catch (SQLException e) {
+            Log.e(TAG, Log.getStackTraceString(e));
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * The triggers subtract the old values of a changed row from the counters and add the new values.
+     * A media row only changes the counters while its item exists, so the order in which an item
+     * and its media are deleted does not matter.
+     */
+    private static String[] createFeedStatsTriggers() {
+        String createRow = "INSERT OR IGNORE INTO " + TABLE_NAME_FEED_STATS + "(" + KEY_FEED + ") VALUES(new."
+                + KEY_FEED + "); ";
+        String recountLatestOfOldFeed = updateLatestPubDate(KEY_FEED + "=old." + KEY_FEED
+                + " AND " + KEY_LATEST_PUBDATE + "<=old." + KEY_PUBDATE);
+        String oldDownloaded = isDownloaded("old." + KEY_DOWNLOAD_DATE);
+        String newDownloaded = isDownloaded("new." + KEY_DOWNLOAD_DATE);
+        return new String[] {
+            "CREATE TRIGGER " + TABLE_NAME_FEED_STATS + "_items_ai AFTER INSERT ON " + TABLE_NAME_FEED_ITEMS
+                    + " BEGIN " + createRow + changeItemCounters("+", "new")
+                    + "UPDATE " + TABLE_NAME_FEED_STATS + " SET " + KEY_LATEST_PUBDATE + "=new." + KEY_PUBDATE
+                    + " WHERE " + KEY_FEED + "=new." + KEY_FEED + " AND " + KEY_LATEST_PUBDATE + "<new." + KEY_PUBDATE
+                    + "; END",
+            "CREATE TRIGGER " + TABLE_NAME_FEED_STATS + "_items_ad AFTER DELETE ON " + TABLE_NAME_FEED_ITEMS
+                    + " BEGIN " + changeItemCounters("-", "old") + recountLatestOfOldFeed + " END",
+            "CREATE TRIGGER " + TABLE_NAME_FEED_STATS + "_items_au AFTER UPDATE OF " + KEY_READ + ", " + KEY_FEED
+                    + " ON " + TABLE_NAME_FEED_ITEMS
+                    + " WHEN old." + KEY_READ + " IS NOT new." + KEY_READ
+                    + " OR old." + KEY_FEED + " IS NOT new." + KEY_FEED
+                    + " BEGIN " + createRow + changeItemCounters("-", "old") + changeItemCounters("+", "new")
+                    + " END",
+            "CREATE TRIGGER " + TABLE_NAME_FEED_STATS + "_items_date_au AFTER UPDATE OF " + KEY_PUBDATE + ", "
+                    + KEY_FEED + " ON " + TABLE_NAME_FEED_ITEMS
+                    + " WHEN old." + KEY_PUBDATE + " IS NOT new." + KEY_PUBDATE
+                    + " OR old." + KEY_FEED + " IS NOT new." + KEY_FEED
+                    + " BEGIN " + updateLatestPubDate(KEY_FEED + " IN (old." + KEY_FEED + ", new." + KEY_FEED + ")")
+                    + " END",
+            "CREATE TRIGGER " + TABLE_NAME_FEED_STATS + "_media_ai AFTER INSERT ON " + TABLE_NAME_FEED_MEDIA
+                    + " BEGIN " + changeMediaCounters("+", "new") + " END",
+            "CREATE TRIGGER " + TABLE_NAME_FEED_STATS + "_media_ad AFTER DELETE ON " + TABLE_NAME_FEED_MEDIA
+                    + " BEGIN " + changeMediaCounters("-", "old") + " END",
+            "CREATE TRIGGER " + TABLE_NAME_FEED_STATS + "_media_au AFTER UPDATE OF " + KEY_DOWNLOAD_DATE + ", "
+                    + KEY_FEEDITEM + " ON " + TABLE_NAME_FEED_MEDIA
+                    + " WHEN " + oldDownloaded + " IS NOT " + newDownloaded
+                    + " OR old." + KEY_FEEDITEM + " IS NOT new." + KEY_FEEDITEM
+                    + " BEGIN " + changeMediaCounters("-", "old") + changeMediaCounters("+", "new") + " END",
+            "CREATE TRIGGER " + TABLE_NAME_FEED_STATS + "_feeds_ad AFTER DELETE ON " + TABLE_NAME_FEEDS
+                    + " BEGIN DELETE FROM " + TABLE_NAME_FEED_STATS + " WHERE " + KEY_FEED + "=old." + KEY_ID + "; END",
+        };
+    }
+
+    private static String changeItemCounters(String sign, String row) {
+        String read = row + "." + KEY_READ;
+        String downloaded = "(EXISTS (SELECT 1 FROM " + TABLE_NAME_FEED_MEDIA + " WHERE " + KEY_FEEDITEM + "="
+                + row + "." + KEY_ID + " AND " + KEY_DOWNLOAD_DATE + ">0))";
+        return "UPDATE " + TABLE_NAME_FEED_STATS + " SET "
+                + KEY_COUNT_NEW + "=" + KEY_COUNT_NEW + sign + isNew(read) + ", "
+                + KEY_COUNT_UNPLAYED + "=" + KEY_COUNT_UNPLAYED + sign + isUnplayed(read) + ", "
+                + KEY_COUNT_PLAYED + "=" + KEY_COUNT_PLAYED + sign + isPlayed(read) + ", "
+                + KEY_COUNT_DOWNLOADED + "=" + KEY_COUNT_DOWNLOADED + sign + downloaded + ", "
+                + KEY_COUNT_DOWNLOADED_UNPLAYED + "=" + KEY_COUNT_DOWNLOADED_UNPLAYED + sign
+                + "(" + downloaded + " AND " + isUnplayed(read) + ")"
+                + " WHERE " + KEY_FEED + "=" + row + "." + KEY_FEED + "; ";
+    }
+
+    private static String changeMediaCounters(String sign, String row) {
+        String downloaded = isDownloaded(row + "." + KEY_DOWNLOAD_DATE);
+        String unplayed = "IFNULL((SELECT " + isUnplayed(KEY_READ) + " FROM " + TABLE_NAME_FEED_ITEMS
+                + " WHERE " + KEY_ID + "=" + row + "." + KEY_FEEDITEM + "), 0)";
+        return "UPDATE " + TABLE_NAME_FEED_STATS + " SET "
+                + KEY_COUNT_DOWNLOADED + "=" + KEY_COUNT_DOWNLOADED + sign + downloaded + ", "
+                + KEY_COUNT_DOWNLOADED_UNPLAYED + "=" + KEY_COUNT_DOWNLOADED_UNPLAYED + sign
+                + "(" + downloaded + " AND " + unplayed + ")"
+                + " WHERE " + KEY_FEED + "=(SELECT " + KEY_FEED + " FROM " + TABLE_NAME_FEED_ITEMS
+                + " WHERE " + KEY_ID + "=" + row + "." + KEY_FEEDITEM + "); ";
+    }
+
+    private static String updateLatestPubDate(String where) {
+        return "UPDATE " + TABLE_NAME_FEED_STATS + " SET " + KEY_LATEST_PUBDATE
+                + "=(SELECT IFNULL(MAX(" + KEY_PUBDATE + "), 0) FROM " + TABLE_NAME_FEED_ITEMS
+                + " WHERE " + TABLE_NAME_FEED_ITEMS + "." + KEY_FEED + "=" + TABLE_NAME_FEED_STATS + "." + KEY_FEED
+                + ") WHERE " + where + ";";
+    }
+
+    // The conditions never return NULL, so they can be added to the counters
+    private static String isNew(String read) {
+        return "(" + read + " IS " + FeedItem.NEW + ")";
+    }
+
+    private static String isUnplayed(String read) {
+        return "(" + read + " IS " + FeedItem.NEW + " OR " + read + " IS " + FeedItem.UNPLAYED + ")";
+    }
+
+    private static String isPlayed(String read) {
+        return "(" + read + " IS " + FeedItem.PLAYED + ")";
+    }
+
+    private static String isDownloaded(String downloadDate) {
+        return "(IFNULL(" + downloadDate + ", 0)>0)";
     }
 
     public static boolean deleteDatabase() {
@@ -419,6 +877,7 @@ public class PodDBAdapter {
             for (String tableName : ALL_TABLES) {
                 adapter.db.delete(tableName, "1", null);
             }
+            FeedDataCache.invalidateAll();
             return true;
         } finally {
             adapter.close();
@@ -431,32 +890,80 @@ public class PodDBAdapter {
      * @return the id of the entry
      */
     private long setFeed(Feed feed) {
+        final int changed = feed.getId() == 0 ? Feed.ALL_FIELDS : feed.getChangedFields();
+        if (changed == 0) {
+            unchangedRowsSkipped++;
+            feed.stopTrackingChanges();
+            return feed.getId();
+        }
         ContentValues values = new ContentValues();
-        values.put(KEY_TITLE, feed.getFeedTitle());
-        values.put(KEY_LINK, feed.getLink());
-        values.put(KEY_DESCRIPTION, feed.getDescription());
-        values.put(KEY_PAYMENT_LINK, FeedFunding.getPaymentLinksAsString(feed.getPaymentLinks()));
-        values.put(KEY_AUTHOR, feed.getAuthor());
-        values.put(KEY_LANGUAGE, feed.getLanguage());
-        values.put(KEY_IMAGE_URL, feed.getImageUrl());
-
-        values.put(KEY_FILE_URL, feed.getLocalFileUrl());
-        values.put(KEY_DOWNLOAD_URL, feed.getDownloadUrl());
-        values.put(KEY_LAST_REFRESH_ATTEMPT, feed.getLastRefreshAttempt());
-        values.put(KEY_LASTUPDATE, feed.getLastModified());
-        values.put(KEY_TYPE, feed.getType());
-        values.put(KEY_FEED_IDENTIFIER, feed.getFeedIdentifier());
-        values.put(KEY_STATE, feed.getState());
-
-        values.put(KEY_IS_PAGED, feed.isPaged());
-        values.put(KEY_NEXT_PAGE_LINK, feed.getNextPageLink());
-        if (feed.getItemFilter() != null && feed.getItemFilter().getValues().length > 0) {
-            values.put(KEY_HIDE, TextUtils.join(",", feed.getItemFilter().getValues()));
-        } else {
-            values.put(KEY_HIDE, "");
+        if ((changed & Feed.FIELD_TITLE) != 0) {
+            values.put(KEY_TITLE, feed.getFeedTitle());
+        }
+        if ((changed & Feed.FIELD_LINK) != 0) {
+            values.put(KEY_LINK, feed.getLink());
+        }
+        if ((changed & Feed.FIELD_DESCRIPTION) != 0) {
+            values.put(KEY_DESCRIPTION, feed.getDescription());
+        }
+        if ((changed & Feed.FIELD_PAYMENT_LINKS) != 0) {
+            values.put(KEY_PAYMENT_LINK, FeedFunding.getPaymentLinksAsString(feed.getPaymentLinks()));
+        }
+        if ((changed & Feed.FIELD_AUTHOR) != 0) {
+            values.put(KEY_AUTHOR, feed.getAuthor());
+        }
+        if ((changed & Feed.FIELD_LANGUAGE) != 0) {
+            values.put(KEY_LANGUAGE, feed.getLanguage());
+        }
+        if ((changed & Feed.FIELD_IMAGE_URL) != 0) {
+            values.put(KEY_IMAGE_URL, feed.getImageUrl());
+        }
+
+        if ((changed & Feed.FIELD_FILE_URL) != 0) {
+            values.put(KEY_FILE_URL, feed.getLocalFileUrl());
+        }
+        if ((changed & Feed.FIELD_DOWNLOAD_URL) != 0) {
+            values.put(KEY_DOWNLOAD_URL, feed.getDownloadUrl());
+        }
+        if ((changed & Feed.FIELD_LAST_REFRESH_ATTEMPT) != 0) {
+            values.put(KEY_LAST_REFRESH_ATTEMPT, feed.getLastRefreshAttempt());
+        }
+        if ((changed & Feed.FIELD_LAST_MODIFIED) != 0) {
+            values.put(KEY_LASTUPDATE, feed.getLastModified());
+            values.put(KEY_CONTENT_HASH, feed.getContentHash());
+            values.put(KEY_ETAG, feed.getEtag());
+        }
+        if ((changed & Feed.FIELD_CACHE_EXPIRES) != 0) {
+            values.put(KEY_CACHE_EXPIRES, feed.getCacheExpires());
+        }
+        if ((changed & Feed.FIELD_TYPE) != 0) {
+            values.put(KEY_TYPE, feed.getType());
+        }
+        if ((changed & Feed.FIELD_FEED_IDENTIFIER) != 0) {
+            values.put(KEY_FEED_IDENTIFIER, feed.getFeedIdentifier());
+        }
+        if ((changed & Feed.FIELD_STATE) != 0) {
+            values.put(KEY_STATE, feed.getState());
+        }
+
+        if ((changed & Feed.FIELD_PAGED) != 0) {
+            values.put(KEY_IS_PAGED, feed.isPaged());
+            values.put(KEY_NEXT_PAGE_LINK, feed.getNextPageLink());
+        }
+        if (changed == Feed.ALL_FIELDS) {
+            // The filter is only changed with setFeedItemFilter()
+            if (feed.getItemFilter() != null && feed.getItemFilter().getValues().length > 0) {
+                values.put(KEY_HIDE, TextUtils.join(",", feed.getItemFilter().getValues()));
+            } else {
+                values.put(KEY_HIDE, "");
+            }
+        }
+        if ((changed & Feed.FIELD_SORT_ORDER) != 0) {
+            values.put(KEY_SORT_ORDER, toCodeString(feed.getSortOrder()));
+        }
+        if ((changed & Feed.FIELD_LAST_UPDATE_FAILED) != 0) {
+            values.put(KEY_LAST_UPDATE_FAILED, feed.hasLastUpdateFailed());
         }
-        values.put(KEY_SORT_ORDER, toCodeString(feed.getSortOrder()));
-        values.put(KEY_LAST_UPDATE_FAILED, feed.hasLastUpdateFailed());
         if (feed.getId() == 0) {
             // Create new entry
             Log.d(this.toString(), "Inserting new Feed into db");
@@ -466,6 +973,8 @@ public class PodDBAdapter {
             db.update(TABLE_NAME_FEEDS, values, KEY_ID + "=?",
                     new String[]{String.valueOf(feed.getId())});
         }
+        changedRowsWritten++;
+        feed.stopTrackingChanges();
         return feed.getId();
     }
 
@@ -491,6 +1000,7 @@ public class PodDBAdapter {
         values.put(KEY_EPISODE_NOTIFICATION, prefs.getShowEpisodeNotification());
         values.put(KEY_NEW_EPISODES_ACTION, prefs.getNewEpisodesAction().code);
         db.update(TABLE_NAME_FEEDS, values, KEY_ID + "=?", new String[]{String.valueOf(prefs.getFeedID())});
+        FeedDataCache.FEEDS.invalidate();
     }
 
     public void setFeedItemFilter(long feedId, Set<String> filterValues) {
@@ -500,12 +1010,14 @@ public class PodDBAdapter {
         ContentValues values = new ContentValues();
         values.put(KEY_HIDE, valuesList);
         db.update(TABLE_NAME_FEEDS, values, KEY_ID + "=?", new String[]{String.valueOf(feedId)});
+        FeedDataCache.FEEDS.invalidate();
     }
 
     public void setFeedItemSortOrder(long feedId, @Nullable SortOrder sortOrder) {
         ContentValues values = new ContentValues();
         values.put(KEY_SORT_ORDER, toCodeString(sortOrder));
         db.update(TABLE_NAME_FEEDS, values, KEY_ID + "=?", new String[]{String.valueOf(feedId)});
+        FeedDataCache.FEEDS.invalidate();
     }
 
     /**
@@ -514,31 +1026,74 @@ public class PodDBAdapter {
      * @return the id of the entry
      */
     public long setMedia(FeedMedia media) {
+        try (FeedItemStatements statements = new FeedItemStatements(db)) {
+            return setMedia(media, statements);
+        }
+    }
+
+    private long setMedia(FeedMedia media, FeedItemStatements statements) {
+        final int changed = media.getId() == 0 ? FeedMedia.ALL_FIELDS : media.getChangedFields();
+        if (changed == 0) {
+            unchangedRowsSkipped++;
+            media.stopTrackingChanges();
+            return media.getId();
+        } else if (changed == FeedMedia.ALL_FIELDS) {
+            if (media.getId() == 0) {
+                media.setId(statements.insertMedia(media));
+            } else {
+                statements.updateMedia(media);
+            }
+            changedRowsWritten++;
+            media.stopTrackingChanges();
+            return media.getId();
+        }
         ContentValues values = new ContentValues();
-        values.put(KEY_DURATION, media.getDuration());
-        values.put(KEY_POSITION, media.getPosition());
-        values.put(KEY_SIZE, media.getSize());
-        values.put(KEY_MIME_TYPE, media.getMimeType());
-        values.put(KEY_DOWNLOAD_URL, media.getDownloadUrl());
-        values.put(KEY_DOWNLOAD_DATE, media.getDownloadDate());
-        values.put(KEY_FILE_URL, media.getLocalFileUrl());
-        values.put(KEY_HAS_EMBEDDED_PICTURE, media.hasEmbeddedPicture());
-        values.put(KEY_LAST_PLAYED_TIME_STATISTICS, media.getLastPlayedTimeStatistics());
-
-        if (media.getLastPlayedTimeHistory() != null) {
-            values.put(KEY_LAST_PLAYED_TIME_HISTORY, media.getLastPlayedTimeHistory().getTime());
-        } else {
-            values.put(KEY_LAST_PLAYED_TIME_HISTORY, 0);
+        if ((changed & FeedMedia.FIELD_DURATION) != 0) {
+            values.put(KEY_DURATION, media.getDuration());
+        }
+        if ((changed & FeedMedia.FIELD_POSITION) != 0) {
+            values.put(KEY_POSITION, media.getPosition());
+        }
+        if ((changed & FeedMedia.FIELD_SIZE) != 0) {
+            values.put(KEY_SIZE, media.getSize());
+        }
+        if ((changed & FeedMedia.FIELD_MIME_TYPE) != 0) {
+            values.put(KEY_MIME_TYPE, media.getMimeType());
+        }
+        if ((changed & FeedMedia.FIELD_DOWNLOAD_URL) != 0) {
+            values.put(KEY_DOWNLOAD_URL, media.getDownloadUrl());
         }
-        if (media.getItem() != null) {
+        if ((changed & FeedMedia.FIELD_DOWNLOAD_DATE) != 0) {
+            values.put(KEY_DOWNLOAD_DATE, media.getDownloadDate());
+        }
+        if ((changed & FeedMedia.FIELD_FILE_URL) != 0) {
+            values.put(KEY_FILE_URL, media.getLocalFileUrl());
+        }
+        if ((changed & FeedMedia.FIELD_EMBEDDED_PICTURE) != 0) {
+            values.put(KEY_HAS_EMBEDDED_PICTURE, media.hasEmbeddedPicture());
+        }
+        if ((changed & FeedMedia.FIELD_LAST_PLAYED_TIME_STATISTICS) != 0) {
+            values.put(KEY_LAST_PLAYED_TIME_STATISTICS, media.getLastPlayedTimeStatistics());
+        }
+
+        if ((changed & FeedMedia.FIELD_LAST_PLAYED_TIME_HISTORY) != 0) {
+            if (media.getLastPlayedTimeHistory() != null) {
+                values.put(KEY_LAST_PLAYED_TIME_HISTORY, media.getLastPlayedTimeHistory().getTime());
+            } else {
+                values.put(KEY_LAST_PLAYED_TIME_HISTORY, 0);
+            }
+        }
+        if ((changed & FeedMedia.FIELD_ITEM) != 0 && media.getItem() != null) {
             values.put(KEY_FEEDITEM, media.getItem().getId());
         }
-        if (media.getId() == 0) {
-            media.setId(db.insert(TABLE_NAME_FEED_MEDIA, null, values));
-        } else {
+        if (values.size() > 0) {
             db.update(TABLE_NAME_FEED_MEDIA, values, KEY_ID + "=?",
                     new String[]{String.valueOf(media.getId())});
+            changedRowsWritten++;
+        } else {
+            unchangedRowsSkipped++;
         }
+        media.stopTrackingChanges();
         return media.getId();
     }
 
@@ -588,17 +1143,29 @@ public class PodDBAdapter {
      * transaction
      */
     public void setCompleteFeed(Feed... feeds) {
-        try {
+        final long writtenBefore = changedRowsWritten;
+        final long skippedBefore = unchangedRowsSkipped;
+        try (FeedItemStatements statements = new FeedItemStatements(db)) {
             db.beginTransactionNonExclusive();
             for (Feed feed : feeds) {
+                final boolean feedRowSkipped = feed.getId() != 0 && feed.getChangedFields() == 0;
                 setFeed(feed);
                 if (feed.getItems() != null) {
                     for (FeedItem item : feed.getItems()) {
-                        updateOrInsertFeedItem(item, false);
+                        updateOrInsertFeedItem(item, false, statements);
                     }
                 }
-                if (feed.getPreferences() != null) {
-                    setFeedPreferences(feed.getPreferences());
+                FeedPreferences prefs = feed.getPreferences();
+                if (prefs != null && prefs.isChanged()) {
+                    setFeedPreferences(prefs);
+                    if (feedRowSkipped) {
+                        // The preferences live in the feed row, so it was written after all
+                        unchangedRowsSkipped--;
+                        changedRowsWritten++;
+                    }
+                }
+                if (prefs != null) {
+                    prefs.stopTrackingChanges();
                 }
             }
             db.setTransactionSuccessful();
@@ -607,6 +1174,25 @@ public class PodDBAdapter {
         } finally {
             db.endTransaction();
         }
+        FeedDataCache.FEEDS.invalidate();
+        Log.d(TAG, "setCompleteFeed: wrote " + (changedRowsWritten - writtenBefore) + " rows, skipped "
+                + (unchangedRowsSkipped - skippedBefore) + " unchanged rows");
+        checkpointWriteAheadLogIfLarge();
+    }
+
+    /**
+     * @return The number of feed, item and media rows written by the methods that save whole objects.
+     */
+    public long getChangedRowsWritten() {
+        return changedRowsWritten;
+    }
+
+    /**
+     * @return The number of feed, item and media rows that were not written because nothing changed since
+     *         the objects were loaded, see {@link FeedItem#startTrackingChanges()}.
+     */
+    public long getUnchangedRowsSkipped() {
+        return unchangedRowsSkipped;
     }
 
     /**
@@ -616,13 +1202,25 @@ public class PodDBAdapter {
         ContentValues values = new ContentValues();
         values.put(KEY_DOWNLOAD_URL, updated);
         db.update(TABLE_NAME_FEEDS, values, KEY_DOWNLOAD_URL + "=?", new String[]{original});
+        FeedDataCache.FEEDS.invalidate();
     }
 
     public void storeFeedItemlist(List<FeedItem> items) {
-        try {
+        storeFeedItemlist(items, new LongList());
+    }
+
+    /**
+     * Saves the items and removes the given item IDs from the queue in the same transaction.
+     */
+    public void storeFeedItemlist(List<FeedItem> items, LongList removeFromQueue) {
+        try (FeedItemStatements statements = new FeedItemStatements(db)) {
             db.beginTransactionNonExclusive();
             for (FeedItem item : items) {
-                updateOrInsertFeedItem(item, true);
+                updateOrInsertFeedItem(item, true, statements);
+            }
+            for (int i = 0; i < removeFromQueue.size(); i++) {
+                db.delete(TABLE_NAME_QUEUE, KEY_FEEDITEM + "=?",
+                        new String[]{String.valueOf(removeFromQueue.get(i))});
             }
             db.setTransactionSuccessful();
         } catch (SQLException e) {
@@ -630,19 +1228,25 @@ public class PodDBAdapter {
         } finally {
             db.endTransaction();
         }
+        FeedDataCache.FEEDS.invalidate();
+        if (removeFromQueue.size() > 0) {
+            FeedDataCache.QUEUE.invalidate();
+        }
+        checkpointWriteAheadLogIfLarge();
     }
 
     public long setSingleFeedItem(FeedItem item) {
         long result = 0;
-        try {
+        try (FeedItemStatements statements = new FeedItemStatements(db)) {
             db.beginTransactionNonExclusive();
-            result = updateOrInsertFeedItem(item, true);
+            result = updateOrInsertFeedItem(item, true, statements);
             db.setTransactionSuccessful();
         } catch (SQLException e) {
             Log.e(TAG, Log.getStackTraceString(e));
         } finally {
             db.endTransaction();
         }
+        FeedDataCache.FEEDS.invalidate();
         return result;
     }
 
@@ -652,62 +1256,114 @@ public class PodDBAdapter {
      * @param item     The FeedItem
      * @param saveFeed true if the Feed of the item should also be saved. This should be set to
      *                 false if the method is executed on a list of FeedItems of the same Feed.
+     * @param statements Used for writing complete rows, shared by all items of the transaction
      * @return the id of the entry
      */
-    private long updateOrInsertFeedItem(FeedItem item, boolean saveFeed) {
+    private long updateOrInsertFeedItem(FeedItem item, boolean saveFeed, FeedItemStatements statements) {
         if (item.getId() == 0 && item.getPubDate() == null) {
             Log.e(TAG, "Newly saved item has no pubDate. Using current date as pubDate");
             item.setPubDate(new Date());
         }
 
-        ContentValues values = new ContentValues();
-        values.put(KEY_TITLE, item.getTitle());
-        values.put(KEY_LINK, item.getLink());
-        if (item.getDescription() != null) {
-            values.put(KEY_DESCRIPTION, item.getDescription());
-        }
-        values.put(KEY_PUBDATE, item.getPubDate().getTime());
-        values.put(KEY_PAYMENT_LINK, item.getPaymentLink());
         if (saveFeed && item.getFeed() != null) {
             setFeed(item.getFeed());
         }
-        values.put(KEY_FEED, item.getFeed().getId());
-        if (item.isNew()) {
-            values.put(KEY_READ, FeedItem.NEW);
-        } else if (item.isPlayed()) {
-            values.put(KEY_READ, FeedItem.PLAYED);
+        final int changed = item.getId() == 0 ? FeedItem.ALL_FIELDS : item.getChangedFields();
+        if (changed == FeedItem.ALL_FIELDS) {
+            if (item.getId() == 0) {
+                item.setId(statements.insertItem(item));
+            } else {
+                statements.updateItem(item);
+            }
+            changedRowsWritten++;
         } else {
-            values.put(KEY_READ, FeedItem.UNPLAYED);
+            updateChangedFields(item, changed);
+        }
+        item.stopTrackingChanges();
+        if (item.getMedia() != null) {
+            setMedia(item.getMedia(), statements);
+            item.getMedia().setItemId(item.getId());
+        }
+        if (item.getChapters() != null) {
+            setChapters(item, statements);
+        }
+        return item.getId();
+    }
+
+    /**
+     * Writes the fields of an item that changed since {@link FeedItem#startTrackingChanges()}.
+     */
+    private void updateChangedFields(FeedItem item, int changed) {
+        boolean descriptionWritten = false;
+        ContentValues values = new ContentValues();
+        if ((changed & FeedItem.FIELD_TITLE) != 0) {
+            values.put(KEY_TITLE, item.getTitle());
+        }
+        if ((changed & FeedItem.FIELD_LINK) != 0) {
+            values.put(KEY_LINK, item.getLink());
+        }
+        if ((changed & FeedItem.FIELD_DESCRIPTION) != 0 && item.getDescription() != null) {
+            // Descriptions are not loaded with the item, so only the database knows whether it changed
+            ContentValues descriptionValues = new ContentValues();
+            descriptionValues.put(KEY_DESCRIPTION, item.getDescription());
+            descriptionWritten = db.update(TABLE_NAME_FEED_ITEMS, descriptionValues,
+                    KEY_ID + "=? AND " + KEY_DESCRIPTION + " IS NOT ?",
+                    new String[]{String.valueOf(item.getId()), item.getDescription()}) > 0;
+        }
+        if ((changed & FeedItem.FIELD_PUBDATE) != 0) {
+            values.put(KEY_PUBDATE, item.getPubDate().getTime());
+        }
+        if ((changed & FeedItem.FIELD_PAYMENT_LINK) != 0) {
+            values.put(KEY_PAYMENT_LINK, item.getPaymentLink());
+        }
+        if ((changed & FeedItem.FIELD_FEED) != 0) {
+            values.put(KEY_FEED, item.getFeed().getId());
+        }
+        if ((changed & FeedItem.FIELD_STATE) != 0) {
+            if (item.isNew()) {
+                values.put(KEY_READ, FeedItem.NEW);
+            } else if (item.isPlayed()) {
+                values.put(KEY_READ, FeedItem.PLAYED);
+            } else {
+                values.put(KEY_READ, FeedItem.UNPLAYED);
+            }
+        }
+        if ((changed & FeedItem.FIELD_CHAPTERS) != 0) {
+            values.put(KEY_HAS_CHAPTERS, item.getChapters() != null || item.hasChapters());
+        }
+        if ((changed & FeedItem.FIELD_ITEM_IDENTIFIER) != 0) {
+            values.put(KEY_ITEM_IDENTIFIER, item.getItemIdentifier());
+        }
+        if ((changed & FeedItem.FIELD_AUTO_DOWNLOAD) != 0) {
+            values.put(KEY_AUTO_DOWNLOAD_ENABLED, item.isAutoDownloadEnabled());
+        }
+        if ((changed & FeedItem.FIELD_IMAGE_URL) != 0) {
+            values.put(KEY_IMAGE_URL, item.getImageUrl());
+        }
+        if ((changed & FeedItem.FIELD_CHAPTER_URL) != 0) {
+            values.put(KEY_PODCASTINDEX_CHAPTER_URL, item.getPodcastIndexChapterUrl());
+        }
+        if ((changed & FeedItem.FIELD_SOCIAL_INTERACT_URL) != 0) {
+            values.put(KEY_SOCIAL_INTERACT_URL, item.getSocialInteractUrl());
         }
-        values.put(KEY_HAS_CHAPTERS, item.getChapters() != null || item.hasChapters());
-        values.put(KEY_ITEM_IDENTIFIER, item.getItemIdentifier());
-        values.put(KEY_AUTO_DOWNLOAD_ENABLED, item.isAutoDownloadEnabled());
-        values.put(KEY_IMAGE_URL, item.getImageUrl());
-        values.put(KEY_PODCASTINDEX_CHAPTER_URL, item.getPodcastIndexChapterUrl());
-        values.put(KEY_SOCIAL_INTERACT_URL, item.getSocialInteractUrl());
 
         // We only store one transcript url, we prefer JSON if it exists
         String type = item.getTranscriptType();
         String url = item.getTranscriptUrl();
-        if (url != null) {
+        if ((changed & FeedItem.FIELD_TRANSCRIPT) != 0 && url != null) {
             values.put(KEY_PODCASTINDEX_TRANSCRIPT_TYPE, type);
             values.put(KEY_PODCASTINDEX_TRANSCRIPT_URL, url);
         }
 
-        if (item.getId() == 0) {
-            item.setId(db.insert(TABLE_NAME_FEED_ITEMS, null, values));
-        } else {
+        if (values.size() > 0) {
             db.update(TABLE_NAME_FEED_ITEMS, values, KEY_ID + "=?",
                     new String[]{String.valueOf(item.getId())});
+            changedRowsWritten++;
+        } else if (descriptionWritten) {
+            changedRowsWritten++;
+        } else {
+            unchangedRowsSkipped++;
         }
-        if (item.getMedia() != null) {
-            setMedia(item.getMedia());
-            item.getMedia().setItemId(item.getId());
-        }
-        if (item.getChapters() != null) {
-            setChapters(item);
-        }
-        return item.getId();
     }
 
     public void setFeedItemRead(FeedItem item, int played, boolean resetMediaPosition) {
@@ -758,19 +1414,12 @@ public class PodDBAdapter {
         }
     }
 
-    private void setChapters(FeedItem item) {
-        ContentValues values = new ContentValues();
+    private void setChapters(FeedItem item, FeedItemStatements statements) {
         for (Chapter chapter : item.getChapters()) {
-            values.put(KEY_TITLE, chapter.getTitle());
-            values.put(KEY_START, chapter.getStart());
-            values.put(KEY_FEEDITEM, item.getId());
-            values.put(KEY_LINK, chapter.getLink());
-            values.put(KEY_IMAGE_URL, chapter.getImageUrl());
             if (chapter.getId() == 0) {
-                chapter.setId(db.insert(TABLE_NAME_SIMPLECHAPTERS, null, values));
+                chapter.setId(statements.insertChapter(chapter, item.getId()));
             } else {
-                db.update(TABLE_NAME_SIMPLECHAPTERS, values, KEY_ID + "=?",
-                        new String[]{String.valueOf(chapter.getId())});
+                statements.updateChapter(chapter, item.getId());
             }
         }
     }
@@ -780,6 +1429,7 @@ public class PodDBAdapter {
                 + " SET " + KEY_NEXT_PAGE_LINK + "=" + KEY_DOWNLOAD_URL
                 + " WHERE " + KEY_ID + "=" + feed.getId();
         db.execSQL(sql);
+        FeedDataCache.FEEDS.invalidate();
     }
 
     public void setFeedLastUpdateFailed(long feedId, boolean failed) {
@@ -788,18 +1438,36 @@ public class PodDBAdapter {
                 + "," + KEY_LAST_REFRESH_ATTEMPT + "=" + System.currentTimeMillis()
                 + " WHERE " + KEY_ID + "=" + feedId;
         db.execSQL(sql);
+        FeedDataCache.FEEDS.invalidate();
+    }
+
+    /**
+     * Marks a refresh as successful without changing the content of the feed,
+     * but keeps the cache validators of the server's latest response.
+     */
+    public void setFeedNotChanged(long feedId, String lastModified, String etag, long cacheExpires) {
+        ContentValues values = new ContentValues();
+        values.put(KEY_LAST_UPDATE_FAILED, 0);
+        values.put(KEY_LAST_REFRESH_ATTEMPT, System.currentTimeMillis());
+        values.put(KEY_LASTUPDATE, lastModified);
+        values.put(KEY_ETAG, etag);
+        values.put(KEY_CACHE_EXPIRES, cacheExpires);
+        db.update(TABLE_NAME_FEEDS, values, KEY_ID + "=?", new String[]{String.valueOf(feedId)});
+        FeedDataCache.FEEDS.invalidate();
     }
 
     public void setFeedCustomTitle(long feedId, String customTitle) {
         ContentValues values = new ContentValues();
         values.put(KEY_CUSTOM_TITLE, customTitle);
         db.update(TABLE_NAME_FEEDS, values, KEY_ID + "=?", new String[]{String.valueOf(feedId)});
+        FeedDataCache.FEEDS.invalidate();
     }
 
     public void setFeedState(long feedId, int state) {
         ContentValues values = new ContentValues();
         values.put(KEY_STATE, state);
         db.update(TABLE_NAME_FEEDS, values, KEY_ID + "=?", new String[]{String.valueOf(feedId)});
+        FeedDataCache.FEEDS.invalidate();
     }
 
     /**
@@ -841,6 +1509,7 @@ public class PodDBAdapter {
         } finally {
             db.endTransaction();
         }
+        FeedDataCache.FAVORITES.invalidate();
     }
 
     /**
@@ -856,10 +1525,12 @@ public class PodDBAdapter {
         values.put(KEY_FEEDITEM, item.getId());
         values.put(KEY_FEED, item.getFeedId());
         db.insert(TABLE_NAME_FAVORITES, null, values);
+        FeedDataCache.FAVORITES.invalidate();
     }
 
     public void removeFavoriteItem(FeedItem item) {
         db.execSQL("DELETE FROM " + TABLE_NAME_FAVORITES + " WHERE " + KEY_FEEDITEM + "=" + item.getId());
+        FeedDataCache.FAVORITES.invalidate();
     }
 
     private boolean isItemInFavorites(FeedItem item) {
@@ -871,28 +1542,154 @@ public class PodDBAdapter {
         return count > 0;
     }
 
+    /**
+     * Replaces the whole queue. Only needed if most items change their position,
+     * otherwise use {@link #addQueueItem}, {@link #removeQueueItem} and {@link #moveQueueItem}.
+     */
     public void setQueue(List<FeedItem> queue) {
-        ContentValues values = new ContentValues();
         try {
             db.beginTransactionNonExclusive();
-            db.delete(TABLE_NAME_QUEUE, null, null);
-            for (int i = 0; i < queue.size(); i++) {
-                FeedItem item = queue.get(i);
-                values.put(KEY_ID, i);
-                values.put(KEY_FEEDITEM, item.getId());
-                values.put(KEY_FEED, item.getFeed().getId());
-                db.insertWithOnConflict(TABLE_NAME_QUEUE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            LongList itemIds = new LongList(queue.size());
+            LongList feedIds = new LongList(queue.size());
+            for (FeedItem item : queue) {
+                itemIds.add(item.getId());
+                feedIds.add(item.getFeed().getId());
             }
+            db.delete(TABLE_NAME_QUEUE, null, null);
+            insertQueueItems(itemIds, feedIds);
             db.setTransactionSuccessful();
         } catch (SQLException e) {
             Log.e(TAG, Log.getStackTraceString(e));
         } finally {
             db.endTransaction();
         }
+        FeedDataCache.QUEUE.invalidate();
     }
 
     public void clearQueue() {
         db.delete(TABLE_NAME_QUEUE, null, null);
+        FeedDataCache.QUEUE.invalidate();
+    }
+
+    /**
+     * Inserts an item into the queue without changing the rows of the other items.
+     *
+     * @param index Position in the queue, from 0 to the size of the queue
+     */
+    public void addQueueItem(FeedItem item, int index) {
+        try {
+            db.beginTransactionNonExclusive();
+            ContentValues values = new ContentValues();
+            values.put(KEY_ID, getQueueKeyForPosition(index, item.getId()));
+            values.put(KEY_FEEDITEM, item.getId());
+            values.put(KEY_FEED, item.getFeed().getId());
+            db.insertWithOnConflict(TABLE_NAME_QUEUE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            db.setTransactionSuccessful();
+        } catch (SQLException e) {
+            Log.e(TAG, Log.getStackTraceString(e));
+        } finally {
+            db.endTransaction();
+        }
+        FeedDataCache.QUEUE.invalidate();
+    }
+
+    public void removeQueueItem(long itemId) {
+        db.delete(TABLE_NAME_QUEUE, KEY_FEEDITEM + "=?", new String[]{String.valueOf(itemId)});
+        FeedDataCache.QUEUE.invalidate();
+    }
+
+    /**
+     * Moves an item of the queue by only changing its own row.
+     *
+     * @param index New position in the queue, from 0 to the size of the queue minus 1
+     */
+    public void moveQueueItem(long itemId, int index) {
+        try {
+            db.beginTransactionNonExclusive();
+            ContentValues values = new ContentValues();
+            values.put(KEY_ID, getQueueKeyForPosition(index, itemId));
+            db.update(TABLE_NAME_QUEUE, values, KEY_FEEDITEM + "=?", new String[]{String.valueOf(itemId)});
+            db.setTransactionSuccessful();
+        } catch (SQLException e) {
+            Log.e(TAG, Log.getStackTraceString(e));
+        } finally {
+            db.endTransaction();
+        }
+        FeedDataCache.QUEUE.invalidate();
+    }
+
+    /**
+     * The queue is sorted by its ID column. The IDs have gaps, so that an item can be placed between
+     * two others without changing their rows. When there is no gap left, the queue is renumbered.
+     *
+     * @param index         Position in the queue
+     * @param ignoredItemId Item that is moved and is therefore not counted when looking at the positions
+     * @return The ID for a queue row at the given position
+     */
+    private long getQueueKeyForPosition(int index, long ignoredItemId) {
+        Long previous = null;
+        Long next = null;
+        final String query = "SELECT " + KEY_ID + " FROM " + TABLE_NAME_QUEUE
+                + " WHERE " + KEY_FEEDITEM + "!=?"
+                + " ORDER BY " + KEY_ID + " LIMIT 2 OFFSET ?";
+        String[] args = {String.valueOf(ignoredItemId), String.valueOf(Math.max(index - 1, 0))};
+        try (Cursor cursor = db.rawQuery(query, args)) {
+            if (index > 0 && cursor.moveToNext()) {
+                previous = cursor.getLong(0);
+            }
+            if (cursor.moveToNext()) {
+                next = cursor.getLong(0);
+            }
+        }
+        if (previous == null && index > 0) {
+            // Position is after the end of the queue
+            try (Cursor cursor = db.rawQuery("SELECT MAX(" + KEY_ID + ") FROM " + TABLE_NAME_QUEUE
+                    + " WHERE " + KEY_FEEDITEM + "!=?", new String[]{String.valueOf(ignoredItemId)})) {
+                if (cursor.moveToNext() && !cursor.isNull(0)) {
+                    previous = cursor.getLong(0);
+                }
+            }
+        }
+
+        if (previous == null && next == null) {
+            return 0;
+        } else if (previous == null) {
+            return next - QUEUE_KEY_GAP;
+        } else if (next == null) {
+            return previous + QUEUE_KEY_GAP;
+        } else if (next - previous >= 2) {
+            return previous + (next - previous) / 2;
+        }
+        renumberQueue();
+        return getQueueKeyForPosition(index, ignoredItemId);
+    }
+
+    /**
+     * Restores the gaps between the IDs of the queue, keeping the order.
+     */
+    private void renumberQueue() {
+        Log.d(TAG, "Renumbering queue");
+        LongList itemIds = new LongList();
+        LongList feedIds = new LongList();
+        try (Cursor cursor = db.query(TABLE_NAME_QUEUE, new String[]{KEY_FEEDITEM, KEY_FEED},
+                null, null, null, null, KEY_ID + " ASC")) {
+            while (cursor.moveToNext()) {
+                itemIds.add(cursor.getLong(0));
+                feedIds.add(cursor.getLong(1));
+            }
+        }
+        db.delete(TABLE_NAME_QUEUE, null, null);
+        insertQueueItems(itemIds, feedIds);
+    }
+
+    private void insertQueueItems(LongList itemIds, LongList feedIds) {
+        ContentValues values = new ContentValues();
+        for (int i = 0; i < itemIds.size(); i++) {
+            values.put(KEY_ID, i * QUEUE_KEY_GAP);
+            values.put(KEY_FEEDITEM, itemIds.get(i));
+            values.put(KEY_FEED, feedIds.get(i));
+            db.insertWithOnConflict(TABLE_NAME_QUEUE, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+        }
     }
 
     /**
@@ -928,6 +1725,7 @@ public class PodDBAdapter {
         } finally {
             db.endTransaction();
         }
+        FeedDataCache.FAVORITES.invalidate();
     }
 
     /**
@@ -951,6 +1749,8 @@ public class PodDBAdapter {
         } finally {
             db.endTransaction();
         }
+        FeedDataCache.FEEDS.invalidate();
+        FeedDataCache.FAVORITES.invalidate();
     }
 
     public void clearPlaybackHistory() {
@@ -963,6 +1763,59 @@ public class PodDBAdapter {
         db.delete(TABLE_NAME_DOWNLOAD_LOG, null, null);
     }
 
+    /**
+     * Appends an episode action to the synchronization queue.
+     *
+     * @param replacesPrevious Whether earlier actions of the same type for the same episode are removed,
+     *                         because the new action contains everything the server needs to know
+     */
+    public void addSyncEpisodeAction(String podcast, String episode, String action, String content,
+                                     boolean replacesPrevious) {
+        ContentValues values = new ContentValues();
+        values.put(KEY_PODCAST, podcast);
+        values.put(KEY_EPISODE, episode);
+        values.put(KEY_ACTION, action);
+        values.put(KEY_CONTENT, content);
+        try {
+            db.beginTransactionNonExclusive();
+            if (replacesPrevious) {
+                db.delete(TABLE_NAME_SYNC_EPISODE_ACTIONS, KEY_EPISODE + "=? AND " + KEY_PODCAST + "=? AND "
+                        + KEY_ACTION + "=?", new String[]{episode, podcast, action});
+            }
+            db.insert(TABLE_NAME_SYNC_EPISODE_ACTIONS, null, values);
+            db.setTransactionSuccessful();
+        } catch (SQLException e) {
+            Log.e(TAG, Log.getStackTraceString(e));
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /**
+     * @return At most limit queued episode actions with an ID after afterId and of at most maxId, oldest first
+     */
+    public final Cursor getSyncEpisodeActionsCursor(long afterId, long maxId, int limit) {
+        return db.query(TABLE_NAME_SYNC_EPISODE_ACTIONS, new String[]{KEY_ID, KEY_CONTENT},
+                KEY_ID + ">? AND " + KEY_ID + "<=?", new String[]{String.valueOf(afterId), String.valueOf(maxId)},
+                null, null, KEY_ID + " ASC", String.valueOf(limit));
+    }
+
+    /**
+     * @return The ID of the newest queued episode action, or 0 if the queue is empty
+     */
+    public long getLastSyncEpisodeActionId() {
+        return DatabaseUtils.longForQuery(db, "SELECT IFNULL(MAX(" + KEY_ID + "), 0) FROM "
+                + TABLE_NAME_SYNC_EPISODE_ACTIONS, null);
+    }
+
+    /**
+     * Removes the queued episode actions up to the given ID, for example after they were uploaded.
+     * Actions that were added in the meantime are kept.
+     */
+    public void removeSyncEpisodeActions(long maxId) {
+        db.delete(TABLE_NAME_SYNC_EPISODE_ACTIONS, KEY_ID + "<=?", new String[]{String.valueOf(maxId)});
+    }
+
     /**
      * Get all Feeds from the Feed Table.
      *
@@ -990,7 +1843,7 @@ public class PodDBAdapter {
         String orderByQuery = FeedItemSortQuery.generateFrom(sortOrder);
         String filterQuery = FeedItemFilterQuery.generateFrom(filter);
         String whereClauseAnd = "".equals(filterQuery) ? "" : " AND " + filterQuery;
-        final String query = SELECT_FEED_ITEMS_AND_MEDIA
+        final String query = selectFeedItemsAndMedia(filter)
                 + " WHERE " + TABLE_NAME_FEED_ITEMS + "." + KEY_FEED + "=" + feed.getId()
                 + whereClauseAnd
                 + " ORDER BY " + orderByQuery
@@ -998,6 +1851,27 @@ public class PodDBAdapter {
         return db.rawQuery(query, null);
     }
 
+    /**
+     * Returns a cursor with the FeedItems of a Feed that are sorted after the given item.
+     *
+     * @param lastItem The last item of the previous page, or null to load the first page
+     */
+    public final Cursor getItemsOfFeedCursor(final Feed feed, FeedItemFilter filter, SortOrder sortOrder,
+                                             @Nullable FeedItem lastItem, int limit) {
+        String orderByQuery = FeedItemSortQuery.generateFrom(sortOrder);
+        String filterQuery = FeedItemFilterQuery.generateFrom(filter);
+        String whereClauseAnd = "".equals(filterQuery) ? "" : " AND " + filterQuery;
+        if (lastItem != null) {
+            whereClauseAnd += " AND " + FeedItemSortQuery.generateSeekFrom(sortOrder, lastItem);
+        }
+        final String query = selectFeedItemsAndMedia(filter)
+                + " WHERE " + TABLE_NAME_FEED_ITEMS + "." + KEY_FEED + "=" + feed.getId()
+                + whereClauseAnd
+                + " ORDER BY " + orderByQuery
+                + " LIMIT " + limit;
+        return db.rawQuery(query, null);
+    }
+
     /**
      * Return the description and content_encoded of item
      */
@@ -1102,16 +1976,47 @@ public class PodDBAdapter {
         String orderByQuery = FeedItemSortQuery.generateFrom(sortOrder);
         String filterQuery = FeedItemFilterQuery.generateFrom(filter);
         String whereClause = "".equals(filterQuery) ? "" : " WHERE " + filterQuery;
-        final String query = SELECT_FEED_ITEMS_AND_MEDIA + whereClause
+        final String query = selectFeedItemsAndMedia(filter) + whereClause
                 + "ORDER BY " +  orderByQuery + " LIMIT " + offset + ", " + limit;
         return db.rawQuery(query, null);
     }
 
+    /**
+     * Returns a cursor with the episodes that are sorted after the given item.
+     *
+     * @param lastItem The last item of the previous page, or null to load the first page
+     */
+    public final Cursor getEpisodesCursor(@Nullable FeedItem lastItem, int limit,
+                                          FeedItemFilter filter, SortOrder sortOrder) {
+        return db.rawQuery(getEpisodesQuery(lastItem, limit, filter, sortOrder), null);
+    }
+
+    static String getEpisodesQuery(@Nullable FeedItem lastItem, int limit,
+                                   FeedItemFilter filter, SortOrder sortOrder) {
+        String orderByQuery = FeedItemSortQuery.generateFrom(sortOrder);
+        String filterQuery = FeedItemFilterQuery.generateFrom(filter);
+        if (lastItem != null) {
+            String seekQuery = FeedItemSortQuery.generateSeekFrom(sortOrder, lastItem);
+            filterQuery = "".equals(filterQuery) ? seekQuery : filterQuery + " AND " + seekQuery;
+        }
+        String whereClause = "".equals(filterQuery) ? "" : " WHERE " + filterQuery;
+        return selectFeedItemsAndMedia(filter) + whereClause
+                + " ORDER BY " +  orderByQuery + " LIMIT " + limit;
+    }
+
+    /**
+     * Returns the steps SQLite takes to run the query. The last column describes each step.
+     */
+    @VisibleForTesting(otherwise = VisibleForTesting.NONE)
+    Cursor getQueryPlanCursor(String query) {
+        return db.rawQuery("EXPLAIN QUERY PLAN " + query, null);
+    }
+
     public final Cursor getEpisodeCountCursor(FeedItemFilter filter) {
         String filterQuery = FeedItemFilterQuery.generateFrom(filter);
         String whereClause = "".equals(filterQuery) ? "" : " WHERE " + filterQuery;
         final String query = "SELECT count(" + TABLE_NAME_FEED_ITEMS + "." + KEY_ID + ") FROM " + TABLE_NAME_FEED_ITEMS
-                + JOIN_FEED_ITEM_AND_MEDIA + whereClause;
+                + FeedItemFilterQuery.generateJoinsFrom(filter) + whereClause;
         return db.rawQuery(query, null);
     }
 
@@ -1119,11 +2024,22 @@ public class PodDBAdapter {
         String filterQuery = FeedItemFilterQuery.generateFrom(filter);
         String whereAndClause = "".equals(filterQuery) ? "" : " AND " + filterQuery;
         final String query = "SELECT count(" + TABLE_NAME_FEED_ITEMS + "." + KEY_ID + ") FROM " + TABLE_NAME_FEED_ITEMS
-                + JOIN_FEED_ITEM_AND_MEDIA
+                + FeedItemFilterQuery.generateJoinsFrom(filter)
                 + " WHERE " + TABLE_NAME_FEED_ITEMS + "." + KEY_FEED + "=" + feedId + whereAndClause;
         return db.rawQuery(query, null);
     }
 
+    /**
+     * Returns the publication dates and identifiers of the newest items of a feed, newest first.
+     */
+    public final Cursor getRecentPubDatesCursor(long feedId, int limit) {
+        final String query = "SELECT " + KEY_PUBDATE + ", " + KEY_ITEM_IDENTIFIER + " FROM " + TABLE_NAME_FEED_ITEMS
+                + " WHERE " + KEY_FEED + "=" + feedId
+                + " ORDER BY " + KEY_PUBDATE + " DESC"
+                + " LIMIT " + limit;
+        return db.rawQuery(query, null);
+    }
+
     public Cursor getRandomEpisodesCursor(int limit, int seed) {
         long oneHourAgo = System.currentTimeMillis() - 1000L * 3600L;
         final String allItems = SELECT_FEED_ITEMS_AND_MEDIA
@@ -1177,19 +2093,60 @@ public class PodDBAdapter {
         if (urls.size() > IN_OPERATOR_MAXIMUM) {
             throw new IllegalArgumentException("number of IDs must not be larger than " + IN_OPERATOR_MAXIMUM);
         }
-        StringBuilder urlsString = new StringBuilder();
-        for (int i = 0; i < urls.size(); i++) {
-            if (i != 0) {
-                urlsString.append(",");
-            }
-            urlsString.append(DatabaseUtils.sqlEscapeString(urls.get(i)));
-        }
         final String query = SELECT_FEED_ITEMS_AND_MEDIA
-                + " WHERE " + KEY_DOWNLOAD_URL + " IN (" + urlsString + ")"
+                + " WHERE " + KEY_DOWNLOAD_URL + " IN (" + escapeAll(urls) + ")"
                 + " ORDER BY " + KEY_LAST_PLAYED_TIME_HISTORY + " DESC";
         return db.rawQuery(query, null);
     }
 
+    /**
+     * Loads the items with one of the given GUIDs, or with media that has one of the given download URLs.
+     * Both lists together must not contain more than {@link #IN_OPERATOR_MAXIMUM} values.
+     */
+    public final Cursor getFeedItemCursorByGuidsOrEpisodeUrls(List<String> guids, List<String> episodeUrls) {
+        if (guids.size() + episodeUrls.size() > IN_OPERATOR_MAXIMUM) {
+            throw new IllegalArgumentException("number of IDs must not be larger than " + IN_OPERATOR_MAXIMUM);
+        }
+        return db.rawQuery(getFeedItemsByGuidsOrEpisodeUrlsQuery(guids, episodeUrls), null);
+    }
+
+    /**
+     * Two queries instead of one with OR, so each of them can use its index.
+     * The media is joined with an inner join, so SQLite can start at the download URL index.
+     */
+    static String getFeedItemsByGuidsOrEpisodeUrlsQuery(List<String> guids, List<String> episodeUrls) {
+        String selectItemsWithFeed = "SELECT " + KEYS_FEED_ITEM_WITHOUT_DESCRIPTION + ", " + KEYS_FEED_MEDIA
+                + " FROM " + TABLE_NAME_FEED_ITEMS
+                + " INNER JOIN " + TABLE_NAME_FEEDS
+                + " ON " + TABLE_NAME_FEED_ITEMS + "." + KEY_FEED + "=" + TABLE_NAME_FEEDS + "." + KEY_ID;
+        List<String> queries = new ArrayList<>(2);
+        if (!guids.isEmpty()) {
+            queries.add(selectItemsWithFeed + JOIN_FEED_ITEM_AND_MEDIA
+                    + " WHERE " + TABLE_NAME_FEED_ITEMS + "." + KEY_ITEM_IDENTIFIER + " IN (" + escapeAll(guids) + ")");
+        }
+        if (!episodeUrls.isEmpty()) {
+            queries.add(selectItemsWithFeed + " INNER JOIN " + TABLE_NAME_FEED_MEDIA
+                    + " ON " + TABLE_NAME_FEED_ITEMS + "." + KEY_ID + "=" + TABLE_NAME_FEED_MEDIA + "." + KEY_FEEDITEM
+                    + " WHERE " + TABLE_NAME_FEED_MEDIA + "." + KEY_DOWNLOAD_URL
+                    + " IN (" + escapeAll(episodeUrls) + ")");
+        }
+        if (queries.isEmpty()) {
+            return selectItemsWithFeed + JOIN_FEED_ITEM_AND_MEDIA + " WHERE 0";
+        }
+        return TextUtils.join(" UNION ALL ", queries);
+    }
+
+    private static String escapeAll(List<String> values) {
+        StringBuilder escaped = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i != 0) {
+                escaped.append(",");
+            }
+            escaped.append(DatabaseUtils.sqlEscapeString(values.get(i)));
+        }
+        return escaped.toString();
+    }
+
     public final Cursor getFeedItemCursor(final String guid, final String episodeUrl) {
         String escapedEpisodeUrl = DatabaseUtils.sqlEscapeString(episodeUrl);
         String whereClauseCondition = TABLE_NAME_FEED_MEDIA + "." + KEY_DOWNLOAD_URL + "=" + escapedEpisodeUrl;
@@ -1290,32 +2247,35 @@ public class PodDBAdapter {
     }
 
     public final Map<Long, Integer> getFeedCounters(FeedCounter setting, long... feedIds) {
-        String whereRead;
+        String counterColumn = getFeedCounterColumn(setting);
+        if (counterColumn == null) {
+            return new HashMap<>();
+        }
+        return conditionalFeedCounterRead(counterColumn, feedIds);
+    }
+
+    /**
+     * @return The column of {@link #TABLE_NAME_FEED_STATS} that contains the counter, or null for no counter
+     */
+    @Nullable
+    public static String getFeedCounterColumn(FeedCounter setting) {
         switch (setting) {
             case SHOW_NEW:
-                whereRead = KEY_READ + "=" + FeedItem.NEW;
-                break;
+                return KEY_COUNT_NEW;
             case SHOW_UNPLAYED:
-                whereRead = "(" + KEY_READ + "=" + FeedItem.NEW
-                        + " OR " + KEY_READ + "=" + FeedItem.UNPLAYED + ")";
-                break;
+                return KEY_COUNT_UNPLAYED;
             case SHOW_DOWNLOADED:
-                whereRead = KEY_DOWNLOAD_DATE + ">0";
-                break;
+                return KEY_COUNT_DOWNLOADED;
             case SHOW_DOWNLOADED_UNPLAYED:
-                whereRead = "(" + KEY_READ + "=" + FeedItem.NEW
-                        + " OR " + KEY_READ + "=" + FeedItem.UNPLAYED + ")"
-                        + " AND " + KEY_DOWNLOAD_DATE + ">0";
-                break;
+                return KEY_COUNT_DOWNLOADED_UNPLAYED;
             case SHOW_NONE:
                 // deliberate fall-through
             default: // NONE
-                return new HashMap<>();
+                return null;
         }
-        return conditionalFeedCounterRead(whereRead, feedIds);
     }
 
-    private Map<Long, Integer> conditionalFeedCounterRead(String whereRead, long... feedIds) {
+    private Map<Long, Integer> conditionalFeedCounterRead(String counterColumn, long... feedIds) {
         String limitFeeds;
         if (feedIds.length > 0) {
             // work around TextUtils.join wanting only boxed items
@@ -1329,15 +2289,12 @@ public class PodDBAdapter {
             builder.deleteCharAt(builder.length() - 1);
             limitFeeds = KEY_FEED + " IN (" + builder.toString() + ") AND ";
         } else {
-            limitFeeds = SELECT_WHERE_FEED_IS_SUBSCRIBED + " AND ";
+            limitFeeds = SELECT_WHERE_STATS_FEED_IS_SUBSCRIBED + " AND ";
         }
 
-        final String query = "SELECT " + KEY_FEED + ", COUNT(" + TABLE_NAME_FEED_ITEMS + "." + KEY_ID + ") AS count "
-                + " FROM " + TABLE_NAME_FEED_ITEMS
-                + " LEFT JOIN " + TABLE_NAME_FEED_MEDIA + " ON "
-                + TABLE_NAME_FEED_ITEMS + "." + KEY_ID + "=" + TABLE_NAME_FEED_MEDIA + "." + KEY_FEEDITEM
-                + " WHERE " + limitFeeds + " "
-                + whereRead + " GROUP BY " + KEY_FEED;
+        final String query = "SELECT " + KEY_FEED + ", " + counterColumn
+                + " FROM " + TABLE_NAME_FEED_STATS
+                + " WHERE " + limitFeeds + counterColumn + ">0";
 
         Cursor c = db.rawQuery(query, null);
         Map<Long, Integer> result = new HashMap<>();
@@ -1353,15 +2310,12 @@ public class PodDBAdapter {
     }
 
     public final Map<Long, Integer> getPlayedEpisodesCounters(long... feedIds) {
-        String whereRead = KEY_READ + "=" + FeedItem.PLAYED;
-        return conditionalFeedCounterRead(whereRead, feedIds);
+        return conditionalFeedCounterRead(KEY_COUNT_PLAYED, feedIds);
     }
 
     public final Map<Long, Long> getMostRecentItemDates() {
-        final String query = "SELECT " + KEY_FEED + ","
-                + " MAX(" + TABLE_NAME_FEED_ITEMS + "." + KEY_PUBDATE + ") AS most_recent_pubdate"
-                + " FROM " + TABLE_NAME_FEED_ITEMS
-                + " GROUP BY " + KEY_FEED;
+        final String query = "SELECT " + KEY_FEED + ", " + KEY_LATEST_PUBDATE
+                + " FROM " + TABLE_NAME_FEED_STATS;
 
         Cursor c = db.rawQuery(query, null);
         Map<Long, Long> result = new HashMap<>();
@@ -1377,90 +2331,68 @@ public class PodDBAdapter {
     }
 
     /**
-     * Uses DatabaseUtils to escape a search query and removes ' at the
-     * beginning and the end of the string returned by the escape method.
+     * Returns all counters of the subscribed feeds from {@link #TABLE_NAME_FEED_STATS}.
+     * Feeds without any items might not have a row.
      */
-    private String[] prepareSearchQuery(String query) {
-        String[] queryWords = query.split("\\s+");
-        for (int i = 0; i < queryWords.length; ++i) {
-            StringBuilder builder = new StringBuilder();
-            DatabaseUtils.appendEscapedSQLString(builder, queryWords[i]);
-            builder.deleteCharAt(0);
-            builder.deleteCharAt(builder.length() - 1);
-            queryWords[i] = builder.toString();
-        }
-
-        return queryWords;
+    public final Cursor getFeedStatsCursor() {
+        return db.rawQuery("SELECT * FROM " + TABLE_NAME_FEED_STATS
+                + " WHERE " + SELECT_WHERE_STATS_FEED_IS_SUBSCRIBED, null);
     }
 
     /**
-     * Searches for the given query in various values of all items or the items
-     * of a specified feed.
+     * Searches for the given query in the title and description of all items or the items
+     * of a specified feed. Every word of the query has to match the beginning of a word in the item.
+     * Items that match in the title are listed first.
      *
      * @return A cursor with all search results in SEL_FI_EXTRA selection.
      */
     public Cursor searchItems(long feedID, String searchQuery) {
-        String[] queryWords = prepareSearchQuery(searchQuery);
+        String match = FullTextSearchQuery.generateFrom(searchQuery);
+        if (match.isEmpty()) {
+            return db.rawQuery(SELECT_FEED_ITEMS_AND_MEDIA + " WHERE 0", null);
+        }
+        String titleMatch = FullTextSearchQuery.generateFrom(searchQuery, KEY_TITLE);
 
         String queryFeedId;
         if (feedID != 0) {
             // search items in specific feed
-            queryFeedId = KEY_FEED + " = " + feedID;
+            queryFeedId = TABLE_NAME_FEED_ITEMS + "." + KEY_FEED + " = " + feedID;
         } else {
             // search through all items
             queryFeedId = "1 = 1";
         }
 
-        String queryStart = SELECT_FEED_ITEMS_AND_MEDIA_WITH_DESCRIPTION
-                + " WHERE " + queryFeedId + " AND " + SELECT_WHERE_FEED_IS_SUBSCRIBED + " AND (";
-        StringBuilder sb = new StringBuilder(queryStart);
-
-        for (int i = 0; i < queryWords.length; i++) {
-            sb
-                    .append("(")
-                    .append(KEY_DESCRIPTION + " LIKE '%").append(queryWords[i])
-                    .append("%' OR ")
-                    .append(KEY_TITLE).append(" LIKE '%").append(queryWords[i])
-                    .append("%') ");
-
-            if (i != queryWords.length - 1) {
-                sb.append("AND ");
-            }
-        }
-
-        sb.append(") ORDER BY " + KEY_PUBDATE + " DESC LIMIT 300");
-
-        return db.rawQuery(sb.toString(), null);
+        final String query = SELECT_FEED_ITEMS_AND_MEDIA
+                + " WHERE " + SELECT_KEY_ITEM_ID + " IN (SELECT docid FROM " + TABLE_NAME_FEED_ITEMS_FTS
+                        + " WHERE " + TABLE_NAME_FEED_ITEMS_FTS + " MATCH ?)"
+                + " AND " + queryFeedId + " AND " + SELECT_WHERE_FEED_IS_SUBSCRIBED
+                + " ORDER BY " + SELECT_KEY_ITEM_ID + " IN (SELECT docid FROM " + TABLE_NAME_FEED_ITEMS_FTS
+                        + " WHERE " + TABLE_NAME_FEED_ITEMS_FTS + " MATCH ?) DESC, "
+                + TABLE_NAME_FEED_ITEMS + "." + KEY_PUBDATE + " DESC LIMIT 300";
+        return db.rawQuery(query, new String[]{match, titleMatch});
     }
 
     /**
-     * Searches for the given query in various values of all feeds.
+     * Searches for the given query in title, author and description of all subscribed feeds.
+     * Feeds that match in the title are listed first.
      *
      * @return A cursor with all search results in SEL_FI_EXTRA selection.
      */
     public Cursor searchFeeds(String searchQuery) {
-        String[] queryWords = prepareSearchQuery(searchQuery);
-
-        String queryStart = "SELECT " + KEYS_FEED + " FROM " + TABLE_NAME_FEEDS
-                + " WHERE " + KEY_STATE + " = " + Feed.STATE_SUBSCRIBED;
-        StringBuilder sb = new StringBuilder(queryStart);
-
-        for (int i = 0; i < queryWords.length; i++) {
-            sb
-                    .append(" AND (")
-                    .append(KEY_TITLE).append(" LIKE '%").append(queryWords[i])
-                    .append("%' OR ")
-                    .append(KEY_CUSTOM_TITLE).append(" LIKE '%").append(queryWords[i])
-                    .append("%' OR ")
-                    .append(KEY_AUTHOR).append(" LIKE '%").append(queryWords[i])
-                    .append("%' OR ")
-                    .append(KEY_DESCRIPTION).append(" LIKE '%").append(queryWords[i])
-                    .append("%') ");
+        String match = FullTextSearchQuery.generateFrom(searchQuery);
+        if (match.isEmpty()) {
+            return db.rawQuery("SELECT " + KEYS_FEED + " FROM " + TABLE_NAME_FEEDS + " WHERE 0", null);
         }
+        String titleMatch = FullTextSearchQuery.generateFrom(searchQuery, KEY_TITLE);
 
-        sb.append(" ORDER BY " + KEY_TITLE + " ASC LIMIT 300");
-
-        return db.rawQuery(sb.toString(), null);
+        final String query = "SELECT " + KEYS_FEED + " FROM " + TABLE_NAME_FEEDS
+                + " WHERE " + KEY_STATE + " = " + Feed.STATE_SUBSCRIBED
+                + " AND " + SELECT_KEY_FEED_ID + " IN (SELECT docid FROM " + TABLE_NAME_FEEDS_FTS
+                        + " WHERE " + TABLE_NAME_FEEDS_FTS + " MATCH ?)"
+                + " ORDER BY " + SELECT_KEY_FEED_ID + " IN (SELECT docid FROM " + TABLE_NAME_FEEDS_FTS
+                        + " WHERE " + TABLE_NAME_FEEDS_FTS + " MATCH ?) DESC, "
+                + TABLE_NAME_FEEDS + "." + KEY_TITLE + " ASC LIMIT 300";
+        return db.rawQuery(query, new String[]{match, titleMatch});
     }
 
     /**
@@ -1470,6 +2402,7 @@ public class PodDBAdapter {
     @VisibleForTesting(otherwise = VisibleForTesting.NONE)
     public void insertTestData(@NonNull String table, @NonNull ContentValues values) {
         db.insert(table, null, values);
+        FeedDataCache.invalidateAll();
     }
 
     /**
@@ -1518,13 +2451,24 @@ public class PodDBAdapter {
             db.execSQL(CREATE_TABLE_QUEUE);
             db.execSQL(CREATE_TABLE_SIMPLECHAPTERS);
             db.execSQL(CREATE_TABLE_FAVORITES);
+            db.execSQL(CREATE_TABLE_SYNC_EPISODE_ACTIONS);
 
             db.execSQL(CREATE_INDEX_FEEDITEMS_FEED);
             db.execSQL(CREATE_INDEX_FEEDITEMS_PUBDATE);
-            db.execSQL(CREATE_INDEX_FEEDITEMS_READ);
+            db.execSQL(CREATE_INDEX_FEEDITEMS_FEED_PUBDATE);
+            db.execSQL(CREATE_INDEX_FEEDITEMS_FEED_TITLE);
+            db.execSQL(CREATE_INDEX_FEEDITEMS_READ_PUBDATE);
+            db.execSQL(CREATE_INDEX_FEEDITEMS_ITEM_IDENTIFIER);
             db.execSQL(CREATE_INDEX_FEEDMEDIA_FEEDITEM);
+            db.execSQL(CREATE_INDEX_FEEDMEDIA_DOWNLOAD_URL);
+            db.execSQL(CREATE_INDEX_FEEDMEDIA_DOWNLOADED);
+            db.execSQL(CREATE_INDEX_FEEDMEDIA_COMPLETION_DATE);
             db.execSQL(CREATE_INDEX_QUEUE_FEEDITEM);
             db.execSQL(CREATE_INDEX_SIMPLECHAPTERS_FEEDITEM);
+            db.execSQL(CREATE_INDEX_SYNC_EPISODE_ACTIONS_EPISODE);
+
+            createFullTextIndex(db);
+            createFeedStats(db);
         }
 
         @Override
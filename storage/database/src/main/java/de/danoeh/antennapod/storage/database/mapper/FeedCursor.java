@@ -35,6 +35,9 @@ public class FeedCursor extends CursorWrapper {
     private final int indexLastUpdateFailed;
     private final int indexImageUrl;
     private final int indexState;
+    private final int indexContentHash;
+    private final int indexEtag;
+    private final int indexCacheExpires;
 
     public FeedCursor(Cursor cursor) {
         super(new FeedPreferencesCursor(cursor));
@@ -60,6 +63,9 @@ public class FeedCursor extends CursorWrapper {
         indexLastUpdateFailed = cursor.getColumnIndexOrThrow(PodDBAdapter.KEY_LAST_UPDATE_FAILED);
         indexImageUrl = cursor.getColumnIndexOrThrow(PodDBAdapter.KEY_IMAGE_URL);
         indexState = cursor.getColumnIndexOrThrow(PodDBAdapter.KEY_STATE);
+        indexContentHash = cursor.getColumnIndexOrThrow(PodDBAdapter.KEY_CONTENT_HASH);
+        indexEtag = cursor.getColumnIndexOrThrow(PodDBAdapter.KEY_ETAG);
+        indexCacheExpires = cursor.getColumnIndexOrThrow(PodDBAdapter.KEY_CACHE_EXPIRES);
     }
 
     /**
@@ -89,6 +95,9 @@ public class FeedCursor extends CursorWrapper {
                 SortOrder.fromCodeString(getString(indexSortOrder)),
                 getInt(indexLastUpdateFailed) > 0,
                 getInt(indexState));
+        feed.setContentHash(getString(indexContentHash));
+        feed.setEtag(getString(indexEtag));
+        feed.setCacheExpires(getLong(indexCacheExpires));
         feed.setPreferences(preferencesCursor.getFeedPreferences());
         return feed;
     }
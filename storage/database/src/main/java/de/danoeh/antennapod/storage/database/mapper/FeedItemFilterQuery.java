@@ -1,5 +1,6 @@
 package de.danoeh.antennapod.storage.database.mapper;
 
+import de.danoeh.antennapod.model.feed.Feed;
 import de.danoeh.antennapod.model.feed.FeedItemFilter;
 import de.danoeh.antennapod.storage.database.PodDBAdapter;
 
@@ -11,9 +12,49 @@ public class FeedItemFilterQuery {
         // Must not be instantiated
     }
 
+    /**
+     * Creates the joins that the statement of {@link #generateFrom(FeedItemFilter)} needs, to be appended
+     * to "FROM FeedItems". The media are always joined. Filters that only match items with media use an
+     * inner join, so SQLite can start with an index of the media table. Subscriptions and exclusions are
+     * joins as well, so they are looked up by key instead of building the list of all subscribed feeds,
+     * queue items or favorites first.
+     */
+    public static String generateJoinsFrom(FeedItemFilter filter) {
+        String itemId = PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_ID;
+        String feeds = PodDBAdapter.TABLE_NAME_FEEDS;
+        String media = PodDBAdapter.TABLE_NAME_FEED_MEDIA;
+        String queue = PodDBAdapter.TABLE_NAME_QUEUE;
+        String favorites = PodDBAdapter.TABLE_NAME_FAVORITES;
+
+        StringBuilder joins = new StringBuilder();
+        boolean requiresMedia = filter.showPaused || filter.showDownloaded || filter.showNotDownloaded
+                || filter.showHasMedia || filter.showInHistory;
+        joins.append(requiresMedia ? " INNER JOIN " : " LEFT JOIN ").append(media)
+                .append(" ON ").append(itemId).append("=").append(media).append(".").append(PodDBAdapter.KEY_FEEDITEM);
+        if (!filter.includeNotSubscribed) {
+            joins.append(" INNER JOIN ").append(feeds)
+                    .append(" ON ").append(feeds).append(".").append(PodDBAdapter.KEY_ID).append("=")
+                    .append(PodDBAdapter.TABLE_NAME_FEED_ITEMS).append(".").append(PodDBAdapter.KEY_FEED)
+                    .append(" AND ").append(feeds).append(".").append(PodDBAdapter.KEY_STATE).append("=")
+                    .append(Feed.STATE_SUBSCRIBED);
+        }
+        if (filter.showNotQueued && !filter.showQueued) {
+            joins.append(" LEFT JOIN ").append(queue)
+                    .append(" ON ").append(queue).append(".").append(PodDBAdapter.KEY_FEEDITEM).append("=")
+                    .append(itemId);
+        }
+        if (filter.showNotFavorite && !filter.showIsFavorite) {
+            joins.append(" LEFT JOIN ").append(favorites)
+                    .append(" ON ").append(favorites).append(".").append(PodDBAdapter.KEY_FEEDITEM).append("=")
+                    .append(itemId);
+        }
+        return joins.append(" ").toString();
+    }
+
     /**
      * Express the filter using an SQL boolean statement that can be inserted into an SQL WHERE clause
      * to yield output filtered according to the rules of this filter.
+     * The statement refers to the tables joined by {@link #generateJoinsFrom(FeedItemFilter)}.
      *
      * @return An SQL boolean statement that matches the desired items,
      *         empty string if there is nothing to filter
@@ -46,7 +87,7 @@ public class FeedItemFilterQuery {
         if (filter.showQueued) {
             statements.add(keyItemId + " IN (SELECT " + keyFeedItem + " FROM " + tableQueue + ") ");
         } else if (filter.showNotQueued) {
-            statements.add(keyItemId + " NOT IN (SELECT " + keyFeedItem + " FROM " + tableQueue + ") ");
+            statements.add(tableQueue + "." + PodDBAdapter.KEY_ID + " IS NULL ");
         }
         if (filter.showDownloaded) {
             statements.add(keyDownloaded + " > 0 ");
@@ -61,14 +102,11 @@ public class FeedItemFilterQuery {
         if (filter.showIsFavorite) {
             statements.add(keyItemId + " IN (SELECT " + keyFeedItem + " FROM " + tableFavorites + ") ");
         } else if (filter.showNotFavorite) {
-            statements.add(keyItemId + " NOT IN (SELECT " + keyFeedItem + " FROM " + tableFavorites + ") ");
+            statements.add(tableFavorites + "." + PodDBAdapter.KEY_ID + " IS NULL ");
         }
         if (filter.showInHistory) {
             statements.add(keyCompletionDate + " > 0 ");
         }
-        if (!filter.includeNotSubscribed) {
-            statements.add(PodDBAdapter.SELECT_WHERE_FEED_IS_SUBSCRIBED);
-        }
 
         if (statements.isEmpty()) {
             return "";
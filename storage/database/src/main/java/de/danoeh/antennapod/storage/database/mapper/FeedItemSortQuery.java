@@ -1,38 +1,164 @@
 package de.danoeh.antennapod.storage.database.mapper;
 
+import android.database.DatabaseUtils;
+
+import de.danoeh.antennapod.model.feed.FeedItem;
+import de.danoeh.antennapod.model.feed.FeedMedia;
 import de.danoeh.antennapod.model.feed.SortOrder;
 import de.danoeh.antennapod.storage.database.PodDBAdapter;
 
 public class FeedItemSortQuery {
+    private static final String ITEM_ID = PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_ID;
+
+    /**
+     * Creates the ORDER BY clause. Items with the same sort key are ordered by their ID,
+     * so the order is stable and can be continued with {@link #generateSeekFrom(SortOrder, FeedItem)}.
+     */
     public static String generateFrom(SortOrder sortOrder) {
+        String direction = isAscending(sortOrder) ? " ASC" : " DESC";
+        return getSortColumn(sortOrder) + direction + ", " + getTieBreakColumn(sortOrder) + direction;
+    }
+
+    /**
+     * Creates a condition that only matches the items sorted after the given item. Together with a LIMIT,
+     * this loads the next page without SQLite having to step over all previous rows like with an OFFSET.
+     *
+     * @param lastItem The last item of the previous page
+     */
+    public static String generateSeekFrom(SortOrder sortOrder, FeedItem lastItem) {
+        String column = getSortColumn(sortOrder);
+        String key = getSortKey(sortOrder, lastItem);
+        String itemId = getTieBreakColumn(sortOrder);
+        long lastId = lastItem.getId();
+        // NULL is sorted before all other values. The range conditions come first, so an index can be used.
+        if (isAscending(sortOrder)) {
+            if (key == null) {
+                return "(" + column + " IS NOT NULL OR " + itemId + " > " + lastId + ")";
+            }
+            return "(" + column + " >= " + key
+                    + " AND (" + column + " > " + key + " OR " + itemId + " > " + lastId + "))";
+        } else {
+            if (key == null) {
+                return "(" + column + " IS NULL AND " + itemId + " < " + lastId + ")";
+            }
+            String seek = "(" + column + " <= " + key
+                    + " AND (" + column + " < " + key + " OR " + itemId + " < " + lastId + "))";
+            if (!isNullable(sortOrder)) {
+                return seek;
+            }
+            return "(" + seek + " OR " + column + " IS NULL)";
+        }
+    }
+
+    private static String getSortColumn(SortOrder sortOrder) {
         if (sortOrder == null) {
             sortOrder = SortOrder.DATE_NEW_OLD;
         }
         switch (sortOrder) {
             case EPISODE_TITLE_A_Z:
-                return PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_TITLE + " " + "ASC";
             case EPISODE_TITLE_Z_A:
-                return PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_TITLE + " " + "DESC";
+                return PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_TITLE;
             case DURATION_SHORT_LONG:
-                return PodDBAdapter.TABLE_NAME_FEED_MEDIA + "." + PodDBAdapter.KEY_DURATION + " " + "ASC";
             case DURATION_LONG_SHORT:
-                return PodDBAdapter.TABLE_NAME_FEED_MEDIA + "." + PodDBAdapter.KEY_DURATION + " " + "DESC";
+                return PodDBAdapter.TABLE_NAME_FEED_MEDIA + "." + PodDBAdapter.KEY_DURATION;
             case SIZE_SMALL_LARGE:
-                return PodDBAdapter.TABLE_NAME_FEED_MEDIA + "." + PodDBAdapter.KEY_SIZE + " " + "ASC";
             case SIZE_LARGE_SMALL:
-                return PodDBAdapter.TABLE_NAME_FEED_MEDIA + "." + PodDBAdapter.KEY_SIZE + " " + "DESC";
+                return PodDBAdapter.TABLE_NAME_FEED_MEDIA + "." + PodDBAdapter.KEY_SIZE;
             case COMPLETION_DATE_NEW_OLD:
-                return PodDBAdapter.TABLE_NAME_FEED_MEDIA + "."
-                        + PodDBAdapter.KEY_LAST_PLAYED_TIME_HISTORY + " " + "DESC";
+                return PodDBAdapter.TABLE_NAME_FEED_MEDIA + "." + PodDBAdapter.KEY_LAST_PLAYED_TIME_HISTORY;
+            case EPISODE_FILENAME_A_Z:
+            case EPISODE_FILENAME_Z_A:
+                return PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_LINK;
+            case DATE_OLD_NEW:
+            case DATE_NEW_OLD:
+            default:
+                return PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_PUBDATE;
+        }
+    }
+
+    /**
+     * The item ID, as stored in the table of the sort column. The history only contains items with media,
+     * so it can be read from the index on the completion date instead of sorting the items again.
+     */
+    private static String getTieBreakColumn(SortOrder sortOrder) {
+        if (sortOrder == SortOrder.COMPLETION_DATE_NEW_OLD) {
+            return PodDBAdapter.TABLE_NAME_FEED_MEDIA + "." + PodDBAdapter.KEY_FEEDITEM;
+        }
+        return ITEM_ID;
+    }
+
+    private static boolean isAscending(SortOrder sortOrder) {
+        if (sortOrder == null) {
+            return false;
+        }
+        switch (sortOrder) {
+            case EPISODE_TITLE_A_Z:
+            case DURATION_SHORT_LONG:
+            case SIZE_SMALL_LARGE:
             case DATE_OLD_NEW:
-                return PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_PUBDATE + " " + "ASC";
             case EPISODE_FILENAME_A_Z:
-                return PodDBAdapter.KEY_LINK + " " + "ASC";
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * The publication date is always written. Media columns are NULL for items without media.
+     */
+    private static boolean isNullable(SortOrder sortOrder) {
+        if (sortOrder == null) {
+            return false;
+        }
+        switch (sortOrder) {
+            case EPISODE_TITLE_A_Z:
+            case EPISODE_TITLE_Z_A:
+            case DURATION_SHORT_LONG:
+            case DURATION_LONG_SHORT:
+            case SIZE_SMALL_LARGE:
+            case SIZE_LARGE_SMALL:
+            case COMPLETION_DATE_NEW_OLD:
+            case EPISODE_FILENAME_A_Z:
+            case EPISODE_FILENAME_Z_A:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns the value of the sort column as it is stored in the database, as SQL literal.
+     *
+     * @return The literal, or null if the column is NULL in the database
+     */
+    private static String getSortKey(SortOrder sortOrder, FeedItem item) {
+        if (sortOrder == null) {
+            sortOrder = SortOrder.DATE_NEW_OLD;
+        }
+        FeedMedia media = item.getMedia();
+        switch (sortOrder) {
+            case EPISODE_TITLE_A_Z:
+            case EPISODE_TITLE_Z_A:
+                return item.getTitle() == null ? null : DatabaseUtils.sqlEscapeString(item.getTitle());
+            case DURATION_SHORT_LONG:
+            case DURATION_LONG_SHORT:
+                return media == null ? null : String.valueOf(media.getDuration());
+            case SIZE_SMALL_LARGE:
+            case SIZE_LARGE_SMALL:
+                return media == null ? null : String.valueOf(media.getSize());
+            case COMPLETION_DATE_NEW_OLD:
+                if (media == null) {
+                    return null;
+                }
+                return media.getLastPlayedTimeHistory() == null
+                        ? "0" : String.valueOf(media.getLastPlayedTimeHistory().getTime());
+            case EPISODE_FILENAME_A_Z:
             case EPISODE_FILENAME_Z_A:
-                return PodDBAdapter.KEY_LINK + " " + "DESC";
+                return item.getLink() == null ? null : DatabaseUtils.sqlEscapeString(item.getLink());
+            case DATE_OLD_NEW:
             case DATE_NEW_OLD:
             default:
-                return PodDBAdapter.TABLE_NAME_FEED_ITEMS + "." + PodDBAdapter.KEY_PUBDATE + " " + "DESC";
+                return item.getPubDate() == null ? null : String.valueOf(item.getPubDate().getTime());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package de.danoeh.antennapod.storage.database.mapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts a search string typed by the user into an FTS4 MATCH expression.
+ */
+public class FullTextSearchQuery {
+    private FullTextSearchQuery() {
+        // Must not be instantiated
+    }
+
+    /**
+     * Creates a MATCH expression that finds rows containing all words of the query as prefix of a token,
+     * in any column of the full-text index.
+     *
+     * @return The expression to bind to a MATCH operator, empty string if the query contains no words
+     */
+    public static String generateFrom(String query) {
+        StringBuilder match = new StringBuilder();
+        for (String word : splitWords(query)) {
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            // Quoted, so that words like "or" and "not" are never treated as operators
+            match.append('"').append(word).append("*\"");
+        }
+        return match.toString();
+    }
+
+    /**
+     * Creates a MATCH expression that finds rows containing all words of the query in the given column.
+     *
+     * @return The expression to bind to a MATCH operator, empty string if the query contains no words
+     */
+    public static String generateFrom(String query, String column) {
+        StringBuilder match = new StringBuilder();
+        for (String word : splitWords(query)) {
+            if (match.length() > 0) {
+                match.append(' ');
+            }
+            // Column filters only apply to unquoted tokens. The column prefix prevents operator parsing.
+            match.append(column).append(':').append(word).append('*');
+        }
+        return match.toString();
+    }
+
+    /**
+     * Splits the query at everything the tokenizer would treat as a separator.
+     */
+    private static List<String> splitWords(String query) {
+        List<String> words = new ArrayList<>();
+        if (query == null) {
+            return words;
+        }
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < query.length(); i++) {
+            char c = query.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (word.length() > 0) {
+            words.add(word.toString());
+        }
+        return words;
+    }
+}
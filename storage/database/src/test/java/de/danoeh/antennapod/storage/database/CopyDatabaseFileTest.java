@@ -0,0 +1,70 @@
+package de.danoeh.antennapod.storage.database;
+
+import android.content.Context;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import androidx.test.platform.app.InstrumentationRegistry;
+import de.danoeh.antennapod.model.feed.Feed;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Makes sure that a copy of the database file contains all changes, see {@link PodDBAdapter#copyDatabaseFile}.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class CopyDatabaseFileTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private PodDBAdapter adapter;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getContext();
+        PodDBAdapter.init(context);
+        PodDBAdapter.deleteDatabase();
+        adapter = PodDBAdapter.getInstance();
+        adapter.open();
+    }
+
+    @After
+    public void tearDown() {
+        adapter.close();
+        PodDBAdapter.tearDownTests();
+    }
+
+    @Test
+    public void testCopyContainsRecentChanges() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            Feed feed = new Feed("http://example.com/" + i, null, "Feed " + i);
+            feed.setItems(new ArrayList<>());
+            adapter.setCompleteFeed(feed);
+        }
+
+        File copy = folder.newFile("copy.db");
+        int bytesCopied;
+        try (OutputStream out = new FileOutputStream(copy)) {
+            bytesCopied = adapter.copyDatabaseFile(out);
+        }
+        assertEquals(copy.length(), bytesCopied);
+
+        SQLiteDatabase db = SQLiteDatabase.openDatabase(copy.getAbsolutePath(), null, SQLiteDatabase.OPEN_READONLY);
+        try {
+            assertEquals(3, DatabaseUtils.queryNumEntries(db, PodDBAdapter.TABLE_NAME_FEEDS));
+        } finally {
+            db.close();
+        }
+    }
+}
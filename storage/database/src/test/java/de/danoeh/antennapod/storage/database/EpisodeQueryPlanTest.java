@@ -0,0 +1,101 @@
+package de.danoeh.antennapod.storage.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import androidx.test.platform.app.InstrumentationRegistry;
+import de.danoeh.antennapod.model.feed.FeedItem;
+import de.danoeh.antennapod.model.feed.FeedItemFilter;
+import de.danoeh.antennapod.model.feed.FeedMedia;
+import de.danoeh.antennapod.model.feed.SortOrder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Makes sure that the episode lists with many items are read through indexes.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class EpisodeQueryPlanTest {
+    private static final FeedItemFilter FILTER_INBOX = new FeedItemFilter(FeedItemFilter.NEW);
+    private static final FeedItemFilter FILTER_DOWNLOADS = new FeedItemFilter(
+            FeedItemFilter.DOWNLOADED, FeedItemFilter.INCLUDE_NOT_SUBSCRIBED);
+    private static final FeedItemFilter FILTER_HISTORY = new FeedItemFilter(
+            FeedItemFilter.IS_IN_HISTORY, FeedItemFilter.INCLUDE_NOT_SUBSCRIBED);
+
+    private PodDBAdapter adapter;
+    private FeedItem lastItem;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getContext();
+        PodDBAdapter.init(context);
+        PodDBAdapter.deleteDatabase();
+        adapter = PodDBAdapter.getInstance();
+        adapter.open();
+
+        lastItem = new FeedItem(42, "Item", "guid", "link", new Date(1000), FeedItem.NEW, null);
+        FeedMedia media = new FeedMedia(lastItem, "url", 0, "audio/mp3");
+        media.setLastPlayedTimeHistory(new Date(2000));
+        lastItem.setMedia(media);
+    }
+
+    @After
+    public void tearDown() {
+        adapter.close();
+        PodDBAdapter.tearDownTests();
+    }
+
+    @Test
+    public void testInbox() {
+        for (SortOrder sortOrder : new SortOrder[] {SortOrder.DATE_NEW_OLD, SortOrder.DATE_OLD_NEW}) {
+            assertNoScan(PodDBAdapter.getEpisodesQuery(null, 50, FILTER_INBOX, sortOrder), false);
+            assertNoScan(PodDBAdapter.getEpisodesQuery(lastItem, 50, FILTER_INBOX, sortOrder), false);
+        }
+    }
+
+    @Test
+    public void testHistory() {
+        SortOrder sortOrder = SortOrder.COMPLETION_DATE_NEW_OLD;
+        assertNoScan(PodDBAdapter.getEpisodesQuery(null, 50, FILTER_HISTORY, sortOrder), false);
+        assertNoScan(PodDBAdapter.getEpisodesQuery(lastItem, 50, FILTER_HISTORY, sortOrder), false);
+    }
+
+    @Test
+    public void testDownloads() {
+        // Sorting by a column of the items needs a temporary tree, but only of the downloaded episodes
+        SortOrder sortOrder = SortOrder.DATE_NEW_OLD;
+        assertNoScan(PodDBAdapter.getEpisodesQuery(null, 50, FILTER_DOWNLOADS, sortOrder), true);
+        assertNoScan(PodDBAdapter.getEpisodesQuery(lastItem, 50, FILTER_DOWNLOADS, sortOrder), true);
+    }
+
+    @Test
+    public void testLookupForSync() {
+        List<String> values = Arrays.asList("a", "b");
+        assertNoScan(PodDBAdapter.getFeedItemsByGuidsOrEpisodeUrlsQuery(values, values), false);
+        assertNoScan(PodDBAdapter.getFeedItemsByGuidsOrEpisodeUrlsQuery(values, Collections.emptyList()), false);
+        assertNoScan(PodDBAdapter.getFeedItemsByGuidsOrEpisodeUrlsQuery(Collections.emptyList(), values), false);
+    }
+
+    private void assertNoScan(String query, boolean allowSorting) {
+        List<String> steps = new ArrayList<>();
+        try (Cursor cursor = adapter.getQueryPlanCursor(query)) {
+            while (cursor.moveToNext()) {
+                steps.add(cursor.getString(cursor.getColumnCount() - 1));
+            }
+        }
+        for (String step : steps) {
+            assertFalse(steps + " for " + query, step.startsWith("SCAN"));
+            assertFalse(steps + " for " + query, !allowSorting && step.contains("TEMP B-TREE"));
+        }
+    }
+}
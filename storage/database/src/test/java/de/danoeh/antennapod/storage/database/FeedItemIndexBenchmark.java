@@ -0,0 +1,28 @@
+package de.danoeh.antennapod.storage.database;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+/**
+ * Measures how long {@link FeedItemIndex} takes to match feeds with broken GUIDs of growing size. Comparing all
+ * pairs of items would take 16 times as long for a feed that is 4 times as large. It only reports the numbers,
+ * so it is not part of the unit tests. To run it, remove the {@link Ignore} annotation and run
+ * {@code ./gradlew :storage:database:testDebugUnitTest --tests '*FeedItemIndexBenchmark' -i}.
+ */
+@Ignore("Benchmark, run manually")
+public class FeedItemIndexBenchmark {
+
+    @Test
+    public void benchmarkMatchFeed() {
+        FeedItemIndexTest.matchFeed(2000); // Warm up
+        for (int numItems = 2000; numItems <= 8000; numItems *= 2) {
+            long fastest = Long.MAX_VALUE;
+            for (int i = 0; i < 3; i++) {
+                long start = System.nanoTime();
+                FeedItemIndexTest.matchFeed(numItems);
+                fastest = Math.min(fastest, System.nanoTime() - start);
+            }
+            System.out.println(numItems + " items: " + fastest / 1000000 + " ms");
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package de.danoeh.antennapod.storage.database;
+
+import de.danoeh.antennapod.model.feed.FeedItem;
+import de.danoeh.antennapod.model.feed.FeedMedia;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Test class for {@link FeedItemIndex}.
+ */
+public class FeedItemIndexTest {
+    private static final long MINUTES = 1000 * 60;
+    private static final long HOURS = 60 * MINUTES;
+
+    @Test
+    public void testSameResultsAsLinearSearch() {
+        Random random = new Random(42);
+        List<FeedItem> items = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            items.add(randomItem(random));
+        }
+        FeedItemIndex index = new FeedItemIndex(items);
+        for (int i = 0; i < 1000; i++) {
+            FeedItem searchItem = randomItem(random);
+            assertSame(linearFindByIdentifyingValue(items, searchItem), index.findByIdentifyingValue(searchItem));
+            assertSame(linearFindGuessedDuplicate(items, searchItem), index.findGuessedDuplicate(searchItem));
+        }
+    }
+
+    @Test
+    public void testChangesAndInsertions() {
+        Random random = new Random(7);
+        List<FeedItem> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            items.add(randomItem(random));
+        }
+        FeedItemIndex index = new FeedItemIndex(items);
+        for (int i = 0; i < 500; i++) {
+            if (random.nextBoolean()) {
+                FeedItem item = randomItem(random);
+                items.add(random.nextInt(items.size()), item);
+                index.add(item);
+            } else {
+                FeedItem item = items.get(random.nextInt(items.size()));
+                FeedItem other = randomItem(random);
+                index.update(item, () -> {
+                    item.setItemIdentifier(other.getItemIdentifier());
+                    item.setTitle(other.getTitle());
+                    item.setPubDate(other.getPubDate());
+                });
+            }
+            FeedItem searchItem = randomItem(random);
+            assertSame(linearFindByIdentifyingValue(items, searchItem), index.findByIdentifyingValue(searchItem));
+            assertSame(linearFindGuessedDuplicate(items, searchItem), index.findGuessedDuplicate(searchItem));
+        }
+    }
+
+    @Test
+    public void testMatchesItemsWithChangedGuids() {
+        matchFeed(2000);
+    }
+
+    /**
+     * Matches a feed with broken GUIDs against the saved version, like a refresh does.
+     */
+    static void matchFeed(int numItems) {
+        List<FeedItem> savedItems = new ArrayList<>();
+        List<FeedItem> newItems = new ArrayList<>();
+        for (int i = 0; i < numItems; i++) {
+            savedItems.add(item("old guid " + i, "Episode " + i, "example.com/old/" + i, i * HOURS, "audio/mp3"));
+            newItems.add(item("new guid " + i, "Episode " + i, "example.com/new/" + i, i * HOURS, "audio/mp3"));
+        }
+        FeedItemIndex index = new FeedItemIndex(savedItems);
+        for (FeedItem item : newItems) {
+            assertNull(index.findByIdentifyingValue(item));
+            FeedItem duplicate = index.findGuessedDuplicate(item);
+            assertEquals(item.getTitle(), duplicate.getTitle());
+        }
+    }
+
+    private static FeedItem linearFindByIdentifyingValue(List<FeedItem> items, FeedItem searchItem) {
+        for (FeedItem item : items) {
+            if (Objects.equals(item.getIdentifyingValue(), searchItem.getIdentifyingValue())) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    private static FeedItem linearFindGuessedDuplicate(List<FeedItem> items, FeedItem searchItem) {
+        for (FeedItem item : items) {
+            if (FeedItemDuplicateGuesser.sameAndNotEmpty(item.getItemIdentifier(), searchItem.getItemIdentifier())) {
+                return item;
+            }
+        }
+        for (FeedItem item : items) {
+            if (FeedItemDuplicateGuesser.seemDuplicates(item, searchItem)) {
+                return item;
+            }
+        }
+        return null;
+    }
+
+    private static FeedItem randomItem(Random random) {
+        String[] guids = {null, "", "guid1", "guid2", "guid3", "guid4"};
+        String[] titles = {null, "", " ", "Title", "Title ", "„Title“", "Other"};
+        String[] urls = {null, "", "example.com/1", "example.com/2", "example.com/3"};
+        String[] mimeTypes = {null, "audio/mp3", "audio/mp4", "video/mp4"};
+        FeedItem item = item(guids[random.nextInt(guids.length)], titles[random.nextInt(titles.length)],
+                urls[random.nextInt(urls.length)], random.nextInt(72) * HOURS,
+                mimeTypes[random.nextInt(mimeTypes.length)]);
+        if (random.nextInt(5) == 0) {
+            item.setPubDate(null);
+        }
+        if (random.nextInt(5) == 0) {
+            item.setMedia(null);
+        } else {
+            item.getMedia().setDuration(random.nextInt(30) * (int) MINUTES);
+        }
+        return item;
+    }
+
+    private static FeedItem item(String guid, String title, String downloadUrl, long date, String mime) {
+        FeedItem item = new FeedItem(0, title, guid, "link", new Date(date), FeedItem.PLAYED, null);
+        item.setMedia(new FeedMedia(item, downloadUrl, 0, mime));
+        return item;
+    }
+}
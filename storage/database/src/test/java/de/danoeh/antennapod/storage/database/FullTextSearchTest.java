@@ -0,0 +1,177 @@
+package de.danoeh.antennapod.storage.database;
+
+import android.content.Context;
+import androidx.test.platform.app.InstrumentationRegistry;
+import de.danoeh.antennapod.model.feed.Feed;
+import de.danoeh.antennapod.model.feed.FeedItem;
+import de.danoeh.antennapod.model.feed.FeedMedia;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Makes sure that the full-text index follows the changes of the feeds and items.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class FullTextSearchTest {
+    private PodDBAdapter adapter;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getContext();
+        PodDBAdapter.init(context);
+        PodDBAdapter.deleteDatabase();
+        adapter = PodDBAdapter.getInstance();
+        adapter.open();
+    }
+
+    @After
+    public void tearDown() {
+        adapter.close();
+        PodDBAdapter.tearDownTests();
+    }
+
+    @Test
+    public void testInsertedItemIsFound() {
+        Feed feed = createFeed("Feed", "author");
+        FeedItem item = createItem(feed, "Interview with a gardener", "About tomatoes", 1000);
+        adapter.setCompleteFeed(feed);
+
+        assertEquals(asList(item.getId()), searchItemIds("garden"));
+        assertEquals(asList(item.getId()), searchItemIds("tomatoes"));
+        assertEquals(Collections.emptyList(), searchItemIds("potatoes"));
+    }
+
+    @Test
+    public void testUpdatedTitle() {
+        Feed feed = createFeed("Feed", "author");
+        FeedItem item = createItem(feed, "Old title", "description", 1000);
+        adapter.setCompleteFeed(feed);
+
+        item.setTitle("New title");
+        adapter.setSingleFeedItem(item);
+        assertEquals(Collections.emptyList(), searchItemIds("old"));
+        assertEquals(asList(item.getId()), searchItemIds("new"));
+
+        // Only the changed fields are written
+        item.startTrackingChanges();
+        item.setTitle("Renamed episode");
+        adapter.setSingleFeedItem(item);
+        assertEquals(Collections.emptyList(), searchItemIds("new"));
+        assertEquals(asList(item.getId()), searchItemIds("renamed"));
+    }
+
+    @Test
+    public void testUpdateOfOtherColumns() {
+        Feed feed = createFeed("Feed", "author");
+        FeedItem item = createItem(feed, "Title", "description", 1000);
+        adapter.setCompleteFeed(feed);
+
+        // The index is not touched if the indexed columns did not change
+        adapter.setFeedItemRead(item, FeedItem.PLAYED, false);
+        adapter.setSingleFeedItem(item);
+        assertEquals(asList(item.getId()), searchItemIds("title"));
+        assertEquals(asList(item.getId()), searchItemIds("description"));
+    }
+
+    @Test
+    public void testDeletedItemsAndFeeds() {
+        Feed feed1 = createFeed("Feed one", "author");
+        FeedItem item1 = createItem(feed1, "Episode one", "description", 1000);
+        FeedItem item2 = createItem(feed1, "Episode two", "description", 2000);
+        Feed feed2 = createFeed("Feed two", "author");
+        FeedItem item3 = createItem(feed2, "Episode three", "description", 3000);
+        adapter.setCompleteFeed(feed1, feed2);
+        assertEquals(asList(item3.getId(), item2.getId(), item1.getId()), searchItemIds("episode"));
+
+        adapter.removeFeedItems(asList(item1));
+        assertEquals(asList(item3.getId(), item2.getId()), searchItemIds("episode"));
+
+        feed1.setItems(new ArrayList<>(asList(item2)));
+        adapter.removeFeed(feed1);
+        assertEquals(asList(item3.getId()), searchItemIds("episode"));
+        assertEquals(asList(feed2.getId()), searchFeedIds("feed"));
+    }
+
+    @Test
+    public void testCustomTitle() {
+        Feed feed = createFeed("Feed", "author");
+        adapter.setCompleteFeed(feed);
+        assertEquals(Collections.emptyList(), searchFeedIds("favorite"));
+
+        adapter.setFeedCustomTitle(feed.getId(), "My favorite show");
+        assertEquals(asList(feed.getId()), searchFeedIds("favorite"));
+        assertEquals(asList(feed.getId()), searchFeedIds("feed"));
+
+        adapter.setFeedCustomTitle(feed.getId(), null);
+        assertEquals(Collections.emptyList(), searchFeedIds("favorite"));
+    }
+
+    @Test
+    public void testTitleMatchesFirst() {
+        Feed feed = createFeed("Cats", "Kitten lover");
+        FeedItem descriptionMatch = createItem(feed, "Newer episode", "We talk about kittens", 2000);
+        FeedItem titleMatch = createItem(feed, "Kittens", "Older episode", 1000);
+        Feed titleMatchFeed = createFeed("Kitten show", "author");
+        adapter.setCompleteFeed(feed, titleMatchFeed);
+
+        assertEquals(asList(titleMatch.getId(), descriptionMatch.getId()), searchItemIds("kitten"));
+        assertEquals(asList(titleMatchFeed.getId(), feed.getId()), searchFeedIds("kitten"));
+    }
+
+    @Test
+    public void testRebuildIndexesExistingRows() {
+        Feed feed = createFeed("Gardening", "author");
+        FeedItem item = createItem(feed, "Tomatoes", "description", 1000);
+        adapter.setCompleteFeed(feed);
+
+        adapter.clearFullTextIndex();
+        assertEquals(Collections.emptyList(), searchItemIds("tomatoes"));
+        assertEquals(Collections.emptyList(), searchFeedIds("gardening"));
+
+        adapter.rebuildFullTextIndex();
+        assertEquals(asList(item.getId()), searchItemIds("tomatoes"));
+        assertEquals(asList(feed.getId()), searchFeedIds("gardening"));
+    }
+
+    private static List<Long> searchItemIds(String query) {
+        List<Long> ids = new ArrayList<>();
+        for (FeedItem item : DBReader.searchFeedItems(0, query)) {
+            ids.add(item.getId());
+        }
+        return ids;
+    }
+
+    private static List<Long> searchFeedIds(String query) {
+        List<Long> ids = new ArrayList<>();
+        for (Feed feed : DBReader.searchFeeds(query)) {
+            ids.add(feed.getId());
+        }
+        return ids;
+    }
+
+    private static Feed createFeed(String title, String author) {
+        Feed feed = new Feed(0, null, title, "http://example.com", "Feed description",
+                null, author, "en", null, null, null, null, "http://example.com/" + title, 0);
+        feed.setItems(new ArrayList<>());
+        return feed;
+    }
+
+    private static FeedItem createItem(Feed feed, String title, String description, long pubDate) {
+        FeedItem item = new FeedItem(0, title, "guid " + title, "link", new Date(pubDate), FeedItem.UNPLAYED, feed);
+        item.setDescriptionIfLonger(description);
+        item.setMedia(new FeedMedia(item, "http://example.com/" + title + ".mp3", 0, "audio/mp3"));
+        feed.getItems().add(item);
+        return item;
+    }
+}
@@ -0,0 +1,106 @@
+package de.danoeh.antennapod.storage.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import androidx.test.platform.app.InstrumentationRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Test for the queue of episode actions that still need to be uploaded to the synchronization server.
+ */
+@RunWith(RobolectricTestRunner.class)
+public class SyncEpisodeActionJournalTest {
+    private PodDBAdapter adapter;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getContext();
+        PodDBAdapter.init(context);
+        PodDBAdapter.deleteDatabase();
+        adapter = PodDBAdapter.getInstance();
+        adapter.open();
+    }
+
+    @After
+    public void tearDown() {
+        adapter.close();
+        PodDBAdapter.tearDownTests();
+    }
+
+    @Test
+    public void testKeepsOrder() {
+        adapter.addSyncEpisodeAction("podcast", "episode1", "DOWNLOAD", "a", false);
+        adapter.addSyncEpisodeAction("podcast", "episode2", "DOWNLOAD", "b", false);
+        adapter.addSyncEpisodeAction("podcast", "episode1", "DELETE", "c", false);
+        assertEquals(asList("a", "b", "c"), getContents(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testChunks() {
+        adapter.addSyncEpisodeAction("podcast", "episode1", "DOWNLOAD", "a", false);
+        adapter.addSyncEpisodeAction("podcast", "episode2", "DOWNLOAD", "b", false);
+        adapter.addSyncEpisodeAction("podcast", "episode3", "DOWNLOAD", "c", false);
+        long lastId = adapter.getLastSyncEpisodeActionId();
+        List<String> contents = new ArrayList<>();
+        long afterId = 0;
+        while (true) {
+            try (Cursor cursor = adapter.getSyncEpisodeActionsCursor(afterId, lastId, 2)) {
+                if (!cursor.moveToFirst()) {
+                    break;
+                }
+                do {
+                    contents.add(cursor.getString(cursor.getColumnIndexOrThrow(PodDBAdapter.KEY_CONTENT)));
+                    afterId = cursor.getLong(cursor.getColumnIndexOrThrow(PodDBAdapter.KEY_ID));
+                } while (cursor.moveToNext());
+            }
+        }
+        assertEquals(asList("a", "b", "c"), contents);
+    }
+
+    @Test
+    public void testReplacesPrevious() {
+        adapter.addSyncEpisodeAction("podcast", "episode1", "PLAY", "a", true);
+        adapter.addSyncEpisodeAction("podcast", "episode2", "PLAY", "b", true);
+        adapter.addSyncEpisodeAction("podcast", "episode1", "DOWNLOAD", "c", false);
+        adapter.addSyncEpisodeAction("podcast", "episode1", "PLAY", "d", true);
+        assertEquals(asList("b", "c", "d"), getContents(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void testRemoveKeepsNewerActions() {
+        assertEquals(0, adapter.getLastSyncEpisodeActionId());
+        adapter.addSyncEpisodeAction("podcast", "episode1", "PLAY", "a", true);
+        adapter.addSyncEpisodeAction("podcast", "episode2", "PLAY", "b", true);
+        long lastId = adapter.getLastSyncEpisodeActionId();
+        adapter.addSyncEpisodeAction("podcast", "episode3", "PLAY", "c", true);
+        assertEquals(asList("a", "b"), getContents(lastId));
+
+        adapter.removeSyncEpisodeActions(lastId);
+        assertEquals(asList("c"), getContents(Long.MAX_VALUE));
+        adapter.removeSyncEpisodeActions(Long.MAX_VALUE);
+        assertEquals(0, getContents(Long.MAX_VALUE).size());
+        // IDs of removed actions are not used again
+        adapter.addSyncEpisodeAction("podcast", "episode4", "PLAY", "d", true);
+        assertEquals(asList(), getContents(lastId));
+    }
+
+    private List<String> getContents(long maxId) {
+        List<String> contents = new ArrayList<>();
+        try (Cursor cursor = adapter.getSyncEpisodeActionsCursor(0, maxId, Integer.MAX_VALUE)) {
+            while (cursor.moveToNext()) {
+                contents.add(cursor.getString(cursor.getColumnIndexOrThrow(PodDBAdapter.KEY_CONTENT)));
+            }
+        }
+        return contents;
+    }
+}
@@ -55,6 +55,9 @@ public class FeedCursorMapperTest {
             assertEquals("feed download url", feed.getDownloadUrl());
             assertEquals(42, feed.getLastRefreshAttempt());
             assertEquals("feed last update", feed.getLastModified());
+            assertEquals("feed content hash", feed.getContentHash());
+            assertEquals("feed etag", feed.getEtag());
+            assertEquals(43, feed.getCacheExpires());
             assertEquals("feed type", feed.getType());
             assertEquals("feed identifier", feed.getFeedIdentifier());
             assertTrue(feed.isPaged());
@@ -85,6 +88,9 @@ public class FeedCursorMapperTest {
         values.put(PodDBAdapter.KEY_DOWNLOAD_URL, "feed download url");
         values.put(PodDBAdapter.KEY_LAST_REFRESH_ATTEMPT, 42);
         values.put(PodDBAdapter.KEY_LASTUPDATE, "feed last update");
+        values.put(PodDBAdapter.KEY_CONTENT_HASH, "feed content hash");
+        values.put(PodDBAdapter.KEY_ETAG, "feed etag");
+        values.put(PodDBAdapter.KEY_CACHE_EXPIRES, 43);
         values.put(PodDBAdapter.KEY_TYPE, "feed type");
         values.put(PodDBAdapter.KEY_FEED_IDENTIFIER, "feed identifier");
 
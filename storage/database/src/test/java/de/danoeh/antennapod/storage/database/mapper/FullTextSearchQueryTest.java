@@ -0,0 +1,41 @@
+package de.danoeh.antennapod.storage.database.mapper;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FullTextSearchQueryTest {
+
+    @Test
+    public void testSingleWord() {
+        assertEquals("\"podcast*\"", FullTextSearchQuery.generateFrom("podcast"));
+    }
+
+    @Test
+    public void testMultipleWords() {
+        assertEquals("\"hello*\" \"world*\"", FullTextSearchQuery.generateFrom("  hello   world "));
+    }
+
+    @Test
+    public void testOperatorsAndQuotesAreNotPassedThrough() {
+        assertEquals("\"cats*\" \"OR*\" \"dogs*\"", FullTextSearchQuery.generateFrom("\"cats\" OR dogs*"));
+        assertEquals("\"rock*\" \"n*\" \"roll*\"", FullTextSearchQuery.generateFrom("rock'n'roll"));
+    }
+
+    @Test
+    public void testNonAsciiWords() {
+        assertEquals("\"Größe*\" \"日本*\"", FullTextSearchQuery.generateFrom("Größe 日本"));
+    }
+
+    @Test
+    public void testNoWords() {
+        assertEquals("", FullTextSearchQuery.generateFrom(""));
+        assertEquals("", FullTextSearchQuery.generateFrom(" - ! "));
+        assertEquals("", FullTextSearchQuery.generateFrom(null));
+    }
+
+    @Test
+    public void testColumnFilter() {
+        assertEquals("title:hello* title:world*", FullTextSearchQuery.generateFrom("hello world", "title"));
+    }
+}
@@ -12,7 +12,6 @@ import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
@@ -47,8 +46,9 @@ public class DatabaseExporter {
         if (!currentDB.exists()) {
             throw new IOException("Cannot access current database");
         }
-        try (InputStream src = new FileInputStream(currentDB)) {
-            return IOUtils.copy(src, outFileStream);
+        try {
+            // Makes sure that no changes are left behind in the write-ahead log
+            return PodDBAdapter.getInstance().copyDatabaseFile(outFileStream);
         } catch (IOException e) {
             Log.e(TAG, Log.getStackTraceString(e));
             throw e;
@@ -74,6 +74,9 @@ public class DatabaseExporter {
             if (!success) {
                 throw new IOException("Unable to delete old database");
             }
+            // Leftover write-ahead log files would otherwise be applied to the imported database
+            FileUtils.deleteQuietly(new File(currentDB.getPath() + "-wal"));
+            FileUtils.deleteQuietly(new File(currentDB.getPath() + "-shm"));
             FileUtils.moveFile(tempDB, currentDB);
         } catch (IOException | SQLiteException e) {
             Log.e(TAG, Log.getStackTraceString(e));
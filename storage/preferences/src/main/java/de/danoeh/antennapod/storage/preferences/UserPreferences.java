@@ -101,6 +101,7 @@ public abstract class UserPreferences {
     public static final String PREF_AUTODL_GLOBAL = "prefEnableAutoDl";
     public static final String PREF_AUTODL_QUEUE = "prefEnableAutoDlQueue";
     public static final String PREF_ENABLE_AUTODL_ON_BATTERY = "prefEnableAutoDownloadOnBattery";
+    public static final String PREF_SEGMENTED_DOWNLOADS = "prefSegmentedDownloads";
     private static final String PREF_PROXY_TYPE = "prefProxyType";
     private static final String PREF_PROXY_HOST = "prefProxyHost";
     private static final String PREF_PROXY_PORT = "prefProxyPort";
@@ -115,6 +116,7 @@ public abstract class UserPreferences {
     public static final String PREF_DELETE_REMOVES_FROM_QUEUE = "prefDeleteRemovesFromQueue";
     public static final String PREF_DOWNLOADS_BUTTON_ACTION = "prefDownloadsButtonAction";
     private static final String PREF_AUTOMATIC_EXPORT_FOLDER = "prefAutomaticExportFolder";
+    public static final String PREF_DATABASE_WRITE_AHEAD_LOGGING = "prefDatabaseWriteAheadLogging";
 
     // Mediaplayer
     private static final String PREF_PLAYBACK_SPEED = "prefPlaybackSpeed";
@@ -425,6 +427,21 @@ public abstract class UserPreferences {
         return prefs.getBoolean(PREF_DELETE_REMOVES_FROM_QUEUE, false);
     }
 
+    /**
+     * Whether the database should be opened in write-ahead logging mode.
+     * Only takes effect the next time the app process is started.
+     */
+    public static boolean isDatabaseWriteAheadLogging() {
+        return prefs.getBoolean(PREF_DATABASE_WRITE_AHEAD_LOGGING, false);
+    }
+
+    /**
+     * Whether large episodes should be downloaded over several connections at the same time.
+     */
+    public static boolean isSegmentedDownloads() {
+        return prefs.getBoolean(PREF_SEGMENTED_DOWNLOADS, false);
+    }
+
     public static boolean shouldDownloadsButtonActionPlay() {
         return prefs.getBoolean(PREF_DOWNLOADS_BUTTON_ACTION, false);
     }